@@ -0,0 +1,33 @@
+package com.sealed.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, writing the results as JSON to {@code jmh-results.json} unless
+ * {@code -rf} picks another format or {@code -rff} another file, so runs can be compared for regressions.
+ */
+public final class BenchmarkRunner {
+
+  static final String RESULT_FILE = "jmh-results.json";
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+    final CommandLineOptions commandLine = new CommandLineOptions(args);
+    final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+    if (!commandLine.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+      if (!commandLine.getResult().hasValue()) {
+        options.result(RESULT_FILE);
+      }
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,50 @@
+package com.sealed.benchmarks;
+
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code countVanSpots} on a lot where some vans are parked, half of them on car runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CountVanSpotsBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int spots;
+
+  private ParkingFixture fixture;
+
+  @Setup
+  public void createLot() throws ServiceException {
+    fixture = new ParkingFixture(spots, AllocationPolicy.FIRST_FIT);
+    // fills the van spots, then as many vans again go to runs of car spots
+    final int vans = spots / 5;
+    for (int i = 0; i < vans; i++) {
+      fixture.park(VehicleType.VAN, "V-" + i);
+    }
+  }
+
+  @Benchmark
+  public int countVanSpots() throws ServiceException {
+    return fixture.countVanSpots();
+  }
+}
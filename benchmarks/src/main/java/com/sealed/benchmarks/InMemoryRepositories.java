@@ -0,0 +1,150 @@
+package com.sealed.benchmarks;
+
+import com.sealed.allocation.LotPolicy;
+import com.sealed.allocation.SpotState;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.repository.ParkingLotRepository;
+import com.sealed.repository.SpotRepository;
+import com.sealed.repository.VehicleRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Hash map stand-ins for the JPA repositories, so that the benchmarks measure the allocation and bookkeeping of the
+ * services rather than the database. Only the methods used on the park, unpark and count paths are implemented,
+ * any other call fails with {@link UnsupportedOperationException}. Not thread-safe, the benchmarks run on one thread.
+ */
+public final class InMemoryRepositories {
+
+  private final Map<Long, ParkingLot> parkingLots = new HashMap<>();
+  private final Map<Long, Spot> spots = new HashMap<>();
+  private final Map<Long, Vehicle> vehicles = new HashMap<>();
+  private final Map<String, Vehicle> vehiclesByPlate = new HashMap<>();
+  private long nextVehicleId = 1;
+
+  private final ParkingLotRepository parkingLotRepository = proxy(ParkingLotRepository.class, this::parkingLotCall);
+  private final SpotRepository spotRepository = proxy(SpotRepository.class, this::spotCall);
+  private final VehicleRepository vehicleRepository = proxy(VehicleRepository.class, this::vehicleCall);
+
+  public ParkingLotRepository parkingLotRepository() {
+    return parkingLotRepository;
+  }
+
+  public SpotRepository spotRepository() {
+    return spotRepository;
+  }
+
+  public VehicleRepository vehicleRepository() {
+    return vehicleRepository;
+  }
+
+  /**
+   * Stores a parking lot and its spots, which must already hold their ids.
+   * @param parkingLot the parking lot
+   */
+  public void add(final ParkingLot parkingLot) {
+    parkingLots.put(parkingLot.getId(), parkingLot);
+    parkingLot.getSpots().forEach(spot -> spots.put(spot.getId(), spot));
+  }
+
+  private Object parkingLotCall(final String method, final Object[] args) {
+    return switch (method) {
+      case "findLotPolicy" -> Optional.ofNullable(parkingLots.get((Long) args[0]))
+                                      .map(lot -> new LotPolicy(lot.getId(), lot.getAllocationPolicy(), lot.getEntrancePosition()));
+      case "findById" -> Optional.ofNullable(parkingLots.get((Long) args[0]));
+      case "existsById" -> parkingLots.containsKey((Long) args[0]);
+      default -> throw new UnsupportedOperationException("ParkingLotRepository." + method);
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object spotCall(final String method, final Object[] args) {
+    return switch (method) {
+      case "findById" -> Optional.ofNullable(spots.get((Long) args[0]));
+      case "getReferenceById" -> spots.get((Long) args[0]);
+      case "save" -> {
+        final Spot spot = (Spot) args[0];
+        spots.put(spot.getId(), spot);
+        yield spot;
+      }
+      case "findAllWithVehicleByIdIn" -> ((Collection<Long>) args[0]).stream().map(spots::get).toList();
+      case "occupyAllByIdIn" -> setOccupied((Collection<Long>) args[0], true);
+      case "freeAllByIdIn" -> setOccupied((Collection<Long>) args[0], false);
+      case "findSpotStatesByParkingLotId" -> {
+        final List<SpotState> states = new ArrayList<>();
+        for (final Spot spot : parkingLots.get((Long) args[0]).getSpots()) {
+          states.add(new SpotState(spot.getId(), spot.getParkingLot().getId(), spot.getType(), spot.isOccupied(), spot.getLayoutRow()));
+        }
+        yield states;
+      }
+      default -> throw new UnsupportedOperationException("SpotRepository." + method);
+    };
+  }
+
+  private Object vehicleCall(final String method, final Object[] args) {
+    return switch (method) {
+      case "save" -> {
+        final Vehicle vehicle = (Vehicle) args[0];
+        if (vehicle.getId() == null) {
+          vehicle.setId(nextVehicleId++);
+        }
+        vehicles.put(vehicle.getId(), vehicle);
+        vehiclesByPlate.put(vehicle.getLicensePlate(), vehicle);
+        if (vehicle.getSpot() != null) {
+          vehicle.getSpot().setVehicle(vehicle);
+        }
+        yield vehicle;
+      }
+      case "findById" -> Optional.ofNullable(vehicles.get((Long) args[0]));
+      case "findByLicensePlate" -> vehiclesByPlate.get((String) args[0]);
+      case "delete" -> {
+        final Vehicle vehicle = vehicles.remove(((Vehicle) args[0]).getId());
+        if (vehicle != null) {
+          vehiclesByPlate.remove(vehicle.getLicensePlate());
+          if (vehicle.getSpot() != null) {
+            vehicle.getSpot().setVehicle(null);
+          }
+        }
+        yield null;
+      }
+      default -> throw new UnsupportedOperationException("VehicleRepository." + method);
+    };
+  }
+
+  private int setOccupied(final Collection<Long> ids, final boolean occupied) {
+    int changed = 0;
+    for (final Long id : ids) {
+      final Spot spot = spots.get(id);
+      if (spot != null && (!occupied || !spot.isOccupied())) {
+        spot.setOccupied(occupied);
+        changed++;
+      }
+    }
+    return changed;
+  }
+
+  @FunctionalInterface
+  private interface Calls {
+
+    Object call(String method, Object[] args);
+  }
+
+  private static <T> T proxy(final Class<T> repository, final Calls calls) {
+    final InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+      case "toString" -> "InMemory" + repository.getSimpleName();
+      case "hashCode" -> System.identityHashCode(proxy);
+      case "equals" -> proxy == args[0];
+      default -> calls.call(method.getName(), args);
+    };
+    return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository}, handler));
+  }
+}
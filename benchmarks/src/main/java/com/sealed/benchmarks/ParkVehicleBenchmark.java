@@ -0,0 +1,72 @@
+package com.sealed.benchmarks;
+
+import com.sealed.entity.Spot;
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code parkVehicle} per vehicle type. Every iteration parks a batch of vehicles into an emptied lot, so the
+ * lot never fills up and each batch sees the same layout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = ParkVehicleBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = ParkVehicleBenchmark.BATCH_SIZE)
+@Fork(1)
+public class ParkVehicleBenchmark {
+
+  static final int BATCH_SIZE = 200;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int spots;
+
+  @Param({"MOTORCYCLE", "CAR", "VAN"})
+  private VehicleType vehicleType;
+
+  @Param({"FIRST_FIT"})
+  private AllocationPolicy allocationPolicy;
+
+  private ParkingFixture fixture;
+  private final List<String> parked = new ArrayList<>(BATCH_SIZE);
+  private long nextPlate;
+
+  @Setup(Level.Trial)
+  public void createLot() {
+    fixture = new ParkingFixture(spots, allocationPolicy);
+  }
+
+  @TearDown(Level.Iteration)
+  public void emptyLot() throws ServiceException {
+    for (final String licensePlate : parked) {
+      fixture.unpark(licensePlate);
+    }
+    parked.clear();
+  }
+
+  @Benchmark
+  public Spot parkVehicle() throws ServiceException {
+    final String licensePlate = "P-" + nextPlate++;
+    final Spot spot = fixture.park(vehicleType, licensePlate);
+    parked.add(licensePlate);
+    return spot;
+  }
+}
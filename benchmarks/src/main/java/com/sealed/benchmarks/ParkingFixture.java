@@ -0,0 +1,95 @@
+package com.sealed.benchmarks;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.cache.PlateCache;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import com.sealed.journal.ParkingJournal;
+import com.sealed.occupancy.OccupancyCounters;
+import com.sealed.service.impl.ParkingLotServiceImpl;
+import com.sealed.service.impl.SpotServiceImpl;
+import com.sealed.service.impl.VehicleServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ParkingLotServiceImpl} wired to {@link InMemoryRepositories} and to the real in-memory index, counters and
+ * plate cache, with a single lot laid out like a provisioned one: 10% motorcycle spots, then 80% car spots, then 10%
+ * van spots, with ids 1 to {@code spots}. The journal is disabled.
+ */
+public final class ParkingFixture {
+
+  public static final long PARKING_LOT_ID = 1L;
+
+  private final InMemoryRepositories repositories = new InMemoryRepositories();
+  private final FreeSpotIndex freeSpotIndex = new FreeSpotIndex();
+  private final OccupancyCounters occupancyCounters = new OccupancyCounters();
+  private final ParkingLotServiceImpl parkingLotService;
+  private final int motorcycleSpots;
+  private final int carSpots;
+
+  public ParkingFixture(final int spots, final AllocationPolicy allocationPolicy) {
+    this.motorcycleSpots = spots / 10;
+    this.carSpots = spots - 2 * motorcycleSpots;
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .id(PARKING_LOT_ID)
+                                            .name("Benchmark Parking Lot")
+                                            .capacity(spots)
+                                            .motorcycleSpots(motorcycleSpots)
+                                            .carSpots(carSpots)
+                                            .vanSpots(motorcycleSpots)
+                                            .allocationPolicy(allocationPolicy)
+                                            .entrancePosition(allocationPolicy == AllocationPolicy.NEAREST_ENTRANCE ? spots / 2 : null)
+                                            .build();
+    final List<Spot> lotSpots = new ArrayList<>(spots);
+    for (int i = 0; i < spots; i++) {
+      final SpotType type = i < motorcycleSpots ? SpotType.MOTORCYCLE : i < motorcycleSpots + carSpots ? SpotType.CAR : SpotType.VAN;
+      final Spot spot = new Spot(type, false, parkingLot, null);
+      spot.setId(i + 1L);
+      lotSpots.add(spot);
+    }
+    parkingLot.setSpots(lotSpots);
+    repositories.add(parkingLot);
+    freeSpotIndex.register(parkingLot);
+    occupancyCounters.register(parkingLot);
+
+    final SpotServiceImpl spotService = new SpotServiceImpl(repositories.spotRepository(), repositories.vehicleRepository(), null);
+    final VehicleServiceImpl vehicleService = new VehicleServiceImpl(repositories.vehicleRepository(), repositories.spotRepository());
+    final ParkingJournal parkingJournal = new ParkingJournal(false, "target/journal", 1 << 20, 256, 100);
+    this.parkingLotService = new ParkingLotServiceImpl(repositories.parkingLotRepository(), spotService, vehicleService,
+                                                       freeSpotIndex, parkingJournal, occupancyCounters, new PlateCache(100_000));
+  }
+
+  public Spot park(final VehicleType type, final String licensePlate) throws ServiceException {
+    return parkingLotService.parkVehicle(PARKING_LOT_ID, Vehicle.builder().type(type).licensePlate(licensePlate).build());
+  }
+
+  public Spot unpark(final String licensePlate) throws ServiceException {
+    return parkingLotService.unparkVehicle(PARKING_LOT_ID, licensePlate);
+  }
+
+  public int countVanSpots() throws ServiceException {
+    return parkingLotService.countVanSpots(PARKING_LOT_ID);
+  }
+
+  public FreeSpotIndex freeSpotIndex() {
+    return freeSpotIndex;
+  }
+
+  /**
+   * Returns the id of the first car spot. Car spots are numbered consecutively up to {@code firstCarSpot() + carSpots() - 1}.
+   */
+  public long firstCarSpot() {
+    return motorcycleSpots + 1L;
+  }
+
+  public int carSpots() {
+    return carSpots;
+  }
+}
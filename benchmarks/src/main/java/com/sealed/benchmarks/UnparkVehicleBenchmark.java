@@ -0,0 +1,63 @@
+package com.sealed.benchmarks;
+
+import com.sealed.entity.Spot;
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code unparkVehicle}. Every iteration first parks a batch of cars and vans, then unparks them one per
+ * invocation, vans included so the release of their car runs is covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = UnparkVehicleBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = UnparkVehicleBenchmark.BATCH_SIZE)
+@Fork(1)
+public class UnparkVehicleBenchmark {
+
+  static final int BATCH_SIZE = 200;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int spots;
+
+  private ParkingFixture fixture;
+  private final Deque<String> parked = new ArrayDeque<>(BATCH_SIZE);
+  private long nextPlate;
+
+  @Setup(Level.Trial)
+  public void createLot() {
+    fixture = new ParkingFixture(spots, AllocationPolicy.FIRST_FIT);
+  }
+
+  @Setup(Level.Iteration)
+  public void fillLot() throws ServiceException {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      final String licensePlate = "U-" + nextPlate++;
+      fixture.park(i % 4 == 0 ? VehicleType.VAN : VehicleType.CAR, licensePlate);
+      parked.add(licensePlate);
+    }
+  }
+
+  @Benchmark
+  public Spot unparkVehicle() throws ServiceException {
+    return fixture.unpark(parked.poll());
+  }
+}
@@ -0,0 +1,64 @@
+package com.sealed.benchmarks;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.SpotType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the search for three adjacent free car spots a van falls back to, on a fragmented lot: every third car spot
+ * in the first 90% of the car area is taken, so the only runs left are at its end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VanAdjacencySearchBenchmark {
+
+  private static final int VAN_RUN_LENGTH = 3;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int spots;
+
+  private FreeSpotIndex freeSpotIndex;
+  private long lastCarSpot;
+
+  @Setup
+  public void fragmentLot() {
+    final ParkingFixture fixture = new ParkingFixture(spots, AllocationPolicy.FIRST_FIT);
+    freeSpotIndex = fixture.freeSpotIndex();
+    final long firstCarSpot = fixture.firstCarSpot();
+    final long fragmentedEnd = firstCarSpot + fixture.carSpots() * 9L / 10;
+    for (long spotId = firstCarSpot + 2; spotId < fragmentedEnd; spotId += VAN_RUN_LENGTH) {
+      freeSpotIndex.occupy(ParkingFixture.PARKING_LOT_ID, spotId);
+    }
+    lastCarSpot = firstCarSpot + fixture.carSpots() - 1;
+  }
+
+  @Benchmark
+  public SpotClaim claimRun() {
+    final SpotClaim claim = freeSpotIndex.claimRun(ParkingFixture.PARKING_LOT_ID, SpotType.CAR, VAN_RUN_LENGTH).orElseThrow();
+    freeSpotIndex.release(claim);
+    return claim;
+  }
+
+  @Benchmark
+  public long[] preceding() {
+    return freeSpotIndex.preceding(ParkingFixture.PARKING_LOT_ID, lastCarSpot, VAN_RUN_LENGTH - 1);
+  }
+}
@@ -0,0 +1,12 @@
+package com.sealed.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveParkingApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveParkingApplication.class, args);
+  }
+}
@@ -0,0 +1,197 @@
+package com.sealed.reactive.controller;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.UnparkingResult;
+import com.sealed.reactive.dto.ParkingResult;
+import com.sealed.reactive.entity.ParkingLot;
+import com.sealed.reactive.entity.Spot;
+import com.sealed.reactive.entity.Vehicle;
+import com.sealed.reactive.service.ParkingLotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The parking lot API of the servlet application on WebFlux, with the same paths, bodies and error responses.
+ * Parking lots are created from their spot counts, the spots are generated.
+ */
+@RequestMapping("/api/parking-lot")
+@RestController
+public class ParkingLotController {
+
+  private static final String FULL = "Full Parking Lot";
+  private static final String AVAILABLE = "Available Spots";
+
+  private final ParkingLotService parkingLotService;
+
+  @Autowired
+  public ParkingLotController(final ParkingLotService parkingLotService) {
+    this.parkingLotService = parkingLotService;
+  }
+
+  /**
+   * Creates a parking lot and generates its spots from its spot counts.
+   * @param parkingLot The parking lot to create
+   * @return 201 with the created parking lot
+   */
+  @PostMapping
+  public Mono<ResponseEntity<ParkingLot>> createParkingLot(@RequestBody final ParkingLot parkingLot) {
+    return parkingLotService.createParkingLot(parkingLot)
+                            .map(created -> ResponseEntity.status(HttpStatus.CREATED)
+                                                          .contentType(MediaType.APPLICATION_JSON)
+                                                          .body(created));
+  }
+
+  /**
+   * Gets a parking lot by id.
+   * @param id The id of the parking lot
+   * @return the parking lot, or 404 if none has the id
+   */
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<ParkingLot>> getParkingLot(@PathVariable final Long id) {
+    return parkingLotService.findParkingLotById(id).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Parks a vehicle in the first parking lot with a fitting spot.
+   * @param vehicle The vehicle to park
+   * @return the spot where the vehicle was parked
+   */
+  @PostMapping("/park-vehicle")
+  public Mono<ResponseEntity<Spot>> parkVehicle(@RequestBody final Vehicle vehicle) {
+    return parkingLotService.parkVehicle(vehicle).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Parks a batch of vehicles.
+   * @param vehicles The vehicles to park
+   * @return for every vehicle, the spot where it was parked or the reason it was rejected
+   */
+  @PostMapping("/park-vehicles")
+  public Mono<ResponseEntity<List<ParkingResult>>> parkVehicles(@RequestBody final List<Vehicle> vehicles) {
+    return parkingLotService.parkVehicles(vehicles).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Parks a vehicle in a specific parking lot.
+   * @param id      The id of the parking lot
+   * @param vehicle The vehicle to park
+   * @return the spot where the vehicle was parked
+   */
+  @PostMapping("/{id}/park-vehicle")
+  public Mono<ResponseEntity<Spot>> parkVehicle(@PathVariable final Long id, @RequestBody final Vehicle vehicle) {
+    return parkingLotService.parkVehicle(id, vehicle).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Unparks a vehicle.
+   * @param licensePlate The vehicle license plate to unpark
+   * @return the spot the vehicle was parked in, or 404 if no vehicle has the plate
+   */
+  @PostMapping("/unpark-vehicle/{licensePlate}")
+  public Mono<ResponseEntity<Spot>> unparkVehicle(@PathVariable final String licensePlate) {
+    return parkingLotService.unparkVehicle(licensePlate).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Unparks a batch of vehicles.
+   * @param licensePlates The license plates of the vehicles to unpark
+   * @return the unparked plates, the freed spots and the plates that were not found
+   */
+  @PostMapping("/unpark-vehicles")
+  public Mono<ResponseEntity<UnparkingResult>> unparkVehicles(@RequestBody final List<String> licensePlates) {
+    return parkingLotService.unparkVehicles(licensePlates).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Unparks a vehicle from a specific parking lot.
+   * @param id           The id of the parking lot
+   * @param licensePlate The vehicle license plate to unpark
+   * @return the spot the vehicle was parked in, or 404 if the vehicle is not parked in the lot
+   */
+  @PostMapping("/{id}/unpark-vehicle/{licensePlate}")
+  public Mono<ResponseEntity<Spot>> unparkVehicle(@PathVariable final Long id, @PathVariable final String licensePlate) {
+    return parkingLotService.unparkVehicle(id, licensePlate).map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/is-full")
+  public Mono<ResponseEntity<String>> isParkingLotFull() {
+    return parkingLotService.isParkingLotFull().map(full -> ResponseEntity.ok(full ? FULL : AVAILABLE));
+  }
+
+  @GetMapping("/{id}/is-full")
+  public Mono<ResponseEntity<String>> isParkingLotFull(@PathVariable final Long id) {
+    return parkingLotService.isParkingLotFull(id).map(full -> ResponseEntity.ok(full ? FULL : AVAILABLE));
+  }
+
+  @GetMapping("/available-spots")
+  public Mono<ResponseEntity<Integer>> countAvailableSpots() {
+    return parkingLotService.countAvailableSpots().map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/{id}/available-spots")
+  public Mono<ResponseEntity<Integer>> countAvailableSpots(@PathVariable final Long id) {
+    return parkingLotService.countAvailableSpots(id).map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/occupied-spots")
+  public Mono<ResponseEntity<Integer>> countOccupiedSpots() {
+    return parkingLotService.countOccupiedSpots().map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/{id}/occupied-spots")
+  public Mono<ResponseEntity<Integer>> countOccupiedSpots(@PathVariable final Long id) {
+    return parkingLotService.countOccupiedSpots(id).map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/van-spots")
+  public Mono<ResponseEntity<Integer>> countVanSpots() {
+    return parkingLotService.countVanSpots().map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/{id}/van-spots")
+  public Mono<ResponseEntity<Integer>> countVanSpots(@PathVariable final Long id) {
+    return parkingLotService.countVanSpots(id).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Returns the occupancy of every parking lot broken down by spot type and vehicle type.
+   * @return the occupancy breakdown
+   */
+  @GetMapping("/occupancy")
+  public Mono<ResponseEntity<OccupancyBreakdown>> getOccupancy() {
+    return parkingLotService.getOccupancy().map(ResponseEntity::ok);
+  }
+
+  /**
+   * Returns the occupancy breakdown of many parking lots in one response.
+   * @param parkingLotIds The ids of the parking lots
+   * @return one occupancy breakdown per id, in the same order
+   */
+  @PostMapping("/occupancy")
+  public Mono<ResponseEntity<List<OccupancyBreakdown>>> getOccupancy(@RequestBody final List<Long> parkingLotIds) {
+    return parkingLotService.getOccupancy(parkingLotIds).map(ResponseEntity::ok);
+  }
+
+  /**
+   * Returns the occupancy of a parking lot broken down by spot type and vehicle type.
+   * @param id The id of the parking lot
+   * @return the occupancy breakdown of the lot, or 404 if none has the id
+   */
+  @GetMapping("/{id}/occupancy")
+  public Mono<ResponseEntity<OccupancyBreakdown>> getOccupancy(@PathVariable final Long id) {
+    return parkingLotService.getOccupancy(id).map(ResponseEntity::ok);
+  }
+}
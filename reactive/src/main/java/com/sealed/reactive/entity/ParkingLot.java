@@ -0,0 +1,50 @@
+package com.sealed.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import com.sealed.enums.AllocationPolicy;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the {@code parking_lot} table shared with the servlet application. Its spots are not loaded with it.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("parking_lot")
+public class ParkingLot {
+
+  @Id
+  @Column("id")
+  private Long id;
+
+  @Column("name")
+  private String name;
+
+  @Column("capacity")
+  private Integer capacity;
+
+  @Column("motorcycle_spots")
+  private Integer motorcycleSpots;
+
+  @Column("car_spots")
+  private Integer carSpots;
+
+  @Column("van_spots")
+  private Integer vanSpots;
+
+  @Column("allocation_policy")
+  private AllocationPolicy allocationPolicy;
+
+  @Column("entrance_position")
+  private Integer entrancePosition;
+}
@@ -0,0 +1,48 @@
+package com.sealed.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import com.sealed.enums.SpotType;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the {@code spot} table. The {@code version} is bumped by every claim and release, like the servlet
+ * application's optimistic lock, so both stacks can serve the same database.
+ */
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("spot")
+public class Spot {
+
+  @Id
+  @Column("id")
+  private Long id;
+
+  @Column("type")
+  private SpotType type;
+
+  @Column("occupied")
+  private boolean occupied;
+
+  @Column("parking_lot_id")
+  private Long parkingLotId;
+
+  @Column("version")
+  private Long version;
+
+  @Column("layout_row")
+  private Integer layoutRow;
+
+  @Column("layout_position")
+  private Integer layoutPosition;
+}
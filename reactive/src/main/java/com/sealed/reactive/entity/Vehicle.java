@@ -0,0 +1,35 @@
+package com.sealed.reactive.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import com.sealed.enums.VehicleType;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Setter
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("vehicle")
+public class Vehicle {
+
+  @Id
+  @Column("id")
+  private Long id;
+
+  @Column("type")
+  private VehicleType type;
+
+  @Column("license_plate")
+  private String licensePlate;
+
+  @Column("spot_id")
+  private Long spotId;
+}
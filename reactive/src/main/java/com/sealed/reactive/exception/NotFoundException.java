@@ -0,0 +1,17 @@
+package com.sealed.reactive.exception;
+
+import java.io.Serial;
+
+/**
+ * Thrown when a parking lot or a parked vehicle does not exist, the reactive counterpart of
+ * {@code jakarta.persistence.EntityNotFoundException} which is not on this module's classpath.
+ */
+public class NotFoundException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  public NotFoundException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,30 @@
+package com.sealed.reactive.handler;
+
+import com.sealed.exception.ServiceException;
+import com.sealed.handler.ErrorResponse;
+import com.sealed.reactive.exception.NotFoundException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers errors with the same {@link ErrorResponse} bodies and statuses as the servlet application.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+  @ExceptionHandler(value = ServiceException.class)
+  public ResponseEntity<ErrorResponse> handleServiceException(final ServiceException ex) {
+    final ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.name(), ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value());
+    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+  }
+
+  @ExceptionHandler(value = NotFoundException.class)
+  public ResponseEntity<ErrorResponse> handleNotFoundException(final NotFoundException ex) {
+    final ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.name(), ex.getMessage(), HttpStatus.NOT_FOUND.value());
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+  }
+}
@@ -0,0 +1,11 @@
+package com.sealed.reactive.repository;
+
+import com.sealed.reactive.entity.ParkingLot;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ParkingLotRepository extends ReactiveCrudRepository<ParkingLot, Long> {
+
+}
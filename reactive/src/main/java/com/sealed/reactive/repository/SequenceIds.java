@@ -0,0 +1,69 @@
+package com.sealed.reactive.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids from the {@code parking_lot_seq}, {@code spot_seq} and {@code vehicle_seq} sequences the way
+ * Hibernate's pooled optimizer does in the servlet application: a sequence value {@code v} reserves the ids
+ * {@code v - 49} to {@code v}, so one round trip serves 50 inserts and both stacks can share the database.
+ */
+@Component
+public class SequenceIds {
+
+  static final int INCREMENT = 50;
+
+  private final DatabaseClient databaseClient;
+  private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+  @Autowired
+  public SequenceIds(final DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  /**
+   * Returns the next id of a sequence, reading the sequence only when the current block is used up.
+   * @param sequence the sequence name
+   * @return the id
+   */
+  public Mono<Long> next(final String sequence) {
+    final Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+    return Mono.defer(() -> {
+      final long id = block.take();
+      if (id > 0) {
+        return Mono.just(id);
+      }
+      return databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                           .map(row -> row.get(0, Long.class))
+                           .one()
+                           .map(block::refill);
+    });
+  }
+
+  private static final class Block {
+
+    private long next;
+    private long last = -1;
+
+    private synchronized long take() {
+      return next <= last ? next++ : -1;
+    }
+
+    /**
+     * Starts a new block ending at the sequence value and returns its first id. Concurrent refills each keep their
+     * own first id, and the block that stays is the last one read.
+     */
+    private synchronized long refill(final long value) {
+      final long first = Math.max(1, value - INCREMENT + 1);
+      next = first + 1;
+      last = value;
+      return first;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.sealed.reactive.repository;
+
+import com.sealed.occupancy.SpotCount;
+import com.sealed.reactive.entity.Spot;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Spots are claimed with a conditional update rather than read and written back: {@link #occupy(Collection)} only
+ * touches the spots that are still free and returns how many it took, so two gates racing for the same spot cannot
+ * both win. The free spot queries return the first {@code limit} candidates in layout order, for the caller to spread
+ * concurrent claims over. Spot types are passed by name.
+ */
+@Repository
+public interface SpotRepository extends ReactiveCrudRepository<Spot, Long> {
+
+  @Query("SELECT * FROM spot WHERE parking_lot_id = :parkingLotId AND type = :type AND occupied = FALSE ORDER BY id LIMIT :limit")
+  Flux<Spot> findFree(Long parkingLotId, String type, int limit);
+
+  @Query("SELECT * FROM spot WHERE type = :type AND occupied = FALSE ORDER BY parking_lot_id, id LIMIT :limit")
+  Flux<Spot> findFree(String type, int limit);
+
+  /**
+   * Finds the last spots of the first runs of three free car spots of a lot, in layout order. A run never crosses a row.
+   * The window covers every spot of the lot, so a spot of another type breaks a run, and is skipped when the lot has
+   * fewer than three free car spots.
+   */
+  @Query("""
+      SELECT id FROM (
+        SELECT id, type, occupied, layout_row,
+               LAG(type, 1) OVER (ORDER BY id) AS type1, LAG(occupied, 1) OVER (ORDER BY id) AS occupied1,
+               LAG(layout_row, 1) OVER (ORDER BY id) AS row1,
+               LAG(type, 2) OVER (ORDER BY id) AS type2, LAG(occupied, 2) OVER (ORDER BY id) AS occupied2,
+               LAG(layout_row, 2) OVER (ORDER BY id) AS row2
+        FROM spot WHERE parking_lot_id = :parkingLotId
+          AND (SELECT COUNT(*) FROM spot WHERE parking_lot_id = :parkingLotId AND type = 'CAR' AND occupied = FALSE) >= 3) runs
+      WHERE type = 'CAR' AND occupied = FALSE AND type1 = 'CAR' AND occupied1 = FALSE AND type2 = 'CAR' AND occupied2 = FALSE
+        AND layout_row IS NOT DISTINCT FROM row1 AND row1 IS NOT DISTINCT FROM row2
+      ORDER BY id LIMIT :limit""")
+  Flux<Long> findFreeCarRunEnds(Long parkingLotId, int limit);
+
+  /**
+   * Finds the last spots of the first runs of three free car spots of any lot, in layout order. Only the lots with at
+   * least three free car spots are windowed.
+   */
+  @Query("""
+      SELECT id FROM (
+        SELECT id, parking_lot_id, type, occupied, layout_row,
+               LAG(type, 1) OVER (PARTITION BY parking_lot_id ORDER BY id) AS type1,
+               LAG(occupied, 1) OVER (PARTITION BY parking_lot_id ORDER BY id) AS occupied1,
+               LAG(layout_row, 1) OVER (PARTITION BY parking_lot_id ORDER BY id) AS row1,
+               LAG(type, 2) OVER (PARTITION BY parking_lot_id ORDER BY id) AS type2,
+               LAG(occupied, 2) OVER (PARTITION BY parking_lot_id ORDER BY id) AS occupied2,
+               LAG(layout_row, 2) OVER (PARTITION BY parking_lot_id ORDER BY id) AS row2
+        FROM spot WHERE parking_lot_id IN (
+          SELECT parking_lot_id FROM spot WHERE type = 'CAR' AND occupied = FALSE GROUP BY parking_lot_id HAVING COUNT(*) >= 3)) runs
+      WHERE type = 'CAR' AND occupied = FALSE AND type1 = 'CAR' AND occupied1 = FALSE AND type2 = 'CAR' AND occupied2 = FALSE
+        AND layout_row IS NOT DISTINCT FROM row1 AND row1 IS NOT DISTINCT FROM row2
+      ORDER BY parking_lot_id, id LIMIT :limit""")
+  Flux<Long> findFreeCarRunEnds(int limit);
+
+  @Query("SELECT id FROM spot WHERE parking_lot_id = :parkingLotId AND id < :spotId ORDER BY id DESC LIMIT :count")
+  Flux<Long> findPrecedingIds(Long parkingLotId, Long spotId, int count);
+
+  @Modifying
+  @Query("UPDATE spot SET occupied = TRUE, version = version + 1 WHERE id IN (:ids) AND occupied = FALSE")
+  Mono<Integer> occupy(Collection<Long> ids);
+
+  @Modifying
+  @Query("UPDATE spot SET occupied = FALSE, version = version + 1 WHERE id IN (:ids) AND occupied = TRUE")
+  Mono<Integer> free(Collection<Long> ids);
+
+  Mono<Long> countByOccupied(boolean occupied);
+
+  Mono<Long> countByParkingLotIdAndOccupied(Long parkingLotId, boolean occupied);
+
+  @Query("""
+      SELECT s.parking_lot_id, s.type, s.occupied, v.type AS vehicle_type, COUNT(*) AS count
+      FROM spot s LEFT JOIN vehicle v ON v.spot_id = s.id
+      GROUP BY s.parking_lot_id, s.type, s.occupied, v.type""")
+  Flux<SpotCount> countSpotsByLotTypeAndOccupied();
+
+  @Query("""
+      SELECT s.parking_lot_id, s.type, s.occupied, v.type AS vehicle_type, COUNT(*) AS count
+      FROM spot s LEFT JOIN vehicle v ON v.spot_id = s.id WHERE s.parking_lot_id IN (:parkingLotIds)
+      GROUP BY s.parking_lot_id, s.type, s.occupied, v.type""")
+  Flux<SpotCount> countSpotsByLotTypeAndOccupied(Collection<Long> parkingLotIds);
+}
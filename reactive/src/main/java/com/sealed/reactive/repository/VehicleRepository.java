@@ -0,0 +1,26 @@
+package com.sealed.reactive.repository;
+
+import com.sealed.reactive.entity.Vehicle;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface VehicleRepository extends ReactiveCrudRepository<Vehicle, Long> {
+
+  Mono<Vehicle> findByLicensePlate(String licensePlate);
+
+  /**
+   * Counts the spots held by vans: one for a van in a van spot, three for a van across car spots.
+   */
+  @Query("SELECT COALESCE(SUM(CASE WHEN s.type = 'VAN' THEN 1 ELSE 3 END), 0) FROM vehicle v JOIN spot s ON v.spot_id = s.id WHERE v.type = 'VAN'")
+  Mono<Long> countVanSpots();
+
+  @Query("""
+      SELECT COALESCE(SUM(CASE WHEN s.type = 'VAN' THEN 1 ELSE 3 END), 0) FROM vehicle v JOIN spot s ON v.spot_id = s.id
+      WHERE v.type = 'VAN' AND s.parking_lot_id = :parkingLotId""")
+  Mono<Long> countVanSpots(Long parkingLotId);
+}
@@ -0,0 +1,36 @@
+package com.sealed.reactive.service;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.UnparkingResult;
+import com.sealed.reactive.dto.ParkingResult;
+import com.sealed.reactive.entity.ParkingLot;
+import com.sealed.reactive.entity.Spot;
+import com.sealed.reactive.entity.Vehicle;
+
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ParkingLotService {
+
+  Mono<ParkingLot> createParkingLot(ParkingLot parkingLot);
+  Mono<ParkingLot> findParkingLotById(Long id);
+  Mono<Spot> parkVehicle(Vehicle vehicle);
+  Mono<Spot> parkVehicle(Long parkingLotId, Vehicle vehicle);
+  Mono<List<ParkingResult>> parkVehicles(List<Vehicle> vehicles);
+  Mono<Spot> unparkVehicle(String licensePlate);
+  Mono<Spot> unparkVehicle(Long parkingLotId, String licensePlate);
+  Mono<UnparkingResult> unparkVehicles(List<String> licensePlates);
+  Mono<Boolean> isParkingLotFull();
+  Mono<Boolean> isParkingLotFull(Long parkingLotId);
+  Mono<Integer> countAvailableSpots();
+  Mono<Integer> countAvailableSpots(Long parkingLotId);
+  Mono<Integer> countOccupiedSpots();
+  Mono<Integer> countOccupiedSpots(Long parkingLotId);
+  Mono<Integer> countVanSpots();
+  Mono<Integer> countVanSpots(Long parkingLotId);
+  Mono<OccupancyBreakdown> getOccupancy();
+  Mono<OccupancyBreakdown> getOccupancy(Long parkingLotId);
+  Mono<List<OccupancyBreakdown>> getOccupancy(List<Long> parkingLotIds);
+
+}
@@ -0,0 +1,447 @@
+package com.sealed.reactive.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.UnparkingResult;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import com.sealed.occupancy.OccupancyTally;
+import com.sealed.reactive.dto.ParkingResult;
+import com.sealed.reactive.entity.ParkingLot;
+import com.sealed.reactive.entity.Spot;
+import com.sealed.reactive.entity.Vehicle;
+import com.sealed.reactive.exception.NotFoundException;
+import com.sealed.reactive.repository.ParkingLotRepository;
+import com.sealed.reactive.repository.SequenceIds;
+import com.sealed.reactive.repository.SpotRepository;
+import com.sealed.reactive.repository.VehicleRepository;
+import com.sealed.reactive.service.ParkingLotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Implements the parking operations of the servlet application with non-blocking R2DBC calls only, so every request
+ * runs on the event loop without holding a thread while the database works.
+ * There is no in-memory index here: a free spot is picked by query and claimed by a conditional update that only
+ * takes spots still free. A claim lost to another gate, on this node, another one or the servlet stack, rolls its
+ * transaction back and is retried with the next candidate.
+ * Gates parking at the same time would all read the same first free spot, so every attempt picks at random among the
+ * first {@code CANDIDATES} free candidates, and the window doubles with every lost claim up to {@code MAX_CANDIDATES}.
+ * Spots are tried from the smallest type that fits: motorcycles take a motorcycle, car or van spot, cars a car or van
+ * spot, and vans a van spot or else three adjacent car spots, the van being linked to the last of them.
+ */
+@Slf4j
+@Service
+public class ParkingLotServiceImpl implements ParkingLotService {
+
+  private static final List<SpotType> MOTORCYCLE_SPOT_TYPES = List.of(SpotType.MOTORCYCLE, SpotType.CAR, SpotType.VAN);
+  private static final List<SpotType> CAR_SPOT_TYPES = List.of(SpotType.CAR, SpotType.VAN);
+  private static final int MAX_CLAIM_ATTEMPTS = 16;
+  private static final int CANDIDATES = 8;
+  private static final int MAX_CANDIDATES = 256;
+
+  private final ParkingLotRepository parkingLotRepository;
+  private final SpotRepository spotRepository;
+  private final VehicleRepository vehicleRepository;
+  private final SequenceIds sequenceIds;
+  private final R2dbcEntityTemplate template;
+  private final TransactionalOperator transactionalOperator;
+
+  @Autowired
+  public ParkingLotServiceImpl(final ParkingLotRepository parkingLotRepository,
+                               final SpotRepository spotRepository,
+                               final VehicleRepository vehicleRepository,
+                               final SequenceIds sequenceIds,
+                               final R2dbcEntityTemplate template,
+                               final TransactionalOperator transactionalOperator) {
+    this.parkingLotRepository = parkingLotRepository;
+    this.spotRepository = spotRepository;
+    this.vehicleRepository = vehicleRepository;
+    this.sequenceIds = sequenceIds;
+    this.template = template;
+    this.transactionalOperator = transactionalOperator;
+  }
+
+  /**
+   * Creates a parking lot and generates its spots from its spot counts, motorcycles first, then cars, then vans.
+   * @param parkingLot the parking lot, spot counts missing are taken as zero and a missing capacity as their sum
+   * @return the created parking lot
+   */
+  @Override
+  public Mono<ParkingLot> createParkingLot(final ParkingLot parkingLot) {
+    final int motorcycleSpots = spotCount(parkingLot.getMotorcycleSpots());
+    final int carSpots = spotCount(parkingLot.getCarSpots());
+    final int vanSpots = spotCount(parkingLot.getVanSpots());
+    if (motorcycleSpots < 0 || carSpots < 0 || vanSpots < 0) {
+      return Mono.error(new ServiceException("Spot counts must not be negative"));
+    }
+    parkingLot.setMotorcycleSpots(motorcycleSpots);
+    parkingLot.setCarSpots(carSpots);
+    parkingLot.setVanSpots(vanSpots);
+    if (parkingLot.getCapacity() == null) {
+      parkingLot.setCapacity(motorcycleSpots + carSpots + vanSpots);
+    }
+    final List<SpotType> types = new ArrayList<>(motorcycleSpots + carSpots + vanSpots);
+    types.addAll(Collections.nCopies(motorcycleSpots, SpotType.MOTORCYCLE));
+    types.addAll(Collections.nCopies(carSpots, SpotType.CAR));
+    types.addAll(Collections.nCopies(vanSpots, SpotType.VAN));
+    return sequenceIds.next("parking_lot_seq")
+        .flatMap(id -> {
+          parkingLot.setId(id);
+          return template.insert(parkingLot);
+        })
+        .flatMap(saved -> Flux.fromIterable(types)
+            .concatMap(type -> sequenceIds.next("spot_seq")
+                .flatMap(id -> template.insert(Spot.builder().id(id).type(type).parkingLotId(saved.getId()).version(0L).build())))
+            .then(Mono.just(saved)))
+        .as(transactionalOperator::transactional)
+        .onErrorMap(e -> !(e instanceof ServiceException), e -> {
+          log.error("Error persisting a new ParkLot: {}", e.getMessage(), e);
+          return new ServiceException("Error persisting a new ParkLot", e);
+        });
+  }
+
+  @Override
+  public Mono<ParkingLot> findParkingLotById(final Long id) {
+    return parkingLotRepository.findById(id)
+                               .switchIfEmpty(Mono.error(() -> new NotFoundException("No parking lot found for id " + id)));
+  }
+
+  /**
+   * Parks a vehicle in the first lot with a fitting spot.
+   * @param vehicle the vehicle to park
+   * @return the spot the vehicle is linked to
+   */
+  @Override
+  public Mono<Spot> parkVehicle(final Vehicle vehicle) {
+    return park(vehicle, candidates -> claim(null, vehicle.getType(), candidates));
+  }
+
+  /**
+   * Parks a vehicle in a specific lot.
+   * @param parkingLotId the parking lot
+   * @param vehicle      the vehicle to park
+   * @return the spot the vehicle is linked to
+   */
+  @Override
+  public Mono<Spot> parkVehicle(final Long parkingLotId, final Vehicle vehicle) {
+    return findParkingLotById(parkingLotId).then(park(vehicle, candidates -> claim(parkingLotId, vehicle.getType(), candidates)));
+  }
+
+  /**
+   * Parks a batch of vehicles one after the other, each in its own transaction, so a vehicle without a spot is rejected
+   * without undoing the others.
+   * @param vehicles the vehicles to park
+   * @return for every vehicle, the spot it is linked to or the reason it was rejected
+   */
+  @Override
+  public Mono<List<ParkingResult>> parkVehicles(final List<Vehicle> vehicles) {
+    return Flux.fromIterable(vehicles)
+               .concatMap(vehicle -> parkVehicle(vehicle)
+                   .map(spot -> ParkingResult.parked(vehicle.getLicensePlate(), spot))
+                   .onErrorResume(ServiceException.class, e -> Mono.just(ParkingResult.rejected(vehicle.getLicensePlate(), e.getMessage()))))
+               .collectList();
+  }
+
+  @Override
+  public Mono<Spot> unparkVehicle(final String licensePlate) {
+    return unpark(licensePlate, null);
+  }
+
+  @Override
+  public Mono<Spot> unparkVehicle(final Long parkingLotId, final String licensePlate) {
+    return unpark(licensePlate, parkingLotId);
+  }
+
+  /**
+   * Unparks a batch of vehicles in one transaction. Plates without a parked vehicle are reported, not failed.
+   * @param licensePlates the license plates of the vehicles to unpark
+   * @return the unparked plates, the spots freed for them and the plates that were not found
+   */
+  @Override
+  public Mono<UnparkingResult> unparkVehicles(final List<String> licensePlates) {
+    return Mono.defer(() -> {
+      final List<String> unparked = new ArrayList<>(licensePlates.size());
+      final List<Long> freedSpotIds = new ArrayList<>(licensePlates.size());
+      final List<String> notFound = new ArrayList<>();
+      return Flux.fromIterable(new LinkedHashSet<>(licensePlates))
+                 .concatMap(licensePlate -> vehicleRepository.findByLicensePlate(licensePlate)
+                     .flatMap(vehicle -> spotRepository.findById(vehicle.getSpotId()).flatMap(spot -> release(vehicle, spot)))
+                     .doOnNext(spotIds -> {
+                       unparked.add(licensePlate);
+                       freedSpotIds.addAll(spotIds);
+                     })
+                     .switchIfEmpty(Mono.fromRunnable(() -> notFound.add(licensePlate))))
+                 .then(Mono.fromSupplier(() -> new UnparkingResult(unparked, freedSpotIds, notFound)));
+    })
+        .as(transactionalOperator::transactional)
+        .onErrorMap(e -> {
+          log.error("Error unparking a batch of vehicles: {}", e.getMessage(), e);
+          return new ServiceException("Error unparking a batch of vehicles", e);
+        });
+  }
+
+  @Override
+  public Mono<Boolean> isParkingLotFull() {
+    return countAvailableSpots().map(available -> available == 0);
+  }
+
+  @Override
+  public Mono<Boolean> isParkingLotFull(final Long parkingLotId) {
+    return countAvailableSpots(parkingLotId).map(available -> available == 0);
+  }
+
+  @Override
+  public Mono<Integer> countAvailableSpots() {
+    return spotRepository.countByOccupied(false).map(Long::intValue);
+  }
+
+  @Override
+  public Mono<Integer> countAvailableSpots(final Long parkingLotId) {
+    return spotRepository.countByParkingLotIdAndOccupied(parkingLotId, false).map(Long::intValue);
+  }
+
+  @Override
+  public Mono<Integer> countOccupiedSpots() {
+    return spotRepository.countByOccupied(true).map(Long::intValue);
+  }
+
+  @Override
+  public Mono<Integer> countOccupiedSpots(final Long parkingLotId) {
+    return spotRepository.countByParkingLotIdAndOccupied(parkingLotId, true).map(Long::intValue);
+  }
+
+  @Override
+  public Mono<Integer> countVanSpots() {
+    return vehicleRepository.countVanSpots().map(Long::intValue);
+  }
+
+  @Override
+  public Mono<Integer> countVanSpots(final Long parkingLotId) {
+    return vehicleRepository.countVanSpots(parkingLotId).map(Long::intValue);
+  }
+
+  /**
+   * Returns the occupancy of every parking lot broken down by spot type and vehicle type, from a single {@code GROUP BY} query.
+   * @return the occupancy breakdown
+   */
+  @Override
+  public Mono<OccupancyBreakdown> getOccupancy() {
+    return spotRepository.countSpotsByLotTypeAndOccupied()
+                         .collectList()
+                         .map(counts -> OccupancyTally.of(counts).toBreakdown(null))
+                         .onErrorMap(this::occupancyError);
+  }
+
+  /**
+   * Returns the occupancy of a parking lot broken down by spot type and vehicle type.
+   * @param parkingLotId the parking lot
+   * @return the occupancy breakdown of the lot, or a {@link NotFoundException} if the lot does not exist
+   */
+  @Override
+  public Mono<OccupancyBreakdown> getOccupancy(final Long parkingLotId) {
+    return findParkingLotById(parkingLotId)
+        .then(spotRepository.countSpotsByLotTypeAndOccupied(List.of(parkingLotId)).collectList())
+        .map(counts -> OccupancyTally.of(counts).toBreakdown(parkingLotId))
+        .onErrorMap(e -> !(e instanceof NotFoundException), this::occupancyError);
+  }
+
+  /**
+   * Returns the occupancy of many parking lots from a single {@code GROUP BY} query.
+   * @param parkingLotIds the parking lots
+   * @return one occupancy breakdown per id, in the same order, empty for a lot without spots
+   */
+  @Override
+  public Mono<List<OccupancyBreakdown>> getOccupancy(final List<Long> parkingLotIds) {
+    if (parkingLotIds.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    return spotRepository.countSpotsByLotTypeAndOccupied(new LinkedHashSet<>(parkingLotIds))
+                         .collectList()
+                         .map(counts -> {
+                           final Map<Long, OccupancyTally> tallies = OccupancyTally.byParkingLot(counts);
+                           return parkingLotIds.stream()
+                                               .map(id -> tallies.getOrDefault(id, new OccupancyTally()).toBreakdown(id))
+                                               .toList();
+                         })
+                         .onErrorMap(this::occupancyError);
+  }
+
+  /**
+   * Claims spots and records the vehicle in one transaction, retrying with a fresh candidate when the claim is lost.
+   * @param candidates finds the spots to claim, picked among the given number of free candidates
+   */
+  private Mono<Spot> park(final Vehicle vehicle, final IntFunction<Mono<List<Spot>>> candidates) {
+    final AtomicInteger attempt = new AtomicInteger();
+    return Mono.defer(() -> candidates.apply(candidateWindow(attempt.getAndIncrement())))
+        .switchIfEmpty(Mono.error(() -> new ServiceException(noSpotMessage(vehicle.getType()))))
+        .flatMap(spots -> spotRepository.occupy(spots.stream().map(Spot::getId).toList())
+            .flatMap(taken -> taken == spots.size() ? Mono.just(spots.get(spots.size() - 1)) : Mono.error(new LostClaimException()))
+            .flatMap(spot -> sequenceIds.next("vehicle_seq")
+                .flatMap(id -> template.insert(Vehicle.builder()
+                                                      .id(id)
+                                                      .type(vehicle.getType())
+                                                      .licensePlate(vehicle.getLicensePlate())
+                                                      .spotId(spot.getId())
+                                                      .build()))
+                .thenReturn(occupied(spot))))
+        .as(transactionalOperator::transactional)
+        .retryWhen(Retry.max(MAX_CLAIM_ATTEMPTS - 1)
+                        .filter(LostClaimException.class::isInstance)
+                        .doBeforeRetry(signal -> log.warn("Lost a spot claim, retrying"))
+                        .onRetryExhaustedThrow((spec, signal) -> new ServiceException("Could not claim a spot after " + MAX_CLAIM_ATTEMPTS + " attempts")))
+        .onErrorMap(e -> !(e instanceof ServiceException || e instanceof NotFoundException), e -> {
+          log.error("Error parking a vehicle: {}", e.getMessage(), e);
+          return new ServiceException("Error parking a vehicle", e);
+        });
+  }
+
+  /**
+   * Finds the spots to claim for a vehicle type, in the given lot or in any lot when it is null.
+   * @param candidates the number of free candidates of the first fitting type to pick from at random
+   * @return the spots, the one the vehicle is linked to last, or empty if none fits
+   */
+  private Mono<List<Spot>> claim(final Long parkingLotId, final VehicleType vehicleType, final int candidates) {
+    if (vehicleType == VehicleType.VAN) {
+      return anyFree(parkingLotId, List.of(SpotType.VAN), candidates)
+          .map(List::of)
+          .switchIfEmpty(Mono.defer(() -> carRun(parkingLotId, candidates)));
+    }
+    return anyFree(parkingLotId, vehicleType == VehicleType.MOTORCYCLE ? MOTORCYCLE_SPOT_TYPES : CAR_SPOT_TYPES, candidates).map(List::of);
+  }
+
+  private Mono<Spot> anyFree(final Long parkingLotId, final List<SpotType> types, final int candidates) {
+    return Flux.fromIterable(types)
+               .concatMap(type -> (parkingLotId == null ? spotRepository.findFree(type.name(), candidates)
+                                                        : spotRepository.findFree(parkingLotId, type.name(), candidates))
+                   .collectList()
+                   .filter(spots -> !spots.isEmpty()))
+               .next()
+               .map(ParkingLotServiceImpl::pick);
+  }
+
+  private Mono<List<Spot>> carRun(final Long parkingLotId, final int candidates) {
+    return (parkingLotId == null ? spotRepository.findFreeCarRunEnds(candidates) : spotRepository.findFreeCarRunEnds(parkingLotId, candidates))
+        .collectList()
+        .filter(ends -> !ends.isEmpty())
+        .map(ParkingLotServiceImpl::pick)
+        .flatMap(spotRepository::findById)
+        .flatMap(last -> spotRepository.findPrecedingIds(last.getParkingLotId(), last.getId(), VehicleType.VAN_CAR_SPOTS - 1)
+            .concatMap(spotRepository::findById)
+            .collectList()
+            .map(preceding -> {
+              final List<Spot> spots = new ArrayList<>(preceding);
+              Collections.reverse(spots);
+              spots.add(last);
+              return spots;
+            }));
+  }
+
+  /**
+   * Frees the spot of a vehicle, and the two car spots before it for a van parked across car spots, then removes the vehicle.
+   */
+  private Mono<Spot> unpark(final String licensePlate, final Long parkingLotId) {
+    return vehicleRepository.findByLicensePlate(licensePlate)
+        .flatMap(vehicle -> spotRepository.findById(vehicle.getSpotId())
+            .filter(spot -> parkingLotId == null || parkingLotId.equals(spot.getParkingLotId()))
+            .flatMap(spot -> release(vehicle, spot).thenReturn(free(spot))))
+        .switchIfEmpty(Mono.error(() -> new NotFoundException(parkingLotId == null
+            ? "Could not find vehicle with license plate " + licensePlate
+            : "Could not find vehicle with license plate " + licensePlate + " in parking lot " + parkingLotId)))
+        .as(transactionalOperator::transactional)
+        .onErrorMap(e -> !(e instanceof NotFoundException), e -> {
+          log.error("Error unparking a vehicle: {}", e.getMessage(), e);
+          return new ServiceException("Error unparking a vehicle", e);
+        });
+  }
+
+  /**
+   * Frees the spots a vehicle holds and removes the vehicle.
+   * @return the ids of the freed spots
+   */
+  private Mono<List<Long>> release(final Vehicle vehicle, final Spot spot) {
+    return spotIds(vehicle, spot)
+        .flatMap(spotIds -> spotRepository.free(spotIds)
+                                          .then(vehicleRepository.delete(vehicle))
+                                          .thenReturn(spotIds));
+  }
+
+  private Mono<List<Long>> spotIds(final Vehicle vehicle, final Spot spot) {
+    if (vehicle.getType() != VehicleType.VAN || spot.getType() == SpotType.VAN) {
+      return Mono.just(List.of(spot.getId()));
+    }
+    return spotRepository.findPrecedingIds(spot.getParkingLotId(), spot.getId(), VehicleType.VAN_CAR_SPOTS - 1)
+                         .concatWithValues(spot.getId())
+                         .collectList();
+  }
+
+  /**
+   * Returns the number of free candidates to pick from on an attempt, doubling from {@code CANDIDATES} on every lost claim.
+   */
+  private static int candidateWindow(final int attempt) {
+    return attempt >= Integer.numberOfTrailingZeros(MAX_CANDIDATES / CANDIDATES) ? MAX_CANDIDATES : CANDIDATES << attempt;
+  }
+
+  private static <T> T pick(final List<T> candidates) {
+    return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+  }
+
+  private static Spot occupied(final Spot spot) {
+    spot.setOccupied(true);
+    spot.setVersion(spot.getVersion() == null ? null : spot.getVersion() + 1);
+    return spot;
+  }
+
+  private static Spot free(final Spot spot) {
+    spot.setOccupied(false);
+    spot.setVersion(spot.getVersion() == null ? null : spot.getVersion() + 1);
+    return spot;
+  }
+
+  private static int spotCount(final Integer count) {
+    return count == null ? 0 : count;
+  }
+
+  private ServiceException occupancyError(final Throwable e) {
+    log.error("Error retrieving the occupancy breakdown: {}", e.getMessage(), e);
+    return new ServiceException("Error retrieving the occupancy breakdown", e);
+  }
+
+  private static String noSpotMessage(final VehicleType vehicleType) {
+    if (vehicleType == VehicleType.MOTORCYCLE) {
+      return "No available spots to park";
+    } else if (vehicleType == VehicleType.CAR) {
+      return "There's no available spot for a car";
+    } else {
+      return "There are no available spots for a van or car.";
+    }
+  }
+
+  /**
+   * Signals that another gate took one of the candidate spots first.
+   */
+  private static final class LostClaimException extends RuntimeException {
+
+    private LostClaimException() {
+      super(null, null, false, false);
+    }
+  }
+}
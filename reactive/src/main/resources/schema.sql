@@ -0,0 +1,38 @@
+-- The tables of db/changelog/db.changelog-master.yml in the servlet application, for running this module on its own.
+CREATE TABLE IF NOT EXISTS parking_lot (
+  id BIGINT NOT NULL PRIMARY KEY,
+  name VARCHAR(255),
+  capacity INT,
+  motorcycle_spots INT,
+  car_spots INT,
+  van_spots INT,
+  allocation_policy VARCHAR(255),
+  entrance_position INT
+);
+
+CREATE TABLE IF NOT EXISTS spot (
+  id BIGINT NOT NULL PRIMARY KEY,
+  type VARCHAR(255),
+  occupied BOOLEAN,
+  parking_lot_id BIGINT,
+  version BIGINT DEFAULT 0 NOT NULL,
+  layout_row INT,
+  layout_position INT
+);
+
+CREATE TABLE IF NOT EXISTS vehicle (
+  id BIGINT NOT NULL PRIMARY KEY,
+  type VARCHAR(255),
+  license_plate VARCHAR(255),
+  spot_id BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_spot_lot_type_occupied ON spot (parking_lot_id, type, occupied);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_vehicle_license_plate ON vehicle (license_plate);
+CREATE INDEX IF NOT EXISTS idx_vehicle_spot_id ON vehicle (spot_id);
+CREATE INDEX IF NOT EXISTS idx_spot_occupied ON spot (occupied);
+CREATE INDEX IF NOT EXISTS idx_spot_lot_id ON spot (parking_lot_id, id);
+
+CREATE SEQUENCE IF NOT EXISTS parking_lot_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS spot_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS vehicle_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,325 @@
+package com.sealed.reactive.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.sealed.enums.SpotType;
+import com.sealed.reactive.entity.ParkingLot;
+import com.sealed.reactive.entity.Spot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs the parking scenarios of the servlet application against the reactive edition, over HTTP with an in-memory H2.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactive-api;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false")
+@AutoConfigureWebTestClient
+class ParkingLotControllerTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  void setUp() {
+    databaseClient.sql("DELETE FROM vehicle").then()
+                  .then(databaseClient.sql("DELETE FROM spot").then())
+                  .then(databaseClient.sql("DELETE FROM parking_lot").then())
+                  .block();
+  }
+
+  @Test
+  void testCreateParkingLotGeneratesItsSpots() {
+    // when
+    final ParkingLot parkingLot = createParkingLot(1, 4, 1);
+
+    // then
+    assertEquals(6, parkingLot.getCapacity());
+    webTestClient.get().uri("/api/parking-lot/{id}", parkingLot.getId()).exchange()
+                 .expectStatus().isOk()
+                 .expectBody(ParkingLot.class).value(found -> assertEquals(4, found.getCarSpots()));
+    assertEquals(6, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+    assertEquals(0, count("/api/parking-lot/{id}/occupied-spots", parkingLot.getId()));
+  }
+
+  @Test
+  void testParkVehiclesInTheSmallestFittingSpots() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(1, 4, 1);
+
+    // when
+    final Spot motorcycle = park(parkingLot.getId(), "MOTORCYCLE", "MOTO1");
+    final Spot car = park(parkingLot.getId(), "CAR", "CAR1");
+    final Spot van = park(parkingLot.getId(), "VAN", "VAN1");
+    final Spot vanOnCarSpots = park(parkingLot.getId(), "VAN", "VAN2");
+
+    // then
+    assertEquals(SpotType.MOTORCYCLE, motorcycle.getType());
+    assertEquals(SpotType.CAR, car.getType());
+    assertEquals(SpotType.VAN, van.getType());
+    assertEquals(SpotType.CAR, vanOnCarSpots.getType());
+    assertEquals(0, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+    assertEquals(6, count("/api/parking-lot/{id}/occupied-spots", parkingLot.getId()));
+    assertEquals(4, count("/api/parking-lot/{id}/van-spots", parkingLot.getId()));
+    webTestClient.get().uri("/api/parking-lot/{id}/is-full", parkingLot.getId()).exchange()
+                 .expectStatus().isOk()
+                 .expectBody(String.class).isEqualTo("Full Parking Lot");
+  }
+
+  @Test
+  void testParkVanWithoutAdjacentCarSpotsFails() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 3, 0);
+    park(parkingLot.getId(), "CAR", "CAR1");
+
+    // then
+    webTestClient.post().uri("/api/parking-lot/{id}/park-vehicle", parkingLot.getId())
+                 .bodyValue(Map.of("type", "VAN", "licensePlate", "VAN1"))
+                 .exchange()
+                 .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                 .expectBody().jsonPath("$.message").isEqualTo("There are no available spots for a van or car.");
+  }
+
+  @Test
+  void testUnparkVanFreesItsCarSpots() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 3, 0);
+    park(parkingLot.getId(), "VAN", "VAN1");
+    assertEquals(0, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+
+    // when
+    webTestClient.post().uri("/api/parking-lot/{id}/unpark-vehicle/{licensePlate}", parkingLot.getId(), "VAN1").exchange()
+                 .expectStatus().isOk()
+                 .expectBody(Spot.class).value(spot -> assertFalse(spot.isOccupied()));
+
+    // then
+    assertEquals(3, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+    assertEquals(0, count("/api/parking-lot/{id}/van-spots", parkingLot.getId()));
+  }
+
+  @Test
+  void testUnparkUnknownVehicleIsNotFound() {
+    webTestClient.post().uri("/api/parking-lot/unpark-vehicle/{licensePlate}", "MISSING").exchange()
+                 .expectStatus().isNotFound()
+                 .expectBody().jsonPath("$.code").isEqualTo(404);
+  }
+
+  @Test
+  void testCreateParkingLotWithNegativeSpotCountFails() {
+    webTestClient.post().uri("/api/parking-lot")
+                 .bodyValue(ParkingLot.builder().name("Invalid Parking Lot").carSpots(-1).build())
+                 .exchange()
+                 .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                 .expectBody().jsonPath("$.message").isEqualTo("Spot counts must not be negative");
+  }
+
+  @Test
+  void testUnknownParkingLotIsNotFound() {
+    webTestClient.get().uri("/api/parking-lot/{id}", 999).exchange()
+                 .expectStatus().isNotFound()
+                 .expectBody().jsonPath("$.message").isEqualTo("No parking lot found for id 999");
+    webTestClient.post().uri("/api/parking-lot/{id}/park-vehicle", 999)
+                 .bodyValue(Map.of("type", "CAR", "licensePlate", "CAR1"))
+                 .exchange()
+                 .expectStatus().isNotFound();
+    webTestClient.get().uri("/api/parking-lot/{id}/occupancy", 999).exchange()
+                 .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testUnparkVehicleFromAnotherParkingLotIsNotFound() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 1, 0);
+    final ParkingLot other = createParkingLot(0, 1, 0);
+    park(parkingLot.getId(), "CAR", "CAR1");
+
+    // then
+    webTestClient.post().uri("/api/parking-lot/{id}/unpark-vehicle/{licensePlate}", other.getId(), "CAR1").exchange()
+                 .expectStatus().isNotFound()
+                 .expectBody().jsonPath("$.message")
+                 .isEqualTo("Could not find vehicle with license plate CAR1 in parking lot " + other.getId());
+    assertEquals(1, count("/api/parking-lot/{id}/occupied-spots", parkingLot.getId()));
+  }
+
+  @Test
+  void testCountsArePerParkingLot() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 2, 0);
+    final ParkingLot other = createParkingLot(0, 2, 0);
+
+    // when
+    park(parkingLot.getId(), "CAR", "CAR1");
+
+    // then
+    assertEquals(1, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+    assertEquals(1, count("/api/parking-lot/{id}/occupied-spots", parkingLot.getId()));
+    assertEquals(2, count("/api/parking-lot/{id}/available-spots", other.getId()));
+    assertEquals(0, count("/api/parking-lot/{id}/occupied-spots", other.getId()));
+    webTestClient.get().uri("/api/parking-lot/available-spots").exchange()
+                 .expectStatus().isOk()
+                 .expectBody(Integer.class).isEqualTo(3);
+    webTestClient.get().uri("/api/parking-lot/{id}/is-full", other.getId()).exchange()
+                 .expectStatus().isOk()
+                 .expectBody(String.class).isEqualTo("Available Spots");
+  }
+
+  @Test
+  void testParkVehiclesRejectsTheVehiclesWithoutASpot() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 1, 0);
+
+    // then
+    webTestClient.post().uri("/api/parking-lot/park-vehicles")
+                 .bodyValue(List.of(Map.of("type", "CAR", "licensePlate", "CAR1"), Map.of("type", "VAN", "licensePlate", "VAN1")))
+                 .exchange()
+                 .expectStatus().isOk()
+                 .expectBody()
+                 .jsonPath("$[0].licensePlate").isEqualTo("CAR1")
+                 .jsonPath("$[0].spot.parkingLotId").isEqualTo(parkingLot.getId())
+                 .jsonPath("$[1].spot").doesNotExist()
+                 .jsonPath("$[1].error").isEqualTo("There are no available spots for a van or car.");
+    assertEquals(0, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+  }
+
+  @Test
+  void testUnparkVehiclesFreesTheirSpotsAndReportsThePlatesNotFound() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 4, 0);
+    park(parkingLot.getId(), "VAN", "VAN1");
+    park(parkingLot.getId(), "CAR", "CAR1");
+
+    // then
+    webTestClient.post().uri("/api/parking-lot/unpark-vehicles")
+                 .bodyValue(List.of("VAN1", "MISSING", "CAR1"))
+                 .exchange()
+                 .expectStatus().isOk()
+                 .expectBody()
+                 .jsonPath("$.unparked.length()").isEqualTo(2)
+                 .jsonPath("$.unparked[0]").isEqualTo("VAN1")
+                 .jsonPath("$.freedSpotIds.length()").isEqualTo(4)
+                 .jsonPath("$.notFound[0]").isEqualTo("MISSING");
+    assertEquals(4, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+  }
+
+  @Test
+  void testGetOccupancyOfParkingLotCountsAVanOverCarSpots() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 3, 0);
+    park(parkingLot.getId(), "VAN", "VAN1");
+
+    // then
+    webTestClient.get().uri("/api/parking-lot/{id}/occupancy", parkingLot.getId()).exchange()
+                 .expectStatus().isOk()
+                 .expectBody()
+                 .jsonPath("$.parkingLotId").isEqualTo(parkingLot.getId())
+                 .jsonPath("$.full").isEqualTo(true)
+                 .jsonPath("$.spotTypes.CAR.occupied").isEqualTo(3)
+                 .jsonPath("$.spotTypes.CAR.occupiedBy.VAN").isEqualTo(3)
+                 .jsonPath("$.spotTypes.CAR.orphaned").isEqualTo(0)
+                 .jsonPath("$.spotsByVehicleType.VAN").isEqualTo(3)
+                 .jsonPath("$.vehicles.VAN").isEqualTo(1);
+  }
+
+  @Test
+  void testGetOccupancyOfEveryAndOfManyParkingLots() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(1, 2, 0);
+    final ParkingLot other = createParkingLot(0, 2, 1);
+    park(parkingLot.getId(), "MOTORCYCLE", "MOTO1");
+    park(other.getId(), "VAN", "VAN1");
+
+    // then
+    webTestClient.get().uri("/api/parking-lot/occupancy").exchange()
+                 .expectStatus().isOk()
+                 .expectBody()
+                 .jsonPath("$.total").isEqualTo(6)
+                 .jsonPath("$.occupied").isEqualTo(2)
+                 .jsonPath("$.vehicles.MOTORCYCLE").isEqualTo(1)
+                 .jsonPath("$.spotTypes.VAN.occupiedBy.VAN").isEqualTo(1);
+    webTestClient.post().uri("/api/parking-lot/occupancy")
+                 .bodyValue(List.of(other.getId(), parkingLot.getId()))
+                 .exchange()
+                 .expectStatus().isOk()
+                 .expectBody()
+                 .jsonPath("$[0].parkingLotId").isEqualTo(other.getId())
+                 .jsonPath("$[0].available").isEqualTo(2)
+                 .jsonPath("$[1].parkingLotId").isEqualTo(parkingLot.getId())
+                 .jsonPath("$[1].spotTypes.MOTORCYCLE.occupied").isEqualTo(1);
+  }
+
+  @Test
+  void testConcurrentGatesNeverShareASpot() {
+    // given
+    final ParkingLot parkingLot = createParkingLot(0, 10, 0);
+    final WebClient webClient = WebClient.create("http://localhost:" + port);
+
+    // when
+    final List<HttpStatusCode> statuses = Flux.range(0, 20)
+        .flatMap(i -> webClient.post().uri("/api/parking-lot/{id}/park-vehicle", parkingLot.getId())
+                               .bodyValue(Map.of("type", "CAR", "licensePlate", "GATE" + i))
+                               .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())), 20)
+        .collectList()
+        .block();
+
+    // then
+    assertEquals(10, Objects.requireNonNull(statuses).stream().filter(HttpStatusCode::is2xxSuccessful).count());
+    assertEquals(10, statuses.stream().filter(HttpStatusCode::is5xxServerError).count());
+    assertEquals(0, count("/api/parking-lot/{id}/available-spots", parkingLot.getId()));
+    assertEquals(10L, databaseClient.sql("SELECT COUNT(DISTINCT spot_id) FROM vehicle").map(row -> row.get(0, Long.class)).one().block());
+  }
+
+  private ParkingLot createParkingLot(final int motorcycleSpots, final int carSpots, final int vanSpots) {
+    return webTestClient.post().uri("/api/parking-lot")
+                        .bodyValue(ParkingLot.builder()
+                                             .name("Reactive Parking Lot")
+                                             .motorcycleSpots(motorcycleSpots)
+                                             .carSpots(carSpots)
+                                             .vanSpots(vanSpots)
+                                             .build())
+                        .exchange()
+                        .expectStatus().isCreated()
+                        .expectBody(ParkingLot.class)
+                        .returnResult()
+                        .getResponseBody();
+  }
+
+  private Spot park(final Long parkingLotId, final String type, final String licensePlate) {
+    return webTestClient.post().uri("/api/parking-lot/{id}/park-vehicle", parkingLotId)
+                        .bodyValue(Map.of("type", type, "licensePlate", licensePlate))
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBody(Spot.class)
+                        .returnResult()
+                        .getResponseBody();
+  }
+
+  private Integer count(final String uri, final Long parkingLotId) {
+    return webTestClient.get().uri(uri, parkingLotId).exchange()
+                        .expectStatus().isOk()
+                        .expectBody(Integer.class)
+                        .returnResult()
+                        .getResponseBody();
+  }
+}
@@ -0,0 +1,40 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.SpotType;
+
+import java.util.Set;
+
+/**
+ * Decides which free spot of a lot a vehicle gets. Implementations only read the per-type {@link FreeSpotSet}s
+ * through {@link LotOccupancy#nextFree(SpotType, int)} and {@link LotOccupancy#previousFree(SpotType, int)},
+ * so every choice stays sublinear in the size of the lot.
+ * The selected position is only a candidate: {@link LotOccupancy} takes it with a compare-and-set and asks again if it lost.
+ */
+public interface AllocationStrategy {
+
+  /**
+   * Selects the layout position of a free spot of one of the given types.
+   * @param lot        the lot to choose from
+   * @param candidates the spot types the vehicle may use
+   * @return the layout position, or -1 if none of the types has a free spot
+   */
+  int select(LotOccupancy lot, Set<SpotType> candidates);
+
+  /**
+   * Returns the strategy for a lot's allocation policy.
+   * @param policy           the policy, first-fit when null
+   * @param entrancePosition the layout position of the entrance, used by {@link AllocationPolicy#NEAREST_ENTRANCE}
+   * @return the strategy
+   */
+  static AllocationStrategy of(final AllocationPolicy policy, final Integer entrancePosition) {
+    if (policy == null) {
+      return FirstFitStrategy.INSTANCE;
+    }
+    return switch (policy) {
+      case FIRST_FIT -> FirstFitStrategy.INSTANCE;
+      case BEST_FIT -> BestFitStrategy.INSTANCE;
+      case NEAREST_ENTRANCE -> new NearestEntranceStrategy(entrancePosition == null ? 0 : entrancePosition);
+    };
+  }
+}
@@ -0,0 +1,33 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.SpotType;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Takes a spot of the smallest compatible type first, so a motorcycle only uses a car or van spot
+ * once the motorcycle spots are gone. Keeps larger spots, and runs of car spots, free for the vehicles that need them.
+ */
+public final class BestFitStrategy implements AllocationStrategy {
+
+  public static final BestFitStrategy INSTANCE = new BestFitStrategy();
+
+  private static final List<SpotType> SMALLEST_FIRST = List.of(SpotType.MOTORCYCLE, SpotType.CAR, SpotType.VAN);
+
+  private BestFitStrategy() {
+  }
+
+  @Override
+  public int select(final LotOccupancy lot, final Set<SpotType> candidates) {
+    for (final SpotType type : SMALLEST_FIRST) {
+      if (candidates.contains(type)) {
+        final int position = lot.nextFree(type, 0);
+        if (position >= 0) {
+          return position;
+        }
+      }
+    }
+    return -1;
+  }
+}
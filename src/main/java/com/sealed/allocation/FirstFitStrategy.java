@@ -0,0 +1,28 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.SpotType;
+
+import java.util.Set;
+
+/**
+ * Takes the free spot with the lowest layout position, whatever its type.
+ */
+public final class FirstFitStrategy implements AllocationStrategy {
+
+  public static final FirstFitStrategy INSTANCE = new FirstFitStrategy();
+
+  private FirstFitStrategy() {
+  }
+
+  @Override
+  public int select(final LotOccupancy lot, final Set<SpotType> candidates) {
+    int best = -1;
+    for (final SpotType type : candidates) {
+      final int position = lot.nextFree(type, 0);
+      if (position >= 0 && (best < 0 || position < best)) {
+        best = position;
+      }
+    }
+    return best;
+  }
+}
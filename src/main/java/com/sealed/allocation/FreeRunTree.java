@@ -0,0 +1,144 @@
+package com.sealed.allocation;
+
+import java.util.BitSet;
+
+/**
+ * Segment tree over the positions of a parking lot layout that tracks runs of consecutive free positions.
+ * Every node keeps the longest free prefix, suffix and inner run of its range, which lets
+ * {@link #firstRun(int)} find the leftmost run of a given length in O(log n) and {@link #set(int, boolean)}
+ * update a single position in O(log n).
+ * Positions can be marked as row starts: a run never spans a row start, so spots at the end of one row and the
+ * start of the next are not adjacent even though their positions are.
+ */
+public final class FreeRunTree {
+
+  private final int size;
+  private final int leaves;
+  private final int[] prefix;
+  private final int[] suffix;
+  private final int[] best;
+  private final BitSet rowStarts;
+
+  public FreeRunTree(final int size) {
+    this(size, new BitSet());
+  }
+
+  /**
+   * @param size      the number of positions
+   * @param rowStarts the positions that start a new row, no run spans them
+   */
+  public FreeRunTree(final int size, final BitSet rowStarts) {
+    this.size = size;
+    this.rowStarts = (BitSet) rowStarts.clone();
+    int capacity = 1;
+    while (capacity < size) {
+      capacity <<= 1;
+    }
+    this.leaves = capacity;
+    this.prefix = new int[capacity << 1];
+    this.suffix = new int[capacity << 1];
+    this.best = new int[capacity << 1];
+  }
+
+  /**
+   * Marks a position as free or taken.
+   * @param position the layout position
+   * @param free     whether the position is free
+   */
+  public void set(final int position, final boolean free) {
+    int node = leaves + position;
+    final int value = free ? 1 : 0;
+    if (best[node] == value) {
+      return;
+    }
+    prefix[node] = value;
+    suffix[node] = value;
+    best[node] = value;
+    int childLength = 1;
+    while (node > 1) {
+      node >>>= 1;
+      combine(node, childLength, (position & -(childLength << 1)) + childLength);
+      childLength <<= 1;
+    }
+  }
+
+  /**
+   * Sets every position in one pass, cheaper than calling {@link #set(int, boolean)} for each of them.
+   * @param free the free flag of every position, indexed by layout position
+   */
+  public void build(final boolean[] free) {
+    for (int position = 0; position < size; position++) {
+      final int value = free[position] ? 1 : 0;
+      prefix[leaves + position] = value;
+      suffix[leaves + position] = value;
+      best[leaves + position] = value;
+    }
+    int childLength = 1;
+    for (int levelStart = leaves >>> 1; levelStart >= 1; levelStart >>>= 1) {
+      for (int node = levelStart; node < levelStart << 1; node++) {
+        combine(node, childLength, (node - levelStart) * (childLength << 1) + childLength);
+      }
+      childLength <<= 1;
+    }
+  }
+
+  /**
+   * Finds the leftmost run of at least {@code length} free positions.
+   * @param length the run length
+   * @return the first position of the run, or -1 if there is none
+   */
+  public int firstRun(final int length) {
+    if (length <= 0 || best[1] < length) {
+      return -1;
+    }
+    int node = 1;
+    int start = 0;
+    int span = leaves;
+    while (span > 1) {
+      final int left = node << 1;
+      final int right = left + 1;
+      final int half = span >>> 1;
+      if (best[left] >= length) {
+        node = left;
+      } else if (joins(start + half) && suffix[left] + prefix[right] >= length) {
+        return start + half - suffix[left];
+      } else {
+        node = right;
+        start += half;
+      }
+      span = half;
+    }
+    return start;
+  }
+
+  /**
+   * Returns the length of the longest free run.
+   * @return the longest run length
+   */
+  public int longestRun() {
+    return best[1];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Merges the children of a node.
+   * @param node        the node
+   * @param childLength the number of positions covered by each child
+   * @param middle      the first position of the right child
+   */
+  private void combine(final int node, final int childLength, final int middle) {
+    final int left = node << 1;
+    final int right = left + 1;
+    final boolean joins = joins(middle);
+    prefix[node] = prefix[left] == childLength && joins ? childLength + prefix[right] : prefix[left];
+    suffix[node] = suffix[right] == childLength && joins ? childLength + suffix[left] : suffix[right];
+    best[node] = Math.max(Math.max(best[left], best[right]), joins ? suffix[left] + prefix[right] : 0);
+  }
+
+  private boolean joins(final int position) {
+    return !rowStarts.get(position);
+  }
+}
@@ -0,0 +1,311 @@
+package com.sealed.allocation;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of free spots, kept per {@link ParkingLot} and per {@link SpotType}.
+ * It is built from the {@code spot} table at startup and updated by park and unpark,
+ * so choosing a spot does not depend on the number of spots in a lot.
+ */
+@Component
+public class FreeSpotIndex {
+
+  private final ConcurrentNavigableMap<Long, LotOccupancy> lots = new ConcurrentSkipListMap<>();
+
+  /**
+   * Replaces the state of every lot found in the given spot rows. A lot indexed before keeps its allocation strategy.
+   * @param spots the spot rows to index, spots without a parking lot are ignored
+   */
+  public void load(final Collection<SpotState> spots) {
+    final Map<Long, List<SpotState>> byLot = spots.stream()
+        .filter(s -> s.parkingLotId() != null)
+        .collect(Collectors.groupingBy(SpotState::parkingLotId));
+    byLot.forEach((lotId, lotSpots) -> {
+      final LotOccupancy lot = new LotOccupancy(lotId, lotSpots);
+      final LotOccupancy previous = lots.put(lotId, lot);
+      if (previous != null) {
+        lot.setStrategy(previous.getStrategy());
+      }
+    });
+  }
+
+  /**
+   * Puts a lot rebuilt elsewhere, e.g. from a snapshot, replacing the indexed one but keeping its allocation strategy.
+   * @param lot the lot
+   */
+  public void restore(final LotOccupancy lot) {
+    final LotOccupancy previous = lots.put(lot.getParkingLotId(), lot);
+    if (previous != null) {
+      lot.setStrategy(previous.getStrategy());
+    }
+  }
+
+  /**
+   * Corrects the given lots against the spots the database holds as occupied, e.g. after a restore, since a snapshot may
+   * hold claims that were taken but never committed, and given back without being journaled.
+   * @param parkingLotIds the lots to correct, lots not indexed are skipped
+   * @param occupiedIds   the occupied spot ids, sorted
+   * @return the number of spots corrected
+   */
+  public int reconcile(final Collection<Long> parkingLotIds, final long[] occupiedIds) {
+    int changed = 0;
+    for (final Long parkingLotId : parkingLotIds) {
+      final LotOccupancy lot = lots.get(parkingLotId);
+      if (lot != null) {
+        changed += lot.reconcile(occupiedIds);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the indexed lots in id order. The lots are live, their state keeps changing while they are read.
+   * @return the lots
+   */
+  public Collection<LotOccupancy> lots() {
+    return List.copyOf(lots.values());
+  }
+
+  /**
+   * Returns an indexed lot. The lot is live, its state keeps changing while it is read.
+   * @param parkingLotId the parking lot
+   * @return the lot, or empty if it is not indexed
+   */
+  public Optional<LotOccupancy> lot(final long parkingLotId) {
+    return Optional.ofNullable(lots.get(parkingLotId));
+  }
+
+  /**
+   * Indexes a single lot unless it is indexed already, e.g. a lot created by another instance after startup.
+   * @param parkingLotId the parking lot
+   * @param spots        reads the spot rows of the lot, only called when the lot is missing
+   */
+  public void loadIfAbsent(final long parkingLotId, final Supplier<List<SpotState>> spots) {
+    lots.computeIfAbsent(parkingLotId, id -> new LotOccupancy(id, spots.get()));
+  }
+
+  /**
+   * Indexes a freshly persisted parking lot.
+   * @param parkingLot the parking lot, with its spots already holding generated ids
+   */
+  public void register(final ParkingLot parkingLot) {
+    if (parkingLot == null || parkingLot.getId() == null || parkingLot.getSpots() == null) {
+      return;
+    }
+    final List<SpotState> spots = parkingLot.getSpots().stream()
+        .filter(s -> s.getId() != null)
+        .map(s -> new SpotState(s.getId(), parkingLot.getId(), s.getType(), s.isOccupied(), s.getLayoutRow()))
+        .toList();
+    final LotOccupancy lot = new LotOccupancy(parkingLot.getId(), spots);
+    lot.setStrategy(AllocationStrategy.of(parkingLot.getAllocationPolicy(), parkingLot.getEntrancePosition()));
+    lots.put(parkingLot.getId(), lot);
+  }
+
+  /**
+   * Sets the allocation strategy of an indexed lot.
+   * @param parkingLotId the parking lot
+   * @param strategy     the strategy deciding which single spot a vehicle gets
+   */
+  public void configure(final long parkingLotId, final AllocationStrategy strategy) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    if (lot != null) {
+      lot.setStrategy(strategy);
+    }
+  }
+
+  /**
+   * Claims a free spot of any of the given types, looking at lots in id order.
+   * Within a lot the spot is chosen by the lot's {@link AllocationStrategy}.
+   * @param types the spot types the vehicle may use
+   * @return the claim, or empty if every lot is full for those types
+   */
+  public Optional<SpotClaim> claim(final Set<SpotType> types) {
+    for (final LotOccupancy lot : lots.values()) {
+      final Optional<SpotClaim> claim = claim(lot, types);
+      if (claim.isPresent()) {
+        return claim;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Claims a free spot of any of the given types in a single lot, chosen by the lot's {@link AllocationStrategy}.
+   * @param parkingLotId the parking lot
+   * @param types        the spot types the vehicle may use
+   * @return the claim, or empty if the lot is full for those types or is not indexed
+   */
+  public Optional<SpotClaim> claim(final long parkingLotId, final Set<SpotType> types) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    return lot == null ? Optional.empty() : claim(lot, types);
+  }
+
+  /**
+   * Claims {@code length} adjacent free spots of the given type, looking at lots in id order.
+   * @param type   the spot type
+   * @param length the number of adjacent spots
+   * @return the claim, or empty if no lot has such a run
+   */
+  public Optional<SpotClaim> claimRun(final SpotType type, final int length) {
+    for (final LotOccupancy lot : lots.values()) {
+      final Optional<SpotClaim> claim = claimRun(lot, type, length);
+      if (claim.isPresent()) {
+        return claim;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Claims {@code length} adjacent free spots of the given type in a single lot.
+   * @param parkingLotId the parking lot
+   * @param type         the spot type
+   * @param length       the number of adjacent spots
+   * @return the claim, or empty if the lot has no such run or is not indexed
+   */
+  public Optional<SpotClaim> claimRun(final long parkingLotId, final SpotType type, final int length) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    return lot == null ? Optional.empty() : claimRun(lot, type, length);
+  }
+
+  /**
+   * Gives back every spot of a claim, used when persisting the allocation failed.
+   * @param claim the claim to undo
+   */
+  public void release(final SpotClaim claim) {
+    for (final long spotId : claim.spotIds()) {
+      release(claim.parkingLotId(), spotId);
+    }
+  }
+
+  /**
+   * Marks a spot as free.
+   * @param parkingLotId the parking lot of the spot
+   * @param spotId       the spot that has been freed
+   */
+  public void release(final long parkingLotId, final long spotId) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    if (lot != null) {
+      lot.release(spotId);
+    }
+  }
+
+  /**
+   * Marks a spot as taken without going through a claim, e.g. when replaying recorded parks.
+   * @param parkingLotId the parking lot of the spot
+   * @param spotId       the spot that has been taken
+   */
+  public void occupy(final long parkingLotId, final long spotId) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    if (lot != null) {
+      lot.occupy(spotId);
+    }
+  }
+
+  /**
+   * Marks a spot as free.
+   * @param spot the spot that has been freed
+   */
+  public void release(final Spot spot) {
+    final LotOccupancy lot = lotOf(spot);
+    if (lot != null) {
+      lot.release(spot.getId());
+    }
+  }
+
+  /**
+   * Returns the ids of the spots laid out right before the given spot, nearest first.
+   * Falls back to the preceding ids when the spot's lot is not indexed.
+   * @param spot  the spot
+   * @param count how many preceding spots to return
+   * @return the preceding spot ids
+   */
+  public long[] preceding(final Spot spot, final int count) {
+    final Long parkingLotId = spot.getParkingLot() == null ? null : spot.getParkingLot().getId();
+    return preceding(parkingLotId, spot.getId(), count);
+  }
+
+  /**
+   * Returns the ids of the spots laid out right before the given spot, nearest first.
+   * Falls back to the preceding ids when the lot is not indexed.
+   * @param parkingLotId the parking lot of the spot, may be null
+   * @param spotId       the spot id
+   * @param count        how many preceding spots to return
+   * @return the preceding spot ids
+   */
+  public long[] preceding(final Long parkingLotId, final long spotId, final int count) {
+    final LotOccupancy lot = parkingLotId == null ? null : lots.get(parkingLotId);
+    if (lot != null) {
+      return lot.preceding(spotId, count);
+    }
+    final long[] result = new long[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = spotId - 1 - i;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the type of an indexed spot.
+   * @param parkingLotId the parking lot of the spot
+   * @param spotId       the spot id
+   * @return the spot type, or null if the spot is not indexed
+   */
+  public SpotType typeOf(final long parkingLotId, final long spotId) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    return lot == null ? null : lot.typeOf(spotId);
+  }
+
+  public int countFree() {
+    return lots.values().stream().mapToInt(LotOccupancy::countFree).sum();
+  }
+
+  public int countFree(final long parkingLotId) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    return lot == null ? 0 : lot.countFree();
+  }
+
+  public int size() {
+    return lots.values().stream().mapToInt(LotOccupancy::size).sum();
+  }
+
+  public int size(final long parkingLotId) {
+    final LotOccupancy lot = lots.get(parkingLotId);
+    return lot == null ? 0 : lot.size();
+  }
+
+  public boolean contains(final Long parkingLotId) {
+    return lots.containsKey(parkingLotId);
+  }
+
+  private Optional<SpotClaim> claim(final LotOccupancy lot, final Set<SpotType> types) {
+    final long spotId = lot.claim(types);
+    return spotId < 0 ? Optional.empty() : Optional.of(new SpotClaim(lot.getParkingLotId(), new long[] {spotId}));
+  }
+
+  private Optional<SpotClaim> claimRun(final LotOccupancy lot, final SpotType type, final int length) {
+    final long[] spotIds = lot.claimRun(type, length);
+    return spotIds == null ? Optional.empty() : Optional.of(new SpotClaim(lot.getParkingLotId(), spotIds));
+  }
+
+  private LotOccupancy lotOf(final Spot spot) {
+    if (spot == null || spot.getId() == null || spot.getParkingLot() == null || spot.getParkingLot().getId() == null) {
+      return null;
+    }
+    return lots.get(spot.getParkingLot().getId());
+  }
+}
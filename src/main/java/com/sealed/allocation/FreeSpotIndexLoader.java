@@ -0,0 +1,77 @@
+package com.sealed.allocation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.journal.ParkingJournal;
+import com.sealed.repository.ParkingLotRepository;
+import com.sealed.repository.SpotRepository;
+import com.sealed.snapshot.OccupancySnapshot;
+import com.sealed.snapshot.OccupancySnapshotter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class FreeSpotIndexLoader implements ApplicationRunner {
+
+  private final SpotRepository spotRepository;
+  private final ParkingLotRepository parkingLotRepository;
+  private final FreeSpotIndex freeSpotIndex;
+  private final ParkingJournal parkingJournal;
+  private final OccupancySnapshotter occupancySnapshotter;
+
+  @Autowired
+  public FreeSpotIndexLoader(final SpotRepository spotRepository, final ParkingLotRepository parkingLotRepository,
+                             final FreeSpotIndex freeSpotIndex, final ParkingJournal parkingJournal,
+                             final OccupancySnapshotter occupancySnapshotter) {
+    this.spotRepository = spotRepository;
+    this.parkingLotRepository = parkingLotRepository;
+    this.freeSpotIndex = freeSpotIndex;
+    this.parkingJournal = parkingJournal;
+    this.occupancySnapshotter = occupancySnapshotter;
+  }
+
+  /**
+   * Builds the {@link FreeSpotIndex} once the application has started, then applies the allocation policy of every lot.
+   * When both the {@link ParkingJournal} and snapshots are enabled, the index is read from the latest {@link OccupancySnapshot}
+   * and the journal events recorded after it are replayed; only lots created after the snapshot are read from the database.
+   * The restored lots are then corrected against the occupied spot ids, since the snapshot may hold claims that failed after it
+   * was taken. Otherwise the whole index is read from the {@code spot} table.
+   * @param args the application arguments
+   * @throws IOException if the journal could not be replayed
+   */
+  @Override
+  public void run(final ApplicationArguments args) throws IOException {
+    final long started = System.nanoTime();
+    final Optional<OccupancySnapshot> snapshot = parkingJournal.isEnabled() ? occupancySnapshotter.loadLatest() : Optional.empty();
+    final List<LotPolicy> policies = parkingLotRepository.findAllLotPolicies();
+    if (snapshot.isPresent() && snapshot.get().journalPosition() >= 0) {
+      snapshot.get().lots().forEach(freeSpotIndex::restore);
+      final long replayed = parkingJournal.replayInto(freeSpotIndex, snapshot.get().journalPosition());
+      final List<Long> restored = snapshot.get().lots().stream().map(LotOccupancy::getParkingLotId).toList();
+      final int corrected = freeSpotIndex.reconcile(restored, spotRepository.findOccupiedIds().stream().mapToLong(Long::longValue).toArray());
+      if (corrected > 0) {
+        log.warn("Corrected {} spots of the restored free spot index against the database", corrected);
+      }
+      policies.stream()
+              .filter(p -> !freeSpotIndex.contains(p.parkingLotId()))
+              .forEach(p -> freeSpotIndex.load(spotRepository.findSpotStatesByParkingLotId(p.parkingLotId())));
+      log.info("Free spot index restored from a snapshot of {} lots and {} journal events", snapshot.get().lots().size(), replayed);
+    } else {
+      final List<SpotState> spots = spotRepository.findAllSpotStates();
+      freeSpotIndex.load(spots);
+      log.info("Free spot index built from {} spots", spots.size());
+    }
+    policies.forEach(p -> freeSpotIndex.configure(p.parkingLotId(), p.strategy()));
+    log.info("Free spot index ready in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    occupancySnapshotter.schedule();
+  }
+}
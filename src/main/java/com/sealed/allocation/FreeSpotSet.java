@@ -0,0 +1,234 @@
+package com.sealed.allocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free hierarchical bitset over the positions of a parking lot layout.
+ * Level 0 holds one bit per position; each upper level holds one bit per non-empty word of the level below,
+ * so finding the next free position costs O(log64 n) word reads instead of a scan over the whole lot.
+ * Positions are taken with a compare-and-set on their level 0 word, so two threads can never take the same one.
+ * Upper levels are hints: a set bit may point to an empty word, which readers simply skip.
+ */
+public final class FreeSpotSet {
+
+  private static final int WORD_SHIFT = 6;
+
+  private final int size;
+  private final AtomicLongArray[] levels;
+  private final AtomicInteger cardinality = new AtomicInteger();
+
+  public FreeSpotSet(final int size) {
+    this.size = size;
+    final List<AtomicLongArray> words = new ArrayList<>();
+    int bits = Math.max(size, 1);
+    do {
+      final int length = (bits + Long.SIZE - 1) >>> WORD_SHIFT;
+      words.add(new AtomicLongArray(length));
+      bits = length;
+    } while (bits > 1);
+    this.levels = words.toArray(new AtomicLongArray[0]);
+  }
+
+  /**
+   * Marks the given position as free.
+   * @param position the layout position
+   * @return true if the position was taken before
+   */
+  public boolean set(final int position) {
+    final long bit = 1L << position;
+    final long before = levels[0].getAndAccumulate(position >>> WORD_SHIFT, bit, (word, mask) -> word | mask);
+    if ((before & bit) != 0) {
+      return false;
+    }
+    cardinality.incrementAndGet();
+    int index = position >>> WORD_SHIFT;
+    for (int level = 1; level < levels.length; level++) {
+      final long summary = 1L << index;
+      final long previous = levels[level].getAndAccumulate(index >>> WORD_SHIFT, summary, (word, mask) -> word | mask);
+      if ((previous & summary) != 0) {
+        break;
+      }
+      index >>>= WORD_SHIFT;
+    }
+    return true;
+  }
+
+  /**
+   * Takes the given position if it is free.
+   * @param position the layout position
+   * @return true if this call took the position, false if it was already taken
+   */
+  public boolean clear(final int position) {
+    final int word = position >>> WORD_SHIFT;
+    final long bit = 1L << position;
+    long before;
+    do {
+      before = levels[0].get(word);
+      if ((before & bit) == 0) {
+        return false;
+      }
+    } while (!levels[0].compareAndSet(word, before, before & ~bit));
+    cardinality.decrementAndGet();
+    if ((before & ~bit) == 0) {
+      clearSummary(1, word);
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether the given position is free.
+   * @param position the layout position
+   * @return true if the position is free
+   */
+  public boolean get(final int position) {
+    return position >= 0 && position < size && (levels[0].get(position >>> WORD_SHIFT) & (1L << position)) != 0;
+  }
+
+  /**
+   * Returns the first free position at or after {@code from}.
+   * @param from the position to start from
+   * @return the next free position, or -1 if there is none
+   */
+  public int next(final int from) {
+    if (from >= size) {
+      return -1;
+    }
+    final int position = next(0, Math.max(from, 0));
+    return position < size ? position : -1;
+  }
+
+  /**
+   * Returns the last free position at or before {@code from}.
+   * @param from the position to start from, searching downwards
+   * @return the previous free position, or -1 if there is none
+   */
+  public int previous(final int from) {
+    if (from < 0 || size == 0) {
+      return -1;
+    }
+    return previous(0, Math.min(from, size - 1));
+  }
+
+  /**
+   * Returns the first free position.
+   * @return the first free position, or -1 if there is none
+   */
+  public int first() {
+    return next(0);
+  }
+
+  /**
+   * Builds a set from the level 0 words returned by {@link #toWords()}.
+   * @param size  the number of positions
+   * @param words one bit per position, bits past {@code size} are ignored
+   * @return the set
+   */
+  public static FreeSpotSet fromWords(final int size, final long[] words) {
+    final FreeSpotSet set = new FreeSpotSet(size);
+    final int length = Math.min(words.length, set.levels[0].length());
+    int count = 0;
+    for (int word = 0; word < length; word++) {
+      final int valid = size - (word << WORD_SHIFT);
+      final long bits = valid >= Long.SIZE ? words[word] : words[word] & ((1L << valid) - 1);
+      set.levels[0].set(word, bits);
+      count += Long.bitCount(bits);
+    }
+    for (int level = 1; level < set.levels.length; level++) {
+      final AtomicLongArray below = set.levels[level - 1];
+      final AtomicLongArray summary = set.levels[level];
+      for (int index = 0; index < below.length(); index++) {
+        if (below.get(index) != 0) {
+          summary.set(index >>> WORD_SHIFT, summary.get(index >>> WORD_SHIFT) | (1L << index));
+        }
+      }
+    }
+    set.cardinality.set(count);
+    return set;
+  }
+
+  /**
+   * Copies the level 0 words, one bit per position. Every word is read atomically, the whole copy is not.
+   * @return the words
+   */
+  public long[] toWords() {
+    final long[] words = new long[levels[0].length()];
+    for (int word = 0; word < words.length; word++) {
+      words[word] = levels[0].get(word);
+    }
+    return words;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int cardinality() {
+    return cardinality.get();
+  }
+
+  private int next(final int depth, final int from) {
+    final AtomicLongArray level = levels[depth];
+    int index = from;
+    while (true) {
+      final int word = index >>> WORD_SHIFT;
+      if (word >= level.length()) {
+        return -1;
+      }
+      final long bits = level.get(word) & (-1L << index);
+      if (bits != 0) {
+        return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+      }
+      if (depth + 1 == levels.length) {
+        return -1;
+      }
+      final int nextWord = next(depth + 1, word + 1);
+      if (nextWord < 0) {
+        return -1;
+      }
+      index = nextWord << WORD_SHIFT;
+    }
+  }
+
+  private int previous(final int depth, final int from) {
+    final AtomicLongArray level = levels[depth];
+    int index = from;
+    while (true) {
+      final int word = index >>> WORD_SHIFT;
+      final long bits = level.get(word) & (-1L >>> (Long.SIZE - 1 - (index & (Long.SIZE - 1))));
+      if (bits != 0) {
+        return (word << WORD_SHIFT) + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+      }
+      if (word == 0 || depth + 1 == levels.length) {
+        return -1;
+      }
+      final int previousWord = previous(depth + 1, word - 1);
+      if (previousWord < 0) {
+        return -1;
+      }
+      index = (previousWord << WORD_SHIFT) + Long.SIZE - 1;
+    }
+  }
+
+  private void clearSummary(final int depth, final int index) {
+    if (depth == levels.length) {
+      return;
+    }
+    final AtomicLongArray level = levels[depth];
+    final int word = index >>> WORD_SHIFT;
+    final long bit = 1L << index;
+    final long before = level.getAndAccumulate(word, bit, (value, mask) -> value & ~mask);
+    if ((before & bit) == 0) {
+      return;
+    }
+    if (levels[depth - 1].get(index) != 0) {
+      level.getAndAccumulate(word, bit, (value, mask) -> value | mask);
+      return;
+    }
+    if ((before & ~bit) == 0) {
+      clearSummary(depth + 1, word);
+    }
+  }
+}
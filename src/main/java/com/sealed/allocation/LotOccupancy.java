@@ -0,0 +1,369 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.SpotType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Free-spot state of a single parking lot. Spots are laid out in id order and every {@link SpotType}
+ * has its own {@link FreeSpotSet} over that layout, so adjacent positions are adjacent spots.
+ * Spot types that vehicles may span over also get a {@link FreeRunTree} to find adjacent free spots. When the spots have
+ * layout rows, a run never spans two rows.
+ * Which single spot a vehicle gets is up to the lot's {@link AllocationStrategy}, first-fit unless configured.
+ * The bitsets are the source of truth and are claimed without locking; a run tree is only a guide,
+ * refreshed from its bitset under the tree's own monitor after every change.
+ * Every change also bumps the lot's occupancy version and is kept in a short {@link OccupancyChangeLog},
+ * so readers of the occupancy can ask for only what changed since the version they last saw.
+ */
+public final class LotOccupancy {
+
+  public static final Set<SpotType> DEFAULT_RUN_TYPES = EnumSet.of(SpotType.CAR);
+
+  private final long parkingLotId;
+  private final long[] spotIds;
+  private final SpotType[] types;
+  private final BitSet rowStarts = new BitSet();
+  private final Map<SpotType, FreeSpotSet> free = new EnumMap<>(SpotType.class);
+  private final Map<SpotType, FreeRunTree> runs = new EnumMap<>(SpotType.class);
+  private final OccupancyChangeLog changes;
+  private volatile AllocationStrategy strategy = FirstFitStrategy.INSTANCE;
+
+  public LotOccupancy(final long parkingLotId, final List<SpotState> spots) {
+    this(parkingLotId, spots, DEFAULT_RUN_TYPES);
+  }
+
+  public LotOccupancy(final long parkingLotId, final List<SpotState> spots, final Set<SpotType> runTypes) {
+    final List<SpotState> layout = spots.stream().sorted(Comparator.comparing(SpotState::id)).toList();
+    this.parkingLotId = parkingLotId;
+    this.spotIds = new long[layout.size()];
+    this.types = new SpotType[layout.size()];
+    this.changes = new OccupancyChangeLog(layout.size());
+    for (final SpotType type : SpotType.values()) {
+      free.put(type, new FreeSpotSet(layout.size()));
+    }
+    for (int position = 0; position < layout.size(); position++) {
+      final SpotState spot = layout.get(position);
+      spotIds[position] = spot.id();
+      types[position] = spot.type();
+      if (position > 0 && !Objects.equals(spot.layoutRow(), layout.get(position - 1).layoutRow())) {
+        rowStarts.set(position);
+      }
+      if (!spot.occupied() && spot.type() != null) {
+        free.get(spot.type()).set(position);
+      }
+    }
+    buildRuns(runTypes);
+  }
+
+  private LotOccupancy(final long parkingLotId, final long[] spotIds, final SpotType[] types, final int[] rowStarts,
+                       final Map<SpotType, long[]> freeWords, final Set<SpotType> runTypes) {
+    this.parkingLotId = parkingLotId;
+    this.spotIds = spotIds;
+    this.types = types;
+    for (final int position : rowStarts) {
+      this.rowStarts.set(position);
+    }
+    this.changes = new OccupancyChangeLog(spotIds.length);
+    for (final SpotType type : SpotType.values()) {
+      final long[] words = freeWords.get(type);
+      free.put(type, words == null ? new FreeSpotSet(spotIds.length) : FreeSpotSet.fromWords(spotIds.length, words));
+    }
+    buildRuns(runTypes);
+  }
+
+  /**
+   * Rebuilds a lot from the state returned by {@link #spotIds()}, {@link #types()}, {@link #rowStarts()} and
+   * {@link #freeWords(SpotType)}, e.g. when reading a snapshot.
+   * @param parkingLotId the parking lot
+   * @param spotIds      the spot ids in layout order, ascending
+   * @param types        the type of every spot, in layout order
+   * @param rowStarts    the positions that start a new layout row
+   * @param freeWords    the free positions of every spot type, one bit per position
+   * @return the lot, using first-fit until configured otherwise
+   */
+  public static LotOccupancy restore(final long parkingLotId, final long[] spotIds, final SpotType[] types,
+                                     final int[] rowStarts, final Map<SpotType, long[]> freeWords) {
+    if (spotIds.length != types.length) {
+      throw new IllegalArgumentException("Expected " + spotIds.length + " spot types but got " + types.length);
+    }
+    return new LotOccupancy(parkingLotId, spotIds, types, rowStarts, freeWords, DEFAULT_RUN_TYPES);
+  }
+
+  /**
+   * Takes the free spot chosen by the lot's {@link AllocationStrategy} among the given spot types.
+   * @param candidates the spot types the vehicle may use
+   * @return the claimed spot id, or -1 if none of the types has a free spot
+   */
+  public long claim(final Set<SpotType> candidates) {
+    while (true) {
+      final int position = strategy.select(this, candidates);
+      if (position < 0) {
+        return -1;
+      }
+      if (take(types[position], position)) {
+        return spotIds[position];
+      }
+    }
+  }
+
+  /**
+   * Takes the leftmost {@code length} consecutive free spots of the given type.
+   * @param type   the spot type of every spot in the run, must be one of the run types of this lot
+   * @param length the number of adjacent spots needed
+   * @return the claimed spot ids in layout order, or null if there is no such run
+   */
+  public long[] claimRun(final SpotType type, final int length) {
+    final FreeRunTree tree = runs.get(type);
+    if (tree == null) {
+      throw new IllegalArgumentException("Free runs are not tracked for spot type " + type);
+    }
+    while (true) {
+      final int start;
+      synchronized (tree) {
+        start = tree.firstRun(length);
+      }
+      if (start < 0) {
+        return null;
+      }
+      int taken = 0;
+      while (taken < length && take(type, start + taken)) {
+        taken++;
+      }
+      if (taken == length) {
+        return Arrays.copyOfRange(spotIds, start, start + length);
+      }
+      for (int position = start; position < start + taken; position++) {
+        give(type, position);
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * Marks a spot as free again.
+   * @param spotId the spot id
+   */
+  public void release(final long spotId) {
+    final int position = positionOf(spotId);
+    if (position >= 0 && types[position] != null) {
+      give(types[position], position);
+    }
+  }
+
+  /**
+   * Marks a spot as taken without going through a claim.
+   * @param spotId the spot id
+   */
+  public void occupy(final long spotId) {
+    final int position = positionOf(spotId);
+    if (position >= 0 && types[position] != null) {
+      take(types[position], position);
+    }
+  }
+
+  /**
+   * Brings the lot in line with the spots the database holds as occupied: those are taken and every other typed spot is free.
+   * @param occupiedIds the occupied spot ids, sorted, ids of other lots are ignored
+   * @return the number of spots whose state changed
+   */
+  public int reconcile(final long[] occupiedIds) {
+    int changed = 0;
+    int next = 0;
+    for (int position = 0; position < spotIds.length; position++) {
+      while (next < occupiedIds.length && occupiedIds[next] < spotIds[position]) {
+        next++;
+      }
+      final SpotType type = types[position];
+      if (type == null) {
+        continue;
+      }
+      final boolean occupied = next < occupiedIds.length && occupiedIds[next] == spotIds[position];
+      if (occupied ? take(type, position) : give(type, position)) {
+        changed++;
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the ids of the spots laid out right before the given spot, nearest first.
+   * @param spotId the spot id
+   * @param count  how many preceding spots to return
+   * @return the preceding spot ids, fewer than {@code count} at the start of the layout
+   */
+  public long[] preceding(final long spotId, final int count) {
+    final int position = positionOf(spotId);
+    final int available = Math.max(0, Math.min(count, position));
+    final long[] result = new long[available];
+    for (int i = 0; i < available; i++) {
+      result[i] = spotIds[position - 1 - i];
+    }
+    return result;
+  }
+
+  /**
+   * Returns the first free position of the given type at or after {@code from}.
+   * @param type the spot type
+   * @param from the layout position to start from
+   * @return the layout position, or -1 if there is none
+   */
+  public int nextFree(final SpotType type, final int from) {
+    return free.get(type).next(from);
+  }
+
+  /**
+   * Returns the last free position of the given type at or before {@code from}.
+   * @param type the spot type
+   * @param from the layout position to start from, searching downwards
+   * @return the layout position, or -1 if there is none
+   */
+  public int previousFree(final SpotType type, final int from) {
+    return free.get(type).previous(from);
+  }
+
+  /**
+   * Returns which positions of the layout are taken, one bit per position. Positions of spots without a type are taken.
+   * Read without locking, so it may already include changes made after {@link #version()} was read.
+   * @return the taken positions
+   */
+  public BitSet occupied() {
+    final BitSet occupied = new BitSet(spotIds.length);
+    for (final FreeSpotSet set : free.values()) {
+      occupied.or(BitSet.valueOf(set.toWords()));
+    }
+    occupied.flip(0, spotIds.length);
+    return occupied;
+  }
+
+  /**
+   * Returns the occupancy version of the lot, bumped by every spot taken or given back.
+   * @return the version
+   */
+  public long version() {
+    return changes.version();
+  }
+
+  /**
+   * Returns the layout positions whose occupancy changed after the given version, each once, in layout order.
+   * @param since a version returned by {@link #version()}
+   * @return the changed positions and the version they bring the reader to, or null if the changes since that
+   *         version are not known any more and the reader has to start over from {@link #occupied()}
+   */
+  public OccupancyChanges changedSince(final long since) {
+    final OccupancyChanges changed = changes.changedSince(since);
+    if (changed == null) {
+      return null;
+    }
+    return new OccupancyChanges(Arrays.stream(changed.positions()).distinct().sorted().toArray(), changed.version());
+  }
+
+  public AllocationStrategy getStrategy() {
+    return strategy;
+  }
+
+  public void setStrategy(final AllocationStrategy strategy) {
+    this.strategy = strategy;
+  }
+
+  public int countFree(final SpotType type) {
+    return free.get(type).cardinality();
+  }
+
+  public int countFree() {
+    int count = 0;
+    for (final FreeSpotSet set : free.values()) {
+      count += set.cardinality();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the type of a spot of this lot.
+   * @param spotId the spot id
+   * @return the spot type, or null if the spot is not part of this lot
+   */
+  public SpotType typeOf(final long spotId) {
+    final int position = positionOf(spotId);
+    return position >= 0 ? types[position] : null;
+  }
+
+  public long getParkingLotId() {
+    return parkingLotId;
+  }
+
+  public long[] spotIds() {
+    return spotIds.clone();
+  }
+
+  public SpotType[] types() {
+    return types.clone();
+  }
+
+  /**
+   * Returns the layout positions that start a new row, in ascending order. Empty if the spots have no rows.
+   * @return the row start positions
+   */
+  public int[] rowStarts() {
+    return rowStarts.stream().toArray();
+  }
+
+  public long[] freeWords(final SpotType type) {
+    return free.get(type).toWords();
+  }
+
+  public int size() {
+    return spotIds.length;
+  }
+
+  private void buildRuns(final Set<SpotType> runTypes) {
+    for (final SpotType type : runTypes) {
+      final FreeRunTree tree = new FreeRunTree(spotIds.length, rowStarts);
+      final FreeSpotSet set = free.get(type);
+      final boolean[] freeFlags = new boolean[spotIds.length];
+      for (int position = set.first(); position >= 0; position = set.next(position + 1)) {
+        freeFlags[position] = true;
+      }
+      tree.build(freeFlags);
+      runs.put(type, tree);
+    }
+  }
+
+  private boolean take(final SpotType type, final int position) {
+    if (!free.get(type).clear(position)) {
+      return false;
+    }
+    syncRun(type, position);
+    changes.record(position);
+    return true;
+  }
+
+  private boolean give(final SpotType type, final int position) {
+    if (!free.get(type).set(position)) {
+      return false;
+    }
+    syncRun(type, position);
+    changes.record(position);
+    return true;
+  }
+
+  private void syncRun(final SpotType type, final int position) {
+    final FreeRunTree tree = runs.get(type);
+    if (tree != null) {
+      synchronized (tree) {
+        tree.set(position, free.get(type).get(position));
+      }
+    }
+  }
+
+  private int positionOf(final long spotId) {
+    return Arrays.binarySearch(spotIds, spotId);
+  }
+}
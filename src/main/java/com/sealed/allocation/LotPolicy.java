@@ -0,0 +1,13 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.AllocationPolicy;
+
+/**
+ * Lightweight projection of the allocation settings of a {@code parking_lot} row.
+ */
+public record LotPolicy(Long parkingLotId, AllocationPolicy allocationPolicy, Integer entrancePosition) {
+
+  public AllocationStrategy strategy() {
+    return AllocationStrategy.of(allocationPolicy, entrancePosition);
+  }
+}
@@ -0,0 +1,41 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.SpotType;
+
+import java.util.Set;
+
+/**
+ * Takes the free spot laid out closest to the entrance of the lot, looking both ways from the entrance position.
+ * Ties go to the spot after the entrance.
+ */
+public final class NearestEntranceStrategy implements AllocationStrategy {
+
+  private final int entrancePosition;
+
+  public NearestEntranceStrategy(final int entrancePosition) {
+    this.entrancePosition = Math.max(entrancePosition, 0);
+  }
+
+  @Override
+  public int select(final LotOccupancy lot, final Set<SpotType> candidates) {
+    int best = -1;
+    int bestDistance = Integer.MAX_VALUE;
+    for (final SpotType type : candidates) {
+      final int after = lot.nextFree(type, entrancePosition);
+      if (after >= 0 && after - entrancePosition < bestDistance) {
+        best = after;
+        bestDistance = after - entrancePosition;
+      }
+      final int before = lot.previousFree(type, entrancePosition - 1);
+      if (before >= 0 && entrancePosition - before < bestDistance) {
+        best = before;
+        bestDistance = entrancePosition - before;
+      }
+    }
+    return best;
+  }
+
+  public int getEntrancePosition() {
+    return entrancePosition;
+  }
+}
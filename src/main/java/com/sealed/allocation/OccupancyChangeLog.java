@@ -0,0 +1,75 @@
+package com.sealed.allocation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free log of the layout positions changed in a lot, numbered by a version that grows with every change.
+ * Each slot packs the low 32 bits of its version with the position, so a reader can tell whether the slot still
+ * holds the change it is looking for, has been overwritten by a newer one or has not been written yet.
+ * Versions start from the creation time of the log, so a version handed out by an older log of the same lot is
+ * either too old or unknown to a newer one, never mistaken for one of its own.
+ */
+final class OccupancyChangeLog {
+
+  private static final int MIN_CAPACITY = 64;
+  private static final int MAX_CAPACITY = 4096;
+  private static final long LOW_BITS = 0xFFFF_FFFFL;
+
+  private final long base;
+  private final AtomicLong version;
+  private final AtomicLongArray slots;
+  private final int mask;
+
+  OccupancyChangeLog(final int positions) {
+    final int capacity = Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, positions - 1)) << 1));
+    this.base = System.currentTimeMillis() << 20;
+    this.version = new AtomicLong(base);
+    this.slots = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int slot = 0; slot < capacity; slot++) {
+      slots.set(slot, -1L);
+    }
+  }
+
+  /**
+   * Records a change of the given position.
+   * @param position the layout position
+   */
+  void record(final int position) {
+    final long changed = version.incrementAndGet();
+    slots.set((int) (changed & mask), (changed << 32) | position);
+  }
+
+  long version() {
+    return version.get();
+  }
+
+  /**
+   * Returns the positions changed after the given version, up to the returned version.
+   * @param since a version returned by {@link #version()}
+   * @return the positions changed, possibly with repeats, in the order they changed, and the version they cover;
+   *         null if the changes since that version are no longer, or were never, in this log
+   */
+  OccupancyChanges changedSince(final long since) {
+    final long current = version.get();
+    if (since < base || since > current || current - since > slots.length()) {
+      return null;
+    }
+    final int[] positions = new int[(int) (current - since)];
+    int count = 0;
+    for (long changed = since + 1; changed <= current; changed++) {
+      final long slot = slots.get((int) (changed & mask));
+      final int written = (int) ((slot >>> 32) - (changed & LOW_BITS));
+      if (written < 0) {
+        // recorded a version but not written its slot yet, report up to the version before
+        return new OccupancyChanges(Arrays.copyOf(positions, count), changed - 1);
+      } else if (written > 0) {
+        return null;
+      }
+      positions[count++] = (int) (slot & LOW_BITS);
+    }
+    return new OccupancyChanges(positions, current);
+  }
+}
@@ -0,0 +1,9 @@
+package com.sealed.allocation;
+
+/**
+ * Layout positions of a lot whose occupancy changed between two versions.
+ * @param positions the changed positions
+ * @param version   the version the changes bring a reader to
+ */
+public record OccupancyChanges(int[] positions, long version) {
+}
@@ -0,0 +1,31 @@
+package com.sealed.allocation;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+/**
+ * Lightweight projection of a {@code vehicle} row joined with the spot it is parked in,
+ * used to unpark vehicles in bulk without hydrating entities.
+ */
+public record ParkedVehicle(Long id, String licensePlate, VehicleType type, Long spotId, SpotType spotType, Long parkingLotId) {
+
+  /**
+   * Builds a detached vehicle holding only the ids and types of this projection, linked to an occupied spot when it has one.
+   * @return the vehicle
+   */
+  public Vehicle toVehicle() {
+    final Vehicle vehicle = Vehicle.builder().id(id).type(type).licensePlate(licensePlate).build();
+    if (spotId != null) {
+      vehicle.setSpot(Spot.builder()
+                          .id(spotId)
+                          .type(spotType)
+                          .isOccupied(true)
+                          .parkingLot(parkingLotId == null ? null : ParkingLot.builder().id(parkingLotId).build())
+                          .build());
+    }
+    return vehicle;
+  }
+}
@@ -0,0 +1,11 @@
+package com.sealed.allocation;
+
+/**
+ * Spots taken from the {@link FreeSpotIndex} for a single vehicle, in layout order.
+ */
+public record SpotClaim(long parkingLotId, long[] spotIds) {
+
+  public long spotId() {
+    return spotIds[0];
+  }
+}
@@ -0,0 +1,15 @@
+package com.sealed.allocation;
+
+import com.sealed.enums.SpotType;
+
+/**
+ * Lightweight projection of a {@code spot} row, used to build the in-memory allocation state
+ * without hydrating {@link com.sealed.entity.Spot} entities.
+ * @param layoutRow the row of the spot in the lot layout, or null if the lot has no rows
+ */
+public record SpotState(Long id, Long parkingLotId, SpotType type, boolean occupied, Integer layoutRow) {
+
+  public SpotState(final Long id, final Long parkingLotId, final SpotType type, final boolean occupied) {
+    this(id, parkingLotId, type, occupied, null);
+  }
+}
@@ -0,0 +1,9 @@
+package com.sealed.allocation;
+
+import com.sealed.entity.Vehicle;
+
+/**
+ * A vehicle together with the spots claimed for it from the {@link FreeSpotIndex}.
+ */
+public record VehicleClaim(Vehicle vehicle, SpotClaim claim) {
+}
@@ -0,0 +1,137 @@
+package com.sealed.cache;
+
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.dto.PlateCacheStats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of license plate to {@link ParkedVehicle}, filled by park and invalidated by unpark,
+ * so an exit finds the vehicle, its spot and its parking lot without a query.
+ * Plates are spread over segments, each a least-recently-used map behind its own lock, and every segment
+ * evicts its eldest entry once it holds its share of {@code parking.plate-cache.max-size}.
+ * Like the {@link com.sealed.allocation.FreeSpotIndex}, the cache only sees what this instance parks and unparks.
+ */
+@Component
+public class PlateCache {
+
+  private static final int SEGMENTS = 16;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+  private final int maxSize;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @Autowired
+  public PlateCache(@Value("${parking.plate-cache.max-size:100000}") final int maxSize) {
+    this.maxSize = Math.max(0, maxSize);
+    final int segmentSize = (this.maxSize + SEGMENTS - 1) / SEGMENTS;
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+  }
+
+  /**
+   * Looks up a parked vehicle, counting a hit or a miss.
+   * @param licensePlate the license plate
+   * @return the vehicle, or empty if it is not cached
+   */
+  public Optional<ParkedVehicle> get(final String licensePlate) {
+    final ParkedVehicle vehicle = licensePlate == null ? null : segmentOf(licensePlate).get(licensePlate);
+    (vehicle == null ? misses : hits).increment();
+    return Optional.ofNullable(vehicle);
+  }
+
+  /**
+   * Caches a parked vehicle under its license plate, possibly evicting the least recently used plate of its segment.
+   * @param vehicle the vehicle, ignored without an id, a license plate or a spot
+   */
+  public void put(final ParkedVehicle vehicle) {
+    if (maxSize == 0 || vehicle.id() == null || vehicle.licensePlate() == null || vehicle.spotId() == null) {
+      return;
+    }
+    segmentOf(vehicle.licensePlate()).put(vehicle.licensePlate(), vehicle);
+  }
+
+  /**
+   * Forgets a license plate, e.g. once its vehicle has left.
+   * @param licensePlate the license plate
+   */
+  public void invalidate(final String licensePlate) {
+    if (licensePlate != null) {
+      segmentOf(licensePlate).remove(licensePlate);
+    }
+  }
+
+  /**
+   * Forgets many license plates.
+   * @param licensePlates the license plates
+   */
+  public void invalidateAll(final Collection<String> licensePlates) {
+    licensePlates.forEach(this::invalidate);
+  }
+
+  public int size() {
+    int size = 0;
+    for (final Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  public PlateCacheStats stats() {
+    final long hitCount = hits.sum();
+    final long missCount = misses.sum();
+    final long lookups = hitCount + missCount;
+    return new PlateCacheStats(hitCount, missCount, evictions.sum(), size(), maxSize,
+                               lookups == 0 ? 0 : (double) hitCount / lookups);
+  }
+
+  private Segment segmentOf(final String licensePlate) {
+    final int hash = licensePlate.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+  }
+
+  private final class Segment {
+
+    private final Map<String, ParkedVehicle> entries;
+
+    private Segment(final int capacity) {
+      this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ParkedVehicle> eldest) {
+          if (size() > capacity) {
+            evictions.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    private synchronized ParkedVehicle get(final String licensePlate) {
+      return entries.get(licensePlate);
+    }
+
+    private synchronized void put(final String licensePlate, final ParkedVehicle vehicle) {
+      entries.put(licensePlate, vehicle);
+    }
+
+    private synchronized void remove(final String licensePlate) {
+      entries.remove(licensePlate);
+    }
+
+    private synchronized int size() {
+      return entries.size();
+    }
+  }
+}
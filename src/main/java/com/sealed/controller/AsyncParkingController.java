@@ -0,0 +1,155 @@
+package com.sealed.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.exception.ServiceException;
+import com.sealed.service.AsyncParkingService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous variants of the park, unpark and count endpoints. They return as soon as the operation is queued on the
+ * parking executor, which frees the servlet thread until the result is written, so many more gates can wait on a node
+ * than it has servlet threads. When the executor is saturated they answer 503 right away, and a request whose result is
+ * not ready within {@code parking.async.request-timeout-ms} answers 503 as well; the operation itself still completes.
+ */
+@Slf4j
+@RequestMapping("/api/parking-lot/async")
+@RestController
+public class AsyncParkingController {
+
+  private final AsyncParkingService asyncParkingService;
+  private final long timeoutMillis;
+
+  @Autowired
+  public AsyncParkingController(final AsyncParkingService asyncParkingService,
+                                @Value("${parking.async.request-timeout-ms:10000}") final long timeoutMillis) {
+    this.asyncParkingService = asyncParkingService;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Parks a vehicle in the parking lot.
+   * @param vehicle The vehicle to park
+   * @return A deferred ResponseEntity containing the spot where the vehicle was parked
+   */
+  @PostMapping("/park-vehicle")
+  public DeferredResult<ResponseEntity<Spot>> parkVehicle(@RequestBody final Vehicle vehicle) {
+    return respond(asyncParkingService.parkVehicle(vehicle), "parking a vehicle");
+  }
+
+  /**
+   * Parks a vehicle in a specific parking lot.
+   * @param id      The id of the parking lot
+   * @param vehicle The vehicle to park
+   * @return A deferred ResponseEntity containing the spot where the vehicle was parked
+   */
+  @PostMapping("/{id}/park-vehicle")
+  public DeferredResult<ResponseEntity<Spot>> parkVehicle(@PathVariable final Long id, @RequestBody final Vehicle vehicle) {
+    return respond(asyncParkingService.parkVehicle(id, vehicle), "parking a vehicle in parking lot " + id);
+  }
+
+  /**
+   * Unparks a vehicle from the parking lot.
+   * @param licensePlate The vehicle license plate to unpark
+   * @return A deferred ResponseEntity containing the spot the vehicle was parked in
+   */
+  @PostMapping("/unpark-vehicle/{licensePlate}")
+  public DeferredResult<ResponseEntity<Spot>> unparkVehicle(@PathVariable final String licensePlate) {
+    return respond(asyncParkingService.unparkVehicle(licensePlate), "unparking a vehicle");
+  }
+
+  /**
+   * Unparks a vehicle from a specific parking lot.
+   * @param id           The id of the parking lot
+   * @param licensePlate The vehicle license plate to unpark
+   * @return A deferred ResponseEntity containing the spot the vehicle was parked in
+   */
+  @PostMapping("/{id}/unpark-vehicle/{licensePlate}")
+  public DeferredResult<ResponseEntity<Spot>> unparkVehicle(@PathVariable final Long id, @PathVariable final String licensePlate) {
+    return respond(asyncParkingService.unparkVehicle(id, licensePlate), "unparking a vehicle from parking lot " + id);
+  }
+
+  /**
+   * Counts the number of available spots in the parking lot.
+   * @return A deferred ResponseEntity containing the number of available spots
+   */
+  @GetMapping("/available-spots")
+  public DeferredResult<ResponseEntity<Integer>> countAvailableSpots() {
+    return respond(asyncParkingService.countAvailableSpots(), "counting the available spots");
+  }
+
+  /**
+   * Counts the number of available spots in a specific parking lot.
+   * @param id The id of the parking lot
+   * @return A deferred ResponseEntity containing the number of available spots
+   */
+  @GetMapping("/{id}/available-spots")
+  public DeferredResult<ResponseEntity<Integer>> countAvailableSpots(@PathVariable final Long id) {
+    return respond(asyncParkingService.countAvailableSpots(id), "counting the available spots of parking lot " + id);
+  }
+
+  /**
+   * Counts the number of occupied spots in the parking lot.
+   * @return A deferred ResponseEntity containing the number of occupied spots
+   */
+  @GetMapping("/occupied-spots")
+  public DeferredResult<ResponseEntity<Integer>> countOccupiedSpots() {
+    return respond(asyncParkingService.countOccupiedSpots(), "counting the occupied spots");
+  }
+
+  /**
+   * Counts the number of occupied spots in a specific parking lot.
+   * @param id The id of the parking lot
+   * @return A deferred ResponseEntity containing the number of occupied spots
+   */
+  @GetMapping("/{id}/occupied-spots")
+  public DeferredResult<ResponseEntity<Integer>> countOccupiedSpots(@PathVariable final Long id) {
+    return respond(asyncParkingService.countOccupiedSpots(id), "counting the occupied spots of parking lot " + id);
+  }
+
+  /**
+   * Maps the result to a response, failures to a {@link ServiceException} like the blocking endpoints do. A rejected
+   * operation is passed on as is to be answered with 503, and a missing vehicle or parking lot to be answered with 404.
+   */
+  private <T> DeferredResult<ResponseEntity<T>> respond(final CompletableFuture<T> result, final String action) {
+    final DeferredResult<ResponseEntity<T>> response = new DeferredResult<>(timeoutMillis);
+    response.onTimeout(() -> log.warn("Timed out {} after {} ms", action, timeoutMillis));
+    result.whenComplete((value, e) -> {
+      if (e == null) {
+        response.setResult(ResponseEntity.ok(value));
+        return;
+      }
+      final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      if (cause instanceof RejectedExecutionException) {
+        log.warn("Rejected {}: {}", action, cause.getMessage());
+        response.setErrorResult(cause);
+        return;
+      }
+      if (cause instanceof EntityNotFoundException) {
+        log.warn("Error {}: {}", action, cause.getMessage());
+        response.setErrorResult(cause);
+        return;
+      }
+      log.error("Error {}: {}", action, cause.getMessage(), cause);
+      response.setErrorResult(new ServiceException(cause.getMessage(), cause));
+    });
+    return response;
+  }
+}
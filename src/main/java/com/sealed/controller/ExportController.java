@@ -0,0 +1,68 @@
+package com.sealed.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.service.ExportService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams the spot and vehicle state as NDJSON. The exports run as {@link WebAsyncTask}s with their own timeout,
+ * {@code parking.export.timeout-ms}, so long exports are not cut off by the short default of the other async requests.
+ */
+@Slf4j
+@RequestMapping("/api/export")
+@RestController
+public class ExportController {
+
+  private final ExportService exportService;
+  private final long timeoutMillis;
+
+  @Autowired
+  public ExportController(final ExportService exportService,
+                          @Value("${parking.export.timeout-ms:1800000}") final long timeoutMillis) {
+    this.exportService = exportService;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Streams every spot as NDJSON, one spot per line in id order, with the vehicle holding it.
+   * @param response The response the spots are written to as they are read from the database
+   * @return WebAsyncTask writing the spots
+   */
+  @ResponseStatus(HttpStatus.OK)
+  @GetMapping(value = "/spots", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public WebAsyncTask<Void> exportSpots(final HttpServletResponse response) {
+    return export(response, out -> log.info("Exported {} spots", exportService.exportSpots(out)));
+  }
+
+  /**
+   * Streams every vehicle as NDJSON, one vehicle per line in id order, with the spot and parking lot it is parked in.
+   * @param response The response the vehicles are written to as they are read from the database
+   * @return WebAsyncTask writing the vehicles
+   */
+  @ResponseStatus(HttpStatus.OK)
+  @GetMapping(value = "/vehicles", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public WebAsyncTask<Void> exportVehicles(final HttpServletResponse response) {
+    return export(response, out -> log.info("Exported {} vehicles", exportService.exportVehicles(out)));
+  }
+
+  private WebAsyncTask<Void> export(final HttpServletResponse response, final StreamingResponseBody body) {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    return new WebAsyncTask<>(timeoutMillis, () -> {
+      body.writeTo(response.getOutputStream());
+      response.flushBuffer();
+      return null;
+    });
+  }
+}
@@ -0,0 +1,50 @@
+package com.sealed.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.exception.ServiceException;
+import com.sealed.occupancy.OccupancyFeed;
+import com.sealed.service.ParkingLotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Slf4j
+@RequestMapping("/api/parking-lot")
+@RestController
+public class OccupancyEventsController {
+
+  private final ParkingLotService parkingLotService;
+  private final OccupancyFeed occupancyFeed;
+
+  @Autowired
+  public OccupancyEventsController(final ParkingLotService parkingLotService, final OccupancyFeed occupancyFeed) {
+    this.parkingLotService = parkingLotService;
+    this.occupancyFeed = occupancyFeed;
+  }
+
+  /**
+   * Streams the occupancy of a parking lot as Server-Sent Events. The current occupancy is sent first, then an
+   * {@code occupancy} event at most once per {@code parking.events.interval-ms} while vehicles park and unpark.
+   * @param id the id of the parking lot
+   * @return SseEmitter the stream of occupancy breakdowns
+   * @throws EntityNotFoundException if no parking lot is found with the specified id
+   * @throws ServiceException if the occupancy cannot be read or this node serves too many subscribers
+   */
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamOccupancy(@PathVariable final Long id) throws ServiceException {
+    parkingLotService.findParkingLotById(id);
+    try {
+      return occupancyFeed.subscribe(id, parkingLotService.getOccupancy(id));
+    } catch (final IllegalStateException e) {
+      log.error("Error subscribing to the occupancy of parking lot {}: {}", id, e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+}
@@ -3,9 +3,17 @@ package com.sealed.controller;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 
+import com.sealed.dto.OccupancyBitmap;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.dto.ParkingResult;
+import com.sealed.dto.PlateCacheStats;
+import com.sealed.dto.SpotPage;
+import com.sealed.dto.UnparkingResult;
 import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
 import com.sealed.exception.ServiceException;
 import com.sealed.service.ParkingLotService;
 
@@ -18,8 +26,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @Slf4j
 @RequestMapping("/api/parking-lot")
 @RestController
@@ -51,16 +62,37 @@ public class ParkingLotController {
     }
   }
 
+  /**
+   * Create a new parking lot whose spots are generated from its spot counts, for lots too large to send spot by spot.
+   * @param parkingLot  The new parking lot, any spots it holds are ignored
+   * @param spotsPerRow The optional number of spots in a row, to number the spots by row and position
+   * @return ResponseEntity<ParkingLotSummary> with the newly created parking lot, without its spots
+   * @throws ServiceException if a spot count is invalid or an error occurs while persisting the parking lot
+   */
+  @PostMapping("/provision")
+  public ResponseEntity<ParkingLotSummary> provisionParkingLot(@RequestBody final ParkingLot parkingLot,
+                                                               @RequestParam(required = false) final Integer spotsPerRow) throws ServiceException {
+    try {
+      var response = parkingLotService.provisionParkingLot(parkingLot, spotsPerRow);
+      return ResponseEntity.status(HttpStatus.CREATED)
+                           .contentType(MediaType.APPLICATION_JSON)
+                           .body(response);
+    } catch (final Exception e) {
+      log.error("Error provisioning a new ParkLot: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
   /**
    * Retrieve a parking lot by its id.
    * @param id The id of the parking lot to be retrieved
-   * @return ResponseEntity<ParkingLot> with the parking lot matching the specified id
+   * @return ResponseEntity<ParkingLotSummary> with the parking lot matching the specified id, its occupancy but not its spots
    * @throws EntityNotFoundException if no parking lot is found with the specified id
    */
   @GetMapping("/{id}")
-  public ResponseEntity<ParkingLot> getParkingLot(@PathVariable final Long id) throws EntityNotFoundException {
+  public ResponseEntity<ParkingLotSummary> getParkingLot(@PathVariable final Long id) throws EntityNotFoundException {
     try {
-      var result = parkingLotService.findParkingLotById(id);
+      var result = parkingLotService.getParkingLotSummary(id);
       return ResponseEntity.ok(result);
     } catch (final Exception e) {
       log.error("No parking lot found", e);
@@ -68,6 +100,35 @@ public class ParkingLotController {
     }
   }
 
+  /**
+   * Lists the spots of a parking lot page by page, in id order.
+   * @param id       The id of the parking lot
+   * @param type     The optional spot type to filter on
+   * @param occupied The optional occupied flag to filter on
+   * @param after    The {@code next} key of the previous page, 0 or missing for the first page
+   * @param size     The page size, 100 by default and at most 1000
+   * @return ResponseEntity<SpotPage> with the spots of the page and the key of the next page
+   * @throws EntityNotFoundException if no parking lot is found with the specified id
+   * @throws ServiceException if the page size is invalid or an error occurs while reading the spots
+   */
+  @GetMapping("/{id}/spots")
+  public ResponseEntity<SpotPage> findSpots(@PathVariable final Long id,
+                                            @RequestParam(required = false) final SpotType type,
+                                            @RequestParam(required = false) final Boolean occupied,
+                                            @RequestParam(defaultValue = "0") final long after,
+                                            @RequestParam(defaultValue = "100") final int size) throws ServiceException {
+    try {
+      var result = parkingLotService.findSpots(id, type, occupied, after, size);
+      return ResponseEntity.ok(result);
+    } catch (final EntityNotFoundException e) {
+      log.error("No parking lot found", e);
+      throw e;
+    } catch (final Exception e) {
+      log.error("Error listing the spots of parking lot {}: {}", id, e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
   /**
    * Parks a vehicle in the parking lot.
    * @param vehicle The vehicle to park
@@ -85,6 +146,23 @@ public class ParkingLotController {
     }
   }
 
+  /**
+   * Parks a batch of vehicles in the parking lot in a single transaction.
+   * @param vehicles The vehicles to park
+   * @return A ResponseEntity containing, for every vehicle, the spot where it was parked or the reason it was rejected
+   * @throws ServiceException if an unexpected error occurs while parking the batch
+   */
+  @PostMapping("/park-vehicles")
+  public ResponseEntity<List<ParkingResult>> parkVehicles(@RequestBody final List<Vehicle> vehicles) throws ServiceException {
+    try {
+      var results = parkingLotService.parkVehicles(vehicles);
+      return ResponseEntity.ok(results);
+    } catch (final Exception e) {
+      log.error("Error parking a batch of vehicles: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
   /**
    * Unparks a vehicle in the parking lot.
    * @param licensePlate The vehicle license plate to unpark
@@ -102,6 +180,23 @@ public class ParkingLotController {
     }
   }
 
+  /**
+   * Unparks a batch of vehicles in the parking lot.
+   * @param licensePlates The license plates of the vehicles to unpark
+   * @return A ResponseEntity containing the unparked plates, the freed spots and the plates that were not found
+   * @throws ServiceException if an error occurs while unparking the vehicles
+   */
+  @PostMapping("/unpark-vehicles")
+  public ResponseEntity<UnparkingResult> unparkVehicles(@RequestBody final List<String> licensePlates) throws ServiceException {
+    try {
+      var result = parkingLotService.unparkVehicles(licensePlates);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error unparking a batch of vehicles: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
   /**
    * Checks if the parking lot is full.
    * @return A ResponseEntity containing a string indicating whether the parking lot is full or not
@@ -166,4 +261,205 @@ public class ParkingLotController {
       throw new ServiceException(e.getMessage(), e);
     }
   }
+
+  /**
+   * GET endpoint returning the occupancy of every parking lot broken down by spot type and vehicle type.
+   * @return a ResponseEntity containing the occupancy breakdown
+   * @throws ServiceException if there is an error while counting the spots
+   */
+  @GetMapping("/occupancy")
+  public ResponseEntity<OccupancyBreakdown> getOccupancy() throws ServiceException {
+    try {
+      var result = parkingLotService.getOccupancy();
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy breakdown: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the occupancy breakdown of many parking lots in one response.
+   * @param parkingLotIds The ids of the parking lots
+   * @return a ResponseEntity containing one occupancy breakdown per id, in the same order
+   * @throws ServiceException if there is an error while counting the spots
+   */
+  @PostMapping("/occupancy")
+  public ResponseEntity<List<OccupancyBreakdown>> getOccupancy(@RequestBody final List<Long> parkingLotIds) throws ServiceException {
+    try {
+      var results = parkingLotService.getOccupancy(parkingLotIds);
+      return ResponseEntity.ok(results);
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy breakdowns: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * GET endpoint returning the hit, miss and eviction counts of the license plate cache used by unpark.
+   * @return a ResponseEntity containing the cache statistics
+   */
+  @GetMapping("/plate-cache")
+  public ResponseEntity<PlateCacheStats> getPlateCacheStats() {
+    return ResponseEntity.ok(parkingLotService.getPlateCacheStats());
+  }
+
+  /**
+   * Parks a vehicle in the given parking lot.
+   * @param id      The id of the parking lot
+   * @param vehicle The vehicle to park
+   * @return A ResponseEntity containing the spot where the vehicle was parked
+   * @throws ServiceException if an error occurs while parking the vehicle
+   */
+  @PostMapping("/{id}/park-vehicle")
+  public ResponseEntity<Spot> parkVehicle(@PathVariable final Long id, @RequestBody final Vehicle vehicle) throws ServiceException {
+    try {
+      var result = parkingLotService.parkVehicle(id, vehicle);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error parking a vehicle: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Unparks a vehicle from the given parking lot.
+   * @param id           The id of the parking lot
+   * @param licensePlate The vehicle license plate to unpark
+   * @return A ResponseEntity containing the spot where the vehicle was parked
+   * @throws ServiceException if an error occurs while unparking the vehicle
+   */
+  @PostMapping("/{id}/unpark-vehicle/{licensePlate}")
+  public ResponseEntity<Spot> unparkVehicle(@PathVariable final Long id, @PathVariable final String licensePlate) throws ServiceException {
+    try {
+      var result = parkingLotService.unparkVehicle(id, licensePlate);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error unparking a vehicle: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Checks if the given parking lot is full.
+   * @param id The id of the parking lot
+   * @return A ResponseEntity containing a string indicating whether the parking lot is full or not
+   * @throws ServiceException if an error occurs while checking if the parking lot is full
+   */
+  @GetMapping("/{id}/is-full")
+  public ResponseEntity<String> isParkingLotFull(@PathVariable final Long id) throws ServiceException {
+    try {
+      var result = parkingLotService.isParkingLotFull(id);
+      String response = result ? "Full Parking Lot" : "Available Spots";
+      return ResponseEntity.ok(response);
+    } catch (final Exception e) {
+      log.error("Error checking if the parking lot is full: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Counts the number of available spots in the given parking lot.
+   * @param id The id of the parking lot
+   * @return A ResponseEntity containing the number of available spots in the parking lot
+   * @throws ServiceException if an error occurs while counting the available spots
+   */
+  @GetMapping("/{id}/available-spots")
+  public ResponseEntity<Integer> countAvailableSpots(@PathVariable final Long id) throws ServiceException {
+    try {
+      var result = parkingLotService.countAvailableSpots(id);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error counting the available spots: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Counts the number of occupied spots in the given parking lot.
+   * @param id The id of the parking lot
+   * @return a ResponseEntity containing the number of occupied spots as an integer value
+   * @throws ServiceException if there is an error while counting the occupied spots
+   */
+  @GetMapping("/{id}/occupied-spots")
+  public ResponseEntity<Integer> countOccupiedSpots(@PathVariable final Long id) throws ServiceException {
+    try {
+      var result = parkingLotService.countOccupiedSpots(id);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error counting the occupied spots: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Counts the number of van spots in the given parking lot.
+   * @param id The id of the parking lot
+   * @return a ResponseEntity containing the number of van spots as an integer value
+   * @throws ServiceException if there is an error while counting the van spots
+   */
+  @GetMapping("/{id}/van-spots")
+  public ResponseEntity<Integer> countVanSpots(@PathVariable final Long id) throws ServiceException {
+    try {
+      var result = parkingLotService.countVanSpots(id);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error counting the van spots: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the occupancy of the given parking lot: total, available and occupied spots per spot type,
+   * and the spots and vehicles per vehicle type, in one response.
+   * @param id The id of the parking lot
+   * @return a ResponseEntity containing the occupancy breakdown of the lot
+   * @throws ServiceException if there is an error while counting the spots
+   */
+  @GetMapping("/{id}/occupancy")
+  public ResponseEntity<OccupancyBreakdown> getOccupancy(@PathVariable final Long id) throws ServiceException {
+    try {
+      var result = parkingLotService.getOccupancy(id);
+      return ResponseEntity.ok(result);
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy breakdown: {}", e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * GET endpoint returning which spots of a parking lot are taken, one bit per spot in layout order, for clients that redraw often.
+   * The version of the bitmap is returned in the {@code X-Occupancy-Version} header; passing it back as {@code since}
+   * returns only the spots changed after it, or the full bitmap again when those changes are too old.
+   * @param id       The id of the parking lot
+   * @param encoding RAW (default) or RLE, the encoding of a full bitmap
+   * @param since    The optional version the client already has
+   * @return a ResponseEntity containing the encoded bitmap, its encoding, version and number of spots in headers
+   * @throws EntityNotFoundException if no parking lot is found with the specified id
+   * @throws ServiceException if the encoding is invalid
+   */
+  @GetMapping(value = "/{id}/occupancy-bitmap", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<byte[]> getOccupancyBitmap(@PathVariable final Long id,
+                                                   @RequestParam(required = false) final OccupancyBitmap.Encoding encoding,
+                                                   @RequestParam(required = false) final Long since) throws ServiceException {
+    try {
+      var bitmap = parkingLotService.getOccupancyBitmap(id, encoding, since);
+      var response = ResponseEntity.ok()
+                                   .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                                   .header("X-Occupancy-Version", String.valueOf(bitmap.version()))
+                                   .header("X-Bitmap-Encoding", bitmap.encoding().name())
+                                   .header("X-Spot-Count", String.valueOf(bitmap.size()));
+      if (bitmap.since() != null) {
+        response.header("X-Occupancy-Since", String.valueOf(bitmap.since()));
+      }
+      return response.body(bitmap.data());
+    } catch (final EntityNotFoundException e) {
+      log.error("No parking lot found", e);
+      throw e;
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy bitmap of parking lot {}: {}", id, e.getMessage(), e);
+      throw new ServiceException(e.getMessage(), e);
+    }
+  }
+
 }
@@ -0,0 +1,91 @@
+package com.sealed.dto;
+
+import com.sealed.allocation.LotOccupancy;
+import com.sealed.allocation.OccupancyChanges;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Occupancy of the spots of a lot in layout order, one bit per spot set when the spot is taken, encoded for clients
+ * that redraw it often:
+ * <ul>
+ *   <li>{@link Encoding#RAW}: {@code ceil(size / 8)} bytes, the bit of position {@code i} is bit {@code i % 8} of byte {@code i / 8};</li>
+ *   <li>{@link Encoding#RLE}: the lengths of the alternating runs of free and taken spots as unsigned LEB128 varints,
+ *       starting with a run of free spots that may be empty;</li>
+ *   <li>{@link Encoding#DELTA}: a varint count followed, for every position changed since {@code since} in layout order,
+ *       by a varint of its distance to the previous changed position, shifted left by one, with its current bit in bit 0.</li>
+ * </ul>
+ * A reader applying a delta to the bitmap of version {@code since} gets the bitmap of {@code version}, or a newer one:
+ * positions changed while the bitmap was read may already show their new state and show up again in the next delta.
+ * @param since the version a delta starts from, null for a full bitmap
+ */
+public record OccupancyBitmap(long parkingLotId, long version, Long since, int size, Encoding encoding, byte[] data) {
+
+  public enum Encoding { RAW, RLE, DELTA }
+
+  /**
+   * Encodes the whole occupancy of a lot.
+   * @param lot      the lot
+   * @param encoding {@link Encoding#RAW} or {@link Encoding#RLE}
+   * @return the bitmap
+   */
+  public static OccupancyBitmap of(final LotOccupancy lot, final Encoding encoding) {
+    final long version = lot.version();
+    final BitSet occupied = lot.occupied();
+    final byte[] data = encoding == Encoding.RLE ? runLengths(occupied, lot.size()) : Arrays.copyOf(occupied.toByteArray(), (lot.size() + 7) / 8);
+    return new OccupancyBitmap(lot.getParkingLotId(), version, null, lot.size(), encoding == Encoding.RLE ? Encoding.RLE : Encoding.RAW, data);
+  }
+
+  /**
+   * Encodes the positions of a lot changed since a version, or its whole occupancy when those changes are not known any more.
+   * @param lot      the lot
+   * @param since    the version the reader has
+   * @param fallback the encoding of the whole occupancy, {@link Encoding#RAW} or {@link Encoding#RLE}
+   * @return the delta, or the full bitmap
+   */
+  public static OccupancyBitmap since(final LotOccupancy lot, final long since, final Encoding fallback) {
+    final OccupancyChanges changes = lot.changedSince(since);
+    if (changes == null) {
+      return of(lot, fallback);
+    }
+    final BitSet occupied = lot.occupied();
+    final VarintWriter out = new VarintWriter();
+    out.writeVarint(changes.positions().length);
+    int previous = 0;
+    for (final int position : changes.positions()) {
+      out.writeVarint(((long) (position - previous) << 1) | (occupied.get(position) ? 1 : 0));
+      previous = position;
+    }
+    return new OccupancyBitmap(lot.getParkingLotId(), changes.version(), since, lot.size(), Encoding.DELTA, out.toByteArray());
+  }
+
+  private static byte[] runLengths(final BitSet occupied, final int size) {
+    final VarintWriter out = new VarintWriter();
+    boolean taken = false;
+    int position = 0;
+    while (position < size) {
+      int end = taken ? occupied.nextClearBit(position) : occupied.nextSetBit(position);
+      if (end < 0 || end > size) {
+        end = size;
+      }
+      out.writeVarint(end - position);
+      position = end;
+      taken = !taken;
+    }
+    return out.toByteArray();
+  }
+
+  private static final class VarintWriter extends ByteArrayOutputStream {
+
+    void writeVarint(final long value) {
+      long remaining = value;
+      while ((remaining & ~0x7FL) != 0) {
+        write((int) ((remaining & 0x7F) | 0x80));
+        remaining >>>= 7;
+      }
+      write((int) remaining);
+    }
+  }
+}
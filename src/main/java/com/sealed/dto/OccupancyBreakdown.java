@@ -0,0 +1,24 @@
+package com.sealed.dto;
+
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import java.util.Map;
+
+/**
+ * Occupancy of a parking lot, or of every lot, broken down by spot type and vehicle type.
+ * A van parked over car spots counts as one van in {@code vehicles} and as every car spot it takes in {@code spotsByVehicleType}.
+ * @param parkingLotId       the parking lot, null for every lot
+ * @param total              the number of spots
+ * @param available          the number of free spots
+ * @param occupied           the number of occupied spots
+ * @param full               whether no spot is free
+ * @param spotTypes          the occupancy of every spot type
+ * @param spotsByVehicleType the number of spots taken by every vehicle type
+ * @param vehicles           the number of parked vehicles of every type
+ */
+public record OccupancyBreakdown(Long parkingLotId, int total, int available, int occupied, boolean full,
+                                 Map<SpotType, SpotTypeOccupancy> spotTypes,
+                                 Map<VehicleType, Integer> spotsByVehicleType,
+                                 Map<VehicleType, Integer> vehicles) {
+}
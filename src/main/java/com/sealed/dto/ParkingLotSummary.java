@@ -0,0 +1,24 @@
+package com.sealed.dto;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.enums.AllocationPolicy;
+
+/**
+ * A parking lot without its spots, for responses about lots too large to serialize spot by spot.
+ * The spots themselves are listed page by page by {@code GET /api/parking-lot/{id}/spots}.
+ * @param occupancy the occupancy of the lot, null when it is not known yet, e.g. right after provisioning
+ */
+public record ParkingLotSummary(Long id, String name, Integer capacity, Integer motorcycleSpots, Integer carSpots,
+                                Integer vanSpots, AllocationPolicy allocationPolicy, Integer entrancePosition,
+                                OccupancyBreakdown occupancy) {
+
+  public static ParkingLotSummary of(final ParkingLot parkingLot) {
+    return of(parkingLot, null);
+  }
+
+  public static ParkingLotSummary of(final ParkingLot parkingLot, final OccupancyBreakdown occupancy) {
+    return new ParkingLotSummary(parkingLot.getId(), parkingLot.getName(), parkingLot.getCapacity(),
+                                 parkingLot.getMotorcycleSpots(), parkingLot.getCarSpots(), parkingLot.getVanSpots(),
+                                 parkingLot.getAllocationPolicy(), parkingLot.getEntrancePosition(), occupancy);
+  }
+}
@@ -0,0 +1,17 @@
+package com.sealed.dto;
+
+import com.sealed.entity.Spot;
+
+/**
+ * Outcome of parking one vehicle of a batch: either the spot it was parked in or the reason it was rejected.
+ */
+public record ParkingResult(String licensePlate, Spot spot, String error) {
+
+  public static ParkingResult parked(final String licensePlate, final Spot spot) {
+    return new ParkingResult(licensePlate, spot, null);
+  }
+
+  public static ParkingResult rejected(final String licensePlate, final String error) {
+    return new ParkingResult(licensePlate, null, error);
+  }
+}
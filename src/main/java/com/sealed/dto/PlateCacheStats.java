@@ -0,0 +1,13 @@
+package com.sealed.dto;
+
+/**
+ * Counters of the license plate cache since startup.
+ * @param hits      lookups answered from the cache
+ * @param misses    lookups that had to go to the database
+ * @param evictions entries dropped to stay within the size bound
+ * @param size      the number of cached plates
+ * @param maxSize   the size bound
+ * @param hitRate   hits over lookups, 0 before the first lookup
+ */
+public record PlateCacheStats(long hits, long misses, long evictions, int size, int maxSize, double hitRate) {
+}
@@ -0,0 +1,11 @@
+package com.sealed.dto;
+
+import java.util.List;
+
+/**
+ * A page of the spots of a parking lot, in id order.
+ * @param spots the spots of the page
+ * @param next  the id to pass as {@code after} to read the next page, null on the last page
+ */
+public record SpotPage(List<SpotView> spots, Long next) {
+}
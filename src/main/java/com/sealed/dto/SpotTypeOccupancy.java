@@ -0,0 +1,16 @@
+package com.sealed.dto;
+
+import com.sealed.enums.VehicleType;
+
+import java.util.Map;
+
+/**
+ * Occupancy of the spots of one {@link com.sealed.enums.SpotType}.
+ * @param total      the number of spots of the type
+ * @param available  the number of free spots
+ * @param occupied   the number of occupied spots
+ * @param occupiedBy the number of occupied spots per type of vehicle holding them
+ * @param orphaned   the number of occupied spots no parked vehicle accounts for, e.g. left behind by a failed unpark
+ */
+public record SpotTypeOccupancy(int total, int available, int occupied, Map<VehicleType, Integer> occupiedBy, int orphaned) {
+}
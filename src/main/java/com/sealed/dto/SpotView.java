@@ -0,0 +1,19 @@
+package com.sealed.dto;
+
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+/**
+ * A spot as listed by the paged spot endpoint and the spot export, with the vehicle holding it flattened in.
+ * @param id             the spot id, also the key to continue the listing after this spot
+ * @param parkingLotId   the parking lot of the spot
+ * @param type           the spot type
+ * @param occupied       whether the spot is taken
+ * @param layoutRow      the 1-based row of the spot, null if the lot has no row layout
+ * @param layoutPosition the 1-based position of the spot in its row, null if the lot has no row layout
+ * @param vehicleType    the type of the vehicle linked to the spot, null if none
+ * @param licensePlate   the license plate of the vehicle linked to the spot, null if none
+ */
+public record SpotView(Long id, Long parkingLotId, SpotType type, boolean occupied, Integer layoutRow, Integer layoutPosition,
+                       VehicleType vehicleType, String licensePlate) {
+}
@@ -0,0 +1,10 @@
+package com.sealed.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of unparking a batch of vehicles: the plates that were unparked, the spots freed for them
+ * and the plates that did not match any parked vehicle.
+ */
+public record UnparkingResult(List<String> unparked, List<Long> freedSpotIds, List<String> notFound) {
+}
@@ -3,8 +3,14 @@ package com.sealed.entity;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +20,7 @@ import lombok.experimental.SuperBuilder;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.sealed.entity.base.BaseEntity;
+import com.sealed.enums.AllocationPolicy;
 
 import java.util.List;
 
@@ -26,11 +33,17 @@ import java.util.List;
 @Table(name = "parking_lot")
 public class ParkingLot extends BaseEntity {
 
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_lot_id_generator")
+  @SequenceGenerator(name = "parking_lot_id_generator", sequenceName = "parking_lot_seq", allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+  @Column(name = "id")
+  private Long id;
+
   @Column(name = "name")
   private String name;
 
   @JsonManagedReference
-  @OneToMany(mappedBy = "parkingLot", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @OneToMany(mappedBy = "parkingLot", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private List<Spot> spots;
 
   @Column(name = "capacity", nullable = false)
@@ -45,6 +58,18 @@ public class ParkingLot extends BaseEntity {
   @Column(name = "van_spots", nullable = false)
   private Integer vanSpots;
 
+  @Enumerated(EnumType.STRING)
+  @Column(name = "allocation_policy")
+  private AllocationPolicy allocationPolicy;
+
+  @Column(name = "entrance_position")
+  private Integer entrancePosition;
+
+  public ParkingLot(final String name, final List<Spot> spots, final Integer capacity, final Integer motorcycleSpots,
+                    final Integer carSpots, final Integer vanSpots) {
+    this(null, name, spots, capacity, motorcycleSpots, carSpots, vanSpots, null, null);
+  }
+
   public void setSpots(List<Spot> spots) {
     for (final Spot child : spots) {
       child.setParkingLot(this);
@@ -5,9 +5,15 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,6 +23,7 @@ import lombok.experimental.SuperBuilder;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.sealed.entity.base.BaseEntity;
+import com.sealed.entity.base.VersionedEntity;
 import com.sealed.enums.SpotType;
 
 @Setter
@@ -25,8 +32,18 @@ import com.sealed.enums.SpotType;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
-@Table(name = "spot")
-public class Spot extends BaseEntity {
+@Table(name = "spot", indexes = {
+    @Index(name = "idx_spot_lot_type_occupied", columnList = "parking_lot_id, type, occupied, layout_row"),
+    @Index(name = "idx_spot_occupied", columnList = "occupied"),
+    @Index(name = "idx_spot_lot_id", columnList = "parking_lot_id, id")
+})
+public class Spot extends VersionedEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spot_id_generator")
+  @SequenceGenerator(name = "spot_id_generator", sequenceName = "spot_seq", allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+  @Column(name = "id")
+  private Long id;
 
   @Enumerated(EnumType.STRING)
   @Column(name = "type")
@@ -36,11 +53,21 @@ public class Spot extends BaseEntity {
   private boolean isOccupied;
 
   @JsonBackReference
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "parking_lot_id", referencedColumnName = "id")
   private ParkingLot parkingLot;
 
   @OneToOne(mappedBy = "spot", cascade = CascadeType.ALL)
   private Vehicle vehicle;
 
+  @Column(name = "layout_row")
+  private Integer layoutRow;
+
+  @Column(name = "layout_position")
+  private Integer layoutPosition;
+
+  public Spot(final SpotType type, final boolean isOccupied, final ParkingLot parkingLot, final Vehicle vehicle) {
+    this(null, type, isOccupied, parkingLot, vehicle, null, null);
+  }
+
 }
@@ -4,8 +4,13 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -23,9 +28,18 @@ import com.sealed.enums.VehicleType;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
-@Table(name = "vehicle")
+@Table(name = "vehicle", indexes = {
+    @Index(name = "idx_vehicle_license_plate", columnList = "license_plate", unique = true),
+    @Index(name = "idx_vehicle_spot_id", columnList = "spot_id")
+})
 public class Vehicle extends BaseEntity {
 
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicle_id_generator")
+  @SequenceGenerator(name = "vehicle_id_generator", sequenceName = "vehicle_seq", allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+  @Column(name = "id")
+  private Long id;
+
   @Enumerated(EnumType.STRING)
   @Column(name = "type")
   private VehicleType type;
@@ -38,4 +52,7 @@ public class Vehicle extends BaseEntity {
   @Column(name = "license_plate", nullable = false)
   private String licensePlate;
 
+  public Vehicle(final VehicleType type, final Spot spot, final String licensePlate) {
+    this(null, type, spot, licensePlate);
+  }
 }
@@ -1,29 +1,22 @@
 package com.sealed.entity.base;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 import java.io.Serializable;
 
-@Setter
-@Getter
-@AllArgsConstructor
+/**
+ * Base class of every entity. Each entity maps its own id to one sequence per table, {@code parking_lot_seq},
+ * {@code spot_seq} and {@code vehicle_seq}, read through Hibernate's pooled optimizer {@value #ID_ALLOCATION_SIZE}
+ * ids at a time, so inserts can be sent as JDBC batches.
+ */
 @NoArgsConstructor
 @SuperBuilder
 @MappedSuperclass
 public class BaseEntity implements Serializable {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
-  @Column(name = "id")
-  private Long id;
+  /** Must match the {@code incrementBy} of the id sequences in the Liquibase changelog. */
+  public static final int ID_ALLOCATION_SIZE = 50;
 
 }
@@ -0,0 +1,27 @@
+package com.sealed.entity.base;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Base class for entities updated concurrently, guarded by optimistic locking.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@SuperBuilder
+@MappedSuperclass
+public class VersionedEntity extends BaseEntity {
+
+  @Version
+  @Column(name = "version")
+  private Long version;
+
+}
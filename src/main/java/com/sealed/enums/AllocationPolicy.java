@@ -0,0 +1,6 @@
+package com.sealed.enums;
+
+public enum AllocationPolicy {
+
+  FIRST_FIT, BEST_FIT, NEAREST_ENTRANCE
+}
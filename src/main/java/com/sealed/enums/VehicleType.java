@@ -2,5 +2,8 @@ package com.sealed.enums;
 
 public enum VehicleType {
 
-  CAR, MOTORCYCLE, VAN
+  CAR, MOTORCYCLE, VAN;
+
+  /** Number of adjacent car spots a van takes when no van spot is free. */
+  public static final int VAN_CAR_SPOTS = 3;
 }
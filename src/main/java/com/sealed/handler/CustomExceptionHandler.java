@@ -12,6 +12,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @ControllerAdvice
 public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
 
@@ -41,4 +43,16 @@ public class CustomExceptionHandler extends ResponseEntityExceptionHandler {
     final ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.name(), ex.getMessage(), HttpStatus.NOT_FOUND.value());
     return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
   }
+
+  /**
+   * Handles operations rejected because the parking executor is saturated, with a 503 the gate can retry.
+   * @param ex the RejectedExecutionException that needs to be handled.
+   * @param request the web request that resulted in the exception.
+   * @return A ResponseEntity with a status code of HttpStatus.SERVICE_UNAVAILABLE and a body of ErrorResponse with error information.
+   */
+  @ExceptionHandler(value = RejectedExecutionException.class)
+  public ResponseEntity<ErrorResponse> handleRejectedExecutionException(final RejectedExecutionException ex, final WebRequest request) {
+    final ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.name(), ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+  }
 }
@@ -0,0 +1,136 @@
+package com.sealed.journal;
+
+import com.sealed.enums.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A single change of the occupancy state, as written to the {@link OccupancyJournal}.
+ * {@code PARK} inserts a vehicle and occupies its spots, {@code UPDATE_SPOTS} sets the occupied flag of spots
+ * and {@code REMOVE_VEHICLES} deletes vehicles. Replaying the same event twice leaves the same state.
+ * Every event carries when it happened and, for a vehicle, a hash of its license plate. The plate itself is only kept
+ * where the journal has to recreate the vehicle row, see {@link #withoutPlate()}.
+ * @param kind          the kind of change
+ * @param timestamp     when the change happened, in epoch millis, 0 for events written before timestamps were recorded
+ * @param vehicleId     the vehicle inserted by a {@code PARK}, 0 when the database assigns it
+ * @param parkingLotId  the parking lot of the spots of a {@code PARK} or {@code UPDATE_SPOTS}, may be null
+ * @param vehicleType   the vehicle type of a {@code PARK}, or of the vehicle that freed the spots of an {@code UPDATE_SPOTS}
+ * @param licensePlate  the license plate of a {@code PARK}, or of the vehicle that freed the spots of an {@code UPDATE_SPOTS},
+ *                      null when only its hash is kept
+ * @param plateHash     the {@link #plateHash(String)} of the license plate, 0 without a vehicle
+ * @param occupied      the new occupied flag of an {@code UPDATE_SPOTS}
+ * @param ids           the spot ids of a {@code PARK} or {@code UPDATE_SPOTS}, the vehicle ids of a {@code REMOVE_VEHICLES}
+ */
+public record OccupancyEvent(Kind kind, long timestamp, long vehicleId, Long parkingLotId, VehicleType vehicleType,
+                             String licensePlate, long plateHash, boolean occupied, long[] ids) {
+
+  /** Set on the kind byte of events written with a timestamp and a plate hash. */
+  private static final int TIMESTAMPED = 0x80;
+
+  public enum Kind {
+    PARK, UPDATE_SPOTS, REMOVE_VEHICLES
+  }
+
+  public static OccupancyEvent park(final long vehicleId, final Long parkingLotId, final VehicleType vehicleType,
+                                    final String licensePlate, final long[] spotIds) {
+    return new OccupancyEvent(Kind.PARK, System.currentTimeMillis(), vehicleId, parkingLotId, vehicleType, licensePlate,
+                              plateHash(licensePlate), true, spotIds);
+  }
+
+  public static OccupancyEvent updateSpots(final long[] spotIds, final boolean occupied) {
+    return new OccupancyEvent(Kind.UPDATE_SPOTS, System.currentTimeMillis(), 0, null, null, null, 0, occupied, spotIds);
+  }
+
+  public static OccupancyEvent unpark(final Long parkingLotId, final VehicleType vehicleType, final String licensePlate,
+                                      final long[] spotIds) {
+    return new OccupancyEvent(Kind.UPDATE_SPOTS, System.currentTimeMillis(), 0, parkingLotId, vehicleType, licensePlate,
+                              plateHash(licensePlate), false, spotIds);
+  }
+
+  public static OccupancyEvent removeVehicles(final long[] vehicleIds) {
+    return new OccupancyEvent(Kind.REMOVE_VEHICLES, System.currentTimeMillis(), 0, null, null, null, 0, false, vehicleIds);
+  }
+
+  /**
+   * Returns the same event keeping only the hash of the license plate, for journals that never recreate the vehicle.
+   * @return the event without its license plate
+   */
+  public OccupancyEvent withoutPlate() {
+    return new OccupancyEvent(kind, timestamp, vehicleId, parkingLotId, vehicleType, null, plateHash, occupied, ids);
+  }
+
+  /**
+   * Hashes a license plate into the first 64 bits of its SHA-256, stable across restarts and nodes, so events of the
+   * same vehicle can be matched without the plate being written to disk.
+   * @param licensePlate the license plate, may be null
+   * @return the hash, 0 for a null plate
+   */
+  public static long plateHash(final String licensePlate) {
+    if (licensePlate == null) {
+      return 0;
+    }
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(licensePlate.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Encodes the event into a new buffer, flipped and ready to be written.
+   * @return the encoded event
+   */
+  public ByteBuffer encode() {
+    final byte[] plate = licensePlate == null ? new byte[0] : licensePlate.getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES * 4 + 2 + Integer.BYTES * 2 + plate.length + Long.BYTES * ids.length);
+    buffer.put((byte) (TIMESTAMPED | kind.ordinal()));
+    buffer.putLong(timestamp);
+    buffer.putLong(vehicleId);
+    buffer.putLong(parkingLotId == null ? -1 : parkingLotId);
+    buffer.put((byte) (vehicleType == null ? -1 : vehicleType.ordinal()));
+    buffer.put((byte) (occupied ? 1 : 0));
+    buffer.putLong(plateHash);
+    buffer.putInt(licensePlate == null ? -1 : plate.length);
+    buffer.put(plate);
+    buffer.putInt(ids.length);
+    for (final long id : ids) {
+      buffer.putLong(id);
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Decodes an event written by {@link #encode()}, or by the earlier format without a timestamp and a plate hash.
+   * @param buffer the buffer positioned at the start of the event
+   * @return the decoded event
+   */
+  public static OccupancyEvent decode(final ByteBuffer buffer) {
+    final int header = buffer.get() & 0xff;
+    final boolean timestamped = (header & TIMESTAMPED) != 0;
+    final Kind kind = Kind.values()[header & ~TIMESTAMPED];
+    final long timestamp = timestamped ? buffer.getLong() : 0;
+    final long vehicleId = buffer.getLong();
+    final long parkingLotId = buffer.getLong();
+    final byte vehicleType = buffer.get();
+    final boolean occupied = buffer.get() != 0;
+    final long storedHash = timestamped ? buffer.getLong() : 0;
+    final int plateLength = buffer.getInt();
+    String licensePlate = null;
+    if (plateLength >= 0) {
+      final byte[] plate = new byte[plateLength];
+      buffer.get(plate);
+      licensePlate = new String(plate, StandardCharsets.UTF_8);
+    }
+    final long[] ids = new long[buffer.getInt()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = buffer.getLong();
+    }
+    return new OccupancyEvent(kind, timestamp, vehicleId, parkingLotId < 0 ? null : parkingLotId,
+                              vehicleType < 0 ? null : VehicleType.values()[vehicleType], licensePlate,
+                              timestamped ? storedHash : plateHash(licensePlate), occupied, ids);
+  }
+}
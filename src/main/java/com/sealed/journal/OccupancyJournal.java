@@ -0,0 +1,276 @@
+package com.sealed.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local log of {@link OccupancyEvent}s, split into numbered, memory-mapped segment files.
+ * Every record is framed as {@code [length][crc32][event]}, so a record torn by a crash is detected and ignored on replay.
+ * Segments are preallocated to {@code segmentBytes} and records are written in place into the mapped pages, so an append
+ * is a few stores into the page cache with no system call; an unwritten length of zero marks the end of a segment.
+ * Appends are not durable until {@link #sync(long)}, which forces only the range written since the last sync and lets
+ * concurrent writers share it. A new segment is started by {@link #rotate()} or when a record does not fit, and segments
+ * whose events are no longer needed are removed with {@link #discardBefore(long)}.
+ * A position is the segment number in the upper 32 bits and the offset within the segment in the lower 32 bits.
+ */
+@Slf4j
+public class OccupancyJournal implements Closeable {
+
+  public static final int DEFAULT_SEGMENT_BYTES = 16 * 1024 * 1024;
+
+  private static final String SEGMENT_PREFIX = "occupancy-";
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final int HEADER_BYTES = Integer.BYTES * 2;
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final Object syncLock = new Object();
+  private final AtomicLong durable = new AtomicLong();
+  private MappedByteBuffer buffer;
+  private long segment;
+  private int next;
+  private int synced;
+  private boolean closed;
+
+  public OccupancyJournal(final Path directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens the journal and starts a new segment after the existing ones.
+   * @param directory    the directory holding the segments
+   * @param segmentBytes the size every segment is preallocated to
+   * @throws IOException if the journal could not be opened
+   */
+  public OccupancyJournal(final Path directory, final int segmentBytes) throws IOException {
+    if (segmentBytes <= HEADER_BYTES) {
+      throw new IllegalArgumentException("Invalid journal segment size: " + segmentBytes);
+    }
+    this.directory = Files.createDirectories(directory);
+    this.segmentBytes = segmentBytes;
+    final List<Long> segments = segments();
+    this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+    this.buffer = map(segment);
+  }
+
+  /**
+   * Appends an event to the current segment, or to a new one if it does not fit. The event is not durable until
+   * {@link #sync(long)} returns.
+   * @param event the event
+   * @return the journal position right after the event, to be passed to {@link #sync(long)}
+   * @throws IOException if the journal is closed, the event is larger than a segment or a new segment could not be mapped
+   */
+  public synchronized long append(final OccupancyEvent event) throws IOException {
+    if (closed) {
+      throw new IOException("The occupancy journal is closed");
+    }
+    final ByteBuffer payload = event.encode();
+    final int length = payload.remaining();
+    if (HEADER_BYTES + length > segmentBytes) {
+      throw new IOException("An event of " + length + " bytes does not fit a journal segment of " + segmentBytes + " bytes");
+    }
+    if (next + HEADER_BYTES + length > segmentBytes) {
+      nextSegment();
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(payload.duplicate());
+    buffer.put(next + HEADER_BYTES, payload, payload.position(), length)
+          .putInt(next + Integer.BYTES, (int) crc.getValue())
+          .putInt(next, length);
+    next += HEADER_BYTES + length;
+    return position();
+  }
+
+  /**
+   * Makes every event up to the given position durable. Writers waiting at the same time share a single force.
+   * @param position a position returned by {@link #append(OccupancyEvent)} or {@link #position()}
+   * @throws IOException if the journal could not be forced to disk
+   */
+  public void sync(final long position) throws IOException {
+    if (durable.get() >= position) {
+      return;
+    }
+    synchronized (syncLock) {
+      final MappedByteBuffer current;
+      final int from;
+      final int to;
+      final long target;
+      synchronized (this) {
+        if (durable.get() >= position) {
+          return;
+        }
+        current = buffer;
+        from = synced;
+        to = next;
+        target = position();
+        synced = next;
+      }
+      if (to > from) {
+        current.force(from, to - from);
+      }
+      durable.accumulateAndGet(target, Math::max);
+    }
+  }
+
+  /**
+   * Closes the current segment, durably, and starts a new one.
+   * @return the position of the start of the new segment; every older segment holds only events appended before this call
+   * @throws IOException if the new segment could not be mapped
+   */
+  public synchronized long rotate() throws IOException {
+    nextSegment();
+    return position();
+  }
+
+  /**
+   * Returns the position the next event will be appended at.
+   * @return the position
+   */
+  public synchronized long position() {
+    return segment << Integer.SIZE | next;
+  }
+
+  /**
+   * Deletes the segments holding only events before the given position. The current segment is always kept.
+   * @param position a position returned by {@link #rotate()} or {@link #position()}
+   * @throws IOException if a segment could not be deleted
+   */
+  public void discardBefore(final long position) throws IOException {
+    final long keepFrom = position >>> Integer.SIZE;
+    final long current;
+    synchronized (this) {
+      current = segment;
+    }
+    for (final long number : segments()) {
+      if (number < keepFrom && number != current) {
+        Files.deleteIfExists(segmentPath(number));
+      }
+    }
+  }
+
+  /**
+   * Reads every event of every segment, oldest first.
+   * @return the events
+   * @throws IOException if a segment could not be read
+   */
+  public List<OccupancyEvent> readAll() throws IOException {
+    final List<OccupancyEvent> events = new ArrayList<>();
+    replay(0, events::add);
+    return events;
+  }
+
+  /**
+   * Reads the events appended at or after a position, oldest first. A segment is read up to its first torn or corrupt record.
+   * @param from     a position returned by {@link #position()}
+   * @param consumer receives the events
+   * @return the number of events read
+   * @throws IOException if a segment could not be read
+   */
+  public long replay(final long from, final Consumer<OccupancyEvent> consumer) throws IOException {
+    final long fromSegment = from >>> Integer.SIZE;
+    long count = 0;
+    for (final long number : segments()) {
+      if (number < fromSegment) {
+        continue;
+      }
+      try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.READ)) {
+        final ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (number == fromSegment) {
+          records.position((int) Math.min(records.limit(), from & 0xffffffffL));
+        }
+        count += read(number, records, consumer);
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      buffer.force();
+      durable.accumulateAndGet(position(), Math::max);
+      closed = true;
+    }
+  }
+
+  /**
+   * Forces the current segment and maps the next one. Called with the journal locked.
+   */
+  private void nextSegment() throws IOException {
+    buffer.force();
+    durable.accumulateAndGet(position(), Math::max);
+    buffer = map(segment + 1);
+    segment++;
+    next = 0;
+    synced = 0;
+  }
+
+  private static long read(final long number, final ByteBuffer records, final Consumer<OccupancyEvent> consumer) {
+    long count = 0;
+    while (records.remaining() >= HEADER_BYTES) {
+      final int length = records.getInt();
+      final int checksum = records.getInt();
+      if (length == 0) {
+        break;
+      }
+      if (length < 0 || length > records.remaining()) {
+        log.warn("Ignoring torn record at the end of journal segment {}", number);
+        break;
+      }
+      final ByteBuffer payload = records.slice(records.position(), length);
+      final CRC32 crc = new CRC32();
+      crc.update(payload.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        log.warn("Ignoring corrupt record in journal segment {}", number);
+        break;
+      }
+      final OccupancyEvent event;
+      try {
+        event = OccupancyEvent.decode(payload);
+      } catch (final BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+        log.warn("Ignoring undecodable record in journal segment {}", number);
+        break;
+      }
+      consumer.accept(event);
+      count++;
+      records.position(records.position() + length);
+    }
+    return count;
+  }
+
+  private MappedByteBuffer map(final long number) throws IOException {
+    try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+  }
+
+  private Path segmentPath(final long number) {
+    return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+  }
+
+  private List<Long> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.map(p -> p.getFileName().toString())
+                  .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                  .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                  .sorted()
+                  .toList();
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.sealed.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.enums.VehicleType;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Records every park and unpark as an {@link OccupancyEvent} in an {@link OccupancyJournal}, the same memory-mapped log
+ * the write-behind engine uses, enabled with {@code parking.journal.enabled=true}. Events keep their timestamp and the
+ * hash of the license plate, never the plate itself. The journal is forced to disk every
+ * {@code parking.journal.sync-every} records and by a background thread every {@code parking.journal.sync-interval-ms}.
+ * A failure to record is logged and never fails the park or unpark it belongs to.
+ */
+@Slf4j
+@Component
+public class ParkingJournal {
+
+  private final boolean enabled;
+  private final Path directory;
+  private final int segmentBytes;
+  private final int syncEvery;
+  private final long syncIntervalMillis;
+  private final AtomicInteger unsynced = new AtomicInteger();
+  private OccupancyJournal journal;
+  private ScheduledExecutorService syncer;
+
+  @Autowired
+  public ParkingJournal(@Value("${parking.journal.enabled:false}") final boolean enabled,
+                        @Value("${parking.journal.dir:data/events}") final String directory,
+                        @Value("${parking.journal.segment-bytes:67108864}") final int segmentBytes,
+                        @Value("${parking.journal.sync-every:256}") final int syncEvery,
+                        @Value("${parking.journal.sync-interval-ms:100}") final long syncIntervalMillis) {
+    this.enabled = enabled;
+    this.directory = Path.of(directory);
+    this.segmentBytes = segmentBytes;
+    this.syncEvery = syncEvery;
+    this.syncIntervalMillis = syncIntervalMillis;
+  }
+
+  @PostConstruct
+  public void start() throws IOException {
+    if (!enabled) {
+      return;
+    }
+    journal = new OccupancyJournal(directory, segmentBytes);
+    if (syncIntervalMillis > 0) {
+      syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "parking-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      syncer.scheduleWithFixedDelay(() -> sync(journal.position()), syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (syncer != null) {
+      syncer.shutdown();
+    }
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  public boolean isEnabled() {
+    return journal != null;
+  }
+
+  /**
+   * Records the spots of a claim as taken by a vehicle.
+   * @param claim        the claimed spots
+   * @param vehicleType  the vehicle type
+   * @param licensePlate the vehicle license plate
+   */
+  public void recordPark(final SpotClaim claim, final VehicleType vehicleType, final String licensePlate) {
+    if (journal == null) {
+      return;
+    }
+    append(OccupancyEvent.park(0, claim.parkingLotId(), vehicleType, licensePlate, claim.spotIds()).withoutPlate());
+  }
+
+  /**
+   * Records spots as given back by a vehicle.
+   * @param parkingLotId the parking lot of the spots, may be null
+   * @param spotIds      the freed spots, null ids are skipped
+   * @param vehicleType  the vehicle type
+   * @param licensePlate the vehicle license plate
+   */
+  public void recordUnpark(final Long parkingLotId, final Collection<Long> spotIds, final VehicleType vehicleType,
+                           final String licensePlate) {
+    if (journal == null) {
+      return;
+    }
+    final long[] ids = spotIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+    if (ids.length > 0) {
+      append(OccupancyEvent.unpark(parkingLotId, vehicleType, licensePlate, ids).withoutPlate());
+    }
+  }
+
+  /**
+   * Reads every recorded event, oldest first, e.g. to feed analytics.
+   * @param consumer receives the events
+   * @return the number of events read
+   * @throws IOException if the journal could not be read
+   */
+  public long replay(final Consumer<OccupancyEvent> consumer) throws IOException {
+    return journal == null ? 0 : journal.replay(0, consumer);
+  }
+
+  /**
+   * Applies every recorded event to the {@link FreeSpotIndex}, whose lots must already hold their spot layout.
+   * @param freeSpotIndex the index to bring up to date
+   * @return the number of events applied
+   * @throws IOException if the journal could not be read
+   */
+  public long replayInto(final FreeSpotIndex freeSpotIndex) throws IOException {
+    return replayInto(freeSpotIndex, 0);
+  }
+
+  /**
+   * Applies the events recorded at or after a position to the {@link FreeSpotIndex}, e.g. the events that came after a snapshot.
+   * Events of spots without a known parking lot are skipped.
+   * @param freeSpotIndex the index to bring up to date
+   * @param from          a position returned by {@link #position()}
+   * @return the number of events applied
+   * @throws IOException if the journal could not be read
+   */
+  public long replayInto(final FreeSpotIndex freeSpotIndex, final long from) throws IOException {
+    if (journal == null) {
+      return 0;
+    }
+    return journal.replay(from, event -> {
+      if (event.parkingLotId() == null || event.kind() == OccupancyEvent.Kind.REMOVE_VEHICLES) {
+        return;
+      }
+      for (final long spotId : event.ids()) {
+        if (event.occupied()) {
+          freeSpotIndex.occupy(event.parkingLotId(), spotId);
+        } else {
+          freeSpotIndex.release(event.parkingLotId(), spotId);
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the position of the next event to be recorded.
+   * @return the position, or -1 if the journal is disabled
+   */
+  public long position() {
+    return journal == null ? -1 : journal.position();
+  }
+
+  /**
+   * Drops the journal segments holding only events before a position, e.g. once a snapshot covers them.
+   * @param position a position returned by {@link #position()}
+   */
+  public void discardBefore(final long position) {
+    if (journal == null || position < 0) {
+      return;
+    }
+    try {
+      journal.discardBefore(position);
+    } catch (final IOException e) {
+      log.warn("Error discarding parking journal segments: {}", e.getMessage(), e);
+    }
+  }
+
+  private void append(final OccupancyEvent event) {
+    final long position;
+    try {
+      position = journal.append(event);
+    } catch (final IOException e) {
+      log.error("Error recording {} of spots {} in the parking journal: {}", event.kind(), Arrays.toString(event.ids()), e.getMessage(), e);
+      return;
+    }
+    if (syncEvery > 0 && unsynced.incrementAndGet() >= syncEvery) {
+      unsynced.set(0);
+      sync(position);
+    }
+  }
+
+  private void sync(final long position) {
+    try {
+      journal.sync(position);
+    } catch (final IOException | RuntimeException e) {
+      log.error("Error syncing the parking journal: {}", e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,306 @@
+package com.sealed.occupancy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Number of spots, of occupied spots and of parked vehicles, kept per parking lot, per {@link SpotType} and per
+ * {@link VehicleType} in {@link LongAdder}s, so park and unpark update them without contending with each other
+ * and the count endpoints never touch the database. A van parked over car spots counts as one van holding every one of them.
+ * Occupied spots no parked vehicle accounts for are counted as orphaned, apart from any vehicle type, and logged.
+ * The counters only see what this instance parks and unparks; {@link OccupancyReconciler} corrects them against
+ * the {@code spot} table periodically. Until the first reconciliation they are not ready and callers fall back to the database.
+ */
+@Slf4j
+@Component
+public class OccupancyCounters {
+
+  private final ConcurrentMap<Long, LotCounters> lots = new ConcurrentHashMap<>();
+  private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+  private volatile boolean ready;
+
+  /**
+   * Registers a callback told the id of every lot whose counters change. It runs on the thread changing them,
+   * e.g. the one parking a vehicle, so it must be cheap and must not block.
+   * @param listener the callback
+   */
+  public void addListener(final LongConsumer listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Starts counting a freshly persisted parking lot.
+   * @param parkingLot the parking lot, with its spots
+   */
+  public void register(final ParkingLot parkingLot) {
+    if (parkingLot == null || parkingLot.getId() == null || parkingLot.getSpots() == null) {
+      return;
+    }
+    final OccupancyTally tally = new OccupancyTally();
+    for (final Spot spot : parkingLot.getSpots()) {
+      final VehicleType vehicleType = spot.getVehicle() == null ? null : spot.getVehicle().getType();
+      tally.add(new SpotCount(parkingLot.getId(), spot.getType(), spot.isOccupied(), vehicleType, 1));
+    }
+    final LotCounters counters = new LotCounters();
+    counters.adjust(tally);
+    lots.put(parkingLot.getId(), counters);
+    changed(parkingLot.getId());
+  }
+
+  /**
+   * Starts counting a parking lot from its spot counts, e.g. a lot whose spots were generated in bulk.
+   * @param parkingLotId the parking lot
+   * @param counts       the spot counts of the lot
+   */
+  public void register(final long parkingLotId, final Collection<SpotCount> counts) {
+    final LotCounters counters = new LotCounters();
+    counters.adjust(OccupancyTally.of(counts));
+    lots.put(parkingLotId, counters);
+    changed(parkingLotId);
+  }
+
+  /**
+   * Counts a vehicle as parked over the given spots.
+   * @param parkingLotId the parking lot of the spots
+   * @param vehicleType  the type of the parked vehicle
+   * @param spotTypes    the type of every spot the vehicle takes, null entries are ignored
+   */
+  public void park(final long parkingLotId, final VehicleType vehicleType, final Collection<SpotType> spotTypes) {
+    final LotCounters counters = lots.get(parkingLotId);
+    if (counters != null && vehicleType != null) {
+      counters.vehicles[vehicleType.ordinal()].increment();
+      for (final SpotType spotType : spotTypes) {
+        if (spotType != null) {
+          counters.occupied[spotType.ordinal()][vehicleType.ordinal()].increment();
+        }
+      }
+      changed(parkingLotId);
+    }
+  }
+
+  /**
+   * Counts a vehicle as gone and the given spots as given back.
+   * @param parkingLotId the parking lot of the spots
+   * @param vehicleType  the type of the vehicle that held them
+   * @param spotTypes    the type of every spot the vehicle held, null entries are ignored
+   */
+  public void unpark(final long parkingLotId, final VehicleType vehicleType, final Collection<SpotType> spotTypes) {
+    final LotCounters counters = lots.get(parkingLotId);
+    if (counters != null && vehicleType != null) {
+      counters.vehicles[vehicleType.ordinal()].decrement();
+      for (final SpotType spotType : spotTypes) {
+        if (spotType != null) {
+          counters.occupied[spotType.ordinal()][vehicleType.ordinal()].decrement();
+        }
+      }
+      changed(parkingLotId);
+    }
+  }
+
+  /**
+   * Brings every counter to the values counted in the database, overwriting what the counter held. A park or unpark
+   * counted after the query ran but before its counter is adjusted is therefore lost, and fixed by the next run.
+   * @param counts the spots per lot, spot type, occupied flag and vehicle type
+   */
+  public void reconcile(final Collection<SpotCount> counts) {
+    OccupancyTally.byParkingLot(counts).forEach((parkingLotId, tally) -> {
+      final LotCounters counters = lots.computeIfAbsent(parkingLotId, id -> new LotCounters());
+      final long orphaned = tally.orphaned();
+      if (orphaned != 0 && orphaned != counters.orphaned()) {
+        log.warn("Parking lot {} has {} occupied spots no parked vehicle accounts for", parkingLotId, orphaned);
+      }
+      final long drift = counters.adjust(tally);
+      if (drift != 0 && ready) {
+        log.info("Corrected occupancy counters of parking lot {} by {}", parkingLotId, drift);
+      }
+      if (drift != 0) {
+        changed(parkingLotId);
+      }
+    });
+    ready = true;
+  }
+
+  private void changed(final long parkingLotId) {
+    for (final LongConsumer listener : listeners) {
+      listener.accept(parkingLotId);
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public boolean contains(final Long parkingLotId) {
+    return lots.containsKey(parkingLotId);
+  }
+
+  /**
+   * Returns the occupancy of every lot together, broken down by spot type and vehicle type.
+   * @return the breakdown, or empty if the counters are not ready
+   */
+  public Optional<OccupancyBreakdown> breakdown() {
+    if (!ready) {
+      return Optional.empty();
+    }
+    final OccupancyTally tally = new OccupancyTally();
+    lots.values().forEach(counters -> tally.add(counters.tally()));
+    return Optional.of(tally.toBreakdown(null));
+  }
+
+  /**
+   * Returns the occupancy of a lot, broken down by spot type and vehicle type.
+   * @param parkingLotId the parking lot
+   * @return the breakdown, or empty if the lot is not counted
+   */
+  public Optional<OccupancyBreakdown> breakdown(final Long parkingLotId) {
+    final LotCounters counters = lots.get(parkingLotId);
+    return counters == null ? Optional.empty() : Optional.of(counters.tally().toBreakdown(parkingLotId));
+  }
+
+  /**
+   * Returns the number of available spots of every lot.
+   * @return the count, or empty if the counters are not ready
+   */
+  public OptionalInt countAvailable() {
+    if (!ready) {
+      return OptionalInt.empty();
+    }
+    return OptionalInt.of((int) lots.values().stream().mapToLong(LotCounters::available).sum());
+  }
+
+  /**
+   * Returns the number of occupied spots of every lot.
+   * @return the count, or empty if the counters are not ready
+   */
+  public OptionalInt countOccupied() {
+    if (!ready) {
+      return OptionalInt.empty();
+    }
+    return OptionalInt.of((int) lots.values().stream().mapToLong(LotCounters::occupied).sum());
+  }
+
+  /**
+   * Returns the number of available spots of a lot.
+   * @param parkingLotId the parking lot
+   * @return the count, or empty if the lot is not counted
+   */
+  public OptionalInt countAvailable(final Long parkingLotId) {
+    final LotCounters counters = lots.get(parkingLotId);
+    return counters == null ? OptionalInt.empty() : OptionalInt.of((int) counters.available());
+  }
+
+  /**
+   * Returns the number of occupied spots of a lot.
+   * @param parkingLotId the parking lot
+   * @return the count, or empty if the lot is not counted
+   */
+  public OptionalInt countOccupied(final Long parkingLotId) {
+    final LotCounters counters = lots.get(parkingLotId);
+    return counters == null ? OptionalInt.empty() : OptionalInt.of((int) counters.occupied());
+  }
+
+  private static final class LotCounters {
+
+    private final LongAdder[] total = adders(OccupancyTally.SPOT_TYPES.length);
+    private final LongAdder[][] occupied = new LongAdder[OccupancyTally.SPOT_TYPES.length][];
+    private final LongAdder[] orphaned = adders(OccupancyTally.SPOT_TYPES.length);
+    private final LongAdder[] vehicles = adders(OccupancyTally.VEHICLE_TYPES.length);
+
+    private LotCounters() {
+      for (int s = 0; s < occupied.length; s++) {
+        occupied[s] = adders(OccupancyTally.VEHICLE_TYPES.length);
+      }
+    }
+
+    private long available() {
+      return sum(total) - occupied();
+    }
+
+    private long occupied() {
+      long sum = sum(orphaned);
+      for (final LongAdder[] adders : occupied) {
+        sum += sum(adders);
+      }
+      return sum;
+    }
+
+    private long orphaned() {
+      return sum(orphaned);
+    }
+
+    private OccupancyTally tally() {
+      final OccupancyTally tally = new OccupancyTally();
+      for (int s = 0; s < total.length; s++) {
+        tally.total[s] = total[s].sum();
+        tally.orphaned[s] = orphaned[s].sum();
+        for (int v = 0; v < vehicles.length; v++) {
+          tally.occupied[s][v] = occupied[s][v].sum();
+        }
+      }
+      for (int v = 0; v < vehicles.length; v++) {
+        tally.vehicles[v] = vehicles[v].sum();
+      }
+      return tally;
+    }
+
+    /**
+     * Moves every counter to the value of the tally.
+     * @return the total absolute correction
+     */
+    private long adjust(final OccupancyTally tally) {
+      long drift = 0;
+      for (int s = 0; s < total.length; s++) {
+        drift += adjust(total[s], tally.total[s]);
+        drift += adjust(orphaned[s], tally.orphaned[s]);
+        for (int v = 0; v < vehicles.length; v++) {
+          drift += adjust(occupied[s][v], tally.occupied[s][v]);
+        }
+      }
+      for (int v = 0; v < vehicles.length; v++) {
+        drift += adjust(vehicles[v], tally.vehicles[v]);
+      }
+      return drift;
+    }
+
+    private static long adjust(final LongAdder adder, final long expected) {
+      final long drift = expected - adder.sum();
+      if (drift != 0) {
+        adder.add(drift);
+      }
+      return Math.abs(drift);
+    }
+
+    private static LongAdder[] adders(final int length) {
+      final LongAdder[] adders = new LongAdder[length];
+      for (int i = 0; i < length; i++) {
+        adders[i] = new LongAdder();
+      }
+      return adders;
+    }
+
+    private static long sum(final LongAdder[] adders) {
+      long sum = 0;
+      for (final LongAdder adder : adders) {
+        sum += adder.sum();
+      }
+      return sum;
+    }
+  }
+}
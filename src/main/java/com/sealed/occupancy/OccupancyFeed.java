@@ -0,0 +1,294 @@
+package com.sealed.occupancy;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sealed.dto.OccupancyBreakdown;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the occupancy of parking lots to Server-Sent Events subscribers.
+ * Park and unpark only mark their lot as changed through the {@link OccupancyCounters} listener, which is a single
+ * flag write. Every {@code parking.events.interval-ms} the changed lots are read from the counters and serialized once,
+ * and the same message is handed to all of their subscribers, so a subscriber gets at most one message per interval
+ * however busy its lot is.
+ * A subscriber buffers a single message: a newer one replaces it, since every message is a full snapshot of the lot.
+ * Messages are written by a small pool of sender threads with at most one write in flight per subscriber, so a slow
+ * client only delays itself and never the park path; a client whose write fails is dropped.
+ */
+@Slf4j
+@Component
+public class OccupancyFeed {
+
+  static final String EVENT_NAME = "occupancy";
+  private static final SseEmitter.SseEventBuilder HEARTBEAT = new PreparedEvent(SseEmitter.event().comment("heartbeat"));
+
+  private final OccupancyCounters occupancyCounters;
+  private final ObjectMapper objectMapper;
+  private final long intervalMillis;
+  private final long heartbeatMillis;
+  private final long timeoutMillis;
+  private final int maxSubscribers;
+  private final ConcurrentMap<Long, Topic> topics = new ConcurrentHashMap<>();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final ExecutorService senders;
+  private final ScheduledExecutorService ticker;
+  private long lastHeartbeat = System.currentTimeMillis();
+
+  @Autowired
+  public OccupancyFeed(final OccupancyCounters occupancyCounters,
+                       final ObjectMapper objectMapper,
+                       @Value("${parking.events.interval-ms:1000}") final long intervalMillis,
+                       @Value("${parking.events.heartbeat-ms:15000}") final long heartbeatMillis,
+                       @Value("${parking.events.timeout-ms:1800000}") final long timeoutMillis,
+                       @Value("${parking.events.send-threads:4}") final int sendThreads,
+                       @Value("${parking.events.max-subscribers:10000}") final int maxSubscribers) {
+    this.occupancyCounters = occupancyCounters;
+    this.objectMapper = objectMapper;
+    this.intervalMillis = intervalMillis;
+    this.heartbeatMillis = heartbeatMillis;
+    this.timeoutMillis = timeoutMillis;
+    this.maxSubscribers = maxSubscribers;
+    final AtomicInteger threads = new AtomicInteger();
+    this.senders = Executors.newFixedThreadPool(sendThreads, r -> {
+      final Thread thread = new Thread(r, "occupancy-feed-sender-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "occupancy-feed");
+      thread.setDaemon(true);
+      return thread;
+    });
+    ticker.scheduleWithFixedDelay(this::tickQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    occupancyCounters.addListener(this::changed);
+  }
+
+  @PreDestroy
+  public void stop() {
+    ticker.shutdownNow();
+    senders.shutdownNow();
+    topics.values().forEach(topic -> topic.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+  }
+
+  /**
+   * Subscribes to the occupancy of a lot. The current occupancy is sent right away, changes follow at most once per interval.
+   * @param parkingLotId the parking lot
+   * @param current      the current occupancy of the lot
+   * @return the emitter of the subscription
+   * @throws IllegalStateException if this node already serves {@code parking.events.max-subscribers} subscribers
+   */
+  public SseEmitter subscribe(final long parkingLotId, final OccupancyBreakdown current) {
+    if (subscribers.incrementAndGet() > maxSubscribers) {
+      subscribers.decrementAndGet();
+      throw new IllegalStateException("Too many occupancy subscribers, at most " + maxSubscribers + " are served");
+    }
+    final SseEmitter emitter = new SseEmitter(timeoutMillis);
+    final Subscriber subscriber = new Subscriber(emitter);
+    final Runnable remove = () -> unsubscribe(parkingLotId, subscriber);
+    emitter.onCompletion(remove);
+    emitter.onTimeout(remove);
+    emitter.onError(e -> remove.run());
+    topics.compute(parkingLotId, (id, topic) -> {
+      final Topic subscribed = topic == null ? new Topic() : topic;
+      subscribed.subscribers.add(subscriber);
+      return subscribed;
+    });
+    offer(subscriber, message(current));
+    return emitter;
+  }
+
+  /**
+   * Marks a lot as changed, to be pushed to its subscribers with the next tick. Called on the park and unpark path.
+   * @param parkingLotId the parking lot
+   */
+  public void changed(final long parkingLotId) {
+    final Topic topic = topics.get(parkingLotId);
+    if (topic != null) {
+      topic.dirty.set(true);
+    }
+  }
+
+  public int subscribers() {
+    return subscribers.get();
+  }
+
+  /**
+   * Sends the occupancy of every changed lot to its subscribers, and a heartbeat comment to everyone once in a while
+   * so that connections closed by clients are noticed.
+   */
+  void tick() {
+    final long now = System.currentTimeMillis();
+    final boolean heartbeat = now - lastHeartbeat >= heartbeatMillis;
+    if (heartbeat) {
+      lastHeartbeat = now;
+    }
+    topics.forEach((parkingLotId, topic) -> {
+      if (topic.dirty.getAndSet(false)) {
+        final Optional<OccupancyBreakdown> occupancy = occupancyCounters.breakdown(parkingLotId);
+        if (occupancy.isEmpty()) {
+          topic.dirty.set(true);
+        } else {
+          final SseEmitter.SseEventBuilder message = message(occupancy.get());
+          topic.subscribers.forEach(subscriber -> offer(subscriber, message));
+          return;
+        }
+      }
+      if (heartbeat) {
+        topic.subscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT));
+      }
+    });
+  }
+
+  private void tickQuietly() {
+    try {
+      tick();
+    } catch (final Exception e) {
+      log.error("Error pushing occupancy changes: {}", e.getMessage(), e);
+    }
+  }
+
+  private SseEmitter.SseEventBuilder message(final OccupancyBreakdown occupancy) {
+    try {
+      return new PreparedEvent(SseEmitter.event().name(EVENT_NAME).data(objectMapper.writeValueAsString(occupancy), MediaType.APPLICATION_JSON));
+    } catch (final JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize the occupancy of parking lot " + occupancy.parkingLotId(), e);
+    }
+  }
+
+  /**
+   * Replaces the buffered message of a subscriber and makes sure a sender will write it.
+   */
+  private void offer(final Subscriber subscriber, final SseEmitter.SseEventBuilder message) {
+    subscriber.pending.set(message);
+    if (subscriber.sending.compareAndSet(false, true)) {
+      try {
+        senders.execute(() -> drain(subscriber));
+      } catch (final RejectedExecutionException e) {
+        subscriber.sending.set(false);
+      }
+    }
+  }
+
+  private void drain(final Subscriber subscriber) {
+    while (true) {
+      final SseEmitter.SseEventBuilder message = subscriber.pending.getAndSet(null);
+      if (message == null) {
+        subscriber.sending.set(false);
+        if (subscriber.pending.get() == null || !subscriber.sending.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      try {
+        subscriber.emitter.send(message);
+      } catch (final IOException | IllegalStateException e) {
+        log.debug("Dropping occupancy subscriber: {}", e.getMessage());
+        subscriber.emitter.completeWithError(e);
+        subscriber.sending.set(false);
+        return;
+      }
+    }
+  }
+
+  private void unsubscribe(final long parkingLotId, final Subscriber subscriber) {
+    topics.computeIfPresent(parkingLotId, (id, topic) -> {
+      if (topic.subscribers.remove(subscriber)) {
+        subscribers.decrementAndGet();
+      }
+      return topic.subscribers.isEmpty() ? null : topic;
+    });
+  }
+
+  /**
+   * An event built once with Spring's builder and written as is to every subscriber. Spring's builder appends to itself
+   * when built, so it cannot be shared between emitters; this one only hands out the parts built up front.
+   * It is complete as prepared: every method that would add to the event throws {@link UnsupportedOperationException}.
+   */
+  private static final class PreparedEvent implements SseEmitter.SseEventBuilder {
+
+    private static final String COMPLETE = "A prepared occupancy event is complete and cannot be changed";
+
+    private final Set<ResponseBodyEmitter.DataWithMediaType> items;
+
+    private PreparedEvent(final SseEmitter.SseEventBuilder event) {
+      this.items = Collections.unmodifiableSet(new LinkedHashSet<>(event.build()));
+    }
+
+    @Override
+    public Set<ResponseBodyEmitter.DataWithMediaType> build() {
+      return items;
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder id(final String id) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder name(final String eventName) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder reconnectTime(final long reconnectTimeMillis) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder comment(final String comment) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder data(final Object object) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+
+    @Override
+    public SseEmitter.SseEventBuilder data(final Object object, final MediaType mediaType) {
+      throw new UnsupportedOperationException(COMPLETE);
+    }
+  }
+
+  private static final class Topic {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+  }
+
+  private static final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final AtomicReference<SseEmitter.SseEventBuilder> pending = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private Subscriber(final SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+  }
+}
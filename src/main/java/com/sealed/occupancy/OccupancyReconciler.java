@@ -0,0 +1,74 @@
+package com.sealed.occupancy;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.service.SpotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the {@link OccupancyCounters} from the {@code spot} table once the application has started,
+ * then corrects their drift every {@code parking.counters.reconcile-interval-ms} with one {@code GROUP BY} query.
+ */
+@Slf4j
+@Component
+public class OccupancyReconciler implements ApplicationRunner {
+
+  private final SpotService spotService;
+  private final OccupancyCounters occupancyCounters;
+  private final long intervalMillis;
+  private ScheduledExecutorService scheduler;
+
+  @Autowired
+  public OccupancyReconciler(final SpotService spotService,
+                             final OccupancyCounters occupancyCounters,
+                             @Value("${parking.counters.reconcile-interval-ms:30000}") final long intervalMillis) {
+    this.spotService = spotService;
+    this.occupancyCounters = occupancyCounters;
+    this.intervalMillis = intervalMillis;
+  }
+
+  @Override
+  public void run(final ApplicationArguments args) {
+    reconcile();
+    if (intervalMillis > 0) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "occupancy-reconciler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      scheduler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+  }
+
+  /**
+   * Counts the spots per lot, type and occupied flag in the database and corrects the counters.
+   */
+  public void reconcile() {
+    occupancyCounters.reconcile(spotService.countSpots());
+  }
+
+  private void reconcileQuietly() {
+    try {
+      reconcile();
+    } catch (final Exception e) {
+      log.error("Error reconciling occupancy counters: {}", e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.sealed.occupancy;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.SpotTypeOccupancy;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plain counts behind an {@link OccupancyBreakdown}: spots per spot type, occupied spots per spot type and vehicle type,
+ * orphaned occupied spots per spot type and parked vehicles per vehicle type. Built from {@link SpotCount} rows or read
+ * from the {@link OccupancyCounters}.
+ * Only the last spot of a van parked over car spots is joined to the van, so a van found on a car spot is counted as
+ * holding {@link VehicleType#VAN_CAR_SPOTS} of them, taken from the occupied spots without a vehicle. Occupied spots
+ * without a vehicle left over after that are orphaned.
+ */
+public final class OccupancyTally {
+
+  static final SpotType[] SPOT_TYPES = SpotType.values();
+  static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+  final long[] total = new long[SPOT_TYPES.length];
+  final long[][] occupied = new long[SPOT_TYPES.length][VEHICLE_TYPES.length];
+  final long[] orphaned = new long[SPOT_TYPES.length];
+  final long[] vehicles = new long[VEHICLE_TYPES.length];
+
+  /**
+   * Adds up {@link SpotCount} rows, of one lot or of many.
+   * @param counts the rows
+   * @return the tally
+   */
+  public static OccupancyTally of(final Collection<SpotCount> counts) {
+    final OccupancyTally tally = new OccupancyTally();
+    counts.forEach(tally::add);
+    return tally;
+  }
+
+  /**
+   * Groups {@link SpotCount} rows by parking lot.
+   * @param counts the rows
+   * @return one tally per parking lot
+   */
+  public static Map<Long, OccupancyTally> byParkingLot(final Collection<SpotCount> counts) {
+    final Map<Long, OccupancyTally> tallies = new HashMap<>();
+    for (final SpotCount count : counts) {
+      if (count.parkingLotId() != null) {
+        tallies.computeIfAbsent(count.parkingLotId(), id -> new OccupancyTally()).add(count);
+      }
+    }
+    return tallies;
+  }
+
+  void add(final SpotCount count) {
+    if (count.type() == null) {
+      return;
+    }
+    final int spotType = count.type().ordinal();
+    total[spotType] += count.count();
+    if (count.vehicleType() != null) {
+      vehicles[count.vehicleType().ordinal()] += count.count();
+    }
+    if (!count.occupied()) {
+      return;
+    }
+    if (count.vehicleType() == null) {
+      orphaned[spotType] += count.count();
+    } else if (count.vehicleType() == VehicleType.VAN && count.type() != SpotType.VAN) {
+      occupied[spotType][VehicleType.VAN.ordinal()] += count.count() * VehicleType.VAN_CAR_SPOTS;
+      orphaned[spotType] -= count.count() * (VehicleType.VAN_CAR_SPOTS - 1);
+    } else {
+      occupied[spotType][count.vehicleType().ordinal()] += count.count();
+    }
+  }
+
+  /**
+   * Returns the number of orphaned occupied spots, of every spot type.
+   * @return the orphaned spots
+   */
+  public long orphaned() {
+    long sum = 0;
+    for (final long count : orphaned) {
+      sum += count;
+    }
+    return sum;
+  }
+
+  void add(final OccupancyTally other) {
+    for (int s = 0; s < SPOT_TYPES.length; s++) {
+      total[s] += other.total[s];
+      orphaned[s] += other.orphaned[s];
+      for (int v = 0; v < VEHICLE_TYPES.length; v++) {
+        occupied[s][v] += other.occupied[s][v];
+      }
+    }
+    for (int v = 0; v < VEHICLE_TYPES.length; v++) {
+      vehicles[v] += other.vehicles[v];
+    }
+  }
+
+  /**
+   * Turns the counts into a breakdown.
+   * @param parkingLotId the parking lot the counts belong to, null for every lot
+   * @return the breakdown
+   */
+  public OccupancyBreakdown toBreakdown(final Long parkingLotId) {
+    final Map<SpotType, SpotTypeOccupancy> spotTypes = new EnumMap<>(SpotType.class);
+    final Map<VehicleType, Integer> spotsByVehicleType = new EnumMap<>(VehicleType.class);
+    final Map<VehicleType, Integer> vehicleCounts = new EnumMap<>(VehicleType.class);
+    long totalSpots = 0;
+    long occupiedSpots = 0;
+    for (final VehicleType vehicleType : VEHICLE_TYPES) {
+      spotsByVehicleType.put(vehicleType, 0);
+      vehicleCounts.put(vehicleType, (int) vehicles[vehicleType.ordinal()]);
+    }
+    for (final SpotType spotType : SPOT_TYPES) {
+      final Map<VehicleType, Integer> occupiedBy = new EnumMap<>(VehicleType.class);
+      long occupiedOfType = 0;
+      for (final VehicleType vehicleType : VEHICLE_TYPES) {
+        final int spots = (int) occupied[spotType.ordinal()][vehicleType.ordinal()];
+        occupiedBy.put(vehicleType, spots);
+        spotsByVehicleType.merge(vehicleType, spots, Integer::sum);
+        occupiedOfType += spots;
+      }
+      final long orphanedOfType = orphaned[spotType.ordinal()];
+      occupiedOfType += orphanedOfType;
+      final long totalOfType = total[spotType.ordinal()];
+      spotTypes.put(spotType, new SpotTypeOccupancy((int) totalOfType, (int) (totalOfType - occupiedOfType), (int) occupiedOfType,
+                                                    occupiedBy, (int) orphanedOfType));
+      totalSpots += totalOfType;
+      occupiedSpots += occupiedOfType;
+    }
+    final int available = (int) (totalSpots - occupiedSpots);
+    return new OccupancyBreakdown(parkingLotId, (int) totalSpots, available, (int) occupiedSpots, available == 0,
+                                  spotTypes, spotsByVehicleType, vehicleCounts);
+  }
+}
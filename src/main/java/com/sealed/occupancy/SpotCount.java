@@ -0,0 +1,12 @@
+package com.sealed.occupancy;
+
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+/**
+ * Number of spots of a parking lot with the given type and occupied flag, held by a vehicle of the given type,
+ * one row of a {@code GROUP BY} over the {@code spot} table joined with the {@code vehicle} table.
+ * An occupied spot without a vehicle is either one of the extra spots of a van parked over car spots or orphaned.
+ */
+public record SpotCount(Long parkingLotId, SpotType type, boolean occupied, VehicleType vehicleType, long count) {
+}
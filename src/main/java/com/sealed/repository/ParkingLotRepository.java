@@ -1,9 +1,21 @@
 package com.sealed.repository;
 
+import com.sealed.allocation.LotPolicy;
 import com.sealed.entity.ParkingLot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ParkingLotRepository extends JpaRepository<ParkingLot, Long> {
+
+  @Query("SELECT new com.sealed.allocation.LotPolicy(l.id, l.allocationPolicy, l.entrancePosition) FROM ParkingLot l")
+  List<LotPolicy> findAllLotPolicies();
+
+  @Query("SELECT new com.sealed.allocation.LotPolicy(l.id, l.allocationPolicy, l.entrancePosition) FROM ParkingLot l WHERE l.id = :id")
+  Optional<LotPolicy> findLotPolicy(@Param("id") Long id);
 }
@@ -1,15 +1,93 @@
 package com.sealed.repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.sealed.allocation.SpotState;
+import com.sealed.dto.SpotView;
 import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+import com.sealed.occupancy.SpotCount;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface SpotRepository extends JpaRepository<Spot, Long> {
 
+  /** Rows fetched from the database per round trip by the streaming exports. */
+  String EXPORT_FETCH_SIZE = "1000";
+
   @Query(value = "SELECT COUNT(*) FROM spot WHERE occupied = :occupied", nativeQuery = true)
   Long countByOccupied(@Param("occupied") boolean occupied);
+
+  @Query("SELECT new com.sealed.allocation.SpotState(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow) FROM Spot s WHERE s.parkingLot IS NOT NULL")
+  List<SpotState> findAllSpotStates();
+
+  @Query("SELECT new com.sealed.allocation.SpotState(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow) FROM Spot s WHERE s.parkingLot.id = :parkingLotId")
+  List<SpotState> findSpotStatesByParkingLotId(@Param("parkingLotId") Long parkingLotId);
+
+  @Query("SELECT s.id FROM Spot s WHERE s.isOccupied = true ORDER BY s.id")
+  List<Long> findOccupiedIds();
+
+  @Query("SELECT s.id FROM Spot s WHERE s.id IN :ids AND s.isOccupied = true")
+  List<Long> findOccupiedIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query(value = "SELECT COUNT(*) FROM spot WHERE parking_lot_id = :parkingLotId AND occupied = :occupied", nativeQuery = true)
+  Long countByParkingLotIdAndOccupied(@Param("parkingLotId") Long parkingLotId, @Param("occupied") boolean occupied);
+
+  @Query("SELECT new com.sealed.occupancy.SpotCount(s.parkingLot.id, s.type, s.isOccupied, v.type, COUNT(s)) FROM Spot s "
+         + "LEFT JOIN s.vehicle v GROUP BY s.parkingLot.id, s.type, s.isOccupied, v.type")
+  List<SpotCount> countSpotsByLotTypeAndOccupied();
+
+  @Query("SELECT new com.sealed.occupancy.SpotCount(s.parkingLot.id, s.type, s.isOccupied, v.type, COUNT(s)) FROM Spot s "
+         + "LEFT JOIN s.vehicle v WHERE s.parkingLot.id IN :parkingLotIds GROUP BY s.parkingLot.id, s.type, s.isOccupied, v.type")
+  List<SpotCount> countSpotsByLotTypeAndOccupied(@Param("parkingLotIds") Collection<Long> parkingLotIds);
+
+  @Query("SELECT new com.sealed.dto.SpotView(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow, s.layoutPosition, v.type, v.licensePlate) "
+         + "FROM Spot s LEFT JOIN s.vehicle v WHERE s.parkingLot.id = :parkingLotId AND s.id > :after ORDER BY s.parkingLot.id, s.id")
+  List<SpotView> findSpotViews(@Param("parkingLotId") Long parkingLotId, @Param("after") long after, Pageable page);
+
+  @Query("SELECT new com.sealed.dto.SpotView(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow, s.layoutPosition, v.type, v.licensePlate) "
+         + "FROM Spot s LEFT JOIN s.vehicle v WHERE s.parkingLot.id = :parkingLotId AND s.type = :type AND s.id > :after ORDER BY s.parkingLot.id, s.id")
+  List<SpotView> findSpotViewsByType(@Param("parkingLotId") Long parkingLotId, @Param("type") SpotType type,
+                                     @Param("after") long after, Pageable page);
+
+  @Query("SELECT new com.sealed.dto.SpotView(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow, s.layoutPosition, v.type, v.licensePlate) "
+         + "FROM Spot s LEFT JOIN s.vehicle v WHERE s.parkingLot.id = :parkingLotId AND s.isOccupied = :occupied AND s.id > :after "
+         + "ORDER BY s.parkingLot.id, s.id")
+  List<SpotView> findSpotViewsByOccupied(@Param("parkingLotId") Long parkingLotId, @Param("occupied") boolean occupied,
+                                         @Param("after") long after, Pageable page);
+
+  @Query("SELECT new com.sealed.dto.SpotView(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow, s.layoutPosition, v.type, v.licensePlate) "
+         + "FROM Spot s LEFT JOIN s.vehicle v WHERE s.parkingLot.id = :parkingLotId AND s.type = :type AND s.isOccupied = :occupied "
+         + "AND s.id > :after ORDER BY s.parkingLot.id, s.id")
+  List<SpotView> findSpotViewsByTypeAndOccupied(@Param("parkingLotId") Long parkingLotId, @Param("type") SpotType type,
+                                                @Param("occupied") boolean occupied, @Param("after") long after, Pageable page);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT new com.sealed.dto.SpotView(s.id, s.parkingLot.id, s.type, s.isOccupied, s.layoutRow, s.layoutPosition, v.type, "
+         + "v.licensePlate) FROM Spot s LEFT JOIN s.vehicle v ORDER BY s.id")
+  Stream<SpotView> streamSpotViews();
+
+  @Query("SELECT s FROM Spot s LEFT JOIN FETCH s.vehicle WHERE s.id IN :ids")
+  List<Spot> findAllWithVehicleByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE Spot s SET s.isOccupied = true, s.version = s.version + 1 WHERE s.id IN :ids AND s.isOccupied = false")
+  int occupyAllByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("UPDATE Spot s SET s.isOccupied = false, s.version = s.version + 1 WHERE s.id IN :ids")
+  int freeAllByIdIn(@Param("ids") Collection<Long> ids);
 }
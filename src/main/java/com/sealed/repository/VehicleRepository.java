@@ -1,15 +1,39 @@
 package com.sealed.repository;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.QueryHint;
 
+import com.sealed.allocation.ParkedVehicle;
 import com.sealed.entity.Vehicle;
 import com.sealed.enums.VehicleType;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
 
   Vehicle findByLicensePlate(String licensePlate) throws EntityNotFoundException;
+
+  @Query("SELECT new com.sealed.allocation.ParkedVehicle(v.id, v.licensePlate, v.type, s.id, s.type, l.id) "
+       + "FROM Vehicle v LEFT JOIN v.spot s LEFT JOIN s.parkingLot l WHERE v.licensePlate IN :licensePlates")
+  List<ParkedVehicle> findParkedVehicles(@Param("licensePlates") Collection<String> licensePlates);
+
+  @Query("SELECT new com.sealed.allocation.ParkedVehicle(v.id, v.licensePlate, v.type, s.id, s.type, l.id) "
+       + "FROM Vehicle v LEFT JOIN v.spot s LEFT JOIN s.parkingLot l")
+  List<ParkedVehicle> findAllParkedVehicles();
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = SpotRepository.EXPORT_FETCH_SIZE),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT new com.sealed.allocation.ParkedVehicle(v.id, v.licensePlate, v.type, s.id, s.type, l.id) "
+       + "FROM Vehicle v LEFT JOIN v.spot s LEFT JOIN s.parkingLot l ORDER BY v.id")
+  Stream<ParkedVehicle> streamParkedVehicles();
 }
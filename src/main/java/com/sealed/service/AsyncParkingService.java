@@ -0,0 +1,20 @@
+package com.sealed.service;
+
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncParkingService {
+
+  CompletableFuture<Spot> parkVehicle(Vehicle vehicle);
+  CompletableFuture<Spot> parkVehicle(Long parkingLotId, Vehicle vehicle);
+  CompletableFuture<Spot> unparkVehicle(String licensePlate);
+  CompletableFuture<Spot> unparkVehicle(Long parkingLotId, String licensePlate);
+  CompletableFuture<Integer> countAvailableSpots();
+  CompletableFuture<Integer> countAvailableSpots(Long parkingLotId);
+  CompletableFuture<Integer> countOccupiedSpots();
+  CompletableFuture<Integer> countOccupiedSpots(Long parkingLotId);
+  int pending();
+
+}
@@ -0,0 +1,11 @@
+package com.sealed.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+  long exportSpots(OutputStream out) throws IOException;
+  long exportVehicles(OutputStream out) throws IOException;
+
+}
@@ -2,20 +2,46 @@ package com.sealed.service;
 
 import jakarta.persistence.EntityNotFoundException;
 
+import com.sealed.dto.OccupancyBitmap;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.dto.ParkingResult;
+import com.sealed.dto.PlateCacheStats;
+import com.sealed.dto.SpotPage;
+import com.sealed.dto.UnparkingResult;
 import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
 import com.sealed.exception.ServiceException;
 
+import java.util.List;
+
 public interface ParkingLotService {
 
   ParkingLot createParkingLot(ParkingLot parkingLot) throws ServiceException;
+  ParkingLotSummary provisionParkingLot(ParkingLot parkingLot, Integer spotsPerRow) throws ServiceException;
   Spot parkVehicle(Vehicle vehicle) throws ServiceException;
+  Spot parkVehicle(Long parkingLotId, Vehicle vehicle) throws ServiceException;
+  List<ParkingResult> parkVehicles(List<Vehicle> vehicles) throws ServiceException;
   Spot unparkVehicle(String licensePlate) throws ServiceException;
+  Spot unparkVehicle(Long parkingLotId, String licensePlate) throws ServiceException;
+  UnparkingResult unparkVehicles(List<String> licensePlates) throws ServiceException;
   ParkingLot findParkingLotById(Long id) throws EntityNotFoundException;
+  ParkingLotSummary getParkingLotSummary(Long id) throws ServiceException;
+  SpotPage findSpots(Long parkingLotId, SpotType type, Boolean occupied, long after, int size) throws ServiceException;
   boolean isParkingLotFull() throws ServiceException;
+  boolean isParkingLotFull(Long parkingLotId) throws ServiceException;
   int countAvailableSpots() throws ServiceException;
+  int countAvailableSpots(Long parkingLotId) throws ServiceException;
   int countOccupiedSpots() throws ServiceException;
+  int countOccupiedSpots(Long parkingLotId) throws ServiceException;
   int countVanSpots() throws ServiceException;
+  int countVanSpots(Long parkingLotId) throws ServiceException;
+  OccupancyBreakdown getOccupancy() throws ServiceException;
+  OccupancyBreakdown getOccupancy(Long parkingLotId) throws ServiceException;
+  List<OccupancyBreakdown> getOccupancy(List<Long> parkingLotIds) throws ServiceException;
+  OccupancyBitmap getOccupancyBitmap(Long parkingLotId, OccupancyBitmap.Encoding encoding, Long since) throws ServiceException;
+  PlateCacheStats getPlateCacheStats();
 
 }
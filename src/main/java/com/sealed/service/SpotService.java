@@ -1,15 +1,37 @@
 package com.sealed.service;
 
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.SpotState;
+import com.sealed.allocation.VehicleClaim;
+import com.sealed.dto.SpotView;
+import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
 import com.sealed.exception.ServiceException;
+import com.sealed.occupancy.SpotCount;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface SpotService {
 
   Spot createSpot(Spot spot) throws ServiceException;
+  int createSpots(ParkingLot parkingLot, Integer spotsPerRow) throws ServiceException;
   Spot updateSpot(Long id, Spot spot) throws ServiceException;
+  List<Spot> claimSpots(SpotClaim claim, Vehicle vehicle);
+  List<Spot> claimAllSpots(List<VehicleClaim> claims);
+  int freeSpots(Collection<Long> ids) throws ServiceException;
   List<Spot> findAllSpots();
+  Stream<SpotView> streamSpots();
+  List<SpotState> findSpotStates(Long parkingLotId);
+  List<SpotView> findSpots(Long parkingLotId, SpotType type, Boolean occupied, long after, int size);
   int countOccupiedSpots();
+  int countOccupiedSpots(Long parkingLotId);
   int countAvailableSpots();
+  int countAvailableSpots(Long parkingLotId);
+  List<SpotCount> countSpots();
+  List<SpotCount> countSpots(Collection<Long> parkingLotIds);
   Spot findById(Long id);
+  List<Long> findOccupiedIds(Collection<Long> ids);
 }
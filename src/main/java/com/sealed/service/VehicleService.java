@@ -2,16 +2,22 @@ package com.sealed.service;
 
 import jakarta.persistence.EntityNotFoundException;
 
+import com.sealed.allocation.ParkedVehicle;
 import com.sealed.entity.Vehicle;
 import com.sealed.exception.ServiceException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface VehicleService {
 
   Vehicle createVehicle(Vehicle vehicle) throws ServiceException;
   void removeVehicle(Long vehicleId) throws ServiceException;
+  void removeVehicles(Collection<Long> vehicleIds) throws ServiceException;
   List<Vehicle> getAllVehicles() throws ServiceException;
   Vehicle getVehicleByLicensePlate(String licensePlate) throws EntityNotFoundException;
+  List<ParkedVehicle> findParkedVehicles(Collection<String> licensePlates);
+  Stream<ParkedVehicle> streamParkedVehicles();
 
 }
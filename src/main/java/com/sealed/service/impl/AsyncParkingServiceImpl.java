@@ -0,0 +1,153 @@
+package com.sealed.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.exception.ServiceException;
+import com.sealed.service.AsyncParkingService;
+import com.sealed.service.ParkingLotService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs park, unpark and count operations of the {@link ParkingLotService} on a dedicated executor, so that the servlet
+ * thread handling a gate is released while the operation waits on the database.
+ * The executor has {@code parking.async.threads} platform threads, or a virtual thread per operation when
+ * {@code parking.async.virtual-threads} is set and the JVM supports them (Java 21+). Either way at most
+ * {@code parking.async.max-pending} operations are queued or running: past that they fail right away with a
+ * {@link RejectedExecutionException} instead of piling up.
+ */
+@Slf4j
+@Service
+public class AsyncParkingServiceImpl implements AsyncParkingService {
+
+  private final ParkingLotService parkingLotService;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final int maxPending;
+
+  @Autowired
+  public AsyncParkingServiceImpl(final ParkingLotService parkingLotService,
+                                 @Value("${parking.async.threads:32}") final int threads,
+                                 @Value("${parking.async.max-pending:2000}") final int maxPending,
+                                 @Value("${parking.async.virtual-threads:false}") final boolean virtualThreads) {
+    this.parkingLotService = parkingLotService;
+    this.executor = virtualThreads ? virtualThreadExecutor(threads) : platformThreadExecutor(threads);
+    this.permits = new Semaphore(maxPending);
+    this.maxPending = maxPending;
+  }
+
+  @PreDestroy
+  public void stop() {
+    executor.shutdown();
+  }
+
+  @Override
+  public CompletableFuture<Spot> parkVehicle(final Vehicle vehicle) {
+    return submit(() -> parkingLotService.parkVehicle(vehicle));
+  }
+
+  @Override
+  public CompletableFuture<Spot> parkVehicle(final Long parkingLotId, final Vehicle vehicle) {
+    return submit(() -> parkingLotService.parkVehicle(parkingLotId, vehicle));
+  }
+
+  @Override
+  public CompletableFuture<Spot> unparkVehicle(final String licensePlate) {
+    return submit(() -> parkingLotService.unparkVehicle(licensePlate));
+  }
+
+  @Override
+  public CompletableFuture<Spot> unparkVehicle(final Long parkingLotId, final String licensePlate) {
+    return submit(() -> parkingLotService.unparkVehicle(parkingLotId, licensePlate));
+  }
+
+  @Override
+  public CompletableFuture<Integer> countAvailableSpots() {
+    return submit(parkingLotService::countAvailableSpots);
+  }
+
+  @Override
+  public CompletableFuture<Integer> countAvailableSpots(final Long parkingLotId) {
+    return submit(() -> parkingLotService.countAvailableSpots(parkingLotId));
+  }
+
+  @Override
+  public CompletableFuture<Integer> countOccupiedSpots() {
+    return submit(parkingLotService::countOccupiedSpots);
+  }
+
+  @Override
+  public CompletableFuture<Integer> countOccupiedSpots(final Long parkingLotId) {
+    return submit(() -> parkingLotService.countOccupiedSpots(parkingLotId));
+  }
+
+  /**
+   * Returns the number of operations queued or running.
+   */
+  @Override
+  public int pending() {
+    return maxPending - permits.availablePermits();
+  }
+
+  private <T> CompletableFuture<T> submit(final Operation<T> operation) {
+    if (!permits.tryAcquire()) {
+      return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending parking operations, at most " + maxPending + " are accepted"));
+    }
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return operation.call();
+        } catch (final ServiceException e) {
+          throw new CompletionException(e);
+        } finally {
+          permits.release();
+        }
+      }, executor);
+    } catch (final RejectedExecutionException e) {
+      permits.release();
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private static ExecutorService platformThreadExecutor(final int threads) {
+    final AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, r -> {
+      final Thread thread = new Thread(r, "parking-async-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Looks the virtual thread executor up by reflection, since the application is built for Java 17 where it does not exist.
+   */
+  private static ExecutorService virtualThreadExecutor(final int threads) {
+    try {
+      final ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      log.info("Running asynchronous parking operations on virtual threads");
+      return executor;
+    } catch (final ReflectiveOperationException e) {
+      log.warn("Virtual threads need Java 21 or later, running asynchronous parking operations on {} platform threads", threads);
+      return platformThreadExecutor(threads);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Operation<T> {
+
+    T call() throws ServiceException;
+  }
+}
@@ -0,0 +1,90 @@
+package com.sealed.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sealed.service.ExportService;
+import com.sealed.service.SpotService;
+import com.sealed.service.VehicleService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full spot and vehicle state as NDJSON, one JSON object per line, straight from a database cursor.
+ * Rows are read {@value com.sealed.repository.SpotRepository#EXPORT_FETCH_SIZE} at a time as projections and written
+ * as they arrive, so an export uses the same memory for a thousand rows as for millions and its first bytes go out
+ * before the query has been read to the end.
+ */
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+  static final int FLUSH_EVERY = 1000;
+  private static final byte NEWLINE = '\n';
+
+  private final SpotService spotService;
+  private final VehicleService vehicleService;
+  private final ObjectWriter writer;
+
+  @Autowired
+  public ExportServiceImpl(final SpotService spotService, final VehicleService vehicleService, final ObjectMapper objectMapper) {
+    this.spotService = spotService;
+    this.vehicleService = vehicleService;
+    this.writer = objectMapper.writer();
+  }
+
+  /**
+   * Writes every spot, in id order, with the vehicle holding it.
+   * @param out the stream to write to, left open
+   * @return the number of spots written
+   * @throws IOException if the stream could not be written, e.g. because the client went away
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public long exportSpots(final OutputStream out) throws IOException {
+    try (Stream<?> spots = spotService.streamSpots()) {
+      return write(spots, out, "spots");
+    }
+  }
+
+  /**
+   * Writes every vehicle, in id order, with the spot and parking lot it is parked in.
+   * @param out the stream to write to, left open
+   * @return the number of vehicles written
+   * @throws IOException if the stream could not be written, e.g. because the client went away
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public long exportVehicles(final OutputStream out) throws IOException {
+    try (Stream<?> vehicles = vehicleService.streamParkedVehicles()) {
+      return write(vehicles, out, "vehicles");
+    }
+  }
+
+  private long write(final Stream<?> rows, final OutputStream out, final String name) throws IOException {
+    long count = 0;
+    try {
+      final Iterator<?> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        out.write(writer.writeValueAsBytes(iterator.next()));
+        out.write(NEWLINE);
+        if (++count % FLUSH_EVERY == 0) {
+          out.flush();
+        }
+      }
+      out.flush();
+      return count;
+    } catch (final IOException | RuntimeException e) {
+      log.error("Error exporting {} after {} rows: {}", name, count, e.getMessage(), e);
+      throw e;
+    }
+  }
+}
@@ -3,39 +3,90 @@ package com.sealed.service.impl;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.LotOccupancy;
+import com.sealed.allocation.LotPolicy;
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.VehicleClaim;
+import com.sealed.cache.PlateCache;
+import com.sealed.dto.OccupancyBitmap;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.dto.ParkingResult;
+import com.sealed.dto.PlateCacheStats;
+import com.sealed.dto.SpotPage;
+import com.sealed.dto.SpotView;
+import com.sealed.dto.UnparkingResult;
 import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
 import com.sealed.enums.SpotType;
 import com.sealed.enums.VehicleType;
 import com.sealed.exception.ServiceException;
+import com.sealed.journal.ParkingJournal;
+import com.sealed.occupancy.OccupancyCounters;
+import com.sealed.occupancy.OccupancyTally;
+import com.sealed.occupancy.SpotCount;
 import com.sealed.repository.ParkingLotRepository;
 import com.sealed.service.ParkingLotService;
 import com.sealed.service.SpotService;
 import com.sealed.service.VehicleService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 public class ParkingLotServiceImpl implements ParkingLotService {
 
+  private static final Set<SpotType> MOTORCYCLE_SPOT_TYPES = EnumSet.allOf(SpotType.class);
+  private static final Set<SpotType> CAR_SPOT_TYPES = EnumSet.of(SpotType.CAR, SpotType.VAN);
+  private static final Set<SpotType> VAN_SPOT_TYPES = EnumSet.of(SpotType.VAN);
+  private static final int MAX_CLAIM_ATTEMPTS = 16;
+  private static final int MAX_SPOT_PAGE_SIZE = 1000;
+
   private final ParkingLotRepository parkingLotRepository;
   private final SpotService spotService;
   private final VehicleService vehicleService;
+  private final FreeSpotIndex freeSpotIndex;
+  private final ParkingJournal parkingJournal;
+  private final OccupancyCounters occupancyCounters;
+  private final PlateCache plateCache;
 
   @Autowired
   public ParkingLotServiceImpl(final ParkingLotRepository parkingLotRepository,
-                               final SpotServiceImpl spotService,
-                               final VehicleServiceImpl vehicleService) {
+                               final SpotService spotService,
+                               final VehicleService vehicleService,
+                               final FreeSpotIndex freeSpotIndex,
+                               final ParkingJournal parkingJournal,
+                               final OccupancyCounters occupancyCounters,
+                               final PlateCache plateCache) {
     this.parkingLotRepository = parkingLotRepository;
     this.spotService = spotService;
     this.vehicleService = vehicleService;
+    this.freeSpotIndex = freeSpotIndex;
+    this.parkingJournal = parkingJournal;
+    this.occupancyCounters = occupancyCounters;
+    this.plateCache = plateCache;
   }
 
   /**
@@ -47,7 +98,10 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   @Override
   public ParkingLot createParkingLot(final ParkingLot parkingLot) throws ServiceException {
     try {
-      return parkingLotRepository.save(parkingLot);
+      final ParkingLot saved = parkingLotRepository.save(parkingLot);
+      freeSpotIndex.register(saved);
+      occupancyCounters.register(saved);
+      return saved;
     } catch (final Exception e) {
       log.error("Error persisting a new ParkLot: {}", e.getMessage(), e);
       throw new ServiceException("Error persisting a new ParkLot", e.getCause());
@@ -55,150 +109,463 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   }
 
   /**
-   * This method parks a vehicle in the first available spot of the correct type, if none are available it will try to park in the adjacent spots if available
+   * Creates a parking lot and generates its spots from its spot counts instead of reading them from the request.
+   * The spots are inserted in batched chunks by {@link SpotService#createSpots(ParkingLot, Integer)}, so lots of
+   * hundreds of thousands of spots are provisioned with constant memory. Any spots sent with the lot are ignored.
+   * Once the transaction has committed the lot is indexed and counted like a lot created with its spots.
+   * @param parkingLot  the parking lot, spot counts missing are taken as zero and a missing capacity as their sum
+   * @param spotsPerRow the number of spots in a row of the layout, or null to leave rows and positions unset
+   * @return the created parking lot, without its spots
+   * @throws ServiceException if a count or the row length is invalid, or the lot could not be persisted
+   */
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public ParkingLotSummary provisionParkingLot(final ParkingLot parkingLot, final Integer spotsPerRow) throws ServiceException {
+    final int motorcycleSpots = spotCount("motorcycleSpots", parkingLot.getMotorcycleSpots());
+    final int carSpots = spotCount("carSpots", parkingLot.getCarSpots());
+    final int vanSpots = spotCount("vanSpots", parkingLot.getVanSpots());
+    if (spotsPerRow != null && spotsPerRow <= 0) {
+      throw new ServiceException("spotsPerRow must be positive but was " + spotsPerRow);
+    }
+    parkingLot.setId(null);
+    parkingLot.setSpots(new ArrayList<>());
+    parkingLot.setMotorcycleSpots(motorcycleSpots);
+    parkingLot.setCarSpots(carSpots);
+    parkingLot.setVanSpots(vanSpots);
+    if (parkingLot.getCapacity() == null) {
+      parkingLot.setCapacity(motorcycleSpots + carSpots + vanSpots);
+    }
+    final ParkingLot saved;
+    try {
+      saved = parkingLotRepository.save(parkingLot);
+    } catch (final Exception e) {
+      log.error("Error persisting a new ParkLot: {}", e.getMessage(), e);
+      throw new ServiceException("Error persisting a new ParkLot", e);
+    }
+    final ParkingLotSummary summary = ParkingLotSummary.of(saved);
+    spotService.createSpots(saved, spotsPerRow);
+
+    final long parkingLotId = summary.id();
+    final List<SpotCount> counts = List.of(
+        new SpotCount(parkingLotId, SpotType.MOTORCYCLE, false, null, motorcycleSpots),
+        new SpotCount(parkingLotId, SpotType.CAR, false, null, carSpots),
+        new SpotCount(parkingLotId, SpotType.VAN, false, null, vanSpots));
+    afterCommit(() -> {
+      freeSpotIndex.loadIfAbsent(parkingLotId, () -> spotService.findSpotStates(parkingLotId));
+      freeSpotIndex.configure(parkingLotId, new LotPolicy(parkingLotId, summary.allocationPolicy(), summary.entrancePosition()).strategy());
+      occupancyCounters.register(parkingLotId, counts);
+    });
+    return summary;
+  }
+
+  private static int spotCount(final String name, final Integer count) throws ServiceException {
+    if (count == null) {
+      return 0;
+    }
+    if (count < 0) {
+      throw new ServiceException(name + " must not be negative but was " + count);
+    }
+    return count;
+  }
+
+  /**
+   * This method parks a vehicle in the first available spot of the correct type, if none are available it will try to park in the adjacent spots if available.
+   * Spots are chosen from the {@link FreeSpotIndex}, so only the chosen spots are read from the database.
+   * Which compatible spot a vehicle gets within a lot follows the lot's {@link com.sealed.enums.AllocationPolicy}.
    * @param vehicle Vehicle to park
    * @return The spot in which the vehicle was parked
    * @throws ServiceException if there is an error while parking the vehicle
    */
   @Override
   public Spot parkVehicle(final Vehicle vehicle) throws ServiceException {
-    final List<Spot> availableSpots = spotService.findAllSpots().stream().filter(s -> !s.isOccupied()).toList();
+    return claimSpots(vehicle, () -> nextClaim(vehicle), noSpotMessage(vehicle));
+  }
 
-    if (vehicle.getType() == VehicleType.MOTORCYCLE) {
-      return parkMotorcycle(availableSpots, vehicle);
-    } else if (vehicle.getType() == VehicleType.CAR) {
-      return parkCar(availableSpots, vehicle);
-    } else {
-      return parkVan(availableSpots, vehicle);
+  /**
+   * Parks a vehicle in a single parking lot, following the same rules as {@link #parkVehicle(Vehicle)}.
+   * Only the given lot is looked at, so the cost does not depend on how many other lots this instance hosts.
+   * @param parkingLotId the parking lot to park in
+   * @param vehicle      the vehicle to park
+   * @return The spot in which the vehicle was parked
+   * @throws ServiceException        if there is an error while parking the vehicle or the lot has no spot for it
+   * @throws EntityNotFoundException if the parking lot does not exist
+   */
+  @Override
+  public Spot parkVehicle(final Long parkingLotId, final Vehicle vehicle) throws ServiceException {
+    indexParkingLot(parkingLotId);
+    return claimSpots(vehicle, () -> nextClaim(parkingLotId, vehicle), noSpotMessage(vehicle));
+  }
+
+  /**
+   * Parks a batch of vehicles. Spots for the whole batch are taken from the {@link FreeSpotIndex} in one pass
+   * and persisted in a single transaction. A vehicle that cannot be parked is reported in its result
+   * without failing the rest of the batch: plates already parked, found in the {@link PlateCache} or with one query,
+   * and plates repeated in the batch are rejected before any spot is claimed.
+   * @param vehicles the vehicles to park
+   * @return one result per vehicle, in the same order, holding either the spot or the rejection reason
+   * @throws ServiceException if there is an unexpected error while parking the batch
+   */
+  @Override
+  public List<ParkingResult> parkVehicles(final List<Vehicle> vehicles) throws ServiceException {
+    final ParkingResult[] results = new ParkingResult[vehicles.size()];
+    final List<VehicleClaim> claims = new ArrayList<>(vehicles.size());
+    final List<Integer> claimed = new ArrayList<>(vehicles.size());
+    final Set<String> parkedPlates = findParkedPlates(vehicles);
+    final Set<String> batchPlates = new HashSet<>();
+    for (int i = 0; i < vehicles.size(); i++) {
+      final Vehicle vehicle = vehicles.get(i);
+      final String licensePlate = vehicle.getLicensePlate();
+      if (licensePlate != null && (parkedPlates.contains(licensePlate) || !batchPlates.add(licensePlate))) {
+        results[i] = ParkingResult.rejected(licensePlate, "Vehicle with license plate " + licensePlate + " is already parked");
+        continue;
+      }
+      final Optional<SpotClaim> claim = nextClaim(vehicle);
+      if (claim.isPresent()) {
+        claims.add(new VehicleClaim(vehicle, claim.get()));
+        claimed.add(i);
+      } else {
+        results[i] = ParkingResult.rejected(vehicle.getLicensePlate(), noSpotMessage(vehicle));
+      }
+    }
+
+    List<Spot> spots;
+    try {
+      spots = claims.isEmpty() ? List.of() : spotService.claimAllSpots(claims);
+    } catch (final OptimisticLockingFailureException | DataIntegrityViolationException e) {
+      log.warn("Lost a claim while parking a batch of {} vehicles, parking them one by one: {}", claims.size(), e.getMessage());
+      releaseFreeSpots(claims.stream().map(VehicleClaim::claim).toList());
+      spots = null;
+    } catch (final Exception e) {
+      claims.forEach(c -> freeSpotIndex.release(c.claim()));
+      log.error("Error parking a batch of vehicles: {}", e.getMessage(), e);
+      throw new ServiceException("Error parking a batch of vehicles", e);
+    }
+
+    if (spots != null) {
+      final List<SpotClaim> lost = new ArrayList<>();
+      for (int j = 0; j < claims.size(); j++) {
+        if (spots.get(j) == null) {
+          lost.add(claims.get(j).claim());
+        }
+      }
+      releaseFreeSpots(lost);
+    }
+    for (int j = 0; j < claims.size(); j++) {
+      final VehicleClaim claim = claims.get(j);
+      final Spot spot = spots == null ? null : spots.get(j);
+      if (spot != null) {
+        parked(claim.claim(), claim.vehicle());
+        results[claimed.get(j)] = ParkingResult.parked(claim.vehicle().getLicensePlate(), spot);
+        continue;
+      }
+      results[claimed.get(j)] = parkOne(claim.vehicle());
     }
+    return List.of(results);
+  }
+
+  /**
+   * Finds which plates of a batch already belong to a parked vehicle, in the {@link PlateCache} first and with one query
+   * for the rest.
+   * @param vehicles the vehicles of the batch
+   * @return the plates already parked
+   */
+  private Set<String> findParkedPlates(final List<Vehicle> vehicles) {
+    final Set<String> parked = new HashSet<>();
+    final Set<String> uncached = new LinkedHashSet<>();
+    for (final Vehicle vehicle : vehicles) {
+      final String licensePlate = vehicle.getLicensePlate();
+      if (licensePlate != null && !parked.contains(licensePlate)) {
+        plateCache.get(licensePlate).ifPresentOrElse(v -> parked.add(licensePlate), () -> uncached.add(licensePlate));
+      }
+    }
+    if (!uncached.isEmpty()) {
+      vehicleService.findParkedVehicles(uncached).forEach(v -> parked.add(v.licensePlate()));
+    }
+    return parked;
   }
 
   /**
    * This method unparks a vehicle from a parking spot.
+   * The vehicle and its spot are taken from the {@link PlateCache} when this instance parked it, without a query.
+   * Freeing the spot and removing the vehicle run in one transaction, so a stale cache entry whose vehicle is already
+   * gone rolls the freed spot back instead of releasing a spot another vehicle may hold.
    * @param licensePlate the vehicle license plate to unpark.
    * @return the spot that the vehicle was parked in
    * @throws ServiceException        if there is an error while unparking the vehicle or if the vehicle is not found in the repository
    * @throws EntityNotFoundException if the vehicle with the specified license plate number is not found in the repository
    */
+  @Transactional(rollbackFor = ServiceException.class)
   public Spot unparkVehicle(final String licensePlate) throws ServiceException {
-    final Vehicle vehicle = Optional.of(vehicleService.getVehicleByLicensePlate(licensePlate))
-                           .orElseThrow(() -> new EntityNotFoundException("Could not find vehicle with license plate " + licensePlate));
+    return unpark(findVehicle(licensePlate));
+  }
+
+  /**
+   * Unparks a vehicle from a parking spot of the given parking lot, in one transaction like {@link #unparkVehicle(String)}.
+   * @param parkingLotId the parking lot the vehicle is parked in
+   * @param licensePlate the vehicle license plate to unpark
+   * @return the spot that the vehicle was parked in
+   * @throws ServiceException        if there is an error while unparking the vehicle
+   * @throws EntityNotFoundException if the vehicle is not parked in the given parking lot
+   */
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public Spot unparkVehicle(final Long parkingLotId, final String licensePlate) throws ServiceException {
+    final Vehicle vehicle = findVehicle(licensePlate);
+    final Spot spot = vehicle.getSpot();
+    if (spot == null || spot.getParkingLot() == null || !parkingLotId.equals(spot.getParkingLot().getId())) {
+      throw new EntityNotFoundException("Could not find vehicle with license plate " + licensePlate + " in parking lot " + parkingLotId);
+    }
+    return unpark(vehicle);
+  }
+
+  /**
+   * Finds a parked vehicle and its spot, in the {@link PlateCache} first and in the database on a miss.
+   * @param licensePlate the vehicle license plate
+   * @return the vehicle, linked to its spot
+   * @throws EntityNotFoundException if no vehicle has the license plate
+   */
+  private Vehicle findVehicle(final String licensePlate) {
+    return plateCache.get(licensePlate)
+                     .map(ParkedVehicle::toVehicle)
+                     .orElseGet(() -> vehicleService.getVehicleByLicensePlate(licensePlate));
+  }
+
+  /**
+   * Unparks a vehicle from the spot it holds, according to its type.
+   * A failed unpark drops the plate from the {@link PlateCache}, so the next attempt reads the database.
+   * The free spots go back to the index, and are counted, only once the transaction commits.
+   * @param vehicle the vehicle to unpark
+   * @return the spot that the vehicle was parked in
+   * @throws ServiceException if there is an error while unparking the vehicle
+   */
+  private Spot unpark(final Vehicle vehicle) throws ServiceException {
     final Spot spot = vehicle.getSpot();
 
-    if (vehicle.getType() == VehicleType.MOTORCYCLE) {
-      return unparkMotorcycle(spot, vehicle);
-    } else if (vehicle.getType() == VehicleType.CAR) {
-      return unparkCar(spot, vehicle);
-    } else {
-      return unparkVan(spot, vehicle);
+    try {
+      if (vehicle.getType() == VehicleType.MOTORCYCLE) {
+        return unparkMotorcycle(spot, vehicle);
+      } else if (vehicle.getType() == VehicleType.CAR) {
+        return unparkCar(spot, vehicle);
+      } else {
+        return unparkVan(spot, vehicle);
+      }
+    } catch (final ServiceException | RuntimeException e) {
+      plateCache.invalidate(vehicle.getLicensePlate());
+      throw e;
     }
   }
 
   /**
-   * Parks a motorcycle in the first available spot from a list of spots.
-   * @param availableSpots A List of available parking spots
-   * @param vehicle        The motorcycle vehicle to be parked
-   * @return The Spot where the motorcycle has been parked
-   * @throws ServiceException If there are no available spots, or an error occurs while parking the motorcycle
+   * Unparks a batch of vehicles. The plates missing from the {@link PlateCache} are resolved with one query, every spot they held is freed with one
+   * bulk update and the vehicles are deleted with one batched delete, all in a single transaction, so the number
+   * of database round trips does not depend on the size of the batch. If any step fails the whole batch is rolled back.
+   * The freed spots are given back to the {@link FreeSpotIndex}, the {@link OccupancyCounters} and the {@link ParkingJournal}
+   * once the transaction has committed.
+   * @param licensePlates the license plates of the vehicles to unpark
+   * @return the unparked plates, the freed spots and the plates that matched no vehicle
+   * @throws ServiceException if there is an error while unparking the batch
    */
-  private Spot parkMotorcycle(final List<Spot> availableSpots, final Vehicle vehicle) throws ServiceException {
-    if (availableSpots.isEmpty()) {
-      throw new ServiceException("No available spots to park");
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public UnparkingResult unparkVehicles(final List<String> licensePlates) throws ServiceException {
+    final List<ParkedVehicle> parked = new ArrayList<>(licensePlates.size());
+    final Set<String> uncached = new LinkedHashSet<>();
+    for (final String licensePlate : new LinkedHashSet<>(licensePlates)) {
+      plateCache.get(licensePlate).ifPresentOrElse(parked::add, () -> uncached.add(licensePlate));
     }
+    if (!uncached.isEmpty()) {
+      parked.addAll(vehicleService.findParkedVehicles(uncached));
+    }
+    final Set<String> found = new HashSet<>();
+    final List<String> unparked = new ArrayList<>(parked.size());
+    final List<Long> vehicleIds = new ArrayList<>(parked.size());
+    final List<Long> spotIds = new ArrayList<>(parked.size());
+    final List<ParkedVehicle> spotVehicles = new ArrayList<>(parked.size());
+    final List<List<Long>> vehicleSpotIds = new ArrayList<>(parked.size());
 
-    final Spot spot = availableSpots.get(0);
-    spot.setOccupied(true);
-    spot.setVehicle(vehicle);
-    vehicle.setSpot(spot);
-    vehicleService.createVehicle(vehicle);
+    for (final ParkedVehicle vehicle : parked) {
+      found.add(vehicle.licensePlate());
+      unparked.add(vehicle.licensePlate());
+      vehicleIds.add(vehicle.id());
+      if (vehicle.spotId() == null) {
+        continue;
+      }
+      final List<Long> held = new ArrayList<>(1);
+      held.add(vehicle.spotId());
+      if (vehicle.type() == VehicleType.VAN && vehicle.spotType() != SpotType.VAN) {
+        for (final long adjacentId : freeSpotIndex.preceding(vehicle.parkingLotId(), vehicle.spotId(), VehicleType.VAN_CAR_SPOTS - 1)) {
+          held.add(adjacentId);
+        }
+      }
+      spotIds.addAll(held);
+      spotVehicles.add(vehicle);
+      vehicleSpotIds.add(held);
+    }
+    final List<String> notFound = licensePlates.stream().filter(p -> !found.contains(p)).distinct().toList();
 
     try {
-      spotService.createSpot(spot);
+      spotService.freeSpots(spotIds);
+      vehicleService.removeVehicles(vehicleIds);
     } catch (final Exception e) {
-      log.error("Error parking a motorcycle in a spot: {}", e.getMessage(), e);
-      throw new ServiceException("Error parking a motorcycle in a spot!", e);
+      plateCache.invalidateAll(unparked);
+      log.error("Error unparking a batch of vehicles: {}", e.getMessage(), e);
+      throw new ServiceException("Error unparking a batch of vehicles", e);
     }
-    return spot;
+
+    final Runnable release = () -> {
+      for (int i = 0; i < spotVehicles.size(); i++) {
+        final ParkedVehicle vehicle = spotVehicles.get(i);
+        if (vehicle.parkingLotId() != null) {
+          vehicleSpotIds.get(i).forEach(spotId -> freeSpotIndex.release(vehicle.parkingLotId(), spotId));
+        }
+        unparked(vehicle.parkingLotId(), vehicleSpotIds.get(i), vehicle.type(), vehicle.licensePlate());
+      }
+    };
+    afterCommit(release);
+    return new UnparkingResult(unparked, spotIds, notFound);
   }
 
   /**
-   * Searches for an available parking spot for a car or van, assigns it to the given vehicle,
-   * and updates the status of the spot and the vehicle. The updated vehicle and spot objects
-   * are persisted to the database. If no available spot is found, a ServiceException is thrown.
-   * @param availableSpots a List of Spot objects representing the available parking spots
-   * @param vehicle        a Vehicle object representing the vehicle that needs to be parked
-   * @return a Spot object representing the parking spot assigned to the vehicle
-   * @throws ServiceException if no available spot is found or if there's an error creating
-   *                          the updated vehicle and spot objects in the database
-   */
-  private Spot parkCar(final List<Spot> availableSpots, final Vehicle vehicle) throws ServiceException {
-    for (final Spot spot : availableSpots) {
-      if (spot.getType() == SpotType.CAR || spot.getType() == SpotType.VAN) {
-        spot.setOccupied(true);
-        spot.setVehicle(vehicle);
-        vehicle.setSpot(spot);
-        vehicleService.createVehicle(vehicle);
-        try {
-          spotService.createSpot(spot);
-        } catch (final Exception e) {
-          log.error("Error parking a car in a spot: {}", e.getMessage(), e);
-          throw new ServiceException("Error parking a car in a spot!", e);
+   * Runs an update of the in-memory state once the current transaction has committed, or right away outside of one.
+   * @param action the update
+   */
+  private static void afterCommit(final Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
         }
-        return spot;
-      }
+      });
+    } else {
+      action.run();
     }
-    throw new ServiceException("There's no available spot for a car");
   }
 
   /**
-   * Parks a given {@link Vehicle} of type van in the first available {@link Spot} of type van.
-   * If no van spots are available, the method will attempt to park the van in adjacent empty car spots,
-   * but only if at least two consecutive adjacent spots are unoccupied.
-   * If no suitable spots are found, a {@link ServiceException} is thrown.
-   * @param availableSpots a list of all available spots in the parking lot
-   * @param vehicle        the van to be parked
-   * @return the spot where the van was parked
-   * @throws ServiceException if no available spots for a van or car are found
+   * Parks a single vehicle of a batch, turning a failure into a rejected result.
+   * @param vehicle the vehicle to park
+   * @return the result for the vehicle
    */
-  private Spot parkVan(final List<Spot> availableSpots, final Vehicle vehicle) throws ServiceException {
-    for (Spot spot : availableSpots) {
-      if (spot.getType() == SpotType.VAN && !spot.isOccupied()) {
-        occupySpot(vehicle, spot);
-        return spot;
-      }
+  private ParkingResult parkOne(final Vehicle vehicle) {
+    vehicle.setId(null);
+    vehicle.setSpot(null);
+    try {
+      return ParkingResult.parked(vehicle.getLicensePlate(), parkVehicle(vehicle));
+    } catch (final ServiceException e) {
+      return ParkingResult.rejected(vehicle.getLicensePlate(), e.getMessage());
+    }
+  }
+
+  /**
+   * Takes the next candidate spots for a vehicle from the {@link FreeSpotIndex}.
+   * Motorcycles take any spot, cars take a car or van spot and vans take a van spot or three adjacent car spots.
+   * @param vehicle the vehicle to park
+   * @return the claim, or empty if there is no spot left for the vehicle
+   */
+  private Optional<SpotClaim> nextClaim(final Vehicle vehicle) {
+    if (vehicle.getType() == VehicleType.MOTORCYCLE) {
+      return freeSpotIndex.claim(MOTORCYCLE_SPOT_TYPES);
+    } else if (vehicle.getType() == VehicleType.CAR) {
+      return freeSpotIndex.claim(CAR_SPOT_TYPES);
+    } else {
+      return freeSpotIndex.claim(VAN_SPOT_TYPES).or(() -> freeSpotIndex.claimRun(SpotType.CAR, VehicleType.VAN_CAR_SPOTS));
+    }
+  }
+
+  /**
+   * Takes the next candidate spots for a vehicle from a single lot of the {@link FreeSpotIndex}.
+   * @param parkingLotId the parking lot to park in
+   * @param vehicle      the vehicle to park
+   * @return the claim, or empty if the lot has no spot left for the vehicle
+   */
+  private Optional<SpotClaim> nextClaim(final long parkingLotId, final Vehicle vehicle) {
+    if (vehicle.getType() == VehicleType.MOTORCYCLE) {
+      return freeSpotIndex.claim(parkingLotId, MOTORCYCLE_SPOT_TYPES);
+    } else if (vehicle.getType() == VehicleType.CAR) {
+      return freeSpotIndex.claim(parkingLotId, CAR_SPOT_TYPES);
+    } else {
+      return freeSpotIndex.claim(parkingLotId, VAN_SPOT_TYPES)
+                          .or(() -> freeSpotIndex.claimRun(parkingLotId, SpotType.CAR, VehicleType.VAN_CAR_SPOTS));
+    }
+  }
+
+  /**
+   * Makes sure a parking lot is in the {@link FreeSpotIndex}, reading only that lot's spots if it is missing.
+   * @param parkingLotId the parking lot
+   * @throws EntityNotFoundException if the parking lot does not exist
+   */
+  private void indexParkingLot(final Long parkingLotId) {
+    if (freeSpotIndex.contains(parkingLotId)) {
+      return;
     }
-    // A van can park a van spot or car spot, but it will take up 3 adjacent car spots
-    for (int i = 0; i < availableSpots.size() - 2; i++) {
-      Spot spot = availableSpots.get(i);
-      if ((spot.getType() == SpotType.VAN && !spot.isOccupied()) ||
-          (spot.getType() == SpotType.CAR && !spot.isOccupied() &&
-              !availableSpots.get(i + 1).isOccupied() && !availableSpots.get(i + 2).isOccupied())) {
+    final LotPolicy policy = parkingLotRepository.findLotPolicy(parkingLotId)
+        .orElseThrow(() -> new EntityNotFoundException("No parking lot found for id " + parkingLotId));
+    freeSpotIndex.loadIfAbsent(parkingLotId, () -> spotService.findSpotStates(parkingLotId));
+    freeSpotIndex.configure(parkingLotId, policy.strategy());
+  }
 
-        occupySpot(vehicle, spot);
-        occupySpot(vehicle, availableSpots.get(i + 1));
-        occupySpot(vehicle, availableSpots.get(i + 2));
+  private String noSpotMessage(final Vehicle vehicle) {
+    if (vehicle.getType() == VehicleType.MOTORCYCLE) {
+      return "No available spots to park";
+    } else if (vehicle.getType() == VehicleType.CAR) {
+      return "There's no available spot for a car";
+    } else {
+      return "There are no available spots for a van or car.";
+    }
+  }
+
+  /**
+   * Claims candidate spots from the {@link FreeSpotIndex} and occupies them in the database.
+   * No lock is held while talking to the database: the index hands every spot to a single thread of this instance,
+   * and the spot {@code version} rejects claims that lost against another instance or a stale index entry.
+   * A lost claim is retried with the next candidate.
+   * @param vehicle       the vehicle to park
+   * @param candidates    supplies the next claim from the index
+   * @param noSpotMessage the error message used when the index has no candidate left
+   * @return the first spot of the successful claim
+   * @throws ServiceException if there is no candidate left or the claim could not be persisted
+   */
+  private Spot claimSpots(final Vehicle vehicle, final Supplier<Optional<SpotClaim>> candidates,
+                          final String noSpotMessage) throws ServiceException {
+    for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+      final SpotClaim claim = candidates.get().orElseThrow(() -> new ServiceException(noSpotMessage));
+      try {
+        final Spot spot = spotService.claimSpots(claim, vehicle).get(0);
+        parked(claim, vehicle);
         return spot;
+      } catch (final OptimisticLockingFailureException e) {
+        log.warn("Lost the claim on spots {}, retrying: {}", claim.spotIds(), e.getMessage());
+        vehicle.setId(null);
+        vehicle.setSpot(null);
+        releaseFreeSpots(List.of(claim));
+      } catch (final Exception e) {
+        freeSpotIndex.release(claim);
+        log.error("Error parking a vehicle: {}", e.getMessage(), e);
+        throw new ServiceException("Error parking a vehicle", e);
       }
     }
-    throw new ServiceException("There are no available spots for a van or car.");
+    throw new ServiceException("Could not claim a spot after " + MAX_CLAIM_ATTEMPTS + " attempts");
   }
 
   /**
-   * Occupies a parking spot with a given vehicle.
-   * @param vehicle the vehicle to occupy the spot
-   * @param spot    the parking spot to be occupied
-   * @throws ServiceException if there is an error creating the vehicle or updating the spot
+   * Gives the spots of lost claims that are still free in the database back to the index, reading their occupied flags
+   * with one query. The spots taken by someone else stay out of it.
+   * @param claims the lost claims
    */
-  private void occupySpot(final Vehicle vehicle, final Spot spot) throws ServiceException {
-    spot.setOccupied(true);
-    spot.setVehicle(vehicle);
-    vehicle.setSpot(spot);
-    try {
-      vehicleService.createVehicle(vehicle);
-      spotService.updateSpot(spot.getId(), spot);
-    } catch (final Exception e) {
-      log.error("Error occupying a spot: {}", e.getMessage(), e);
-      throw new ServiceException("Error occupying a spot", e);
+  private void releaseFreeSpots(final List<SpotClaim> claims) {
+    final List<Long> spotIds = new ArrayList<>();
+    claims.forEach(claim -> Arrays.stream(claim.spotIds()).forEach(spotIds::add));
+    if (spotIds.isEmpty()) {
+      return;
+    }
+    final Set<Long> occupied = new HashSet<>(spotService.findOccupiedIds(spotIds));
+    for (final SpotClaim claim : claims) {
+      for (final long spotId : claim.spotIds()) {
+        if (!occupied.contains(spotId)) {
+          freeSpotIndex.release(claim.parkingLotId(), spotId);
+        }
+      }
     }
   }
 
@@ -215,6 +582,10 @@ public class ParkingLotServiceImpl implements ParkingLotService {
     try {
       final Spot freeSpot = spotService.updateSpot(spot.getId(), spot);
       vehicleService.removeVehicle(vehicle.getId());
+      afterCommit(() -> {
+        freeSpotIndex.release(spot);
+        unparked(parkingLotIdOf(spot), Collections.singletonList(spot.getId()), vehicle.getType(), vehicle.getLicensePlate());
+      });
       return freeSpot;
     } catch (final Exception e) {
       log.error("Error unparking a motorcycle from spot: {}", e.getMessage(), e);
@@ -235,6 +606,10 @@ public class ParkingLotServiceImpl implements ParkingLotService {
     try {
       final Spot freeSpot = spotService.updateSpot(spot.getId(), spot);
       vehicleService.removeVehicle(vehicle.getId());
+      afterCommit(() -> {
+        freeSpotIndex.release(spot);
+        unparked(parkingLotIdOf(spot), Collections.singletonList(spot.getId()), vehicle.getType(), vehicle.getLicensePlate());
+      });
       return freeSpot;
     } catch (final Exception e) {
       log.error("Error unparking a car from spot: {}", e.getMessage(), e);
@@ -243,36 +618,82 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   }
 
   /**
-   * Unparks the given van vehicle from the given spot.
+   * Unparks the given van vehicle from the given spot. The adjacent car spots of a van are freed with one bulk update.
    * @param spot the spot where the van vehicle is parked
    * @param vehicle the van vehicle to unpark
    * @return the unparked spot
    * @throws ServiceException if an error occurs while unparking the vehicle
    */
   private Spot unparkVan(final Spot spot, final Vehicle vehicle) throws ServiceException {
-    var adjacentSpots = new ArrayList<Spot>();
-
-    if (spot.getType() == SpotType.VAN) {
-      adjacentSpots.add(spot);
-    } else {
-      adjacentSpots.add(spotService.findById(spot.getId() - 1));
-      adjacentSpots.add(spotService.findById(spot.getId() - 2));
-    }
-
-    for (final Spot adjacentSpot : adjacentSpots) {
-      adjacentSpot.setOccupied(false);
-      adjacentSpot.setVehicle(null);
-      spotService.updateSpot(adjacentSpot.getId(), adjacentSpot);
+    final Long parkingLotId = parkingLotIdOf(spot);
+    final List<Long> adjacentIds = new ArrayList<>();
+    if (spot.getType() != SpotType.VAN) {
+      for (final long adjacentId : freeSpotIndex.preceding(parkingLotId, spot.getId(), VehicleType.VAN_CAR_SPOTS - 1)) {
+        adjacentIds.add(adjacentId);
+      }
     }
+    spotService.freeSpots(adjacentIds);
 
     spot.setOccupied(false);
     spot.setVehicle(null);
     vehicleService.removeVehicle(vehicle.getId());
     spotService.updateSpot(spot.getId(), spot);
 
+    afterCommit(() -> {
+      freeSpotIndex.release(spot);
+      if (parkingLotId != null) {
+        adjacentIds.forEach(adjacentId -> freeSpotIndex.release(parkingLotId, adjacentId));
+      }
+      final List<Long> freedIds = new ArrayList<>(adjacentIds.size() + 1);
+      freedIds.add(spot.getId());
+      freedIds.addAll(adjacentIds);
+      unparked(parkingLotId, freedIds, vehicle.getType(), vehicle.getLicensePlate());
+    });
     return spot;
   }
 
+  /**
+   * Counts, caches and records the spots of a claim that has been persisted.
+   * @param claim   the claimed spots
+   * @param vehicle the parked vehicle, linked to the last spot of the claim
+   */
+  private void parked(final SpotClaim claim, final Vehicle vehicle) {
+    final List<SpotType> spotTypes = new ArrayList<>(claim.spotIds().length);
+    for (final long spotId : claim.spotIds()) {
+      spotTypes.add(freeSpotIndex.typeOf(claim.parkingLotId(), spotId));
+    }
+    occupancyCounters.park(claim.parkingLotId(), vehicle.getType(), spotTypes);
+    final long linkedSpotId = claim.spotIds()[claim.spotIds().length - 1];
+    plateCache.put(new ParkedVehicle(vehicle.getId(), vehicle.getLicensePlate(), vehicle.getType(),
+                                     linkedSpotId, spotTypes.get(spotTypes.size() - 1), claim.parkingLotId()));
+    parkingJournal.recordPark(claim, vehicle.getType(), vehicle.getLicensePlate());
+  }
+
+  /**
+   * Counts and records spots that have been freed, and forgets the plate of the vehicle that held them.
+   * @param parkingLotId the parking lot of the spots, may be null
+   * @param spotIds      the freed spots
+   * @param vehicleType  the vehicle that held them
+   * @param licensePlate the license plate of the vehicle
+   */
+  private void unparked(final Long parkingLotId, final List<Long> spotIds, final VehicleType vehicleType, final String licensePlate) {
+    if (parkingLotId != null) {
+      final List<SpotType> spotTypes = new ArrayList<>(spotIds.size());
+      for (final Long spotId : spotIds) {
+        if (spotId != null) {
+          spotTypes.add(freeSpotIndex.typeOf(parkingLotId, spotId));
+        }
+      }
+      occupancyCounters.unpark(parkingLotId, vehicleType, spotTypes);
+    }
+    plateCache.invalidate(licensePlate);
+    parkingJournal.recordUnpark(parkingLotId, spotIds, vehicleType, licensePlate);
+  }
+
+  private static Long parkingLotIdOf(final Spot spot) {
+    return spot.getParkingLot() == null ? null : spot.getParkingLot().getId();
+  }
+
   /**
    * Finds a ParkingLot by id.
    * @param id the id of the ParkingLot to be found.
@@ -284,9 +705,54 @@ public class ParkingLotServiceImpl implements ParkingLotService {
     return parkingLotRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("No parking lot found for id " + id));
   }
 
+  /**
+   * Finds a parking lot by id with its occupancy but without its spots, which are read page by page with
+   * {@link #findSpots(Long, SpotType, Boolean, long, int)}.
+   * @param id the id of the parking lot
+   * @return the parking lot summary
+   * @throws EntityNotFoundException if the parking lot is not found
+   * @throws ServiceException if an error occurs while counting its spots
+   */
+  @Override
+  public ParkingLotSummary getParkingLotSummary(final Long id) throws ServiceException {
+    return ParkingLotSummary.of(findParkingLotById(id), getOccupancy(id));
+  }
+
+  /**
+   * Lists the spots of a parking lot page by page, in id order, optionally filtered by type and occupied flag.
+   * Pages are keyed by the last spot id of the previous page rather than by offset, so reading deep into a large lot
+   * does not get slower.
+   * @param parkingLotId the parking lot
+   * @param type         only spots of this type, or null for every type
+   * @param occupied     only spots with this occupied flag, or null for both
+   * @param after        the {@code next} key of the previous page, 0 for the first page
+   * @param size         the page size, at most {@value #MAX_SPOT_PAGE_SIZE}
+   * @return the page and the key of the next one
+   * @throws EntityNotFoundException if the parking lot is not found
+   * @throws ServiceException if the page size is invalid or an error occurs while reading the spots
+   */
+  @Override
+  public SpotPage findSpots(final Long parkingLotId, final SpotType type, final Boolean occupied, final long after,
+                            final int size) throws ServiceException {
+    if (size <= 0 || size > MAX_SPOT_PAGE_SIZE) {
+      throw new ServiceException("size must be between 1 and " + MAX_SPOT_PAGE_SIZE + " but was " + size);
+    }
+    if (!parkingLotRepository.existsById(parkingLotId)) {
+      throw new EntityNotFoundException("No parking lot found for id " + parkingLotId);
+    }
+    try {
+      final List<SpotView> spots = spotService.findSpots(parkingLotId, type, occupied, after, size);
+      final Long next = spots.size() < size ? null : spots.get(spots.size() - 1).id();
+      return new SpotPage(spots, next);
+    } catch (final Exception e) {
+      log.error("Error listing the spots of parking lot {}: {}", parkingLotId, e.getMessage(), e);
+      throw new ServiceException("Error listing the spots of parking lot " + parkingLotId, e);
+    }
+  }
+
   /**
    * Returns a boolean value indicating whether the parking lot is full or not.
-   * This is determined by checking the number of available spots using the spotService.
+   * This is determined by checking the number of available spots in the {@link OccupancyCounters}, or the spotService until they are ready.
    * If the count of available spots is zero, then the parking lot is considered full.
    * @return boolean value indicating whether the parking lot is full or not
    * @throws ServiceException if an error occurs while retrieving the available spots count
@@ -294,7 +760,7 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   @Override
   public boolean isParkingLotFull() throws ServiceException {
     try {
-      return spotService.countAvailableSpots() == 0;
+      return occupancyCounters.countAvailable().orElseGet(spotService::countAvailableSpots) == 0;
     } catch (final Exception e) {
       log.error("Error retrieving available spots count: {}", e.getMessage(), e);
       throw new ServiceException("Error retrieving available spots count", e);
@@ -302,14 +768,25 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   }
 
   /**
-   * Returns the number of available parking spots by calling the countAvailableSpots method of the spotService.
+   * Returns whether a single parking lot has no available spot left.
+   * @param parkingLotId the parking lot
+   * @return true if every spot of the lot is occupied
+   * @throws ServiceException if an error occurs while retrieving the available spots count
+   */
+  @Override
+  public boolean isParkingLotFull(final Long parkingLotId) throws ServiceException {
+    return countAvailableSpots(parkingLotId) == 0;
+  }
+
+  /**
+   * Returns the number of available parking spots from the {@link OccupancyCounters}, or the spotService until they are ready.
    * @return An integer representing the number of available parking spots
    * @throws ServiceException If an error occurs while retrieving the available spots count from the spotService
    */
   @Override
   public int countAvailableSpots() throws ServiceException {
     try {
-      return spotService.countAvailableSpots();
+      return occupancyCounters.countAvailable().orElseGet(spotService::countAvailableSpots);
     } catch (final Exception e) {
       log.error("Error retrieving available spots count: {}", e.getMessage(), e);
       throw new ServiceException("Error retrieving available spots count", e);
@@ -317,14 +794,30 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   }
 
   /**
-   * Returns the count of occupied parking spots in the parking lot.
+   * Returns the number of available spots of a single parking lot, using the per-lot {@link OccupancyCounters}.
+   * @param parkingLotId the parking lot
+   * @return the number of available spots in the lot
+   * @throws ServiceException if an error occurs while retrieving the available spots count
+   */
+  @Override
+  public int countAvailableSpots(final Long parkingLotId) throws ServiceException {
+    try {
+      return occupancyCounters.countAvailable(parkingLotId).orElseGet(() -> spotService.countAvailableSpots(parkingLotId));
+    } catch (final Exception e) {
+      log.error("Error retrieving available spots count of parking lot {}: {}", parkingLotId, e.getMessage(), e);
+      throw new ServiceException("Error retrieving available spots count", e);
+    }
+  }
+
+  /**
+   * Returns the count of occupied parking spots in the parking lot, from the {@link OccupancyCounters} once they are ready.
    * @return the count of occupied parking spots
    * @throws ServiceException if there is an error retrieving the count of occupied parking spots
    */
   @Override
   public int countOccupiedSpots() throws ServiceException {
     try {
-      return spotService.countOccupiedSpots();
+      return occupancyCounters.countOccupied().orElseGet(spotService::countOccupiedSpots);
     } catch (final Exception e) {
       log.error("Error retrieving occupied spots count: {}", e.getMessage(), e);
       throw new ServiceException("Error occupied spots count", e);
@@ -332,19 +825,135 @@ public class ParkingLotServiceImpl implements ParkingLotService {
   }
 
   /**
-   * Returns the number of parking spots currently occupied by vans.
-   * It does this by retrieving all parking spots using the spotService.findAllSpots() method,
-   * filtering the spots to include only those occupied by a van, and returning the count of those spots as an integer.
+   * Returns the number of occupied spots of a single parking lot, using the per-lot {@link OccupancyCounters}.
+   * @param parkingLotId the parking lot
+   * @return the number of occupied spots in the lot
+   * @throws ServiceException if an error occurs while retrieving the occupied spots count
+   */
+  @Override
+  public int countOccupiedSpots(final Long parkingLotId) throws ServiceException {
+    try {
+      return occupancyCounters.countOccupied(parkingLotId).orElseGet(() -> spotService.countOccupiedSpots(parkingLotId));
+    } catch (final Exception e) {
+      log.error("Error retrieving occupied spots count of parking lot {}: {}", parkingLotId, e.getMessage(), e);
+      throw new ServiceException("Error retrieving occupied spots count", e);
+    }
+  }
+
+  /**
+   * Returns the number of parking spots currently held by vans, counting every car spot of a van parked over car spots.
+   * It is read from the occupancy breakdown, so no spot is loaded.
    * @return an integer representing the number of parking spots occupied by vans
+   * @throws ServiceException if an error occurs while counting the van spots
    */
+  @Override
   public int countVanSpots() throws ServiceException {
+    return getOccupancy().spotsByVehicleType().get(VehicleType.VAN);
+  }
+
+  /**
+   * Returns the number of spots of a single parking lot currently held by vans, read from its occupancy breakdown.
+   * @param parkingLotId the parking lot
+   * @return the number of spots in the lot holding a van
+   * @throws ServiceException if an error occurs while counting the van spots
+   */
+  @Override
+  public int countVanSpots(final Long parkingLotId) throws ServiceException {
+    return getOccupancy(parkingLotId).spotsByVehicleType().get(VehicleType.VAN);
+  }
+
+  /**
+   * Returns the occupancy of every parking lot broken down by spot type and vehicle type, from the {@link OccupancyCounters},
+   * or from a single {@code GROUP BY} query until they are ready.
+   * @return the occupancy breakdown
+   * @throws ServiceException if an error occurs while counting the spots
+   */
+  @Override
+  public OccupancyBreakdown getOccupancy() throws ServiceException {
     try {
-      return (int) spotService.findAllSpots().stream()
-                              .filter(s -> s.getVehicle() != null && s.getVehicle().getType() == VehicleType.VAN)
-                              .count();
+      return occupancyCounters.breakdown().orElseGet(() -> OccupancyTally.of(spotService.countSpots()).toBreakdown(null));
     } catch (final Exception e) {
-      log.error("Error counting van spots: {}", e.getMessage(), e);
-      throw new ServiceException("Error counting van spots", e);
+      log.error("Error retrieving the occupancy breakdown: {}", e.getMessage(), e);
+      throw new ServiceException("Error retrieving the occupancy breakdown", e);
     }
   }
+
+  /**
+   * Returns the occupancy of a single parking lot broken down by spot type and vehicle type, from the per-lot
+   * {@link OccupancyCounters}, or from a single {@code GROUP BY} query if the lot is not counted.
+   * @param parkingLotId the parking lot
+   * @return the occupancy breakdown of the lot
+   * @throws ServiceException if an error occurs while counting the spots
+   */
+  @Override
+  public OccupancyBreakdown getOccupancy(final Long parkingLotId) throws ServiceException {
+    try {
+      return occupancyCounters.breakdown(parkingLotId)
+                              .orElseGet(() -> OccupancyTally.of(spotService.countSpots(List.of(parkingLotId))).toBreakdown(parkingLotId));
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy breakdown of parking lot {}: {}", parkingLotId, e.getMessage(), e);
+      throw new ServiceException("Error retrieving the occupancy breakdown", e);
+    }
+  }
+
+  /**
+   * Returns which spots of a parking lot are taken, in layout order, from the {@link FreeSpotIndex}.
+   * With {@code since} only the spots changed after that version are returned, unless those changes are no longer known.
+   * @param parkingLotId the parking lot
+   * @param encoding     the encoding of a full bitmap, {@link OccupancyBitmap.Encoding#RAW} when null
+   * @param since        the version the caller already has, or null for a full bitmap
+   * @return the bitmap or the delta, with the version it brings the caller to
+   * @throws EntityNotFoundException if the parking lot does not exist
+   * @throws ServiceException if the encoding is not one of a full bitmap
+   */
+  @Override
+  public OccupancyBitmap getOccupancyBitmap(final Long parkingLotId, final OccupancyBitmap.Encoding encoding,
+                                            final Long since) throws ServiceException {
+    final OccupancyBitmap.Encoding full = encoding == null ? OccupancyBitmap.Encoding.RAW : encoding;
+    if (full == OccupancyBitmap.Encoding.DELTA) {
+      throw new ServiceException("A delta is requested with since, the encoding must be RAW or RLE");
+    }
+    indexParkingLot(parkingLotId);
+    final LotOccupancy lot = freeSpotIndex.lot(parkingLotId)
+        .orElseThrow(() -> new EntityNotFoundException("No parking lot found for id " + parkingLotId));
+    return since == null ? OccupancyBitmap.of(lot, full) : OccupancyBitmap.since(lot, since, full);
+  }
+
+  /**
+   * Returns the occupancy breakdown of many parking lots. Lots known to the {@link OccupancyCounters} are served from them,
+   * the others are counted together with a single {@code GROUP BY} query.
+   * @param parkingLotIds the parking lots
+   * @return one breakdown per id, in the same order, with zero counts for a lot without spots
+   * @throws ServiceException if an error occurs while counting the spots
+   */
+  @Override
+  public List<OccupancyBreakdown> getOccupancy(final List<Long> parkingLotIds) throws ServiceException {
+    try {
+      final Map<Long, OccupancyBreakdown> breakdowns = new HashMap<>();
+      final List<Long> uncounted = new ArrayList<>();
+      for (final Long parkingLotId : new LinkedHashSet<>(parkingLotIds)) {
+        occupancyCounters.breakdown(parkingLotId)
+                         .ifPresentOrElse(b -> breakdowns.put(parkingLotId, b), () -> uncounted.add(parkingLotId));
+      }
+      if (!uncounted.isEmpty()) {
+        final Map<Long, OccupancyTally> tallies = OccupancyTally.byParkingLot(spotService.countSpots(uncounted));
+        for (final Long parkingLotId : uncounted) {
+          breakdowns.put(parkingLotId, tallies.getOrDefault(parkingLotId, new OccupancyTally()).toBreakdown(parkingLotId));
+        }
+      }
+      return parkingLotIds.stream().map(breakdowns::get).toList();
+    } catch (final Exception e) {
+      log.error("Error retrieving the occupancy breakdown of parking lots {}: {}", parkingLotIds, e.getMessage(), e);
+      throw new ServiceException("Error retrieving the occupancy breakdown", e);
+    }
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts of the license plate cache.
+   * @return the cache statistics
+   */
+  @Override
+  public PlateCacheStats getPlateCacheStats() {
+    return plateCache.stats();
+  }
 }
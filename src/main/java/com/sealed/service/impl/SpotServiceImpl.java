@@ -1,27 +1,56 @@
 package com.sealed.service.impl;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.SpotState;
+import com.sealed.allocation.VehicleClaim;
+import com.sealed.dto.SpotView;
+import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
 import com.sealed.exception.ServiceException;
+import com.sealed.occupancy.SpotCount;
 import com.sealed.repository.SpotRepository;
+import com.sealed.repository.VehicleRepository;
 import com.sealed.service.SpotService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class SpotServiceImpl implements SpotService {
 
+  /** Spots persisted between two flushes of a bulk insert, a multiple of the JDBC batch size. */
+  static final int CREATE_CHUNK_SIZE = 1000;
+
   private final SpotRepository spotRepository;
+  private final VehicleRepository vehicleRepository;
+  private final EntityManager entityManager;
 
   @Autowired
-  public SpotServiceImpl(final SpotRepository spotRepository) {
+  public SpotServiceImpl(final SpotRepository spotRepository, final VehicleRepository vehicleRepository,
+                         final EntityManager entityManager) {
     this.spotRepository = spotRepository;
+    this.vehicleRepository = vehicleRepository;
+    this.entityManager = entityManager;
   }
 
   /**
@@ -40,6 +69,47 @@ public class SpotServiceImpl implements SpotService {
     }
   }
 
+  /**
+   * Generates and persists the spots of a parking lot from its spot counts: motorcycle spots first, then car spots,
+   * then van spots. The spots are inserted in chunks of {@value #CREATE_CHUNK_SIZE}, flushing them as JDBC batches
+   * and clearing the persistence context after every chunk, so memory does not grow with the size of the lot.
+   * When {@code spotsPerRow} is given every spot also gets a 1-based row and position within its row, in layout order.
+   * @param parkingLot  the persisted parking lot, holding the spot counts
+   * @param spotsPerRow the number of spots in a row, or null to leave the layout unset
+   * @return the number of spots created
+   * @throws ServiceException if an error occurs while persisting the spots
+   */
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public int createSpots(final ParkingLot parkingLot, final Integer spotsPerRow) throws ServiceException {
+    final Long parkingLotId = parkingLot.getId();
+    final int[] counts = {parkingLot.getMotorcycleSpots(), parkingLot.getCarSpots(), parkingLot.getVanSpots()};
+    final SpotType[] types = {SpotType.MOTORCYCLE, SpotType.CAR, SpotType.VAN};
+    int created = 0;
+    try {
+      for (int t = 0; t < types.length; t++) {
+        for (int i = 0; i < counts[t]; i++) {
+          final Spot spot = new Spot(types[t], false, entityManager.getReference(ParkingLot.class, parkingLotId), null);
+          if (spotsPerRow != null) {
+            spot.setLayoutRow(created / spotsPerRow + 1);
+            spot.setLayoutPosition(created % spotsPerRow + 1);
+          }
+          entityManager.persist(spot);
+          if (++created % CREATE_CHUNK_SIZE == 0) {
+            entityManager.flush();
+            entityManager.clear();
+          }
+        }
+      }
+      entityManager.flush();
+      entityManager.clear();
+      return created;
+    } catch (final Exception e) {
+      log.error("Error persisting the spots of parking lot {}: {}", parkingLotId, e.getMessage(), e);
+      throw new ServiceException("Error persisting the spots of parking lot " + parkingLotId, e);
+    }
+  }
+
   /**
    * Updates an existing {@link Spot} entity in the database with the new information provided.
    * @param id   the id of the spot to be updated
@@ -61,6 +131,93 @@ public class SpotServiceImpl implements SpotService {
     }
   }
 
+  /**
+   * Occupies the given spots with a vehicle and persists the vehicle, all in one transaction.
+   * The spots are taken with a single conditional {@code UPDATE ... WHERE occupied = false}: the database checks
+   * and occupies them atomically, so a spot taken concurrently by another request or instance shows up as a
+   * missing row in the update count and the whole claim rolls back.
+   * The vehicle is linked to the last spot of the claim.
+   * @param claim   the spots to occupy, in layout order
+   * @param vehicle the vehicle to park
+   * @return the occupied spots, in the given order
+   * @throws OptimisticLockingFailureException if any of the spots is, or has just been, occupied by someone else
+   */
+  @Override
+  @Transactional
+  public List<Spot> claimSpots(final SpotClaim claim, final Vehicle vehicle) {
+    final long[] ids = claim.spotIds();
+    final List<Long> spotIds = Arrays.stream(ids).boxed().toList();
+    final int occupied = spotRepository.occupyAllByIdIn(spotIds);
+    if (occupied != ids.length) {
+      throw new OptimisticLockingFailureException("Spots " + spotIds + " are already occupied");
+    }
+    vehicle.setSpot(spotRepository.getReferenceById(ids[ids.length - 1]));
+    vehicleRepository.save(vehicle);
+    final Map<Long, Spot> spots = spotRepository.findAllWithVehicleByIdIn(spotIds).stream()
+                                                .collect(Collectors.toMap(Spot::getId, Function.identity()));
+    return Arrays.stream(ids).mapToObj(spots::get).toList();
+  }
+
+  /**
+   * Occupies the spots of many claims and persists their vehicles in a single transaction.
+   * All spots are read with one query, the vehicles are inserted with {@code saveAll} and the spot updates
+   * are flushed once, so Hibernate can send them as JDBC batches.
+   * A claim whose spots turn out to be occupied already is skipped and reported with a null entry.
+   * @param claims the vehicles and the spots claimed for them
+   * @return for every claim, in order, the first occupied spot or null if the claim was skipped
+   * @throws OptimisticLockingFailureException if a spot was updated concurrently, in which case nothing is persisted
+   */
+  @Override
+  @Transactional
+  public List<Spot> claimAllSpots(final List<VehicleClaim> claims) {
+    final List<Long> ids = claims.stream()
+                                 .flatMap(c -> Arrays.stream(c.claim().spotIds()).boxed())
+                                 .toList();
+    final Map<Long, Spot> spots = spotRepository.findAllWithVehicleByIdIn(ids).stream()
+                                                .collect(Collectors.toMap(Spot::getId, Function.identity()));
+    final List<Spot> result = new ArrayList<>(claims.size());
+    final List<Vehicle> vehicles = new ArrayList<>(claims.size());
+    for (final VehicleClaim claim : claims) {
+      final List<Spot> claimed = Arrays.stream(claim.claim().spotIds()).mapToObj(spots::get).toList();
+      if (claimed.stream().anyMatch(s -> s == null || s.isOccupied())) {
+        result.add(null);
+        continue;
+      }
+      final Vehicle vehicle = claim.vehicle();
+      vehicle.setSpot(claimed.get(claimed.size() - 1));
+      for (final Spot spot : claimed) {
+        spot.setOccupied(true);
+        spot.setVehicle(vehicle);
+      }
+      vehicles.add(vehicle);
+      result.add(claimed.get(0));
+    }
+    vehicleRepository.saveAll(vehicles);
+    spotRepository.flush();
+    return result;
+  }
+
+  /**
+   * Marks the given spots as free with a single bulk update, bumping their version so that
+   * claims read before the update fail their optimistic check.
+   * @param ids the ids of the spots to free
+   * @return the number of spots updated
+   * @throws ServiceException if an error occurs during the update
+   */
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public int freeSpots(final Collection<Long> ids) throws ServiceException {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    try {
+      return spotRepository.freeAllByIdIn(ids);
+    } catch (final Exception e) {
+      log.error("Error freeing spots: {}", e.getMessage(), e);
+      throw new ServiceException("Error freeing spots", e);
+    }
+  }
+
   /**
    * Retrieves all the {@link Spot} entities from the database.
    * @return a list of all spots
@@ -70,6 +227,51 @@ public class SpotServiceImpl implements SpotService {
     return spotRepository.findAll();
   }
 
+  /**
+   * Streams every spot in id order with the vehicle holding it, fetching {@value SpotRepository#EXPORT_FETCH_SIZE}
+   * rows per round trip. The rows are projections that never enter the persistence context, so memory does not grow
+   * with the number of spots. Must be consumed, and closed, within a transaction.
+   * @return the spots
+   */
+  @Override
+  public Stream<SpotView> streamSpots() {
+    return spotRepository.streamSpotViews();
+  }
+
+  /**
+   * Reads the allocation state of the spots of a single parking lot.
+   * @param parkingLotId the parking lot
+   * @return the spot rows of the lot, empty if the lot has no spots or does not exist
+   */
+  @Override
+  public List<SpotState> findSpotStates(final Long parkingLotId) {
+    return spotRepository.findSpotStatesByParkingLotId(parkingLotId);
+  }
+
+  /**
+   * Reads a page of the spots of a parking lot in id order, starting right after a given spot id.
+   * Every page seeks the {@code (parking_lot_id, id)} index, so reading a page costs the same wherever it is in the lot.
+   * @param parkingLotId the parking lot
+   * @param type         only spots of this type, or null for every type
+   * @param occupied     only spots with this occupied flag, or null for both
+   * @param after        the last spot id of the previous page, 0 for the first page
+   * @param size         the maximum number of spots to return
+   * @return the spots, fewer than {@code size} on the last page
+   */
+  @Override
+  public List<SpotView> findSpots(final Long parkingLotId, final SpotType type, final Boolean occupied,
+                                  final long after, final int size) {
+    final Pageable page = PageRequest.of(0, size);
+    if (type != null && occupied != null) {
+      return spotRepository.findSpotViewsByTypeAndOccupied(parkingLotId, type, occupied, after, page);
+    } else if (type != null) {
+      return spotRepository.findSpotViewsByType(parkingLotId, type, after, page);
+    } else if (occupied != null) {
+      return spotRepository.findSpotViewsByOccupied(parkingLotId, occupied, after, page);
+    }
+    return spotRepository.findSpotViews(parkingLotId, after, page);
+  }
+
   /**
    * Counts the number of occupied {@link Spot} entities in the database.
    * @return the number of occupied spots
@@ -88,8 +290,58 @@ public class SpotServiceImpl implements SpotService {
     return spotRepository.countByOccupied(false).intValue();
   }
 
+  /**
+   * Counts the occupied spots of a single parking lot.
+   * @param parkingLotId the parking lot
+   * @return the number of occupied spots in the lot
+   */
+  @Override
+  public int countOccupiedSpots(final Long parkingLotId) {
+    return spotRepository.countByParkingLotIdAndOccupied(parkingLotId, true).intValue();
+  }
+
+  /**
+   * Counts the available spots of a single parking lot.
+   * @param parkingLotId the parking lot
+   * @return the number of available spots in the lot
+   */
+  @Override
+  public int countAvailableSpots(final Long parkingLotId) {
+    return spotRepository.countByParkingLotIdAndOccupied(parkingLotId, false).intValue();
+  }
+
+  /**
+   * Counts the spots of every parking lot by spot type, occupied flag and type of the vehicle holding them,
+   * with one {@code GROUP BY} query.
+   * @return one row per lot, spot type, occupied flag and vehicle type
+   */
+  @Override
+  public List<SpotCount> countSpots() {
+    return spotRepository.countSpotsByLotTypeAndOccupied();
+  }
+
+  /**
+   * Counts the spots of the given parking lots like {@link #countSpots()}.
+   * @param parkingLotIds the parking lots
+   * @return one row per lot, spot type, occupied flag and vehicle type
+   */
+  @Override
+  public List<SpotCount> countSpots(final Collection<Long> parkingLotIds) {
+    return parkingLotIds.isEmpty() ? List.of() : spotRepository.countSpotsByLotTypeAndOccupied(parkingLotIds);
+  }
+
   @Override
   public Spot findById(final Long id) {
     return spotRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Spot not found with id: " + id));
   }
+
+  /**
+   * Finds which of the given spots are occupied, with one query.
+   * @param ids the spots to look at
+   * @return the ids of the occupied ones
+   */
+  @Override
+  public List<Long> findOccupiedIds(final Collection<Long> ids) {
+    return ids.isEmpty() ? List.of() : spotRepository.findOccupiedIdsByIdIn(ids);
+  }
 }
@@ -3,6 +3,7 @@ package com.sealed.service.impl;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 
+import com.sealed.allocation.ParkedVehicle;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
 import com.sealed.exception.ServiceException;
@@ -13,9 +14,12 @@ import com.sealed.service.VehicleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -65,6 +69,40 @@ public class VehicleServiceImpl implements VehicleService {
     }
   }
 
+  /**
+   * Deletes the given vehicles with a single batched delete. Their spots are not touched,
+   * callers free them with {@link SpotServiceImpl#freeSpots(Collection)}.
+   * @param vehicleIds the ids of the vehicles to be deleted
+   * @throws ServiceException if an error occurs during the deletion operation
+   */
+  @Override
+  @Transactional(rollbackFor = ServiceException.class)
+  public void removeVehicles(final Collection<Long> vehicleIds) throws ServiceException {
+    if (vehicleIds.isEmpty()) {
+      return;
+    }
+    try {
+      vehicleRepository.deleteAllByIdInBatch(vehicleIds);
+    } catch (final Exception e) {
+      log.error("Error deleting vehicles: {}", e.getMessage(), e);
+      throw new ServiceException("Error deleting vehicles", e);
+    }
+  }
+
+  /**
+   * Resolves the given license plates to the parked vehicles and their spots with a single query.
+   * Plates that match no vehicle are simply missing from the result.
+   * @param licensePlates the license plates to look up
+   * @return the matching vehicles with their spot, spot type and parking lot
+   */
+  @Override
+  public List<ParkedVehicle> findParkedVehicles(final Collection<String> licensePlates) {
+    if (licensePlates.isEmpty()) {
+      return List.of();
+    }
+    return vehicleRepository.findParkedVehicles(licensePlates);
+  }
+
   /**
    * This method retrieves a vehicle by its license plate number.
    * @param licensePlate the license plate number of the vehicle to retrieve
@@ -86,4 +124,15 @@ public class VehicleServiceImpl implements VehicleService {
     var vehicleIterable = vehicleRepository.findAll();
     return Streamable.of(vehicleIterable).toList();
   }
+
+  /**
+   * Streams every vehicle in id order with the spot and parking lot it is parked in, fetching
+   * {@value SpotRepository#EXPORT_FETCH_SIZE} rows per round trip. The rows are projections that never enter the
+   * persistence context. Must be consumed, and closed, within a transaction.
+   * @return the vehicles
+   */
+  @Override
+  public Stream<ParkedVehicle> streamParkedVehicles() {
+    return vehicleRepository.streamParkedVehicles();
+  }
 }
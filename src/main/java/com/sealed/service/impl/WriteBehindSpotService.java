@@ -0,0 +1,194 @@
+package com.sealed.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.SpotState;
+import com.sealed.allocation.VehicleClaim;
+import com.sealed.dto.SpotView;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
+import com.sealed.exception.ServiceException;
+import com.sealed.occupancy.SpotCount;
+import com.sealed.service.SpotService;
+import com.sealed.writebehind.WriteBehindEngine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link SpotService} of the write-behind mode. Claims, spot updates and counts are served from memory through the
+ * {@link WriteBehindEngine} and the {@link FreeSpotIndex}; other reads flush the engine and go to the database.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "parking.write-behind.enabled", havingValue = "true")
+public class WriteBehindSpotService implements SpotService {
+
+  private final SpotServiceImpl spotService;
+  private final WriteBehindEngine engine;
+  private final FreeSpotIndex freeSpotIndex;
+
+  @Autowired
+  public WriteBehindSpotService(final SpotServiceImpl spotService, final WriteBehindEngine engine, final FreeSpotIndex freeSpotIndex) {
+    this.spotService = spotService;
+    this.engine = engine;
+    this.freeSpotIndex = freeSpotIndex;
+  }
+
+  @Override
+  public Spot createSpot(final Spot spot) throws ServiceException {
+    engine.flush();
+    return spotService.createSpot(spot);
+  }
+
+  @Override
+  public int createSpots(final ParkingLot parkingLot, final Integer spotsPerRow) throws ServiceException {
+    engine.flush();
+    return spotService.createSpots(parkingLot, spotsPerRow);
+  }
+
+  /**
+   * Records the new occupied flag of a spot; only the occupancy is written behind.
+   * @param id   the id of the spot
+   * @param spot the spot holding the new occupied flag
+   * @return the given spot
+   */
+  @Override
+  public Spot updateSpot(final Long id, final Spot spot) {
+    engine.updateSpots(List.of(id), spot.isOccupied());
+    return spot;
+  }
+
+  /**
+   * Parks a vehicle on the claimed spots in memory. The claim comes from the {@link FreeSpotIndex},
+   * which is authoritative in this mode, so no database check is needed.
+   * @param claim   the spots to occupy, in layout order
+   * @param vehicle the vehicle to park
+   * @return the occupied spots, in the given order
+   */
+  @Override
+  public List<Spot> claimSpots(final SpotClaim claim, final Vehicle vehicle) {
+    final ParkedVehicle parked = engine.park(vehicle, claim);
+    vehicle.setId(parked.id());
+    final ParkingLot parkingLot = ParkingLot.builder().id(claim.parkingLotId()).build();
+    final List<Spot> spots = new ArrayList<>(claim.spotIds().length);
+    for (final long spotId : claim.spotIds()) {
+      spots.add(Spot.builder()
+                    .id(spotId)
+                    .type(freeSpotIndex.typeOf(claim.parkingLotId(), spotId))
+                    .isOccupied(true)
+                    .parkingLot(parkingLot)
+                    .build());
+    }
+    vehicle.setSpot(spots.get(spots.size() - 1));
+    return spots;
+  }
+
+  @Override
+  public List<Spot> claimAllSpots(final List<VehicleClaim> claims) {
+    final List<Spot> result = new ArrayList<>(claims.size());
+    for (final VehicleClaim claim : claims) {
+      try {
+        result.add(claimSpots(claim.claim(), claim.vehicle()).get(0));
+      } catch (final IllegalStateException e) {
+        log.warn("Skipping a vehicle of the batch: {}", e.getMessage());
+        result.add(null);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int freeSpots(final Collection<Long> ids) {
+    engine.updateSpots(ids, false);
+    return ids.size();
+  }
+
+  @Override
+  public List<Spot> findAllSpots() {
+    engine.flush();
+    return spotService.findAllSpots();
+  }
+
+  @Override
+  public Stream<SpotView> streamSpots() {
+    engine.flush();
+    return spotService.streamSpots();
+  }
+
+  @Override
+  public List<SpotState> findSpotStates(final Long parkingLotId) {
+    engine.flush();
+    return spotService.findSpotStates(parkingLotId);
+  }
+
+  @Override
+  public List<SpotView> findSpots(final Long parkingLotId, final SpotType type, final Boolean occupied,
+                                  final long after, final int size) {
+    engine.flush();
+    return spotService.findSpots(parkingLotId, type, occupied, after, size);
+  }
+
+  @Override
+  public int countOccupiedSpots() {
+    return freeSpotIndex.size() - freeSpotIndex.countFree();
+  }
+
+  @Override
+  public int countOccupiedSpots(final Long parkingLotId) {
+    if (!freeSpotIndex.contains(parkingLotId)) {
+      return spotService.countOccupiedSpots(parkingLotId);
+    }
+    return freeSpotIndex.size(parkingLotId) - freeSpotIndex.countFree(parkingLotId);
+  }
+
+  @Override
+  public int countAvailableSpots() {
+    return freeSpotIndex.countFree();
+  }
+
+  @Override
+  public int countAvailableSpots(final Long parkingLotId) {
+    if (!freeSpotIndex.contains(parkingLotId)) {
+      return spotService.countAvailableSpots(parkingLotId);
+    }
+    return freeSpotIndex.countFree(parkingLotId);
+  }
+
+  @Override
+  public List<SpotCount> countSpots() {
+    engine.flush();
+    return spotService.countSpots();
+  }
+
+  @Override
+  public List<SpotCount> countSpots(final Collection<Long> parkingLotIds) {
+    engine.flush();
+    return spotService.countSpots(parkingLotIds);
+  }
+
+  @Override
+  public Spot findById(final Long id) {
+    engine.flush();
+    return spotService.findById(id);
+  }
+
+  @Override
+  public List<Long> findOccupiedIds(final Collection<Long> ids) {
+    engine.flush();
+    return spotService.findOccupiedIds(ids);
+  }
+}
@@ -0,0 +1,86 @@
+package com.sealed.service.impl;
+
+import jakarta.persistence.EntityNotFoundException;
+
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.entity.Vehicle;
+import com.sealed.exception.ServiceException;
+import com.sealed.service.VehicleService;
+import com.sealed.writebehind.WriteBehindEngine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link VehicleService} of the write-behind mode. Parked vehicles are looked up and removed in memory
+ * through the {@link WriteBehindEngine}; listing every vehicle flushes the engine and reads the database.
+ */
+@Primary
+@Service
+@ConditionalOnProperty(name = "parking.write-behind.enabled", havingValue = "true")
+public class WriteBehindVehicleService implements VehicleService {
+
+  private final VehicleServiceImpl vehicleService;
+  private final WriteBehindEngine engine;
+
+  @Autowired
+  public WriteBehindVehicleService(final VehicleServiceImpl vehicleService, final WriteBehindEngine engine) {
+    this.vehicleService = vehicleService;
+    this.engine = engine;
+  }
+
+  @Override
+  public Vehicle createVehicle(final Vehicle vehicle) {
+    vehicle.setId(engine.park(vehicle, null).id());
+    return vehicle;
+  }
+
+  /**
+   * Removes a vehicle and frees the spot it is linked to, like {@link VehicleServiceImpl#removeVehicle(Long)}.
+   * @param vehicleId the id of the vehicle to be removed
+   * @throws EntityNotFoundException if the vehicle is not parked
+   */
+  @Override
+  public void removeVehicle(final Long vehicleId) {
+    final ParkedVehicle vehicle = engine.findById(vehicleId).orElseThrow(() -> new EntityNotFoundException("Vehicle not found!"));
+    if (vehicle.spotId() != null) {
+      engine.updateSpots(List.of(vehicle.spotId()), false);
+    }
+    engine.removeVehicles(List.of(vehicleId));
+  }
+
+  @Override
+  public void removeVehicles(final Collection<Long> vehicleIds) {
+    engine.removeVehicles(vehicleIds);
+  }
+
+  @Override
+  public List<Vehicle> getAllVehicles() throws ServiceException {
+    engine.flush();
+    return vehicleService.getAllVehicles();
+  }
+
+  @Override
+  public Vehicle getVehicleByLicensePlate(final String licensePlate) {
+    return engine.findByLicensePlate(licensePlate)
+                 .map(ParkedVehicle::toVehicle)
+                 .orElseThrow(() -> new EntityNotFoundException("Could not find vehicle with license plate " + licensePlate));
+  }
+
+  @Override
+  public List<ParkedVehicle> findParkedVehicles(final Collection<String> licensePlates) {
+    return engine.findByLicensePlates(licensePlates);
+  }
+
+  @Override
+  public Stream<ParkedVehicle> streamParkedVehicles() {
+    engine.flush();
+    return vehicleService.streamParkedVehicles();
+  }
+}
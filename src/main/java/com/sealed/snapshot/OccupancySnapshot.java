@@ -0,0 +1,172 @@
+package com.sealed.snapshot;
+
+import com.sealed.allocation.LotOccupancy;
+import com.sealed.enums.SpotType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary image of the allocation state: the spot layout and one free-spot bitmap per spot type of every lot.
+ * Spot ids are stored as runs of consecutive ids, so a lot provisioned
+ * in one go costs a few bytes for its ids, one byte per spot for its types, four bytes per layout row for where its rows
+ * start and one bit per spot and type for its bitmaps.
+ * The file ends with a CRC32 of its content and is written to a temporary file first, so a reader never sees half a snapshot.
+ * @param createdAt       when the snapshot was taken, in epoch millis
+ * @param journalPosition the parking journal position the snapshot is consistent with, -1 if the journal was disabled
+ * @param lots            the lots
+ */
+public record OccupancySnapshot(long createdAt, long journalPosition, List<LotOccupancy> lots) {
+
+  private static final int MAGIC = 0x4F534E50;
+  private static final int FORMAT_VERSION = 3;
+  private static final int BUFFER_BYTES = 1 << 20;
+  private static final SpotType[] SPOT_TYPES = SpotType.values();
+
+  /**
+   * Writes the snapshot, replacing the file atomically once it is durable.
+   * @param file the snapshot file
+   * @throws IOException if the snapshot could not be written
+   */
+  public void writeTo(final Path file) throws IOException {
+    final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      final CheckedOutputStream checked = new CheckedOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES), new CRC32());
+      final DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(createdAt);
+      out.writeLong(journalPosition);
+      out.writeInt(lots.size());
+      for (final LotOccupancy lot : lots) {
+        writeLot(out, lot);
+      }
+      out.flush();
+      out.writeInt((int) checked.getChecksum().getValue());
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot with sequential reads.
+   * @param file the snapshot file
+   * @return the snapshot
+   * @throws IOException if the file could not be read, is not a snapshot or fails its checksum
+   */
+  public static OccupancySnapshot readFrom(final Path file) throws IOException {
+    try (InputStream stream = Files.newInputStream(file)) {
+      final CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(stream, BUFFER_BYTES), new CRC32());
+      final DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Not an occupancy snapshot: " + file);
+      }
+      final long createdAt = in.readLong();
+      final long journalPosition = in.readLong();
+      final int lotCount = in.readInt();
+      final List<LotOccupancy> lots = new ArrayList<>(lotCount);
+      for (int i = 0; i < lotCount; i++) {
+        lots.add(readLot(in));
+      }
+      final int expected = (int) checked.getChecksum().getValue();
+      if (in.readInt() != expected) {
+        throw new IOException("Corrupt occupancy snapshot: " + file);
+      }
+      return new OccupancySnapshot(createdAt, journalPosition, lots);
+    }
+  }
+
+  private static void writeLot(final DataOutputStream out, final LotOccupancy lot) throws IOException {
+    final long[] spotIds = lot.spotIds();
+    final SpotType[] types = lot.types();
+    out.writeLong(lot.getParkingLotId());
+    out.writeInt(spotIds.length);
+    final List<long[]> runs = new ArrayList<>();
+    for (int start = 0; start < spotIds.length; ) {
+      int end = start + 1;
+      while (end < spotIds.length && spotIds[end] == spotIds[end - 1] + 1) {
+        end++;
+      }
+      runs.add(new long[] {spotIds[start], end - start});
+      start = end;
+    }
+    out.writeInt(runs.size());
+    for (final long[] run : runs) {
+      out.writeLong(run[0]);
+      out.writeInt((int) run[1]);
+    }
+    final byte[] typeBytes = new byte[types.length];
+    for (int position = 0; position < types.length; position++) {
+      typeBytes[position] = (byte) (types[position] == null ? 0 : types[position].ordinal() + 1);
+    }
+    out.write(typeBytes);
+    final int[] rowStarts = lot.rowStarts();
+    out.writeInt(rowStarts.length);
+    for (final int rowStart : rowStarts) {
+      out.writeInt(rowStart);
+    }
+    for (final SpotType type : SPOT_TYPES) {
+      final long[] words = lot.freeWords(type);
+      out.writeInt(words.length);
+      for (final long word : words) {
+        out.writeLong(word);
+      }
+    }
+  }
+
+  private static LotOccupancy readLot(final DataInputStream in) throws IOException {
+    final long parkingLotId = in.readLong();
+    final long[] spotIds = new long[in.readInt()];
+    final int runCount = in.readInt();
+    int position = 0;
+    for (int run = 0; run < runCount; run++) {
+      final long start = in.readLong();
+      final int length = in.readInt();
+      for (int i = 0; i < length; i++) {
+        spotIds[position++] = start + i;
+      }
+    }
+    if (position != spotIds.length) {
+      throw new IOException("Spot id runs of parking lot " + parkingLotId + " do not match its spot count");
+    }
+    final byte[] typeBytes = new byte[spotIds.length];
+    in.readFully(typeBytes);
+    final SpotType[] types = new SpotType[spotIds.length];
+    for (int i = 0; i < typeBytes.length; i++) {
+      types[i] = typeBytes[i] == 0 ? null : SPOT_TYPES[typeBytes[i] - 1];
+    }
+    final int[] rowStarts = new int[in.readInt()];
+    for (int i = 0; i < rowStarts.length; i++) {
+      rowStarts[i] = in.readInt();
+    }
+    final Map<SpotType, long[]> freeWords = new EnumMap<>(SpotType.class);
+    for (final SpotType type : SPOT_TYPES) {
+      final long[] words = new long[in.readInt()];
+      for (int i = 0; i < words.length; i++) {
+        words[i] = in.readLong();
+      }
+      freeWords.put(type, words);
+    }
+    return LotOccupancy.restore(parkingLotId, spotIds, types, rowStarts, freeWords);
+  }
+}
@@ -0,0 +1,165 @@
+package com.sealed.snapshot;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.journal.ParkingJournal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Takes periodic {@link OccupancySnapshot}s of the {@link FreeSpotIndex}, enabled with {@code parking.snapshot.enabled=true}.
+ * Every snapshot records the {@link ParkingJournal} position taken before the index is read, so replaying the journal from
+ * that position on top of the snapshot gives the current state. Journal segments older than the previous snapshot are dropped.
+ */
+@Slf4j
+@Component
+public class OccupancySnapshotter {
+
+  private static final String SNAPSHOT_PREFIX = "occupancy-";
+  private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+  private final FreeSpotIndex freeSpotIndex;
+  private final ParkingJournal parkingJournal;
+  private final boolean enabled;
+  private final Path directory;
+  private final long intervalMillis;
+  private final int retain;
+  private ScheduledExecutorService scheduler;
+  private long previousPosition = -1;
+
+  @Autowired
+  public OccupancySnapshotter(final FreeSpotIndex freeSpotIndex,
+                              final ParkingJournal parkingJournal,
+                              @Value("${parking.snapshot.enabled:false}") final boolean enabled,
+                              @Value("${parking.snapshot.dir:data/snapshots}") final String directory,
+                              @Value("${parking.snapshot.interval-ms:60000}") final long intervalMillis,
+                              @Value("${parking.snapshot.retain:2}") final int retain) {
+    this.freeSpotIndex = freeSpotIndex;
+    this.parkingJournal = parkingJournal;
+    this.enabled = enabled;
+    this.directory = Path.of(directory);
+    this.intervalMillis = intervalMillis;
+    this.retain = Math.max(retain, 1);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts taking snapshots periodically, called once the index has been loaded.
+   */
+  public synchronized void schedule() {
+    if (!enabled || intervalMillis <= 0 || scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "occupancy-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::takeSnapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the periodic snapshots and takes a last one, so the next start has little to replay.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdown();
+    takeSnapshotQuietly();
+  }
+
+  /**
+   * Writes a snapshot of the current index and keeps only the newest {@code parking.snapshot.retain} snapshots.
+   * @return the snapshot file
+   * @throws IOException if the snapshot could not be written
+   */
+  public synchronized Path takeSnapshot() throws IOException {
+    final long started = System.nanoTime();
+    final long position = parkingJournal.position();
+    final OccupancySnapshot snapshot = new OccupancySnapshot(System.currentTimeMillis(), position, List.copyOf(freeSpotIndex.lots()));
+    Files.createDirectories(directory);
+    final Path file = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshot.createdAt(), SNAPSHOT_SUFFIX));
+    snapshot.writeTo(file);
+    final List<Path> snapshots = snapshots();
+    for (int i = retain; i < snapshots.size(); i++) {
+      Files.deleteIfExists(snapshots.get(i));
+    }
+    if (previousPosition >= 0 && retain > 1) {
+      parkingJournal.discardBefore(previousPosition);
+    } else if (retain == 1) {
+      parkingJournal.discardBefore(position);
+    }
+    previousPosition = position;
+    log.info("Occupancy snapshot of {} lots written to {} in {} ms", snapshot.lots().size(), file,
+             TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    return file;
+  }
+
+  /**
+   * Reads the newest snapshot that can be read, skipping corrupt ones.
+   * @return the snapshot, or empty if snapshots are disabled or there is none
+   */
+  public Optional<OccupancySnapshot> loadLatest() {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    try {
+      for (final Path file : snapshots()) {
+        try {
+          return Optional.of(OccupancySnapshot.readFrom(file));
+        } catch (final IOException e) {
+          log.warn("Skipping unreadable occupancy snapshot {}: {}", file, e.getMessage());
+        }
+      }
+    } catch (final IOException e) {
+      log.warn("Error listing occupancy snapshots: {}", e.getMessage(), e);
+    }
+    return Optional.empty();
+  }
+
+  private void takeSnapshotQuietly() {
+    try {
+      takeSnapshot();
+    } catch (final Exception e) {
+      log.error("Error taking an occupancy snapshot: {}", e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Lists the snapshot files, newest first.
+   */
+  private List<Path> snapshots() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      final List<Path> snapshots = new ArrayList<>(files
+          .filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX) && p.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+          .sorted()
+          .toList());
+      Collections.reverse(snapshots);
+      return snapshots;
+    }
+  }
+}
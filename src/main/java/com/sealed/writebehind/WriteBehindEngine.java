@@ -0,0 +1,370 @@
+package com.sealed.writebehind;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.entity.Vehicle;
+import com.sealed.entity.base.BaseEntity;
+import com.sealed.journal.OccupancyEvent;
+import com.sealed.journal.OccupancyJournal;
+import com.sealed.repository.VehicleRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind occupancy engine, enabled with {@code parking.write-behind.enabled=true}.
+ * Parked vehicles are kept in memory and, together with the {@link FreeSpotIndex}, are the authoritative state:
+ * a park or unpark updates them, appends an {@link OccupancyEvent} to the {@link OccupancyJournal} and returns
+ * once the event is durable. Pending changes are coalesced per spot and per vehicle and flushed to the {@code spot}
+ * and {@code vehicle} tables by a background thread, in one JDBC batch per table.
+ * Vehicle ids are read from {@code vehicle_seq} in the same blocks of 50 as Hibernate's pooled optimizer, so they never
+ * collide with vehicles inserted through JPA. This mode still assumes the instance is the only writer of its lots.
+ * On startup the journal is replayed into the database before anything is read from it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "parking.write-behind.enabled", havingValue = "true")
+public class WriteBehindEngine {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final VehicleRepository vehicleRepository;
+  private final FreeSpotIndex freeSpotIndex;
+  private final Path journalDirectory;
+  private final long flushIntervalMillis;
+
+  private final Object lock = new Object();
+  private final Object flushLock = new Object();
+  private final Map<String, ParkedVehicle> byLicensePlate = new HashMap<>();
+  private final Map<Long, ParkedVehicle> byId = new HashMap<>();
+  private PendingWrites pending = new PendingWrites();
+  private long nextVehicleId;
+  private long lastVehicleId = -1;
+  private OccupancyJournal journal;
+  private ScheduledExecutorService flusher;
+
+  @Autowired
+  public WriteBehindEngine(final JdbcTemplate jdbcTemplate,
+                           final PlatformTransactionManager transactionManager,
+                           final VehicleRepository vehicleRepository,
+                           final FreeSpotIndex freeSpotIndex,
+                           @Value("${parking.write-behind.journal-dir:data/journal}") final String journalDirectory,
+                           @Value("${parking.write-behind.flush-interval-ms:200}") final long flushIntervalMillis) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.vehicleRepository = vehicleRepository;
+    this.freeSpotIndex = freeSpotIndex;
+    this.journalDirectory = Path.of(journalDirectory);
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  /**
+   * Replays the journal into the database, loads the parked vehicles and starts the background flush.
+   * @throws IOException if the journal could not be opened or read
+   */
+  @PostConstruct
+  public void start() throws IOException {
+    journal = new OccupancyJournal(journalDirectory);
+    final List<OccupancyEvent> events = journal.readAll();
+    if (!events.isEmpty()) {
+      transactionTemplate.executeWithoutResult(status -> events.forEach(this::replay));
+      log.info("Replayed {} occupancy journal records", events.size());
+    }
+    journal.discardBefore(journal.rotate());
+
+    synchronized (lock) {
+      for (final ParkedVehicle vehicle : vehicleRepository.findAllParkedVehicles()) {
+        byId.put(vehicle.id(), vehicle);
+        byLicensePlate.put(vehicle.licensePlate(), vehicle);
+      }
+    }
+    flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = new Thread(r, "write-behind-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the background flush, writes what is still pending and closes the journal.
+   * @throws IOException if the journal could not be closed
+   */
+  @PreDestroy
+  public void stop() throws IOException {
+    flusher.shutdown();
+    flushQuietly();
+    journal.close();
+  }
+
+  /**
+   * Parks a vehicle on spots already claimed from the {@link FreeSpotIndex}.
+   * @param vehicle the vehicle, its license plate must not be parked already
+   * @param claim   the claimed spots, or null to store the vehicle without a spot
+   * @return the parked vehicle, holding its new id
+   * @throws IllegalStateException if a vehicle with the same license plate is already parked
+   */
+  public ParkedVehicle park(final Vehicle vehicle, final SpotClaim claim) {
+    Objects.requireNonNull(vehicle.getLicensePlate(), "license plate");
+    final long[] spotIds = claim == null ? new long[0] : claim.spotIds();
+    final Long parkingLotId = claim == null ? null : claim.parkingLotId();
+    final ParkedVehicle parked;
+    final long position;
+    synchronized (lock) {
+      if (byLicensePlate.containsKey(vehicle.getLicensePlate())) {
+        throw new IllegalStateException("Vehicle with license plate " + vehicle.getLicensePlate() + " is already parked");
+      }
+      final Long spotId = spotIds.length == 0 ? null : spotIds[spotIds.length - 1];
+      parked = new ParkedVehicle(nextVehicleId(), vehicle.getLicensePlate(), vehicle.getType(), spotId,
+                                 spotId == null ? null : freeSpotIndex.typeOf(parkingLotId, spotId), parkingLotId);
+      position = append(OccupancyEvent.park(parked.id(), parkingLotId, parked.type(), parked.licensePlate(), spotIds));
+      byId.put(parked.id(), parked);
+      byLicensePlate.put(parked.licensePlate(), parked);
+      pending.inserts.put(parked.id(), parked);
+      for (final long id : spotIds) {
+        pending.spots.put(id, true);
+      }
+    }
+    sync(position);
+    return parked;
+  }
+
+  /**
+   * Sets the occupied flag of spots.
+   * @param spotIds  the spots
+   * @param occupied the new flag
+   */
+  public void updateSpots(final Collection<Long> spotIds, final boolean occupied) {
+    if (spotIds.isEmpty()) {
+      return;
+    }
+    final long position;
+    synchronized (lock) {
+      position = append(OccupancyEvent.updateSpots(spotIds.stream().mapToLong(Long::longValue).toArray(), occupied));
+      spotIds.forEach(id -> pending.spots.put(id, occupied));
+    }
+    sync(position);
+  }
+
+  /**
+   * Removes parked vehicles. A vehicle that was never flushed is simply dropped from the pending inserts.
+   * @param vehicleIds the vehicles
+   * @return the vehicles that were removed, unknown ids are skipped
+   */
+  public List<ParkedVehicle> removeVehicles(final Collection<Long> vehicleIds) {
+    final List<ParkedVehicle> removed = new ArrayList<>(vehicleIds.size());
+    final long position;
+    synchronized (lock) {
+      for (final Long id : vehicleIds) {
+        final ParkedVehicle vehicle = byId.get(id);
+        if (vehicle != null) {
+          removed.add(vehicle);
+        }
+      }
+      if (removed.isEmpty()) {
+        return removed;
+      }
+      position = append(OccupancyEvent.removeVehicles(removed.stream().mapToLong(ParkedVehicle::id).toArray()));
+      for (final ParkedVehicle vehicle : removed) {
+        byId.remove(vehicle.id());
+        byLicensePlate.remove(vehicle.licensePlate());
+        if (pending.inserts.remove(vehicle.id()) == null) {
+          pending.deletes.add(vehicle.id());
+        }
+      }
+    }
+    sync(position);
+    return removed;
+  }
+
+  public Optional<ParkedVehicle> findById(final Long vehicleId) {
+    synchronized (lock) {
+      return Optional.ofNullable(byId.get(vehicleId));
+    }
+  }
+
+  public Optional<ParkedVehicle> findByLicensePlate(final String licensePlate) {
+    synchronized (lock) {
+      return Optional.ofNullable(byLicensePlate.get(licensePlate));
+    }
+  }
+
+  public List<ParkedVehicle> findByLicensePlates(final Collection<String> licensePlates) {
+    synchronized (lock) {
+      return licensePlates.stream().map(byLicensePlate::get).filter(Objects::nonNull).toList();
+    }
+  }
+
+  /**
+   * Writes every pending change to the database in one transaction and drops the journal segments it covers.
+   * If the write fails, the changes are put back in front of anything that happened since and retried on the next flush.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      final PendingWrites batch;
+      final long keepFrom;
+      synchronized (lock) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        pending = new PendingWrites();
+        try {
+          keepFrom = journal.rotate();
+        } catch (final IOException e) {
+          pending = batch.then(pending);
+          throw new UncheckedIOException("Error rotating the occupancy journal", e);
+        }
+      }
+      try {
+        transactionTemplate.executeWithoutResult(status -> write(batch));
+      } catch (final RuntimeException e) {
+        synchronized (lock) {
+          pending = batch.then(pending);
+        }
+        throw e;
+      }
+      try {
+        journal.discardBefore(keepFrom);
+      } catch (final IOException e) {
+        log.warn("Error discarding flushed occupancy journal segments: {}", e.getMessage(), e);
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (final Exception e) {
+      log.error("Error flushing occupancy changes to the database: {}", e.getMessage(), e);
+    }
+  }
+
+  private void write(final PendingWrites batch) {
+    if (!batch.deletes.isEmpty()) {
+      jdbcTemplate.batchUpdate("DELETE FROM vehicle WHERE id = ?",
+                               batch.deletes.stream().map(id -> new Object[] {id}).toList());
+    }
+    if (!batch.inserts.isEmpty()) {
+      jdbcTemplate.batchUpdate("INSERT INTO vehicle (id, type, license_plate, spot_id) VALUES (?, ?, ?, ?)",
+                               batch.inserts.values().stream().map(WriteBehindEngine::insertArgs).toList());
+    }
+    if (!batch.spots.isEmpty()) {
+      jdbcTemplate.batchUpdate("UPDATE spot SET occupied = ?, version = version + 1 WHERE id = ?",
+                               batch.spots.entrySet().stream().map(e -> new Object[] {e.getValue(), e.getKey()}).toList());
+    }
+  }
+
+  private void replay(final OccupancyEvent event) {
+    switch (event.kind()) {
+      case PARK -> {
+        final Long spotId = event.ids().length == 0 ? null : event.ids()[event.ids().length - 1];
+        jdbcTemplate.update("DELETE FROM vehicle WHERE id = ?", event.vehicleId());
+        jdbcTemplate.update("INSERT INTO vehicle (id, type, license_plate, spot_id) VALUES (?, ?, ?, ?)",
+                            event.vehicleId(), event.vehicleType() == null ? null : event.vehicleType().name(),
+                            event.licensePlate(), spotId);
+        Arrays.stream(event.ids()).forEach(id -> jdbcTemplate.update("UPDATE spot SET occupied = true, version = version + 1 WHERE id = ?", id));
+      }
+      case UPDATE_SPOTS -> Arrays.stream(event.ids())
+          .forEach(id -> jdbcTemplate.update("UPDATE spot SET occupied = ?, version = version + 1 WHERE id = ?", event.occupied(), id));
+      case REMOVE_VEHICLES -> Arrays.stream(event.ids())
+          .forEach(id -> jdbcTemplate.update("DELETE FROM vehicle WHERE id = ?", id));
+    }
+  }
+
+  /**
+   * Returns the next vehicle id, reading {@code vehicle_seq} once per block: a sequence value {@code v} reserves the
+   * ids {@code v - 49} to {@code v}, like Hibernate's pooled optimizer. Called with {@link #lock} held.
+   */
+  private long nextVehicleId() {
+    if (nextVehicleId > lastVehicleId) {
+      final Long value = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR vehicle_seq", Long.class);
+      lastVehicleId = Objects.requireNonNull(value, "vehicle_seq");
+      nextVehicleId = Math.max(1, lastVehicleId - BaseEntity.ID_ALLOCATION_SIZE + 1);
+    }
+    return nextVehicleId++;
+  }
+
+  private long append(final OccupancyEvent event) {
+    try {
+      return journal.append(event);
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Error writing to the occupancy journal", e);
+    }
+  }
+
+  private void sync(final long position) {
+    try {
+      journal.sync(position);
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Error syncing the occupancy journal", e);
+    }
+  }
+
+  private static Object[] insertArgs(final ParkedVehicle vehicle) {
+    return new Object[] {vehicle.id(), vehicle.type() == null ? null : vehicle.type().name(), vehicle.licensePlate(), vehicle.spotId()};
+  }
+
+  /**
+   * Changes not yet written to the database, coalesced so that only the last state of a spot is written
+   * and a vehicle parked and removed between two flushes is never written at all.
+   */
+  private static final class PendingWrites {
+
+    private final Map<Long, Boolean> spots = new LinkedHashMap<>();
+    private final Map<Long, ParkedVehicle> inserts = new LinkedHashMap<>();
+    private final Set<Long> deletes = new LinkedHashSet<>();
+
+    private boolean isEmpty() {
+      return spots.isEmpty() && inserts.isEmpty() && deletes.isEmpty();
+    }
+
+    /**
+     * Merges these older changes with newer ones, newer changes winning.
+     * @param newer the changes recorded after these
+     * @return the merged changes
+     */
+    private PendingWrites then(final PendingWrites newer) {
+      final PendingWrites merged = new PendingWrites();
+      merged.spots.putAll(spots);
+      merged.spots.putAll(newer.spots);
+      merged.inserts.putAll(inserts);
+      merged.deletes.addAll(deletes);
+      for (final Long id : newer.deletes) {
+        if (merged.inserts.remove(id) == null) {
+          merged.deletes.add(id);
+        }
+      }
+      merged.inserts.putAll(newer.inserts);
+      return merged;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.sealed.allocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import com.sealed.enums.AllocationPolicy;
+import com.sealed.enums.SpotType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+class AllocationStrategyTest {
+
+  private static final EnumSet<SpotType> ANY = EnumSet.allOf(SpotType.class);
+
+  private LotOccupancy lot(final AllocationStrategy strategy) {
+    final LotOccupancy lot = new LotOccupancy(1L, List.of(new SpotState(1L, 1L, SpotType.VAN, false),
+                                                          new SpotState(2L, 1L, SpotType.CAR, false),
+                                                          new SpotState(3L, 1L, SpotType.MOTORCYCLE, false),
+                                                          new SpotState(4L, 1L, SpotType.CAR, false),
+                                                          new SpotState(5L, 1L, SpotType.MOTORCYCLE, false),
+                                                          new SpotState(6L, 1L, SpotType.CAR, false)));
+    lot.setStrategy(strategy);
+    return lot;
+  }
+
+  @Test
+  void testFirstFitTakesLowestPosition() {
+    final LotOccupancy lot = lot(FirstFitStrategy.INSTANCE);
+
+    assertEquals(1L, lot.claim(ANY));
+    assertEquals(2L, lot.claim(ANY));
+  }
+
+  @Test
+  void testBestFitTakesSmallestSpotTypeFirst() {
+    final LotOccupancy lot = lot(BestFitStrategy.INSTANCE);
+
+    assertEquals(3L, lot.claim(ANY));
+    assertEquals(5L, lot.claim(ANY));
+    assertEquals(2L, lot.claim(ANY));
+    assertEquals(2L, lot(BestFitStrategy.INSTANCE).claim(EnumSet.of(SpotType.CAR, SpotType.VAN)));
+  }
+
+  @Test
+  void testNearestEntranceLooksBothWays() {
+    final LotOccupancy lot = lot(new NearestEntranceStrategy(3));
+
+    assertEquals(4L, lot.claim(ANY));
+    assertEquals(5L, lot.claim(ANY));
+    assertEquals(3L, lot.claim(ANY));
+    assertEquals(6L, lot.claim(EnumSet.of(SpotType.CAR)));
+    assertEquals(2L, lot.claim(EnumSet.of(SpotType.CAR)));
+  }
+
+  @Test
+  void testStrategyForPolicy() {
+    assertInstanceOf(FirstFitStrategy.class, AllocationStrategy.of(null, null));
+    assertInstanceOf(BestFitStrategy.class, AllocationStrategy.of(AllocationPolicy.BEST_FIT, null));
+    assertEquals(7, ((NearestEntranceStrategy) AllocationStrategy.of(AllocationPolicy.NEAREST_ENTRANCE, 7)).getEntrancePosition());
+  }
+}
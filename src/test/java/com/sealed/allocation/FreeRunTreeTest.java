@@ -0,0 +1,119 @@
+package com.sealed.allocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+class FreeRunTreeTest {
+
+  @Test
+  void testFirstRunOnEmptyTree() {
+    final FreeRunTree tree = new FreeRunTree(10);
+    assertEquals(-1, tree.firstRun(1));
+    assertEquals(0, tree.longestRun());
+  }
+
+  @Test
+  void testFirstRunCrossingNodes() {
+    final FreeRunTree tree = new FreeRunTree(16);
+    tree.set(0, true);
+    tree.set(6, true);
+    tree.set(7, true);
+    tree.set(8, true);
+    tree.set(9, true);
+
+    assertEquals(0, tree.firstRun(1));
+    assertEquals(6, tree.firstRun(3));
+    assertEquals(6, tree.firstRun(4));
+    assertEquals(-1, tree.firstRun(5));
+
+    tree.set(7, false);
+    assertEquals(-1, tree.firstRun(3));
+    assertEquals(8, tree.firstRun(2));
+  }
+
+  @Test
+  void testFirstRunMatchesLinearScan() {
+    final int size = 5_000;
+    final boolean[] free = new boolean[size];
+    final Random random = new Random(7);
+    for (int position = 0; position < size; position++) {
+      free[position] = random.nextInt(4) != 0;
+    }
+    final FreeRunTree tree = new FreeRunTree(size);
+    tree.build(free);
+
+    for (int i = 0; i < 2_000; i++) {
+      final int position = random.nextInt(size);
+      free[position] = !free[position];
+      tree.set(position, free[position]);
+      final int length = 1 + random.nextInt(6);
+      assertEquals(linearFirstRun(free, length), tree.firstRun(length));
+    }
+  }
+
+  @Test
+  void testFirstRunDoesNotSpanRowStarts() {
+    final BitSet rowStarts = new BitSet();
+    rowStarts.set(4);
+    rowStarts.set(8);
+    final FreeRunTree tree = new FreeRunTree(12, rowStarts);
+    for (int position = 2; position < 10; position++) {
+      tree.set(position, true);
+    }
+
+    assertEquals(4, tree.firstRun(3));
+    assertEquals(2, tree.firstRun(2));
+    assertEquals(4, tree.longestRun());
+    assertEquals(-1, tree.firstRun(5));
+
+    tree.set(5, false);
+    assertEquals(-1, tree.firstRun(3));
+    assertEquals(2, tree.longestRun());
+  }
+
+  @Test
+  void testFirstRunWithRowsMatchesLinearScan() {
+    final int size = 5_000;
+    final boolean[] free = new boolean[size];
+    final BitSet rowStarts = new BitSet();
+    final Random random = new Random(11);
+    for (int position = 0; position < size; position++) {
+      free[position] = random.nextInt(4) != 0;
+      if (position > 0 && random.nextInt(7) == 0) {
+        rowStarts.set(position);
+      }
+    }
+    final FreeRunTree tree = new FreeRunTree(size, rowStarts);
+    tree.build(free);
+
+    for (int i = 0; i < 2_000; i++) {
+      final int position = random.nextInt(size);
+      free[position] = !free[position];
+      tree.set(position, free[position]);
+      final int length = 1 + random.nextInt(6);
+      assertEquals(linearFirstRun(free, rowStarts, length), tree.firstRun(length));
+    }
+  }
+
+  private static int linearFirstRun(final boolean[] free, final int length) {
+    return linearFirstRun(free, new BitSet(), length);
+  }
+
+  private static int linearFirstRun(final boolean[] free, final BitSet rowStarts, final int length) {
+    int run = 0;
+    for (int position = 0; position < free.length; position++) {
+      if (rowStarts.get(position)) {
+        run = 0;
+      }
+      run = free[position] ? run + 1 : 0;
+      if (run == length) {
+        return position - length + 1;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,124 @@
+package com.sealed.allocation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+class FreeSpotIndexTest {
+
+  private final FreeSpotIndex freeSpotIndex = new FreeSpotIndex();
+
+  @Test
+  void testClaimPicksLowestPositionAcrossTypes() {
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.VAN, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false)));
+
+    final SpotClaim claim = freeSpotIndex.claim(EnumSet.of(SpotType.CAR, SpotType.VAN)).orElseThrow();
+
+    assertEquals(1L, claim.spotId());
+    assertEquals(2L, freeSpotIndex.claim(EnumSet.of(SpotType.CAR, SpotType.VAN)).orElseThrow().spotId());
+    assertTrue(freeSpotIndex.claim(EnumSet.allOf(SpotType.class)).isEmpty());
+  }
+
+  @Test
+  void testReconcileFreesUncommittedClaimsAndTakesOccupiedSpots() {
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false),
+                               new SpotState(3L, 1L, SpotType.CAR, false),
+                               new SpotState(4L, 2L, SpotType.CAR, false)));
+    freeSpotIndex.claim(1L, EnumSet.of(SpotType.CAR)).orElseThrow();
+
+    final int corrected = freeSpotIndex.reconcile(List.of(1L), new long[] {3L, 4L});
+
+    assertEquals(2, corrected);
+    assertEquals(2, freeSpotIndex.countFree(1L));
+    assertEquals(1, freeSpotIndex.countFree(2L));
+    assertEquals(1L, freeSpotIndex.claim(1L, EnumSet.of(SpotType.CAR)).orElseThrow().spotId());
+  }
+
+  @Test
+  void testClaimRunSkipsBrokenRuns() {
+    freeSpotIndex.load(List.of(new SpotState(1L, 7L, SpotType.CAR, false),
+                               new SpotState(2L, 7L, SpotType.CAR, false),
+                               new SpotState(3L, 7L, SpotType.VAN, false),
+                               new SpotState(4L, 7L, SpotType.CAR, false),
+                               new SpotState(5L, 7L, SpotType.CAR, false),
+                               new SpotState(6L, 7L, SpotType.CAR, false)));
+
+    final SpotClaim claim = freeSpotIndex.claimRun(SpotType.CAR, 3).orElseThrow();
+
+    assertEquals(7L, claim.parkingLotId());
+    assertArrayEquals(new long[] {4L, 5L, 6L}, claim.spotIds());
+    assertTrue(freeSpotIndex.claimRun(SpotType.CAR, 3).isEmpty());
+  }
+
+  @Test
+  void testClaimRunDoesNotCrossRows() {
+    // rows of three car spots, the first row has only its last two spots free
+    freeSpotIndex.load(List.of(new SpotState(1L, 7L, SpotType.CAR, true, 1),
+                               new SpotState(2L, 7L, SpotType.CAR, false, 1),
+                               new SpotState(3L, 7L, SpotType.CAR, false, 1),
+                               new SpotState(4L, 7L, SpotType.CAR, false, 2),
+                               new SpotState(5L, 7L, SpotType.CAR, true, 2),
+                               new SpotState(6L, 7L, SpotType.CAR, false, 3),
+                               new SpotState(7L, 7L, SpotType.CAR, false, 3),
+                               new SpotState(8L, 7L, SpotType.CAR, false, 3)));
+
+    final SpotClaim claim = freeSpotIndex.claimRun(SpotType.CAR, 3).orElseThrow();
+
+    assertArrayEquals(new long[] {6L, 7L, 8L}, claim.spotIds());
+    assertArrayEquals(new long[] {2L, 3L}, freeSpotIndex.claimRun(SpotType.CAR, 2).orElseThrow().spotIds());
+    assertTrue(freeSpotIndex.claimRun(SpotType.CAR, 2).isEmpty());
+  }
+
+  @Test
+  void testReleaseMakesSpotAvailableAgain() {
+    final ParkingLot parkingLot = ParkingLot.builder().id(3L).build();
+    final Spot spot = Spot.builder().id(10L).type(SpotType.MOTORCYCLE).build();
+    parkingLot.setSpots(List.of(spot));
+    freeSpotIndex.register(parkingLot);
+
+    assertEquals(10L, freeSpotIndex.claim(EnumSet.of(SpotType.MOTORCYCLE)).orElseThrow().spotId());
+    assertTrue(freeSpotIndex.claim(EnumSet.of(SpotType.MOTORCYCLE)).isEmpty());
+
+    freeSpotIndex.release(spot);
+
+    assertEquals(10L, freeSpotIndex.claim(EnumSet.of(SpotType.MOTORCYCLE)).orElseThrow().spotId());
+  }
+
+  @Test
+  void testLotScopedClaimIgnoresOtherLots() {
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 2L, SpotType.CAR, false),
+                               new SpotState(3L, 2L, SpotType.CAR, false),
+                               new SpotState(4L, 2L, SpotType.CAR, false)));
+
+    assertEquals(2L, freeSpotIndex.claim(2L, EnumSet.of(SpotType.CAR)).orElseThrow().spotId());
+    assertTrue(freeSpotIndex.claimRun(2L, SpotType.CAR, 3).isEmpty());
+    assertArrayEquals(new long[] {3L, 4L}, freeSpotIndex.claimRun(2L, SpotType.CAR, 2).orElseThrow().spotIds());
+    assertTrue(freeSpotIndex.claim(2L, EnumSet.of(SpotType.CAR)).isEmpty());
+    assertTrue(freeSpotIndex.claim(9L, EnumSet.of(SpotType.CAR)).isEmpty());
+    assertEquals(1L, freeSpotIndex.claim(1L, EnumSet.of(SpotType.CAR)).orElseThrow().spotId());
+  }
+
+  @Test
+  void testLoadIfAbsentKeepsIndexedLot() {
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    freeSpotIndex.claim(1L, EnumSet.of(SpotType.CAR));
+
+    freeSpotIndex.loadIfAbsent(1L, () -> List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    freeSpotIndex.loadIfAbsent(2L, () -> List.of(new SpotState(5L, 2L, SpotType.CAR, false)));
+
+    assertTrue(freeSpotIndex.claim(1L, EnumSet.of(SpotType.CAR)).isEmpty());
+    assertEquals(5L, freeSpotIndex.claim(2L, EnumSet.of(SpotType.CAR)).orElseThrow().spotId());
+  }
+}
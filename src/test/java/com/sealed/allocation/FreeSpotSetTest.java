@@ -0,0 +1,118 @@
+package com.sealed.allocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class FreeSpotSetTest {
+
+  @Test
+  void testEmptySet() {
+    final FreeSpotSet set = new FreeSpotSet(100);
+    assertEquals(-1, set.first());
+    assertEquals(0, set.cardinality());
+  }
+
+  @Test
+  void testWordsRoundTrip() {
+    // given
+    final FreeSpotSet set = new FreeSpotSet(10_000);
+    set.set(3);
+    set.set(4_097);
+    set.set(9_999);
+
+    // when
+    final FreeSpotSet copy = FreeSpotSet.fromWords(10_000, set.toWords());
+
+    // then
+    assertEquals(3, copy.cardinality());
+    assertEquals(3, copy.first());
+    assertEquals(4_097, copy.next(4));
+    assertEquals(9_999, copy.previous(9_999));
+    assertTrue(copy.clear(4_097));
+    assertEquals(9_999, copy.next(4));
+  }
+
+  @Test
+  void testSetAndClear() {
+    final FreeSpotSet set = new FreeSpotSet(10_000);
+    set.set(4_097);
+    set.set(9_999);
+
+    assertTrue(set.get(4_097));
+    assertEquals(4_097, set.first());
+    assertEquals(9_999, set.next(4_098));
+
+    set.clear(4_097);
+    assertFalse(set.get(4_097));
+    assertEquals(9_999, set.first());
+    assertEquals(1, set.cardinality());
+  }
+
+  @Test
+  void testNextAndPreviousMatchBitSet() {
+    final int size = 300_000;
+    final FreeSpotSet set = new FreeSpotSet(size);
+    final BitSet expected = new BitSet(size);
+    final Random random = new Random(42);
+    for (int i = 0; i < 50_000; i++) {
+      final int position = random.nextInt(size);
+      if (random.nextBoolean()) {
+        set.set(position);
+        expected.set(position);
+      } else {
+        set.clear(position);
+        expected.clear(position);
+      }
+    }
+
+    for (int i = 0; i < 1_000; i++) {
+      final int from = random.nextInt(size);
+      assertEquals(expected.nextSetBit(from), set.next(from));
+      assertEquals(expected.previousSetBit(from), set.previous(from));
+    }
+    assertEquals(expected.cardinality(), set.cardinality());
+  }
+
+  @Test
+  void testConcurrentClaimsTakeEveryPositionOnce() throws Exception {
+    final int size = 100_000;
+    final FreeSpotSet set = new FreeSpotSet(size);
+    for (int position = 0; position < size; position++) {
+      set.set(position);
+    }
+    final AtomicIntegerArray claims = new AtomicIntegerArray(size);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 8; thread++) {
+      futures.add(executor.submit(() -> {
+        int position;
+        while ((position = set.first()) >= 0) {
+          if (set.clear(position)) {
+            claims.incrementAndGet(position);
+          }
+        }
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    for (int position = 0; position < size; position++) {
+      assertEquals(1, claims.get(position));
+    }
+    assertEquals(0, set.cardinality());
+  }
+}
@@ -0,0 +1,67 @@
+package com.sealed.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.dto.PlateCacheStats;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import org.junit.jupiter.api.Test;
+
+class PlateCacheTest {
+
+  @Test
+  void testGetCountsHitsAndMisses() {
+    // given
+    final PlateCache cache = new PlateCache(100);
+    cache.put(vehicle(1L, "ABC123"));
+
+    // when
+    cache.get("ABC123");
+    cache.get("ABC123");
+    cache.get("GHOST");
+    cache.invalidate("ABC123");
+    cache.get("ABC123");
+
+    // then
+    final PlateCacheStats stats = cache.stats();
+    assertEquals(2, stats.hits());
+    assertEquals(2, stats.misses());
+    assertEquals(0.5, stats.hitRate());
+    assertEquals(0, stats.size());
+  }
+
+  @Test
+  void testSizeIsBoundedByEvictingTheLeastRecentlyUsedPlates() {
+    // given
+    final PlateCache cache = new PlateCache(160);
+
+    // when
+    for (long i = 0; i < 1000; i++) {
+      cache.put(vehicle(i, "P" + i));
+    }
+
+    // then
+    assertTrue(cache.size() <= 160);
+    assertEquals(1000 - cache.size(), cache.stats().evictions());
+    assertTrue(cache.get("P999").isPresent());
+  }
+
+  @Test
+  void testVehiclesWithoutSpotAreNotCached() {
+    // given
+    final PlateCache cache = new PlateCache(100);
+
+    // when
+    cache.put(new ParkedVehicle(1L, "ABC123", VehicleType.CAR, null, null, null));
+
+    // then
+    assertTrue(cache.get("ABC123").isEmpty());
+  }
+
+  private static ParkedVehicle vehicle(final long id, final String licensePlate) {
+    return new ParkedVehicle(id, licensePlate, VehicleType.CAR, id, SpotType.CAR, 1L);
+  }
+}
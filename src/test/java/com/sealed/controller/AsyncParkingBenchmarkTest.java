@@ -0,0 +1,133 @@
+package com.sealed.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.entity.ParkingLot;
+import com.sealed.service.ParkingLotService;
+import com.sealed.service.SpotService;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Compares the blocking park and unpark endpoints with their asynchronous variants over HTTP, in requests per second
+ * and p99 latency, with more concurrent gates than Tomcat has threads.
+ * Only run with {@code -Pbenchmark}. The defaults keep that run short, use {@code -Dasync.benchmark.gates=512 -Dasync.benchmark.requests=20000}
+ * for a heavier load.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:async;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false",
+    "server.tomcat.threads.max=16",
+    "parking.async.threads=16"
+})
+class AsyncParkingBenchmarkTest {
+
+  private static final int GATES = Integer.getInteger("async.benchmark.gates", 32);
+  private static final int REQUESTS = Integer.getInteger("async.benchmark.requests", 500);
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @Autowired
+  private SpotService spotService;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  void testBlockingAndAsyncParkingThroughput() throws Exception {
+    // given
+    final ParkingLotSummary lot = parkingLotService.provisionParkingLot(ParkingLot.builder()
+                                                                                 .name("Async Parking Lot")
+                                                                                 .motorcycleSpots(0)
+                                                                                 .carSpots(REQUESTS)
+                                                                                 .vanSpots(0)
+                                                                                 .build(), null);
+    final String base = "http://localhost:" + port + "/api/parking-lot/";
+    run("warm-up", 100, i -> park(base + lot.id() + "/park-vehicle", "WARM" + i));
+    run("warm-up", 100, i -> unpark(base + lot.id() + "/unpark-vehicle/WARM" + i));
+
+    // when
+    final long[] blockingPark = run("blocking park", REQUESTS, i -> park(base + lot.id() + "/park-vehicle", "BLOCK" + i));
+    final long[] blockingUnpark = run("blocking unpark", REQUESTS, i -> unpark(base + lot.id() + "/unpark-vehicle/BLOCK" + i));
+    final long[] asyncPark = run("async park", REQUESTS, i -> park(base + "async/" + lot.id() + "/park-vehicle", "ASYNC" + i));
+    final long[] asyncUnpark = run("async unpark", REQUESTS, i -> unpark(base + "async/" + lot.id() + "/unpark-vehicle/ASYNC" + i));
+
+    // then
+    assertEquals(REQUESTS, blockingPark.length);
+    assertEquals(REQUESTS, blockingUnpark.length);
+    assertEquals(REQUESTS, asyncPark.length);
+    assertEquals(REQUESTS, asyncUnpark.length);
+    assertEquals(REQUESTS, spotService.countAvailableSpots(lot.id()));
+  }
+
+  private HttpRequest park(final String url, final String licensePlate) {
+    return HttpRequest.newBuilder(URI.create(url))
+                      .header("Content-Type", "application/json")
+                      .POST(HttpRequest.BodyPublishers.ofString("{\"type\":\"CAR\",\"licensePlate\":\"" + licensePlate + "\"}"))
+                      .build();
+  }
+
+  private HttpRequest unpark(final String url) {
+    return HttpRequest.newBuilder(URI.create(url)).POST(HttpRequest.BodyPublishers.noBody()).build();
+  }
+
+  /**
+   * Sends the requests from {@link #GATES} concurrent gates and returns their latencies in nanoseconds, failing on
+   * any response other than 200.
+   */
+  private long[] run(final String name, final int requests, final IntFunction<HttpRequest> request) throws Exception {
+    final ExecutorService gates = Executors.newFixedThreadPool(GATES);
+    try {
+      final long started = System.nanoTime();
+      final List<Future<Long>> results = new ArrayList<>(requests);
+      for (int i = 0; i < requests; i++) {
+        final HttpRequest httpRequest = request.apply(i);
+        results.add(gates.submit(() -> {
+          final long sent = System.nanoTime();
+          final HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+          assertEquals(200, response.statusCode(), response::body);
+          return System.nanoTime() - sent;
+        }));
+      }
+      final long[] latencies = new long[requests];
+      for (int i = 0; i < requests; i++) {
+        latencies[i] = results.get(i).get(60, TimeUnit.SECONDS);
+      }
+      final long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+      Arrays.sort(latencies);
+      log.info("{}: {} requests from {} gates in {} ms, {} requests/s, p50 {} ms, p99 {} ms", name, requests, GATES, elapsed,
+               requests * 1000L / elapsed, millis(latencies[requests / 2]), millis(latencies[requests * 99 / 100]));
+      return latencies;
+    } finally {
+      gates.shutdownNow();
+    }
+  }
+
+  private static String millis(final long nanos) {
+    return String.format("%.2f", nanos / 1_000_000.0);
+  }
+}
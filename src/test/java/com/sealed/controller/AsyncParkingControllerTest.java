@@ -0,0 +1,70 @@
+package com.sealed.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityNotFoundException;
+
+import com.sealed.service.AsyncParkingService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:asynccontroller;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false")
+@AutoConfigureMockMvc
+class AsyncParkingControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private AsyncParkingService asyncParkingService;
+
+  @Test
+  void testUnparkVehicleAnswersNotFoundForAnUnknownPlate() throws Exception {
+    // given
+    when(asyncParkingService.unparkVehicle("UNKNOWN1")).thenReturn(CompletableFuture.failedFuture(
+        new CompletionException(new EntityNotFoundException("Vehicle not found!"))));
+
+    // when
+    final MvcResult result = mockMvc.perform(post("/api/parking-lot/async/unpark-vehicle/UNKNOWN1"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // then
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message").value("Vehicle not found!"));
+  }
+
+  @Test
+  void testCountAvailableSpotsAnswersServiceUnavailableWhenRejected() throws Exception {
+    // given
+    when(asyncParkingService.countAvailableSpots()).thenReturn(CompletableFuture.failedFuture(
+        new RejectedExecutionException("Parking executor is saturated")));
+
+    // when
+    final MvcResult result = mockMvc.perform(get("/api/parking-lot/async/available-spots"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // then
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(jsonPath("$.message").value("Parking executor is saturated"));
+  }
+}
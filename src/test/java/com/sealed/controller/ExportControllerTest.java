@@ -0,0 +1,100 @@
+package com.sealed.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:export;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false")
+@AutoConfigureMockMvc
+class ExportControllerTest {
+
+  private static final int SPOTS = 5_000;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parking_lot", Integer.class) > 0) {
+      return;
+    }
+    jdbcTemplate.update("INSERT INTO parking_lot (id, name, capacity, motorcycle_spots, car_spots, van_spots) VALUES (1, 'Export Lot', ?, 0, ?, 0)",
+                        SPOTS, SPOTS);
+    final List<Object[]> spots = new ArrayList<>(SPOTS);
+    final List<Object[]> vehicles = new ArrayList<>();
+    for (long spot = 1; spot <= SPOTS; spot++) {
+      final boolean occupied = spot % 10 == 0;
+      spots.add(new Object[] {spot, occupied});
+      if (occupied) {
+        vehicles.add(new Object[] {spot, "EXPORT" + spot, spot});
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO spot (id, type, occupied, parking_lot_id, version) VALUES (?, 'CAR', ?, 1, 0)", spots);
+    jdbcTemplate.batchUpdate("INSERT INTO vehicle (id, type, license_plate, spot_id) VALUES (?, 'CAR', ?, ?)", vehicles);
+  }
+
+  @Test
+  void testExportSpotsWritesOneLinePerSpot() throws Exception {
+    // when
+    final List<JsonNode> lines = export("/api/export/spots");
+
+    // then
+    assertEquals(SPOTS, lines.size());
+    assertEquals(1, lines.get(0).get("id").asLong());
+    assertEquals(1, lines.get(0).get("parkingLotId").asLong());
+    assertNull(lines.get(0).get("licensePlate").textValue());
+    assertEquals("EXPORT10", lines.get(9).get("licensePlate").textValue());
+    assertEquals(SPOTS, lines.get(SPOTS - 1).get("id").asLong());
+  }
+
+  @Test
+  void testExportVehiclesWritesOneLinePerVehicle() throws Exception {
+    // when
+    final List<JsonNode> lines = export("/api/export/vehicles");
+
+    // then
+    assertEquals(SPOTS / 10, lines.size());
+    assertEquals("EXPORT10", lines.get(0).get("licensePlate").textValue());
+    assertEquals(10, lines.get(0).get("spotId").asLong());
+    assertEquals(1, lines.get(0).get("parkingLotId").asLong());
+  }
+
+  private List<JsonNode> export(final String path) throws Exception {
+    final MvcResult started = mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+    final String body = mockMvc.perform(asyncDispatch(started))
+                               .andExpect(status().isOk())
+                               .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                               .andReturn().getResponse().getContentAsString();
+    final List<JsonNode> lines = new ArrayList<>();
+    for (final String line : body.split("\n")) {
+      lines.add(objectMapper.readTree(line));
+    }
+    return lines;
+  }
+}
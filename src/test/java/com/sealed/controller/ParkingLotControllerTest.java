@@ -1,6 +1,9 @@
 package com.sealed.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -8,9 +11,20 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sealed.dto.OccupancyBitmap;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.dto.ParkingResult;
+import com.sealed.dto.SpotPage;
+import com.sealed.dto.SpotTypeOccupancy;
+import com.sealed.dto.SpotView;
+import com.sealed.dto.UnparkingResult;
 import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
@@ -32,6 +46,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -121,6 +137,43 @@ class ParkingLotControllerTest {
 
   }
 
+  @Test
+  void testParkVehicles() throws Exception {
+    // given
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+    final Vehicle van = Vehicle.builder().type(VehicleType.VAN).licensePlate("VAN123").build();
+    final Spot spot = Spot.builder().id(1L).type(SpotType.CAR).isOccupied(true).build();
+
+    // when
+    given(parkingLotServiceImpl.parkVehicles(anyList())).willReturn(List.of(
+        ParkingResult.parked("ABC123", spot),
+        ParkingResult.rejected("VAN123", "There are no available spots for a van or car.")));
+
+    // then
+    mockMvc.perform(post("/api/parking-lot/park-vehicles")
+           .contentType(MediaType.APPLICATION_JSON)
+           .content(asJsonString(List.of(car, van))))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$[0].spot.id").value(1))
+           .andExpect(jsonPath("$[1].error").value("There are no available spots for a van or car."));
+  }
+
+  @Test
+  void testUnparkVehicles() throws Exception {
+    // when
+    given(parkingLotServiceImpl.unparkVehicles(anyList()))
+        .willReturn(new UnparkingResult(List.of("ABC123"), List.of(1L), List.of("XYZ999")));
+
+    // then
+    mockMvc.perform(post("/api/parking-lot/unpark-vehicles")
+           .contentType(MediaType.APPLICATION_JSON)
+           .content(asJsonString(List.of("ABC123", "XYZ999"))))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.unparked[0]").value("ABC123"))
+           .andExpect(jsonPath("$.freedSpotIds[0]").value(1))
+           .andExpect(jsonPath("$.notFound[0]").value("XYZ999"));
+  }
+
   @Test
   void testUnparkVehicle() throws Exception {
     final ParkingLot parkingLot = new ParkingLot();
@@ -161,6 +214,34 @@ class ParkingLotControllerTest {
            .andExpect(status().isOk());
   }
 
+  @Test
+  void testParkVehicleInParkingLot() throws Exception {
+    // given
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+    final Spot spot = Spot.builder().id(7L).type(SpotType.CAR).isOccupied(true).build();
+
+    // when
+    given(parkingLotServiceImpl.parkVehicle(eq(2L), any(Vehicle.class))).willReturn(spot);
+
+    // then
+    mockMvc.perform(post("/api/parking-lot/2/park-vehicle")
+           .contentType(MediaType.APPLICATION_JSON)
+           .content(asJsonString(car)))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.id").value(7));
+  }
+
+  @Test
+  void testCountAvailableSpotsOfParkingLot() throws Exception {
+    // when
+    given(parkingLotServiceImpl.countAvailableSpots(2L)).willReturn(5);
+
+    // then
+    mockMvc.perform(get("/api/parking-lot/2/available-spots"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$").value(5));
+  }
+
   @Test
   void testParkingLotFull() throws Exception {
     // Mock the parkingLotService's isParkingLotFull method to return false (i.e. parking lot is not full)
@@ -239,6 +320,100 @@ class ParkingLotControllerTest {
     assertEquals(expectedCount, responseEntity.getBody().intValue());
   }
 
+  @Test
+  void testGetOccupancy() throws Exception {
+    // given
+    final OccupancyBreakdown occupancy = new OccupancyBreakdown(null, 4, 1, 3, false, Map.of(),
+                                                                Map.of(VehicleType.VAN, 3), Map.of(VehicleType.VAN, 1));
+    given(parkingLotServiceImpl.getOccupancy()).willReturn(occupancy);
+
+    // when and then
+    mockMvc.perform(get("/api/parking-lot/occupancy"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.available").value(1))
+           .andExpect(jsonPath("$.spotsByVehicleType.VAN").value(3))
+           .andExpect(jsonPath("$.vehicles.VAN").value(1));
+  }
+
+  @Test
+  void testGetOccupancyOfParkingLot() throws Exception {
+    // given
+    final OccupancyBreakdown occupancy = new OccupancyBreakdown(2L, 3, 0, 3, true,
+                                                                Map.of(SpotType.CAR, new SpotTypeOccupancy(3, 0, 3, Map.of(VehicleType.VAN, 3), 0)),
+                                                                Map.of(VehicleType.VAN, 3), Map.of(VehicleType.VAN, 1));
+    given(parkingLotServiceImpl.getOccupancy(2L)).willReturn(occupancy);
+
+    // when and then
+    mockMvc.perform(get("/api/parking-lot/2/occupancy"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.full").value(true))
+           .andExpect(jsonPath("$.spotTypes.CAR.occupied").value(3))
+           .andExpect(jsonPath("$.spotTypes.CAR.occupiedBy.VAN").value(3));
+  }
+
+  @Test
+  void testGetOccupancyOfManyParkingLots() throws Exception {
+    // given
+    given(parkingLotServiceImpl.getOccupancy(List.of(1L, 2L))).willReturn(List.of(
+        new OccupancyBreakdown(1L, 5, 5, 0, false, Map.of(), Map.of(), Map.of()),
+        new OccupancyBreakdown(2L, 5, 0, 5, true, Map.of(), Map.of(), Map.of())));
+
+    // when and then
+    mockMvc.perform(post("/api/parking-lot/occupancy")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$[0].parkingLotId").value(1))
+           .andExpect(jsonPath("$[1].full").value(true));
+  }
+
+  @Test
+  void testGetParkingLotReturnsTheSummary() throws Exception {
+    // given
+    final OccupancyBreakdown occupancy = new OccupancyBreakdown(1L, 5, 4, 1, false, Map.of(), Map.of(), Map.of());
+    given(parkingLotServiceImpl.getParkingLotSummary(1L)).willReturn(
+        new ParkingLotSummary(1L, "Central Parking", 5, 1, 3, 1, null, null, occupancy));
+
+    // when and then
+    mockMvc.perform(get("/api/parking-lot/1"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.name").value("Central Parking"))
+           .andExpect(jsonPath("$.occupancy.available").value(4))
+           .andExpect(jsonPath("$.spots").doesNotExist());
+  }
+
+  @Test
+  void testFindSpotsPassesTheFiltersAndKey() throws Exception {
+    // given
+    given(parkingLotServiceImpl.findSpots(1L, SpotType.CAR, false, 40L, 2)).willReturn(new SpotPage(List.of(
+        new SpotView(41L, 1L, SpotType.CAR, false, 1, 41, null, null),
+        new SpotView(43L, 1L, SpotType.CAR, false, 1, 43, null, null)), 43L));
+
+    // when and then
+    mockMvc.perform(get("/api/parking-lot/1/spots").param("type", "CAR").param("occupied", "false")
+                                                    .param("after", "40").param("size", "2"))
+           .andExpect(status().isOk())
+           .andExpect(jsonPath("$.spots[1].id").value(43))
+           .andExpect(jsonPath("$.next").value(43));
+  }
+
+  @Test
+  void testGetOccupancyBitmapReturnsTheBytesAndVersion() throws Exception {
+    // given
+    given(parkingLotServiceImpl.getOccupancyBitmap(1L, OccupancyBitmap.Encoding.RLE, 40L)).willReturn(
+        new OccupancyBitmap(1L, 42L, 40L, 16, OccupancyBitmap.Encoding.DELTA, new byte[] {1, 7}));
+
+    // when and then
+    mockMvc.perform(get("/api/parking-lot/1/occupancy-bitmap").param("encoding", "RLE").param("since", "40"))
+           .andExpect(status().isOk())
+           .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+           .andExpect(header().string("X-Occupancy-Version", "42"))
+           .andExpect(header().string("X-Occupancy-Since", "40"))
+           .andExpect(header().string("X-Bitmap-Encoding", "DELTA"))
+           .andExpect(header().string("X-Spot-Count", "16"))
+           .andExpect(content().bytes(new byte[] {1, 7}));
+  }
+
   private String asJsonString(final Object obj) throws Exception {
     try {
       return new ObjectMapper().writeValueAsString(obj);
@@ -0,0 +1,105 @@
+package com.sealed.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.sealed.allocation.LotOccupancy;
+import com.sealed.allocation.SpotState;
+import com.sealed.enums.SpotType;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+
+class OccupancyBitmapTest {
+
+  @Test
+  void testRawAndRunLengthBitmapsDecodeToTheOccupancy() {
+    // given
+    final LotOccupancy lot = lot(20, 3, 4, 5, 19);
+
+    // when
+    final OccupancyBitmap raw = OccupancyBitmap.of(lot, OccupancyBitmap.Encoding.RAW);
+    final OccupancyBitmap rle = OccupancyBitmap.of(lot, OccupancyBitmap.Encoding.RLE);
+
+    // then
+    final BitSet expected = BitSet.valueOf(new long[] {0b1000_0000_0000_0011_1000L});
+    assertEquals(3, raw.data().length);
+    assertEquals(expected, BitSet.valueOf(raw.data()));
+    assertArrayEquals(new long[] {3, 3, 13, 1}, readVarints(rle.data()));
+    assertNull(raw.since());
+  }
+
+  @Test
+  void testDeltaHoldsOnlyTheChangedPositions() {
+    // given
+    final LotOccupancy lot = lot(1_000, 10);
+    final long version = lot.version();
+    lot.claim(EnumSet.of(SpotType.CAR));
+    lot.release(11L);
+    lot.claim(EnumSet.of(SpotType.CAR));
+    lot.claim(EnumSet.of(SpotType.CAR));
+
+    // when
+    final OccupancyBitmap delta = OccupancyBitmap.since(lot, version, OccupancyBitmap.Encoding.RAW);
+
+    // then: positions 0, 1 and 2 are taken, 10 was given back
+    assertEquals(OccupancyBitmap.Encoding.DELTA, delta.encoding());
+    assertEquals(version, delta.since());
+    assertEquals(version + 4, delta.version());
+    assertArrayEquals(new long[] {4, 1, (1 << 1) | 1, (1 << 1) | 1, 8 << 1}, readVarints(delta.data()));
+    assertEquals(1, OccupancyBitmap.since(lot, delta.version(), OccupancyBitmap.Encoding.RAW).data().length);
+  }
+
+  @Test
+  void testDeltaFallsBackToTheFullBitmapWhenTheVersionIsUnknown() {
+    // given
+    final LotOccupancy lot = lot(100);
+    final long version = lot.version();
+    for (int i = 0; i < 100; i++) {
+      lot.release(lot.claim(EnumSet.of(SpotType.CAR)));
+    }
+
+    // when
+    final OccupancyBitmap tooOld = OccupancyBitmap.since(lot, version, OccupancyBitmap.Encoding.RLE);
+    final OccupancyBitmap unknown = OccupancyBitmap.since(lot, lot.version() + 1, OccupancyBitmap.Encoding.RAW);
+
+    // then
+    assertEquals(OccupancyBitmap.Encoding.RLE, tooOld.encoding());
+    assertArrayEquals(new long[] {100}, readVarints(tooOld.data()));
+    assertEquals(OccupancyBitmap.Encoding.RAW, unknown.encoding());
+  }
+
+  private static LotOccupancy lot(final int size, final int... occupied) {
+    final List<SpotState> spots = new ArrayList<>(size);
+    for (int position = 0; position < size; position++) {
+      final int current = position;
+      final boolean taken = Arrays.stream(occupied).anyMatch(p -> p == current);
+      spots.add(new SpotState(position + 1L, 1L, SpotType.CAR, taken));
+    }
+    return new LotOccupancy(1L, spots);
+  }
+
+  private static long[] readVarints(final byte[] data) {
+    final ByteBuffer buffer = ByteBuffer.wrap(data);
+    final List<Long> values = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get();
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      values.add(value);
+    }
+    return values.stream().mapToLong(Long::longValue).toArray();
+  }
+}
@@ -0,0 +1,129 @@
+package com.sealed.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.enums.VehicleType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class OccupancyJournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testEventsSurviveReopening() throws IOException {
+    // given
+    try (OccupancyJournal journal = new OccupancyJournal(directory)) {
+      journal.sync(journal.append(OccupancyEvent.park(7L, 1L, VehicleType.VAN, "VAN123", new long[] {3L, 4L, 5L})));
+      journal.sync(journal.append(OccupancyEvent.updateSpots(new long[] {3L}, false)));
+      journal.sync(journal.append(OccupancyEvent.removeVehicles(new long[] {7L})));
+    }
+
+    // when
+    final List<OccupancyEvent> events;
+    try (OccupancyJournal journal = new OccupancyJournal(directory)) {
+      events = journal.readAll();
+    }
+
+    // then
+    assertEquals(3, events.size());
+    final OccupancyEvent park = events.get(0);
+    assertEquals(OccupancyEvent.Kind.PARK, park.kind());
+    assertEquals(7L, park.vehicleId());
+    assertEquals(1L, park.parkingLotId());
+    assertEquals(VehicleType.VAN, park.vehicleType());
+    assertEquals("VAN123", park.licensePlate());
+    assertEquals(OccupancyEvent.plateHash("VAN123"), park.plateHash());
+    assertArrayEquals(new long[] {3L, 4L, 5L}, park.ids());
+    assertEquals(OccupancyEvent.Kind.UPDATE_SPOTS, events.get(1).kind());
+    assertArrayEquals(new long[] {7L}, events.get(2).ids());
+  }
+
+  @Test
+  void testCorruptRecordEndsTheSegment() throws IOException {
+    // given
+    final long second;
+    try (OccupancyJournal journal = new OccupancyJournal(directory)) {
+      second = journal.append(OccupancyEvent.updateSpots(new long[] {1L}, true));
+      journal.sync(journal.append(OccupancyEvent.updateSpots(new long[] {2L}, true)));
+      journal.sync(journal.append(OccupancyEvent.updateSpots(new long[] {3L}, true)));
+    }
+    try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+      file.seek((second & 0xffffffffL) + 12);
+      file.write(99);
+    }
+
+    // when
+    final List<OccupancyEvent> events;
+    try (OccupancyJournal journal = new OccupancyJournal(directory)) {
+      events = journal.readAll();
+    }
+
+    // then
+    assertEquals(1, events.size());
+    assertArrayEquals(new long[] {1L}, events.get(0).ids());
+  }
+
+  @Test
+  void testEventsThatDoNotFitStartANewSegment() throws IOException {
+    // given
+    final long position;
+    try (OccupancyJournal journal = new OccupancyJournal(directory, 128)) {
+      for (long spotId = 1; spotId <= 4; spotId++) {
+        journal.append(OccupancyEvent.unpark(1L, VehicleType.CAR, "CAR" + spotId, new long[] {spotId}));
+      }
+      position = journal.position();
+      journal.sync(journal.append(OccupancyEvent.unpark(1L, VehicleType.CAR, "CAR5", new long[] {5L})));
+
+      // when
+      final List<OccupancyEvent> events = journal.readAll();
+      final List<OccupancyEvent> after = new ArrayList<>();
+      journal.replay(position, after::add);
+
+      // then
+      assertEquals(5, events.size());
+      assertTrue(segments().size() > 1);
+      assertEquals(1L, events.get(0).parkingLotId());
+      assertEquals("CAR5", events.get(4).licensePlate());
+      assertEquals(1, after.size());
+      assertArrayEquals(new long[] {5L}, after.get(0).ids());
+    }
+  }
+
+  @Test
+  void testDiscardBeforeDropsRotatedSegments() throws IOException {
+    try (OccupancyJournal journal = new OccupancyJournal(directory)) {
+      // given
+      journal.append(OccupancyEvent.updateSpots(new long[] {1L}, true));
+      final long keepFrom = journal.rotate();
+      journal.sync(journal.append(OccupancyEvent.updateSpots(new long[] {2L}, false)));
+
+      // when
+      journal.discardBefore(keepFrom);
+
+      // then
+      final List<OccupancyEvent> events = journal.readAll();
+      assertEquals(1, events.size());
+      assertArrayEquals(new long[] {2L}, events.get(0).ids());
+      assertEquals(1, segments().size());
+    }
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.sorted().toList();
+    }
+  }
+}
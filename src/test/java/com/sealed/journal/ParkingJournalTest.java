@@ -0,0 +1,91 @@
+package com.sealed.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.SpotState;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+class ParkingJournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testEventsSurviveRestarting() throws IOException {
+    // given
+    final long before = System.currentTimeMillis();
+    final ParkingJournal parkingJournal = new ParkingJournal(true, directory.toString(), 1024, 2, 0);
+    parkingJournal.start();
+    parkingJournal.recordPark(new SpotClaim(1L, new long[] {1L, 2L, 3L}), VehicleType.VAN, "VAN123");
+    parkingJournal.stop();
+
+    // when
+    final ParkingJournal restarted = new ParkingJournal(true, directory.toString(), 1024, 2, 0);
+    restarted.start();
+    restarted.recordUnpark(1L, Arrays.asList(1L, null, 3L), VehicleType.VAN, "VAN123");
+    final long after = System.currentTimeMillis();
+    final List<OccupancyEvent> events = new ArrayList<>();
+    restarted.replay(events::add);
+    restarted.stop();
+
+    // then
+    assertEquals(2, events.size());
+    assertEquals(OccupancyEvent.Kind.PARK, events.get(0).kind());
+    assertEquals(1L, events.get(0).parkingLotId());
+    assertNull(events.get(0).licensePlate());
+    assertEquals(OccupancyEvent.plateHash("VAN123"), events.get(0).plateHash());
+    assertArrayEquals(new long[] {1L, 2L, 3L}, events.get(0).ids());
+    assertEquals(OccupancyEvent.Kind.UPDATE_SPOTS, events.get(1).kind());
+    assertNull(events.get(1).licensePlate());
+    assertEquals(OccupancyEvent.plateHash("VAN123"), events.get(1).plateHash());
+    for (final OccupancyEvent event : events) {
+      assertTrue(event.timestamp() >= before && event.timestamp() <= after);
+    }
+    assertTrue(events.get(0).timestamp() <= events.get(1).timestamp());
+    assertFalse(events.get(1).occupied());
+    assertEquals(VehicleType.VAN, events.get(1).vehicleType());
+    assertArrayEquals(new long[] {1L, 3L}, events.get(1).ids());
+  }
+
+  @Test
+  void testReplayRebuildsTheFreeSpotIndex() throws IOException {
+    // given
+    final ParkingJournal parkingJournal = new ParkingJournal(true, directory.toString(), 1024, 1, 0);
+    parkingJournal.start();
+    parkingJournal.recordPark(new SpotClaim(1L, new long[] {1L, 2L, 3L}), VehicleType.VAN, "VAN123");
+    parkingJournal.recordPark(new SpotClaim(1L, new long[] {4L}), VehicleType.CAR, "CAR123");
+    parkingJournal.recordUnpark(1L, List.of(1L, 2L, 3L), VehicleType.VAN, "VAN123");
+    final FreeSpotIndex freeSpotIndex = new FreeSpotIndex();
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false),
+                               new SpotState(3L, 1L, SpotType.CAR, false),
+                               new SpotState(4L, 1L, SpotType.CAR, false)));
+
+    // when
+    final long applied = parkingJournal.replayInto(freeSpotIndex);
+    parkingJournal.stop();
+
+    // then
+    assertEquals(3, applied);
+    assertEquals(3, freeSpotIndex.countFree(1L));
+    assertTrue(freeSpotIndex.claimRun(1L, SpotType.CAR, 3).isPresent());
+    assertTrue(freeSpotIndex.claim(1L, Set.of(SpotType.CAR)).isEmpty());
+  }
+}
@@ -0,0 +1,129 @@
+package com.sealed.occupancy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalInt;
+
+class OccupancyCountersTest {
+
+  @Test
+  void testCountersAreNotReadyBeforeTheFirstReconciliation() {
+    final OccupancyCounters counters = new OccupancyCounters();
+    counters.register(parkingLot(1L));
+
+    assertTrue(counters.countAvailable().isEmpty());
+    assertEquals(OptionalInt.of(3), counters.countAvailable(1L));
+    assertTrue(counters.countAvailable(2L).isEmpty());
+  }
+
+  @Test
+  void testParkAndUnparkUpdateTheCounters() {
+    // given
+    final OccupancyCounters counters = new OccupancyCounters();
+    counters.register(parkingLot(1L));
+    counters.reconcile(List.of());
+
+    // when
+    counters.park(1L, VehicleType.CAR, List.of(SpotType.CAR));
+    counters.park(1L, VehicleType.CAR, List.of(SpotType.VAN));
+    counters.unpark(1L, VehicleType.CAR, List.of(SpotType.CAR));
+
+    // then
+    assertEquals(OptionalInt.of(1), counters.countOccupied(1L));
+    assertEquals(OptionalInt.of(2), counters.countAvailable(1L));
+    assertEquals(OptionalInt.of(1), counters.countOccupied());
+  }
+
+  @Test
+  void testReconcileCorrectsDrift() {
+    // given
+    final OccupancyCounters counters = new OccupancyCounters();
+    counters.register(parkingLot(1L));
+    counters.park(1L, VehicleType.CAR, List.of(SpotType.CAR));
+    counters.park(1L, VehicleType.MOTORCYCLE, List.of(SpotType.CAR));
+
+    // when
+    counters.reconcile(List.of(new SpotCount(1L, SpotType.MOTORCYCLE, false, null, 1),
+                               new SpotCount(1L, SpotType.CAR, true, VehicleType.CAR, 1),
+                               new SpotCount(1L, SpotType.VAN, false, null, 1),
+                               new SpotCount(2L, SpotType.CAR, false, null, 10)));
+
+    // then
+    assertEquals(OptionalInt.of(1), counters.countOccupied(1L));
+    assertEquals(OptionalInt.of(2), counters.countAvailable(1L));
+    assertEquals(OptionalInt.of(10), counters.countAvailable(2L));
+    assertEquals(OptionalInt.of(12), counters.countAvailable());
+    assertEquals(0, counters.breakdown(1L).orElseThrow().vehicles().get(VehicleType.MOTORCYCLE));
+  }
+
+  @Test
+  void testBreakdownCountsEveryCarSpotOfAVan() {
+    // given
+    final OccupancyCounters counters = new OccupancyCounters();
+    final ParkingLot parkingLot = ParkingLot.builder().id(1L).build();
+    parkingLot.setSpots(List.of(Spot.builder().type(SpotType.CAR).build(),
+                                Spot.builder().type(SpotType.CAR).build(),
+                                Spot.builder().type(SpotType.CAR).build(),
+                                Spot.builder().type(SpotType.VAN).build()));
+    counters.register(parkingLot);
+    counters.reconcile(List.of());
+
+    // when
+    counters.park(1L, VehicleType.VAN, List.of(SpotType.CAR, SpotType.CAR, SpotType.CAR));
+
+    // then
+    final OccupancyBreakdown breakdown = counters.breakdown().orElseThrow();
+    assertEquals(3, breakdown.spotsByVehicleType().get(VehicleType.VAN));
+    assertEquals(1, breakdown.vehicles().get(VehicleType.VAN));
+    assertEquals(0, breakdown.spotTypes().get(SpotType.CAR).available());
+    assertEquals(1, breakdown.spotTypes().get(SpotType.VAN).available());
+    assertFalse(breakdown.full());
+
+    // when
+    counters.unpark(1L, VehicleType.VAN, List.of(SpotType.CAR, SpotType.CAR, SpotType.CAR));
+
+    // then
+    assertEquals(4, counters.breakdown(1L).orElseThrow().available());
+    assertEquals(0, counters.breakdown(1L).orElseThrow().vehicles().get(VehicleType.VAN));
+  }
+
+  @Test
+  void testReconcileCountsOccupiedSpotsWithoutAVehicleAsOrphaned() {
+    // given
+    final OccupancyCounters counters = new OccupancyCounters();
+    counters.register(1L, List.of(new SpotCount(1L, SpotType.CAR, false, null, 10)));
+
+    // when
+    counters.reconcile(List.of(new SpotCount(1L, SpotType.CAR, true, VehicleType.VAN, 1),
+                               new SpotCount(1L, SpotType.CAR, true, null, 3),
+                               new SpotCount(1L, SpotType.CAR, false, null, 6)));
+
+    // then
+    final OccupancyBreakdown breakdown = counters.breakdown(1L).orElseThrow();
+    assertEquals(3, breakdown.spotTypes().get(SpotType.CAR).occupiedBy().get(VehicleType.VAN));
+    assertEquals(1, breakdown.spotTypes().get(SpotType.CAR).orphaned());
+    assertEquals(4, breakdown.spotTypes().get(SpotType.CAR).occupied());
+    assertEquals(6, breakdown.available());
+    assertEquals(1, breakdown.vehicles().get(VehicleType.VAN));
+    assertEquals(OptionalInt.of(4), counters.countOccupied(1L));
+  }
+
+  private static ParkingLot parkingLot(final Long id) {
+    final ParkingLot parkingLot = ParkingLot.builder().id(id).build();
+    parkingLot.setSpots(List.of(Spot.builder().type(SpotType.MOTORCYCLE).build(),
+                                Spot.builder().type(SpotType.CAR).build(),
+                                Spot.builder().type(SpotType.VAN).build()));
+    return parkingLot;
+  }
+}
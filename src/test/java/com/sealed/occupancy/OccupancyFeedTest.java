@@ -0,0 +1,144 @@
+package com.sealed.occupancy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sealed.controller.OccupancyEventsController;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.service.ParkingLotService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class OccupancyFeedTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ParkingLotService parkingLotService = mock(ParkingLotService.class);
+  private OccupancyCounters counters;
+  private OccupancyFeed feed;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    counters = new OccupancyCounters();
+    counters.register(parkingLot(1L));
+    counters.register(parkingLot(2L));
+    // the ticker never fires on its own, the tests tick by hand
+    feed = new OccupancyFeed(counters, objectMapper, 3_600_000, 3_600_000, 60_000, 2, 3);
+    when(parkingLotService.getOccupancy(1L)).thenAnswer(invocation -> counters.breakdown(1L).orElseThrow());
+    when(parkingLotService.getOccupancy(2L)).thenAnswer(invocation -> counters.breakdown(2L).orElseThrow());
+    mockMvc = MockMvcBuilders.standaloneSetup(new OccupancyEventsController(parkingLotService, feed)).build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    feed.stop();
+  }
+
+  @Test
+  void testSubscribersGetTheCurrentOccupancyThenOneMessagePerTick() throws Exception {
+    // given
+    final MockHttpServletResponse response = subscribe(1L);
+    assertEquals(1, awaitEvents(response, 1).size());
+
+    // when
+    counters.park(1L, VehicleType.CAR, List.of(SpotType.CAR));
+    counters.park(1L, VehicleType.MOTORCYCLE, List.of(SpotType.MOTORCYCLE));
+    counters.unpark(1L, VehicleType.MOTORCYCLE, List.of(SpotType.MOTORCYCLE));
+    counters.park(1L, VehicleType.VAN, List.of(SpotType.VAN));
+    feed.tick();
+
+    // then
+    final List<JsonNode> events = awaitEvents(response, 2);
+    assertEquals(2, events.size());
+    assertEquals(0, events.get(0).get("occupied").asInt());
+    assertEquals(2, events.get(1).get("occupied").asInt());
+    assertEquals(1, events.get(1).get("available").asInt());
+  }
+
+  @Test
+  void testQuietLotsAreNotPushed() throws Exception {
+    // given
+    final MockHttpServletResponse lotOne = subscribe(1L);
+    final MockHttpServletResponse lotTwo = subscribe(2L);
+    awaitEvents(lotOne, 1);
+    awaitEvents(lotTwo, 1);
+
+    // when
+    counters.park(2L, VehicleType.CAR, List.of(SpotType.CAR));
+    feed.tick();
+    feed.tick();
+
+    // then
+    assertEquals(2, awaitEvents(lotTwo, 2).size());
+    assertEquals(1, events(lotOne).size());
+  }
+
+  @Test
+  void testSubscribersAreBounded() throws Exception {
+    // given
+    subscribe(1L);
+    subscribe(1L);
+    subscribe(2L);
+
+    // then
+    assertEquals(3, feed.subscribers());
+    assertThrows(IllegalStateException.class, () -> feed.subscribe(2L, counters.breakdown(2L).orElseThrow()));
+    assertEquals(3, feed.subscribers());
+  }
+
+  private MockHttpServletResponse subscribe(final Long parkingLotId) throws Exception {
+    return mockMvc.perform(get("/api/parking-lot/{id}/events", parkingLotId))
+                  .andExpect(request().asyncStarted())
+                  .andReturn()
+                  .getResponse();
+  }
+
+  private List<JsonNode> awaitEvents(final MockHttpServletResponse response, final int count) throws Exception {
+    final long deadline = System.currentTimeMillis() + 5_000;
+    List<JsonNode> events = events(response);
+    while (events.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      events = events(response);
+    }
+    return events;
+  }
+
+  private List<JsonNode> events(final MockHttpServletResponse response) throws Exception {
+    final String body = response.getContentAsString();
+    final List<JsonNode> events = new ArrayList<>();
+    for (final String frame : body.split("\n\n")) {
+      final List<String> lines = Arrays.asList(frame.split("\n"));
+      if (lines.contains("event:" + OccupancyFeed.EVENT_NAME)) {
+        final String data = lines.stream().filter(line -> line.startsWith("data:")).findFirst().orElseThrow();
+        events.add(objectMapper.readTree(data.substring("data:".length())));
+      }
+    }
+    return events;
+  }
+
+  private static ParkingLot parkingLot(final Long id) {
+    final ParkingLot parkingLot = ParkingLot.builder().id(id).build();
+    parkingLot.setSpots(List.of(Spot.builder().type(SpotType.MOTORCYCLE).build(),
+                                Spot.builder().type(SpotType.CAR).build(),
+                                Spot.builder().type(SpotType.VAN).build()));
+    return parkingLot;
+  }
+}
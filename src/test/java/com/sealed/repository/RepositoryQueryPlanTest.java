@@ -0,0 +1,159 @@
+package com.sealed.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.enums.SpotType;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the hot repository methods, captures the SQL Hibernate sends for them and checks with H2's {@code EXPLAIN}
+ * that every table they filter is read through an index rather than scanned.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.sealed.repository.RepositoryQueryPlanTest$RecordingInspector"
+})
+class RepositoryQueryPlanTest {
+
+  private static final int LOTS = 10;
+  private static final int SPOTS_PER_LOT = 500;
+
+  @Autowired
+  private SpotRepository spotRepository;
+
+  @Autowired
+  private VehicleRepository vehicleRepository;
+
+  @Autowired
+  private ParkingLotRepository parkingLotRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parking_lot", Integer.class) > 0) {
+      return;
+    }
+    final List<Object[]> lots = new ArrayList<>();
+    final List<Object[]> spots = new ArrayList<>();
+    final List<Object[]> vehicles = new ArrayList<>();
+    for (long lot = 1; lot <= LOTS; lot++) {
+      lots.add(new Object[] {lot, "Lot " + lot});
+      for (int i = 0; i < SPOTS_PER_LOT; i++) {
+        final long spot = (lot - 1) * SPOTS_PER_LOT + i + 1;
+        final boolean occupied = i % 4 == 0;
+        spots.add(new Object[] {spot, i % 3 == 0 ? "CAR" : "MOTORCYCLE", occupied, lot});
+        if (occupied) {
+          vehicles.add(new Object[] {spot, "CAR", "PLATE" + spot, spot});
+        }
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO parking_lot (id, name, capacity, motorcycle_spots, car_spots, van_spots) VALUES (?, ?, 0, 0, 0, 0)", lots);
+    jdbcTemplate.batchUpdate("INSERT INTO spot (id, type, occupied, parking_lot_id, version) VALUES (?, ?, ?, ?, 0)", spots);
+    jdbcTemplate.batchUpdate("INSERT INTO vehicle (id, type, license_plate, spot_id) VALUES (?, ?, ?, ?)", vehicles);
+    jdbcTemplate.execute("ANALYZE");
+  }
+
+  @Test
+  void testFindByLicensePlateUsesTheUniqueIndex() {
+    final String plan = planOf(() -> vehicleRepository.findByLicensePlate("PLATE1"), "PLATE1");
+
+    assertUsesIndex(plan, "idx_vehicle_license_plate");
+  }
+
+  @Test
+  void testFindParkedVehiclesUsesIndexes() {
+    final String plan = planOf(() -> vehicleRepository.findParkedVehicles(List.of("PLATE1", "PLATE5")), "PLATE1", "PLATE5");
+
+    assertUsesIndex(plan, "idx_vehicle_license_plate");
+  }
+
+  @Test
+  void testCountByOccupiedUsesAnIndex() {
+    final String plan = planOf(() -> spotRepository.countByOccupied(true), true);
+
+    assertUsesIndex(plan, "idx_spot_occupied");
+  }
+
+  @Test
+  void testLotScopedSpotQueriesUseTheCompositeIndex() {
+    assertUsesIndex(planOf(() -> spotRepository.countByParkingLotIdAndOccupied(1L, false), 1L, false), "idx_spot_lot_type_occupied");
+    assertUsesIndex(planOf(() -> spotRepository.findSpotStatesByParkingLotId(1L), 1L), "idx_spot_lot_type_occupied");
+  }
+
+  @Test
+  void testOccupancyOfLotsJoinsVehiclesBySpot() {
+    final String plan = planOf(() -> spotRepository.countSpotsByLotTypeAndOccupied(List.of(1L, 2L)), 1L, 2L);
+
+    assertUsesIndex(plan, "idx_spot_lot_type_occupied");
+    assertUsesIndex(plan, "idx_vehicle_spot_id");
+  }
+
+  @Test
+  void testSpotPagesSeekTheLotIndexInIdOrder() {
+    final PageRequest page = PageRequest.of(0, 50);
+    final List<String> plans = List.of(
+        planOf(() -> spotRepository.findSpotViews(1L, 100L, page), 1L, 100L, 0, 50),
+        planOf(() -> spotRepository.findSpotViewsByType(1L, SpotType.CAR, 100L, page), 1L, "CAR", 100L, 0, 50),
+        planOf(() -> spotRepository.findSpotViewsByOccupied(1L, false, 100L, page), 1L, false, 100L, 0, 50),
+        planOf(() -> spotRepository.findSpotViewsByTypeAndOccupied(1L, SpotType.CAR, false, 100L, page), 1L, "CAR", false, 100L, 0, 50));
+
+    for (final String plan : plans) {
+      assertUsesIndex(plan, "idx_spot_lot_id");
+      assertUsesIndex(plan, "idx_vehicle_spot_id");
+      assertTrue(plan.contains("index sorted"), () -> "Expected the page to be read in index order:\n" + plan);
+    }
+  }
+
+  @Test
+  void testFindLotPolicyUsesThePrimaryKey() {
+    final String plan = planOf(() -> parkingLotRepository.findLotPolicy(1L), 1L);
+
+    assertFalse(plan.contains("tableScan"), plan);
+  }
+
+  /**
+   * Runs a repository call and explains the first statement it sent, bound to the given parameters.
+   * Later statements are eager loads of associations, e.g. the spot of a vehicle, by primary key.
+   */
+  private String planOf(final Runnable call, final Object... parameters) {
+    RecordingInspector.STATEMENTS.clear();
+    call.run();
+    assertFalse(RecordingInspector.STATEMENTS.isEmpty(), "No statement was recorded");
+    final String sql = RecordingInspector.STATEMENTS.get(0);
+    return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+  }
+
+  private static void assertUsesIndex(final String plan, final String index) {
+    assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    assertFalse(plan.contains("tableScan"), () -> "Expected no table scan in plan:\n" + plan);
+  }
+
+  public static class RecordingInspector implements StatementInspector {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(final String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.sealed.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import com.sealed.service.impl.AsyncParkingServiceImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+class AsyncParkingServiceImplTest {
+
+  private final ParkingLotService parkingLotService = mock(ParkingLotService.class);
+  private AsyncParkingServiceImpl asyncParkingService;
+
+  @AfterEach
+  void tearDown() {
+    asyncParkingService.stop();
+  }
+
+  @Test
+  void testParkVehicleRunsOnTheParkingExecutor() throws Exception {
+    // given
+    asyncParkingService = new AsyncParkingServiceImpl(parkingLotService, 2, 10, false);
+    final Spot spot = Spot.builder().id(7L).build();
+    final Thread[] parkingThread = new Thread[1];
+    when(parkingLotService.parkVehicle(any(Vehicle.class))).thenAnswer(invocation -> {
+      parkingThread[0] = Thread.currentThread();
+      return spot;
+    });
+
+    // when
+    final Spot result = asyncParkingService.parkVehicle(Vehicle.builder().type(VehicleType.CAR).licensePlate("ASYNC1").build())
+                                           .get(5, TimeUnit.SECONDS);
+
+    // then
+    assertEquals(7L, result.getId());
+    assertTrue(parkingThread[0].getName().startsWith("parking-async-"));
+    assertEquals(0, asyncParkingService.pending());
+  }
+
+  @Test
+  void testServiceExceptionsCompleteTheFuture() throws Exception {
+    // given
+    asyncParkingService = new AsyncParkingServiceImpl(parkingLotService, 2, 10, false);
+    when(parkingLotService.unparkVehicle("MISSING")).thenThrow(new ServiceException("Vehicle not found"));
+
+    // when
+    final CompletableFuture<Spot> result = asyncParkingService.unparkVehicle("MISSING");
+
+    // then
+    final ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(ServiceException.class, e.getCause());
+    assertEquals(0, asyncParkingService.pending());
+  }
+
+  @Test
+  void testOperationsPastMaxPendingAreRejected() throws Exception {
+    // given
+    asyncParkingService = new AsyncParkingServiceImpl(parkingLotService, 1, 2, false);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(parkingLotService.countAvailableSpots()).thenAnswer(invocation -> {
+      release.await();
+      return 3;
+    });
+    final CompletableFuture<Integer> running = asyncParkingService.countAvailableSpots();
+    final CompletableFuture<Integer> queued = asyncParkingService.countAvailableSpots();
+
+    // when
+    final CompletableFuture<Integer> rejected = asyncParkingService.countAvailableSpots();
+
+    // then
+    final ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+    assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    assertEquals(2, asyncParkingService.pending());
+    release.countDown();
+    assertEquals(3, running.get(5, TimeUnit.SECONDS));
+    assertEquals(3, queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testVirtualThreadsFallBackToPlatformThreadsBeforeJava21() throws Exception {
+    // given
+    asyncParkingService = new AsyncParkingServiceImpl(parkingLotService, 2, 10, true);
+    when(parkingLotService.countOccupiedSpots(1L)).thenReturn(4);
+
+    // then
+    assertEquals(4, asyncParkingService.countOccupiedSpots(1L).get(5, TimeUnit.SECONDS));
+  }
+}
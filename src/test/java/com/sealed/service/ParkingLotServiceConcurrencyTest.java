@@ -0,0 +1,119 @@
+package com.sealed.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+import com.sealed.repository.SpotRepository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false")
+class ParkingLotServiceConcurrencyTest {
+
+  private static final int CAR_SPOTS = 2_000;
+  private static final int STALE_SPOTS = 100;
+  private static final int THREADS = 16;
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @Autowired
+  private SpotRepository spotRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testConcurrentParkingNeverAssignsASpotTwice() throws Exception {
+    // given
+    final List<Spot> spots = new ArrayList<>();
+    for (int i = 0; i < CAR_SPOTS; i++) {
+      spots.add(Spot.builder().type(SpotType.CAR).build());
+    }
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .name("Concurrent Parking Lot")
+                                            .capacity(CAR_SPOTS)
+                                            .motorcycleSpots(0)
+                                            .carSpots(CAR_SPOTS)
+                                            .vanSpots(0)
+                                            .build();
+    parkingLot.setSpots(spots);
+    final ParkingLot created = parkingLotService.createParkingLot(parkingLot);
+
+    // another instance takes some spots behind this instance's back
+    final List<Spot> stale = spotRepository.findAllById(created.getSpots().stream().limit(STALE_SPOTS).map(Spot::getId).toList());
+    stale.forEach(s -> s.setOccupied(true));
+    spotRepository.saveAll(stale);
+
+    // when
+    final Set<Long> assigned = ConcurrentHashMap.newKeySet();
+    final AtomicInteger parked = new AtomicInteger();
+    final AtomicInteger rejected = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < CAR_SPOTS; i++) {
+      final String licensePlate = "CONC" + i;
+      futures.add(executor.submit(() -> {
+        try {
+          final Spot spot = parkingLotService.parkVehicle(Vehicle.builder().type(VehicleType.CAR).licensePlate(licensePlate).build());
+          assertTrue(assigned.add(spot.getId()), "Spot " + spot.getId() + " assigned twice");
+          parked.incrementAndGet();
+        } catch (final ServiceException e) {
+          rejected.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    // then
+    assertEquals(CAR_SPOTS - STALE_SPOTS, parked.get());
+    assertEquals(STALE_SPOTS, rejected.get());
+
+    final Map<String, Object> vehicles = jdbcTemplate.queryForMap(
+        "SELECT COUNT(*) AS total, COUNT(DISTINCT v.spot_id) AS spots FROM vehicle v JOIN spot s ON s.id = v.spot_id WHERE s.parking_lot_id = ?",
+        created.getId());
+    assertEquals(CAR_SPOTS - STALE_SPOTS, ((Number) vehicles.get("total")).intValue());
+    assertEquals(CAR_SPOTS - STALE_SPOTS, ((Number) vehicles.get("spots")).intValue());
+    assertEquals(CAR_SPOTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spot WHERE parking_lot_id = ? AND occupied = true",
+                                                        Integer.class, created.getId()));
+
+    // and when every vehicle leaves in one batch
+    final List<String> licensePlates = new ArrayList<>();
+    for (int i = 0; i < CAR_SPOTS; i++) {
+      licensePlates.add("CONC" + i);
+    }
+    final var unparked = parkingLotService.unparkVehicles(licensePlates);
+
+    // then
+    assertEquals(CAR_SPOTS - STALE_SPOTS, unparked.unparked().size());
+    assertEquals(STALE_SPOTS, unparked.notFound().size());
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle WHERE license_plate LIKE 'CONC%'", Integer.class));
+    assertEquals(STALE_SPOTS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spot WHERE parking_lot_id = ? AND occupied = true",
+                                                          Integer.class, created.getId()));
+  }
+}
@@ -8,21 +8,41 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.persistence.EntityNotFoundException;
 
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.LotPolicy;
+import com.sealed.allocation.ParkedVehicle;
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.SpotState;
+import com.sealed.allocation.VehicleClaim;
+import com.sealed.cache.PlateCache;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingResult;
+import com.sealed.dto.SpotPage;
+import com.sealed.dto.SpotView;
+import com.sealed.dto.UnparkingResult;
 import com.sealed.entity.ParkingLot;
 import com.sealed.entity.Spot;
 import com.sealed.entity.Vehicle;
+import com.sealed.enums.AllocationPolicy;
 import com.sealed.enums.SpotType;
 import com.sealed.enums.VehicleType;
 import com.sealed.exception.ServiceException;
+import com.sealed.journal.ParkingJournal;
+import com.sealed.occupancy.OccupancyCounters;
+import com.sealed.occupancy.SpotCount;
 import com.sealed.repository.ParkingLotRepository;
 import com.sealed.service.impl.ParkingLotServiceImpl;
 import com.sealed.service.impl.SpotServiceImpl;
@@ -34,12 +54,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 class ParkingLotServiceImplTest {
@@ -53,6 +81,18 @@ class ParkingLotServiceImplTest {
   @Mock
   private VehicleServiceImpl vehicleService;
 
+  @Spy
+  private FreeSpotIndex freeSpotIndex = new FreeSpotIndex();
+
+  @Mock
+  private ParkingJournal parkingJournal;
+
+  @Mock
+  private OccupancyCounters occupancyCounters;
+
+  @Spy
+  private PlateCache plateCache = new PlateCache(100);
+
   @InjectMocks
   private ParkingLotServiceImpl parkingLotService;
 
@@ -76,28 +116,35 @@ class ParkingLotServiceImplTest {
     assertEquals(parkingLot.getVanSpots(), savedParkingLot.getVanSpots());
   }
 
+  @Test
+  void testProvisionParkingLotRejectsNegativeSpotCounts() {
+    // given
+    final ParkingLot parkingLot = ParkingLot.builder().name("Provisioned Parking Lot").carSpots(10).vanSpots(-1).build();
+
+    // when / then
+    assertThrows(ServiceException.class, () -> parkingLotService.provisionParkingLot(parkingLot, null));
+    assertThrows(ServiceException.class, () -> parkingLotService.provisionParkingLot(ParkingLot.builder().carSpots(10).build(), 0));
+    verify(parkingLotRepository, times(0)).save(Mockito.any(ParkingLot.class));
+  }
+
   @Test
   void testParkVehicleWithMotorcycle() throws ServiceException {
     // given
     final Vehicle motorcycle = new Vehicle();
     motorcycle.setType(VehicleType.MOTORCYCLE);
-
-    final List<Spot> availableSpots = new ArrayList<>();
-    final Spot freeSpot = new Spot();
-    availableSpots.add(freeSpot);
-    when(spotService.findAllSpots()).thenReturn(availableSpots);
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.MOTORCYCLE, false)));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
 
     // when
     final Spot parkedSpot = parkingLotService.parkVehicle(motorcycle);
 
     // then
-    verify(spotService).findAllSpots();
-    verify(spotService).createSpot(freeSpot);
-    verify(vehicleService).createVehicle(motorcycle);
-    assertTrue(freeSpot.isOccupied());
-    assertEquals(motorcycle, freeSpot.getVehicle());
-    assertEquals(freeSpot, motorcycle.getSpot());
-    assertEquals(freeSpot, parkedSpot);
+    verify(spotService).claimSpots(claimOf(1L), eq(motorcycle));
+    verify(parkingJournal).recordPark(claimOf(1L), eq(VehicleType.MOTORCYCLE), eq(null));
+    assertEquals(1L, parkedSpot.getId());
+    assertTrue(parkedSpot.isOccupied());
+    assertEquals(motorcycle, parkedSpot.getVehicle());
+    assertEquals(parkedSpot, motorcycle.getSpot());
   }
 
   @Test
@@ -121,6 +168,7 @@ class ParkingLotServiceImplTest {
     verify(vehicleService).getVehicleByLicensePlate("ABC123");
     verify(spotService).updateSpot(parkedSpot.getId(), parkedSpot);
     verify(vehicleService).removeVehicle(motorcycle.getId());
+    verify(parkingJournal).recordUnpark(null, List.of(1L), VehicleType.MOTORCYCLE, null);
     assertFalse(parkedSpot.isOccupied());
     assertNull(parkedSpot.getVehicle());
     assertEquals(parkedSpot, unparkedSpot);
@@ -129,22 +177,20 @@ class ParkingLotServiceImplTest {
   @Test
   void testParkVehicleWithCar() throws ServiceException {
     // given
-    final List<Spot> availableSpots = new ArrayList<>();
-    availableSpots.add(new Spot(SpotType.CAR, false, null, null));
-    availableSpots.add(new Spot(SpotType.VAN, false, null, null));
     final Vehicle vehicle = new Vehicle(VehicleType.CAR, new Spot(), "ABC123");
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.MOTORCYCLE, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false),
+                               new SpotState(3L, 1L, SpotType.VAN, false)));
 
     // when
-    Mockito.when(spotService.findAllSpots()).thenReturn(availableSpots);
-    Mockito.when(spotService.createSpot(Mockito.any(Spot.class))).thenReturn(availableSpots.get(0));
-    Mockito.when(vehicleService.createVehicle(Mockito.any(Vehicle.class))).thenReturn(vehicle);
+    Mockito.when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
 
     // act
     final Spot parkedSpot = parkingLotService.parkVehicle(vehicle);
 
     // then
     assertNotNull(parkedSpot);
-    assertEquals(SpotType.CAR, parkedSpot.getType());
+    assertEquals(2L, parkedSpot.getId());
     assertTrue(parkedSpot.isOccupied());
     assertEquals(vehicle, parkedSpot.getVehicle());
   }
@@ -171,35 +217,268 @@ class ParkingLotServiceImplTest {
   @Test
   void testParkVehicleWithVan() throws Exception {
     // given
-    final Spot spot1 = new Spot();
-    spot1.setId(1L);
-    spot1.setType(SpotType.CAR);
-    spot1.setOccupied(false);
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.MOTORCYCLE, false),
+                               new SpotState(3L, 1L, SpotType.VAN, false)));
 
-    final Spot spot2 = new Spot();
-    spot2.setId(2L);
-    spot2.setType(SpotType.MOTORCYCLE);
-    spot2.setOccupied(false);
+    // when
+    Mockito.when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+    final Vehicle vehicle = new Vehicle();
+    vehicle.setType(VehicleType.VAN);
 
-    final Spot spot3 = new Spot();
-    spot3.setId(3L);
-    spot3.setType(SpotType.VAN);
-    spot3.setOccupied(false);
+    // then
+    final Spot result = parkingLotService.parkVehicle(vehicle);
+    assertEquals(3L, result.getId());
+    Mockito.verify(spotService).claimSpots(claimOf(3L), eq(vehicle));
+  }
 
-    final List<Spot> spots = new ArrayList<>();
-    spots.add(spot1);
-    spots.add(spot2);
-    spots.add(spot3);
+  @Test
+  void testParkVehicleWithVanOnAdjacentCarSpots() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.CAR, true),
+                               new SpotState(3L, 1L, SpotType.CAR, false),
+                               new SpotState(4L, 1L, SpotType.CAR, false),
+                               new SpotState(5L, 1L, SpotType.CAR, false)));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+    final Vehicle vehicle = Vehicle.builder().type(VehicleType.VAN).licensePlate("VAN123").build();
 
     // when
-    Mockito.when(spotService.findAllSpots()).thenReturn(spots);
-    final Vehicle vehicle = new Vehicle();
-    vehicle.setType(VehicleType.VAN);
+    final Spot result = parkingLotService.parkVehicle(vehicle);
 
     // then
+    assertEquals(3L, result.getId());
+    assertEquals(5L, vehicle.getSpot().getId());
+    verify(spotService).claimSpots(claimOf(3L, 4L, 5L), eq(vehicle));
+  }
+
+  @Test
+  void testParkVehicleRetriesWhenClaimIsLost() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false)));
+    final Vehicle vehicle = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+    when(spotService.claimSpots(claimOf(1L), eq(vehicle))).thenThrow(new OptimisticLockingFailureException("taken"));
+    when(spotService.findOccupiedIds(List.of(1L))).thenReturn(List.of(1L));
+    when(spotService.claimSpots(claimOf(2L), eq(vehicle))).thenAnswer(this::occupy);
+
+    // when
     final Spot result = parkingLotService.parkVehicle(vehicle);
-    assertEquals(spot3, result);
-    Mockito.verify(vehicleService).createVehicle(vehicle);
+
+    // then
+    assertEquals(2L, result.getId());
+    final Vehicle another = Vehicle.builder().type(VehicleType.CAR).licensePlate("XYZ789").build();
+    assertThrows(ServiceException.class, () -> parkingLotService.parkVehicle(another));
+  }
+
+  @Test
+  void testParkVehicles() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.MOTORCYCLE, false)));
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("CAR123").build();
+    final Vehicle van = Vehicle.builder().type(VehicleType.VAN).licensePlate("VAN123").build();
+    final Vehicle motorcycle = Vehicle.builder().type(VehicleType.MOTORCYCLE).licensePlate("MOTO123").build();
+    when(spotService.claimAllSpots(anyList())).thenAnswer(invocation -> {
+      final List<VehicleClaim> claims = invocation.getArgument(0);
+      return claims.stream()
+                   .map(c -> Spot.builder().id(c.claim().spotId()).isOccupied(true).vehicle(c.vehicle()).build())
+                   .toList();
+    });
+
+    // when
+    final List<ParkingResult> results = parkingLotService.parkVehicles(List.of(car, van, motorcycle));
+
+    // then
+    verify(spotService, times(1)).claimAllSpots(anyList());
+    assertEquals(3, results.size());
+    assertEquals(1L, results.get(0).spot().getId());
+    assertNull(results.get(1).spot());
+    assertEquals("There are no available spots for a van or car.", results.get(1).error());
+    assertEquals(2L, results.get(2).spot().getId());
+  }
+
+  @Test
+  void testParkVehiclesFallsBackToSingleClaimsWhenBatchLoses() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false),
+                               new SpotState(2L, 1L, SpotType.CAR, false),
+                               new SpotState(3L, 1L, SpotType.CAR, false)));
+    final Vehicle first = Vehicle.builder().type(VehicleType.CAR).licensePlate("CAR1").build();
+    final Vehicle second = Vehicle.builder().type(VehicleType.CAR).licensePlate("CAR2").build();
+    when(spotService.claimAllSpots(anyList())).thenThrow(new OptimisticLockingFailureException("spot 1 updated concurrently"));
+    when(spotService.findOccupiedIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+
+    // when
+    final List<ParkingResult> results = parkingLotService.parkVehicles(List.of(first, second));
+
+    // then
+    assertEquals(2L, results.get(0).spot().getId());
+    assertEquals(3L, results.get(1).spot().getId());
+    verify(spotService, times(1)).findOccupiedIds(anyList());
+    verify(spotService, never()).findById(anyLong());
+  }
+
+  @Test
+  void testParkVehicleInParkingLot() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    when(parkingLotRepository.findLotPolicy(2L)).thenReturn(Optional.of(new LotPolicy(2L, AllocationPolicy.BEST_FIT, null)));
+    when(spotService.findSpotStates(2L)).thenReturn(List.of(new SpotState(5L, 2L, SpotType.CAR, false)));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+
+    // when
+    final Spot spot = parkingLotService.parkVehicle(2L, car);
+
+    // then
+    assertEquals(5L, spot.getId());
+    assertThrows(ServiceException.class, () -> parkingLotService.parkVehicle(2L, Vehicle.builder().type(VehicleType.CAR).build()));
+    verify(spotService, times(1)).findSpotStates(2L);
+  }
+
+  @Test
+  void testParkVehicleFollowsParkingLotPolicy() throws Exception {
+    // given
+    final ParkingLot parkingLot = ParkingLot.builder().id(4L).allocationPolicy(AllocationPolicy.BEST_FIT).build();
+    parkingLot.setSpots(List.of(Spot.builder().id(1L).type(SpotType.VAN).build(),
+                                Spot.builder().id(2L).type(SpotType.CAR).build(),
+                                Spot.builder().id(3L).type(SpotType.MOTORCYCLE).build()));
+    when(parkingLotRepository.save(parkingLot)).thenReturn(parkingLot);
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+    parkingLotService.createParkingLot(parkingLot);
+
+    // when
+    final Spot motorcycleSpot = parkingLotService.parkVehicle(4L, Vehicle.builder().type(VehicleType.MOTORCYCLE).build());
+    final Spot carSpot = parkingLotService.parkVehicle(4L, Vehicle.builder().type(VehicleType.CAR).build());
+
+    // then
+    assertEquals(3L, motorcycleSpot.getId());
+    assertEquals(2L, carSpot.getId());
+  }
+
+  @Test
+  void testParkVehicleInUnknownParkingLot() {
+    // given
+    when(parkingLotRepository.findLotPolicy(3L)).thenReturn(Optional.empty());
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+
+    // when and then
+    assertThrows(EntityNotFoundException.class, () -> parkingLotService.parkVehicle(3L, car));
+  }
+
+  @Test
+  void testUnparkVehicleFromOtherParkingLot() {
+    // given
+    final Spot spot = Spot.builder().id(1L).type(SpotType.CAR).isOccupied(true).parkingLot(ParkingLot.builder().id(1L).build()).build();
+    final Vehicle car = Vehicle.builder().id(1L).type(VehicleType.CAR).licensePlate("ABC123").spot(spot).build();
+    when(vehicleService.getVehicleByLicensePlate("ABC123")).thenReturn(car);
+
+    // when and then
+    assertThrows(EntityNotFoundException.class, () -> parkingLotService.unparkVehicle(2L, "ABC123"));
+  }
+
+  @Test
+  void testCountSpotsOfParkingLot() throws ServiceException {
+    // given
+    when(spotService.countAvailableSpots(1L)).thenReturn(0);
+    when(spotService.countOccupiedSpots(1L)).thenReturn(4);
+    when(spotService.countSpots(List.of(1L))).thenReturn(List.of(new SpotCount(1L, SpotType.VAN, true, VehicleType.VAN, 1),
+                                                                 new SpotCount(1L, SpotType.CAR, true, VehicleType.CAR, 3)));
+
+    // when and then
+    assertTrue(parkingLotService.isParkingLotFull(1L));
+    assertEquals(4, parkingLotService.countOccupiedSpots(1L));
+    assertEquals(1, parkingLotService.countVanSpots(1L));
+  }
+
+  @Test
+  void testParkVehicleWithNoAvailableSpot() {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.MOTORCYCLE, false)));
+    final Vehicle vehicle = Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build();
+
+    // when and then
+    assertThrows(ServiceException.class, () -> parkingLotService.parkVehicle(vehicle));
+  }
+
+  @Test
+  void testUnparkVehicles() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.MOTORCYCLE, true),
+                               new SpotState(2L, 1L, SpotType.CAR, true),
+                               new SpotState(3L, 1L, SpotType.CAR, true),
+                               new SpotState(4L, 1L, SpotType.CAR, true)));
+    when(vehicleService.findParkedVehicles(any())).thenReturn(List.of(
+        new ParkedVehicle(10L, "MOTO1", VehicleType.MOTORCYCLE, 1L, SpotType.MOTORCYCLE, 1L),
+        new ParkedVehicle(11L, "VAN1", VehicleType.VAN, 4L, SpotType.CAR, 1L)));
+
+    // when
+    final UnparkingResult result = parkingLotService.unparkVehicles(List.of("MOTO1", "VAN1", "GHOST"));
+
+    // then
+    assertEquals(List.of("MOTO1", "VAN1"), result.unparked());
+    assertEquals(List.of(1L, 4L, 3L, 2L), result.freedSpotIds());
+    assertEquals(List.of("GHOST"), result.notFound());
+    verify(spotService).freeSpots(List.of(1L, 4L, 3L, 2L));
+    verify(vehicleService).removeVehicles(List.of(10L, 11L));
+    assertTrue(freeSpotIndex.claimRun(SpotType.CAR, 3).isPresent());
+    assertTrue(freeSpotIndex.claim(Set.of(SpotType.MOTORCYCLE)).isPresent());
+  }
+
+  @Test
+  void testUnparkVehicleParkedByThisInstanceSkipsTheLookup() throws ServiceException {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(invocation -> {
+      final List<Spot> spots = occupy(invocation);
+      ((Vehicle) invocation.getArgument(1)).setId(7L);
+      return spots;
+    });
+    parkingLotService.parkVehicle(Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build());
+    when(spotService.updateSpot(eq(1L), any(Spot.class))).thenAnswer(invocation -> invocation.getArgument(1));
+
+    // when
+    final Spot spot = parkingLotService.unparkVehicle("ABC123");
+
+    // then
+    assertEquals(1L, spot.getId());
+    assertFalse(spot.isOccupied());
+    verify(vehicleService, Mockito.never()).getVehicleByLicensePlate(anyString());
+    verify(vehicleService).removeVehicle(7L);
+    assertEquals(1, plateCache.stats().hits());
+    assertTrue(plateCache.get("ABC123").isEmpty());
+  }
+
+  @Test
+  void testUnparkVehiclesOnlyLooksUpUncachedPlates() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, true), new SpotState(2L, 1L, SpotType.CAR, true)));
+    plateCache.put(new ParkedVehicle(10L, "CAR1", VehicleType.CAR, 1L, SpotType.CAR, 1L));
+    when(vehicleService.findParkedVehicles(Set.of("CAR2"))).thenReturn(List.of(
+        new ParkedVehicle(11L, "CAR2", VehicleType.CAR, 2L, SpotType.CAR, 1L)));
+
+    // when
+    final UnparkingResult result = parkingLotService.unparkVehicles(List.of("CAR1", "CAR2"));
+
+    // then
+    assertEquals(List.of(1L, 2L), result.freedSpotIds());
+    verify(vehicleService).removeVehicles(List.of(10L, 11L));
+    assertEquals(0, plateCache.size());
+  }
+
+  @Test
+  void testUnparkVehiclesKeepsIndexWhenDeleteFails() throws Exception {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, true)));
+    when(vehicleService.findParkedVehicles(any())).thenReturn(List.of(
+        new ParkedVehicle(10L, "CAR1", VehicleType.CAR, 1L, SpotType.CAR, 1L)));
+    Mockito.doThrow(new ServiceException("Error deleting vehicles")).when(vehicleService).removeVehicles(anyList());
+
+    // when and then
+    assertThrows(ServiceException.class, () -> parkingLotService.unparkVehicles(List.of("CAR1")));
+    assertTrue(freeSpotIndex.claim(Set.of(SpotType.CAR)).isEmpty());
   }
 
   @Test
@@ -237,6 +516,32 @@ class ParkingLotServiceImplTest {
     assertEquals(spot, result);
   }
 
+  @Test
+  void testUnparkVehicleReleasesTheSpotOnlyAfterCommit() throws ServiceException {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, true)));
+    final ParkingLot parkingLot = new ParkingLot();
+    parkingLot.setId(1L);
+    final Spot spot = Spot.builder().id(1L).type(SpotType.CAR).isOccupied(true).parkingLot(parkingLot).build();
+    final Vehicle vehicle = new Vehicle(VehicleType.CAR, spot, "AFTER1");
+    vehicle.setId(1L);
+    when(vehicleService.getVehicleByLicensePlate("AFTER1")).thenReturn(vehicle);
+    when(spotService.updateSpot(1L, spot)).thenReturn(spot);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // when
+      parkingLotService.unparkVehicle("AFTER1");
+
+      // then
+      assertEquals(0, freeSpotIndex.countFree(1L));
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      assertEquals(1, freeSpotIndex.countFree(1L));
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
   @Test
   void testFindParkingLotById() {
     // given
@@ -265,6 +570,37 @@ class ParkingLotServiceImplTest {
           () -> parkingLotService.findParkingLotById(id));
   }
 
+  @Test
+  void testFindSpotsReturnsTheKeyOfTheNextPage() throws ServiceException {
+    // given
+    when(parkingLotRepository.existsById(1L)).thenReturn(true);
+    when(spotService.findSpots(1L, SpotType.CAR, null, 0L, 2)).thenReturn(List.of(
+        new SpotView(3L, 1L, SpotType.CAR, false, null, null, null, null),
+        new SpotView(4L, 1L, SpotType.CAR, true, null, null, VehicleType.CAR, "ABC123")));
+    when(spotService.findSpots(1L, SpotType.CAR, null, 4L, 2)).thenReturn(List.of(
+        new SpotView(7L, 1L, SpotType.CAR, false, null, null, null, null)));
+
+    // when
+    final SpotPage first = parkingLotService.findSpots(1L, SpotType.CAR, null, 0L, 2);
+    final SpotPage last = parkingLotService.findSpots(1L, SpotType.CAR, null, first.next(), 2);
+
+    // then
+    assertEquals(4L, first.next());
+    assertEquals(1, last.spots().size());
+    assertNull(last.next());
+  }
+
+  @Test
+  void testFindSpotsRejectsUnknownLotsAndInvalidSizes() {
+    // given
+    when(parkingLotRepository.existsById(2L)).thenReturn(false);
+
+    // when and then
+    assertThrows(EntityNotFoundException.class, () -> parkingLotService.findSpots(2L, null, null, 0L, 10));
+    assertThrows(ServiceException.class, () -> parkingLotService.findSpots(2L, null, null, 0L, 0));
+    assertThrows(ServiceException.class, () -> parkingLotService.findSpots(2L, null, null, 0L, 1001));
+  }
+
   @Test
   void testIsParkingLotFull() throws ServiceException {
     // given
@@ -297,6 +633,32 @@ class ParkingLotServiceImplTest {
     assertEquals(count, result);
   }
 
+  @Test
+  void testCountsAreServedFromOccupancyCounters() throws ServiceException {
+    // given
+    when(occupancyCounters.countAvailable()).thenReturn(OptionalInt.of(0));
+    when(occupancyCounters.countOccupied(1L)).thenReturn(OptionalInt.of(4));
+
+    // when and then
+    assertTrue(parkingLotService.isParkingLotFull());
+    assertEquals(4, parkingLotService.countOccupiedSpots(1L));
+    verify(spotService, Mockito.never()).countAvailableSpots();
+    verify(spotService, Mockito.never()).countOccupiedSpots(1L);
+  }
+
+  @Test
+  void testParkVehicleUpdatesOccupancyCounters() throws ServiceException {
+    // given
+    freeSpotIndex.load(List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    when(spotService.claimSpots(any(SpotClaim.class), any(Vehicle.class))).thenAnswer(this::occupy);
+
+    // when
+    parkingLotService.parkVehicle(Vehicle.builder().type(VehicleType.CAR).licensePlate("ABC123").build());
+
+    // then
+    verify(occupancyCounters).park(1L, VehicleType.CAR, List.of(SpotType.CAR));
+  }
+
   @Test
   void testCountAvailableSpotsError() {
     // given
@@ -322,17 +684,75 @@ class ParkingLotServiceImplTest {
 
   @Test
   void testCountVanSpots() throws ServiceException {
-    // given
-    final List<Spot> spots = new ArrayList<>();
-    spots.add(new Spot(SpotType.CAR, true, null, Vehicle.builder().type(VehicleType.CAR).build()));
-    spots.add(new Spot(SpotType.VAN, true, null, Vehicle.builder().type(VehicleType.VAN).build()));
-    spots.add(new Spot(SpotType.VAN, true, null, Vehicle.builder().type(VehicleType.VAN).build()));
+    // given a van on a van spot, a van over three car spots and a car
+    when(spotService.countSpots()).thenReturn(List.of(new SpotCount(1L, SpotType.VAN, true, VehicleType.VAN, 1),
+                                                      new SpotCount(1L, SpotType.CAR, true, VehicleType.VAN, 1),
+                                                      new SpotCount(1L, SpotType.CAR, true, null, 2),
+                                                      new SpotCount(1L, SpotType.CAR, true, VehicleType.CAR, 1),
+                                                      new SpotCount(1L, SpotType.CAR, false, null, 5)));
 
     // when
-    when(spotService.findAllSpots()).thenReturn(spots);
-    // Test
     int result = parkingLotService.countVanSpots();
+
+    // then
+    assertEquals(4, result);
+    verify(spotService, Mockito.never()).findAllSpots();
+  }
+
+  @Test
+  void testGetOccupancyBreaksDownBySpotTypeAndVehicleType() throws ServiceException {
+    // given
+    when(spotService.countSpots()).thenReturn(List.of(new SpotCount(1L, SpotType.CAR, true, VehicleType.VAN, 1),
+                                                      new SpotCount(1L, SpotType.CAR, true, null, 2),
+                                                      new SpotCount(1L, SpotType.CAR, true, VehicleType.MOTORCYCLE, 1),
+                                                      new SpotCount(2L, SpotType.VAN, false, null, 2)));
+
+    // when
+    final OccupancyBreakdown occupancy = parkingLotService.getOccupancy();
+
+    // then
+    assertEquals(6, occupancy.total());
+    assertEquals(2, occupancy.available());
+    assertFalse(occupancy.full());
+    assertEquals(3, occupancy.spotTypes().get(SpotType.CAR).occupiedBy().get(VehicleType.VAN));
+    assertEquals(1, occupancy.spotTypes().get(SpotType.CAR).occupiedBy().get(VehicleType.MOTORCYCLE));
+    assertEquals(2, occupancy.spotTypes().get(SpotType.VAN).available());
+    assertEquals(1, occupancy.vehicles().get(VehicleType.VAN));
+    assertEquals(0, occupancy.vehicles().get(VehicleType.CAR));
+  }
+
+  @Test
+  void testGetOccupancyOfManyLotsCountsUncountedLotsInOneQuery() throws ServiceException {
+    // given
+    final OccupancyBreakdown counted = new OccupancyBreakdown(1L, 10, 10, 0, false, Map.of(), Map.of(), Map.of());
+    when(occupancyCounters.breakdown(anyLong())).thenReturn(Optional.empty());
+    when(occupancyCounters.breakdown(1L)).thenReturn(Optional.of(counted));
+    when(spotService.countSpots(List.of(2L, 3L))).thenReturn(List.of(new SpotCount(2L, SpotType.CAR, true, VehicleType.CAR, 2)));
+
+    // when
+    final List<OccupancyBreakdown> occupancy = parkingLotService.getOccupancy(List.of(2L, 1L, 3L));
+
     // then
-    assertEquals(2, result);
+    assertEquals(List.of(2L, 1L, 3L), occupancy.stream().map(OccupancyBreakdown::parkingLotId).toList());
+    assertTrue(occupancy.get(0).full());
+    assertEquals(2, occupancy.get(0).spotTypes().get(SpotType.CAR).occupiedBy().get(VehicleType.CAR));
+    assertEquals(counted, occupancy.get(1));
+    assertEquals(0, occupancy.get(2).total());
+    verify(spotService, times(1)).countSpots(anyList());
+  }
+
+  private List<Spot> occupy(final InvocationOnMock invocation) {
+    final long[] ids = ((SpotClaim) invocation.getArgument(0)).spotIds();
+    final Vehicle vehicle = invocation.getArgument(1);
+    final List<Spot> spots = new ArrayList<>();
+    for (final long id : ids) {
+      spots.add(Spot.builder().id(id).isOccupied(true).vehicle(vehicle).build());
+    }
+    vehicle.setSpot(spots.get(spots.size() - 1));
+    return spots;
+  }
+
+  private static SpotClaim claimOf(final long... spotIds) {
+    return argThat(claim -> claim != null && Arrays.equals(claim.spotIds(), spotIds));
   }
 }
@@ -0,0 +1,113 @@
+package com.sealed.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+import com.sealed.dto.ParkingResult;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.exception.ServiceException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transactions;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false")
+class ParkingLotServiceTransactionTest {
+
+  private static final int CAR_SPOTS = 10;
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @SpyBean
+  private VehicleService vehicleService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testUnparkVehiclesRollsBackFreedSpotsWhenRemovingVehiclesFails() throws ServiceException {
+    // given
+    final ParkingLot created = createParkingLot("Rollback Parking Lot");
+    final List<String> licensePlates = List.of("ROLL1", "ROLL2", "ROLL3");
+    for (final String licensePlate : licensePlates) {
+      parkingLotService.parkVehicle(created.getId(), Vehicle.builder().type(VehicleType.CAR).licensePlate(licensePlate).build());
+    }
+    doThrow(new ServiceException("Error deleting vehicles")).when(vehicleService).removeVehicles(any());
+
+    // when
+    assertThrows(ServiceException.class, () -> parkingLotService.unparkVehicles(licensePlates));
+
+    // then
+    assertEquals(licensePlates.size(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spot WHERE parking_lot_id = ? AND occupied = true",
+                                                                   Integer.class, created.getId()));
+    assertEquals(licensePlates.size(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle WHERE license_plate LIKE 'ROLL%'",
+                                                                   Integer.class));
+  }
+
+  @Test
+  void testUnparkVehicleKeepsTheSpotOccupiedWhenTheCachedVehicleIsGone() throws ServiceException {
+    // given
+    final ParkingLot created = createParkingLot("Stale Cache Parking Lot");
+    final Spot spot = parkingLotService.parkVehicle(created.getId(), Vehicle.builder().type(VehicleType.CAR).licensePlate("STALE1").build());
+    jdbcTemplate.update("DELETE FROM vehicle WHERE license_plate = 'STALE1'");
+    jdbcTemplate.update("INSERT INTO vehicle (id, type, license_plate, spot_id) VALUES (?, 'CAR', 'OTHER1', ?)", -spot.getId(), spot.getId());
+
+    // when
+    assertThrows(ServiceException.class, () -> parkingLotService.unparkVehicle("STALE1"));
+
+    // then
+    assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject("SELECT occupied FROM spot WHERE id = ?", Boolean.class, spot.getId()));
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle WHERE license_plate = 'OTHER1'", Integer.class));
+  }
+
+  @Test
+  void testParkVehiclesRejectsPlatesAlreadyParkedOrRepeatedWithoutFailingTheBatch() throws ServiceException {
+    // given
+    final ParkingLot created = createParkingLot("Duplicate Plate Parking Lot");
+    parkingLotService.parkVehicle(created.getId(), Vehicle.builder().type(VehicleType.CAR).licensePlate("DUP1").build());
+
+    // when
+    final List<ParkingResult> results = parkingLotService.parkVehicles(List.of(
+        Vehicle.builder().type(VehicleType.CAR).licensePlate("DUP1").build(),
+        Vehicle.builder().type(VehicleType.CAR).licensePlate("DUP2").build(),
+        Vehicle.builder().type(VehicleType.CAR).licensePlate("DUP2").build(),
+        Vehicle.builder().type(VehicleType.CAR).licensePlate("DUP3").build()));
+
+    // then
+    assertEquals("Vehicle with license plate DUP1 is already parked", results.get(0).error());
+    assertNotNull(results.get(1).spot());
+    assertEquals("Vehicle with license plate DUP2 is already parked", results.get(2).error());
+    assertNotNull(results.get(3).spot());
+    assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle v JOIN spot s ON v.spot_id = s.id "
+                                                + "WHERE v.license_plate LIKE 'DUP%' AND s.occupied = true", Integer.class));
+  }
+
+  private ParkingLot createParkingLot(final String name) throws ServiceException {
+    final List<Spot> spots = new ArrayList<>();
+    for (int i = 0; i < CAR_SPOTS; i++) {
+      spots.add(Spot.builder().type(SpotType.CAR).build());
+    }
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .name(name)
+                                            .capacity(CAR_SPOTS)
+                                            .motorcycleSpots(0)
+                                            .carSpots(CAR_SPOTS)
+                                            .vanSpots(0)
+                                            .build();
+    parkingLot.setSpots(spots);
+    return parkingLotService.createParkingLot(parkingLot);
+  }
+}
@@ -0,0 +1,224 @@
+package com.sealed.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.dto.OccupancyBreakdown;
+import com.sealed.dto.ParkingLotSummary;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.base.BaseEntity;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.repository.SpotRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a parking lot is provisioned through JPA, in spot inserts per second, and checks that the inserts
+ * are sent as JDBC batches: with pooled sequence ids Hibernate needs one sequence call per 50 ids and one statement
+ * per batch of 50 rows, where identity ids cost one round trip per row.
+ * The two id strategies are also compared on their own, below Hibernate, on a scratch copy of the spot table: identity
+ * ids insert one row per statement and read back every generated key, which is what Hibernate does for
+ * {@code GenerationType.IDENTITY}, while pooled sequence ids read the sequence once per 50 rows and insert them as one batch.
+ * On an in-memory H2 a round trip costs little, so the statement counts say more than the rates about a networked database.
+ * Lots generated from their spot counts by {@link ParkingLotService#provisionParkingLot(ParkingLot, Integer)} are
+ * measured the same way.
+ * Only run with {@code -Pbenchmark}. The size defaults to a value that keeps that run short, use {@code -Dprovisioning.benchmark.spots=1000000} for a full-size lot.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:provisioning;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProvisioningBenchmarkTest {
+
+  private static final int SPOTS = Integer.getInteger("provisioning.benchmark.spots", 20_000);
+  private static final int BATCH_SIZE = BaseEntity.ID_ALLOCATION_SIZE;
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private FreeSpotIndex freeSpotIndex;
+
+  @Autowired
+  private SpotRepository spotRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void testProvisioningBatchesSpotInserts() throws Exception {
+    // given
+    final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    parkingLotService.createParkingLot(parkingLot("Warm-up Parking Lot", 1_000));
+    statistics.clear();
+
+    // when
+    final long started = System.nanoTime();
+    final ParkingLot parkingLot = parkingLotService.createParkingLot(parkingLot("Provisioned Parking Lot", SPOTS));
+    final long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+    // and when the same rows are inserted below Hibernate with each id strategy
+    final long identityElapsed;
+    final long sequenceElapsed;
+    jdbcTemplate.execute("CREATE TABLE spot_ids (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                         + "type VARCHAR(255), occupied BOOLEAN, parking_lot_id BIGINT, version BIGINT)");
+    jdbcTemplate.execute("CREATE SEQUENCE spot_ids_seq START WITH 1 INCREMENT BY " + BATCH_SIZE);
+    try {
+      identityElapsed = Math.max(1, insertWithIdentityIds(parkingLot.getId()));
+      jdbcTemplate.execute("TRUNCATE TABLE spot_ids");
+      sequenceElapsed = Math.max(1, insertWithSequenceIds(parkingLot.getId()));
+    } finally {
+      jdbcTemplate.execute("DROP SEQUENCE spot_ids_seq");
+      jdbcTemplate.execute("DROP TABLE spot_ids");
+    }
+
+    // then
+    log.info("Provisioned {} spots in {} ms, {} inserts/s, {} JDBC statements", SPOTS, elapsed,
+             SPOTS * 1000L / elapsed, statistics.getPrepareStatementCount());
+    log.info("JDBC with identity ids: {} inserts/s, {} statements; with pooled sequence ids: {} inserts/s, {} statements",
+             SPOTS * 1000L / identityElapsed, SPOTS, SPOTS * 1000L / sequenceElapsed, 2 * ((SPOTS + BATCH_SIZE - 1) / BATCH_SIZE));
+    assertEquals(SPOTS + 1, statistics.getEntityInsertCount());
+    assertTrue(parkingLot.getSpots().stream().allMatch(s -> s.getId() != null));
+    assertTrue(statistics.getPrepareStatementCount() < SPOTS / 10,
+               () -> statistics.getPrepareStatementCount() + " statements for " + SPOTS + " inserts");
+  }
+
+  @Test
+  void testProvisioningGeneratesSpotsFromCounts() throws Exception {
+    // given
+    final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    final int vanSpots = 10;
+    final int motorcycleSpots = 100;
+    final int carSpots = SPOTS - motorcycleSpots - vanSpots;
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .name("Generated Parking Lot")
+                                            .motorcycleSpots(motorcycleSpots)
+                                            .carSpots(carSpots)
+                                            .vanSpots(vanSpots)
+                                            .build();
+    statistics.clear();
+
+    // when
+    final long started = System.nanoTime();
+    final ParkingLotSummary summary = parkingLotService.provisionParkingLot(parkingLot, 100);
+    final long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+    // then
+    log.info("Generated {} spots in {} ms, {} inserts/s, {} JDBC statements", SPOTS, elapsed,
+             SPOTS * 1000L / elapsed, statistics.getPrepareStatementCount());
+    assertEquals(SPOTS, summary.capacity());
+    assertEquals(SPOTS + 1, statistics.getEntityInsertCount());
+    assertTrue(statistics.getPrepareStatementCount() < SPOTS / 10,
+               () -> statistics.getPrepareStatementCount() + " statements for " + SPOTS + " inserts");
+    assertEquals(SPOTS, freeSpotIndex.size(summary.id()));
+    assertEquals(SPOTS, freeSpotIndex.countFree(summary.id()));
+    final OccupancyBreakdown occupancy = parkingLotService.getOccupancy(summary.id());
+    assertEquals(SPOTS, occupancy.available());
+    assertEquals(vanSpots, occupancy.spotTypes().get(SpotType.VAN).total());
+    assertEquals(0, occupancy.vehicles().get(VehicleType.CAR));
+
+    final List<Spot> spots = spotRepository.findAll().stream()
+        .filter(s -> summary.id().equals(s.getParkingLot().getId()))
+        .sorted(Comparator.comparing(Spot::getId))
+        .toList();
+    assertEquals(SpotType.MOTORCYCLE, spots.get(0).getType());
+    assertEquals(SpotType.VAN, spots.get(SPOTS - 1).getType());
+    assertEquals(1, spots.get(0).getLayoutRow());
+    assertEquals(1, spots.get(0).getLayoutPosition());
+    assertEquals(2, spots.get(100).getLayoutRow());
+    assertEquals(1, spots.get(100).getLayoutPosition());
+    assertEquals(SPOTS / 100, spots.get(SPOTS - 1).getLayoutRow());
+    assertEquals(100, spots.get(SPOTS - 1).getLayoutPosition());
+  }
+
+  /**
+   * Inserts {@link #SPOTS} rows into the scratch spot table one statement per row, reading back each generated id,
+   * in a single transaction.
+   * @param parkingLotId the parking lot the rows belong to
+   * @return the elapsed time in milliseconds
+   */
+  private long insertWithIdentityIds(final Long parkingLotId) {
+    final long started = System.nanoTime();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      for (int i = 0; i < SPOTS; i++) {
+        final KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+          final PreparedStatement statement = connection.prepareStatement(
+              "INSERT INTO spot_ids (type, occupied, parking_lot_id, version) VALUES (?, false, ?, 0)", new String[] {"id"});
+          statement.setString(1, SpotType.CAR.name());
+          statement.setLong(2, parkingLotId);
+          return statement;
+        }, keyHolder);
+        assertTrue(keyHolder.getKey() != null);
+      }
+    });
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+  }
+
+  /**
+   * Inserts {@link #SPOTS} rows into the scratch spot table in batches of {@link #BATCH_SIZE}, each batch taking its
+   * ids from one sequence value, in a single transaction.
+   * @param parkingLotId the parking lot the rows belong to
+   * @return the elapsed time in milliseconds
+   */
+  private long insertWithSequenceIds(final Long parkingLotId) {
+    final long started = System.nanoTime();
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      for (int inserted = 0; inserted < SPOTS; inserted += BATCH_SIZE) {
+        final long last = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR spot_ids_seq", Long.class) + BATCH_SIZE - 1;
+        final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < Math.min(BATCH_SIZE, SPOTS - inserted); i++) {
+          rows.add(new Object[] {last - i, SpotType.CAR.name(), parkingLotId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO spot_ids (id, type, occupied, parking_lot_id, version) VALUES (?, ?, false, ?, 0)", rows);
+      }
+    });
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+  }
+
+  private static ParkingLot parkingLot(final String name, final int spots) {
+    final List<Spot> lotSpots = new ArrayList<>(spots);
+    for (int i = 0; i < spots; i++) {
+      lotSpots.add(Spot.builder().type(SpotType.CAR).build());
+    }
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .name(name)
+                                            .capacity(spots)
+                                            .motorcycleSpots(0)
+                                            .carSpots(spots)
+                                            .vanSpots(0)
+                                            .build();
+    parkingLot.setSpots(lotSpots);
+    return parkingLot;
+  }
+}
@@ -2,14 +2,23 @@ package com.sealed.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.sealed.allocation.SpotClaim;
+import com.sealed.allocation.VehicleClaim;
 import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
 import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
 import com.sealed.exception.ServiceException;
 import com.sealed.repository.SpotRepository;
+import com.sealed.repository.VehicleRepository;
 import com.sealed.service.impl.SpotServiceImpl;
 
 import org.junit.jupiter.api.Test;
@@ -17,6 +26,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +38,9 @@ class SpotServiceImplTest {
   @Mock
   private SpotRepository spotRepository;
 
+  @Mock
+  private VehicleRepository vehicleRepository;
+
   @InjectMocks
   private SpotServiceImpl spotService;
 
@@ -130,4 +143,59 @@ class SpotServiceImplTest {
     assertEquals(2, occupiedSpots);
     verify(spotRepository, times(1)).countByOccupied(true);
   }
+
+  @Test
+  void testClaimAllSpotsSkipsOccupiedSpots() {
+    // given
+    final Spot free = Spot.builder().id(1L).type(SpotType.CAR).build();
+    final Spot taken = Spot.builder().id(2L).type(SpotType.CAR).isOccupied(true).build();
+    final Vehicle car = Vehicle.builder().type(VehicleType.CAR).licensePlate("CAR1").build();
+    final Vehicle late = Vehicle.builder().type(VehicleType.CAR).licensePlate("CAR2").build();
+    when(spotRepository.findAllWithVehicleByIdIn(List.of(1L, 2L))).thenReturn(List.of(free, taken));
+
+    // when
+    final List<Spot> result = spotService.claimAllSpots(List.of(
+        new VehicleClaim(car, new SpotClaim(1L, new long[] {1L})),
+        new VehicleClaim(late, new SpotClaim(1L, new long[] {2L}))));
+
+    // then
+    assertEquals(free, result.get(0));
+    assertNull(result.get(1));
+    assertTrue(free.isOccupied());
+    assertEquals(free, car.getSpot());
+    verify(vehicleRepository, times(1)).saveAll(List.of(car));
+    verify(spotRepository, times(1)).flush();
+  }
+
+  @Test
+  void testClaimSpotsOccupiesWithOneUpdate() {
+    // given
+    final Spot first = Spot.builder().id(1L).type(SpotType.CAR).isOccupied(true).build();
+    final Spot last = Spot.builder().id(2L).type(SpotType.CAR).isOccupied(true).build();
+    final Vehicle van = Vehicle.builder().type(VehicleType.VAN).licensePlate("VAN1").build();
+    when(spotRepository.occupyAllByIdIn(List.of(1L, 2L))).thenReturn(2);
+    when(spotRepository.getReferenceById(2L)).thenReturn(last);
+    when(vehicleRepository.save(van)).thenReturn(van);
+    when(spotRepository.findAllWithVehicleByIdIn(List.of(1L, 2L))).thenReturn(List.of(last, first));
+
+    // when
+    final List<Spot> result = spotService.claimSpots(new SpotClaim(1L, new long[] {1L, 2L}), van);
+
+    // then
+    assertEquals(List.of(first, last), result);
+    assertEquals(last, van.getSpot());
+    verify(vehicleRepository, times(1)).save(van);
+    verify(spotRepository, never()).findById(1L);
+  }
+
+  @Test
+  void testClaimSpotsFailsWhenASpotIsTaken() {
+    // given
+    final Vehicle van = Vehicle.builder().type(VehicleType.VAN).licensePlate("VAN1").build();
+    when(spotRepository.occupyAllByIdIn(List.of(1L, 2L))).thenReturn(1);
+
+    // when and then
+    assertThrows(OptimisticLockingFailureException.class, () -> spotService.claimSpots(new SpotClaim(1L, new long[] {1L, 2L}), van));
+    verify(vehicleRepository, never()).save(van);
+  }
 }
@@ -52,6 +52,15 @@ class VehicleServiceImplTest {
     assertEquals(vehicle.getType(), savedVehicle.getType());
   }
 
+  @Test
+  void testRemoveVehicles() throws ServiceException {
+    // when
+    vehicleServiceImpl.removeVehicles(List.of(1L, 2L));
+
+    // then
+    verify(vehicleRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+  }
+
   @Test
   void testRemoveVehicle() throws ServiceException {
     // given
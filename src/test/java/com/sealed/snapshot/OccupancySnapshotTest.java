@@ -0,0 +1,68 @@
+package com.sealed.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sealed.allocation.LotOccupancy;
+import com.sealed.allocation.SpotState;
+import com.sealed.enums.SpotType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+class OccupancySnapshotTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testSnapshotRoundTrip() throws IOException {
+    // given
+    final LotOccupancy lot = new LotOccupancy(7L, List.of(new SpotState(1L, 7L, SpotType.MOTORCYCLE, false, 1),
+                                                          new SpotState(2L, 7L, SpotType.CAR, true, 1),
+                                                          new SpotState(3L, 7L, SpotType.CAR, false, 1),
+                                                          new SpotState(10L, 7L, SpotType.CAR, false, 2),
+                                                          new SpotState(11L, 7L, SpotType.VAN, false, 2)));
+    final Path file = directory.resolve("occupancy.snapshot");
+
+    // when
+    new OccupancySnapshot(1234L, 42L, List.of(lot)).writeTo(file);
+    final OccupancySnapshot read = OccupancySnapshot.readFrom(file);
+
+    // then
+    assertEquals(1234L, read.createdAt());
+    assertEquals(42L, read.journalPosition());
+    final LotOccupancy restored = read.lots().get(0);
+    assertEquals(7L, restored.getParkingLotId());
+    assertArrayEquals(new long[] {1L, 2L, 3L, 10L, 11L}, restored.spotIds());
+    assertArrayEquals(lot.types(), restored.types());
+    assertArrayEquals(new int[] {3}, restored.rowStarts());
+    assertNull(restored.claimRun(SpotType.CAR, 2));
+    assertEquals(4, restored.countFree());
+    assertEquals(2, restored.countFree(SpotType.CAR));
+    assertEquals(3L, restored.claim(Set.of(SpotType.CAR)));
+  }
+
+  @Test
+  void testCorruptSnapshotIsRejected() throws IOException {
+    // given
+    final LotOccupancy lot = new LotOccupancy(1L, List.of(new SpotState(1L, 1L, SpotType.CAR, false)));
+    final Path file = directory.resolve("occupancy.snapshot");
+    new OccupancySnapshot(1L, 0L, List.of(lot)).writeTo(file);
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(30);
+      raf.write(0x7f);
+    }
+
+    // when and then
+    assertThrows(IOException.class, () -> OccupancySnapshot.readFrom(file));
+  }
+}
@@ -0,0 +1,131 @@
+package com.sealed.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+import com.sealed.allocation.FreeSpotIndex;
+import com.sealed.allocation.FreeSpotIndexLoader;
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Vehicle;
+import com.sealed.enums.VehicleType;
+import com.sealed.journal.ParkingJournal;
+import com.sealed.repository.ParkingLotRepository;
+import com.sealed.repository.SpotRepository;
+import com.sealed.service.ParkingLotService;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time-to-ready of the free spot index for a single large lot: a full JPA hydration of the lot,
+ * the {@code spot} table projection used by default, and a snapshot plus journal replay.
+ * Only run with {@code -Pbenchmark}. The size defaults to a value that keeps that run short, use {@code -Dstartup.benchmark.spots=1000000} for a full-size lot.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false",
+    "parking.journal.enabled=true",
+    "parking.journal.dir=target/startup-benchmark/journal",
+    "parking.snapshot.enabled=true",
+    "parking.snapshot.dir=target/startup-benchmark/snapshots",
+    "parking.snapshot.interval-ms=0"
+})
+class StartupBenchmarkTest {
+
+  private static final int SPOTS = Integer.getInteger("startup.benchmark.spots", 20_000);
+  private static final int PARKED_AFTER_SNAPSHOT = 100;
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @Autowired
+  private ParkingLotRepository parkingLotRepository;
+
+  @Autowired
+  private SpotRepository spotRepository;
+
+  @Autowired
+  private FreeSpotIndex freeSpotIndex;
+
+  @Autowired
+  private ParkingJournal parkingJournal;
+
+  @Autowired
+  private OccupancySnapshotter occupancySnapshotter;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void testSnapshotStartupMatchesDatabaseStartup() throws Exception {
+    // given
+    final ParkingLot parkingLot = parkingLotService.createParkingLot(ParkingLot.builder()
+                                                                               .name("Startup Parking Lot")
+                                                                               .capacity(SPOTS)
+                                                                               .motorcycleSpots(0)
+                                                                               .carSpots(SPOTS)
+                                                                               .vanSpots(0)
+                                                                               .spots(new ArrayList<>())
+                                                                               .build());
+    final List<Object[]> rows = new ArrayList<>(SPOTS);
+    for (int i = 0; i < SPOTS; i++) {
+      rows.add(new Object[] {"CAR", false, parkingLot.getId()});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO spot (id, type, occupied, parking_lot_id, version) VALUES (NEXT VALUE FOR spot_seq, ?, ?, ?, 0)", rows);
+    freeSpotIndex.load(spotRepository.findSpotStatesByParkingLotId(parkingLot.getId()));
+    occupancySnapshotter.takeSnapshot();
+    for (int i = 0; i < PARKED_AFTER_SNAPSHOT; i++) {
+      parkingLotService.parkVehicle(parkingLot.getId(), Vehicle.builder().type(VehicleType.CAR).licensePlate("BOOT" + i).build());
+    }
+
+    // when
+    final long hydration = time(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      entityManager.clear();
+      parkingLotRepository.findById(parkingLot.getId()).orElseThrow().getSpots().size();
+    }));
+    final FreeSpotIndex fromDatabase = new FreeSpotIndex();
+    final long projection = time(() -> fromDatabase.load(spotRepository.findAllSpotStates()));
+    final FreeSpotIndex fromSnapshot = new FreeSpotIndex();
+    final long snapshot = time(() -> new FreeSpotIndexLoader(spotRepository, parkingLotRepository, fromSnapshot, parkingJournal,
+                                                             new OccupancySnapshotter(fromSnapshot, parkingJournal, true,
+                                                                                      "target/startup-benchmark/snapshots", 0, 2))
+        .run(null));
+
+    // then
+    log.info("Time-to-ready for {} spots: JPA hydration {} ms, spot projection {} ms, snapshot and replay {} ms",
+             SPOTS, hydration, projection, snapshot);
+    assertEquals(SPOTS - PARKED_AFTER_SNAPSHOT, fromDatabase.countFree(parkingLot.getId()));
+    assertEquals(SPOTS - PARKED_AFTER_SNAPSHOT, fromSnapshot.countFree(parkingLot.getId()));
+    assertTrue(fromSnapshot.contains(parkingLot.getId()));
+  }
+
+  private static long time(final ThrowingRunnable runnable) throws Exception {
+    final long started = System.nanoTime();
+    runnable.run();
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+  }
+
+  @FunctionalInterface
+  private interface ThrowingRunnable {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,139 @@
+package com.sealed.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sealed.entity.ParkingLot;
+import com.sealed.entity.Spot;
+import com.sealed.entity.Vehicle;
+import com.sealed.entity.base.BaseEntity;
+import com.sealed.enums.SpotType;
+import com.sealed.enums.VehicleType;
+import com.sealed.service.ParkingLotService;
+import com.sealed.service.SpotService;
+import com.sealed.service.impl.WriteBehindSpotService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;DATABASE_TO_UPPER=false",
+    "parking.write-behind.enabled=true",
+    "parking.write-behind.journal-dir=target/write-behind-test-journal",
+    "parking.write-behind.flush-interval-ms=600000"
+})
+class WriteBehindEngineTest {
+
+  @Autowired
+  private ParkingLotService parkingLotService;
+
+  @Autowired
+  private SpotService spotService;
+
+  @Autowired
+  private WriteBehindEngine engine;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testParkAndUnparkAreWrittenBehind() throws Exception {
+    // given
+    final ParkingLot parkingLot = createParkingLot("Write Behind Parking Lot", 4);
+    final Long parkingLotId = parkingLot.getId();
+    assertTrue(spotService instanceof WriteBehindSpotService);
+
+    // when
+    final Spot first = parkingLotService.parkVehicle(parkingLotId, car("WB1"));
+    final Spot second = parkingLotService.parkVehicle(parkingLotId, car("WB2"));
+
+    // then the in-memory state answers before anything reaches the database
+    assertEquals(2, parkingLotService.countOccupiedSpots(parkingLotId));
+    assertEquals(0, countVehicles("WB%"));
+    assertEquals(0, countOccupied(parkingLotId));
+
+    // when
+    engine.flush();
+
+    // then
+    assertEquals(2, countVehicles("WB%"));
+    assertEquals(2, countOccupied(parkingLotId));
+    assertEquals(second.getId(), jdbcTemplate.queryForObject("SELECT spot_id FROM vehicle WHERE license_plate = 'WB2'", Long.class));
+
+    // when
+    parkingLotService.unparkVehicle(parkingLotId, "WB1");
+    engine.flush();
+
+    // then
+    assertEquals(1, countVehicles("WB%"));
+    assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject("SELECT occupied FROM spot WHERE id = ?", Boolean.class, first.getId()));
+    assertEquals(3, parkingLotService.countAvailableSpots(parkingLotId));
+  }
+
+  @Test
+  void testParkThenUnparkBeforeFlushWritesNoVehicle() throws Exception {
+    // given
+    final ParkingLot parkingLot = createParkingLot("Coalescing Parking Lot", 2);
+    final Long parkingLotId = parkingLot.getId();
+    engine.flush();
+
+    // when
+    parkingLotService.parkVehicle(parkingLotId, car("COAL1"));
+    parkingLotService.unparkVehicle(parkingLotId, "COAL1");
+    engine.flush();
+
+    // then
+    assertEquals(0, countVehicles("COAL%"));
+    assertEquals(0, countOccupied(parkingLotId));
+    assertEquals(2, parkingLotService.countAvailableSpots(parkingLotId));
+  }
+
+  @Test
+  void testVehicleIdsDoNotCollideWithBlocksReservedFromTheSequence() throws Exception {
+    // given another writer reserved a block of vehicle_seq and used its first id
+    final ParkingLot parkingLot = createParkingLot("Sequence Parking Lot", 2);
+    final long blockEnd = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR vehicle_seq", Long.class);
+    final long blockStart = Math.max(1, blockEnd - BaseEntity.ID_ALLOCATION_SIZE + 1);
+    jdbcTemplate.update("INSERT INTO vehicle (id, type, license_plate) VALUES (?, 'CAR', 'SEQ0')", blockStart);
+
+    // when
+    parkingLotService.parkVehicle(parkingLot.getId(), car("SEQ1"));
+
+    // then
+    final long id = engine.findByLicensePlate("SEQ1").orElseThrow().id();
+    assertTrue(id < blockStart || id > blockEnd, "Vehicle id " + id + " is in the reserved block " + blockStart + "-" + blockEnd);
+  }
+
+  private ParkingLot createParkingLot(final String name, final int carSpots) throws Exception {
+    final List<Spot> spots = new ArrayList<>();
+    for (int i = 0; i < carSpots; i++) {
+      spots.add(Spot.builder().type(SpotType.CAR).build());
+    }
+    final ParkingLot parkingLot = ParkingLot.builder()
+                                            .name(name)
+                                            .capacity(carSpots)
+                                            .motorcycleSpots(0)
+                                            .carSpots(carSpots)
+                                            .vanSpots(0)
+                                            .build();
+    parkingLot.setSpots(spots);
+    return parkingLotService.createParkingLot(parkingLot);
+  }
+
+  private static Vehicle car(final String licensePlate) {
+    return Vehicle.builder().type(VehicleType.CAR).licensePlate(licensePlate).build();
+  }
+
+  private int countVehicles(final String licensePlatePattern) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle WHERE license_plate LIKE ?", Integer.class, licensePlatePattern);
+  }
+
+  private int countOccupied(final Long parkingLotId) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM spot WHERE parking_lot_id = ? AND occupied = true", Integer.class, parkingLotId);
+  }
+}